@@ -5,6 +5,7 @@ import fr.dossierfacile.common.entity.Owner;
 import fr.dossierfacile.common.entity.OwnerLog;
 import fr.dossierfacile.common.enums.OwnerLogType;
 import fr.dossierfacile.common.mapper.log.DeletedOwnerMapper;
+import fr.dossierfacile.common.service.interfaces.BufferedLogWriter;
 import fr.dossierfacile.common.utils.MapperUtil;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -18,15 +19,12 @@ import java.time.LocalDateTime;
 public class OwnerLogServiceImpl implements OwnerLogService {
     private final OwnerLogRepository repository;
     private final DeletedOwnerMapper deletedOwnerMapper;
+    private final BufferedLogWriter bufferedLogWriter;
     private final ObjectMapper objectMapper = MapperUtil.newObjectMapper();
 
-    private void saveLog(OwnerLog log) {
-        repository.save(log);
-    }
-
     @Override
     public void saveLog(OwnerLogType logType, Long ownerId) {
-        this.saveLog(OwnerLog.builder().logType(logType).creationDateTime(LocalDateTime.now()).ownerId(ownerId).build());
+        bufferedLogWriter.write(OwnerLog.builder().logType(logType).creationDateTime(LocalDateTime.now()).ownerId(ownerId).build());
     }
 
     @Override
@@ -37,7 +35,8 @@ public class OwnerLogServiceImpl implements OwnerLogService {
         } catch (Exception e) {
             log.error("Cannot correclty record tenant information in tenant_log");
         }
-        this.saveLog(
+        // the snapshot is often the last trace of a deleted account: it is written within the caller transaction
+        repository.save(
                 OwnerLog.builder()
                         .logType(logType)
                         .ownerId(owner.getId())
@@ -1,6 +1,5 @@
 package fr.dossierfacile.api.dossierfacileapiowner.property;
 
-import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import fr.dossierfacile.api.dossierfacileapiowner.log.OwnerLogService;
 import fr.dossierfacile.api.dossierfacileapiowner.mail.MailService;
@@ -11,25 +10,21 @@ import fr.dossierfacile.common.entity.Property;
 import fr.dossierfacile.common.entity.PropertyLog;
 import fr.dossierfacile.common.entity.Tenant;
 import fr.dossierfacile.common.enums.OwnerLogType;
+import fr.dossierfacile.common.exceptions.NotFoundException;
 import fr.dossierfacile.common.model.AdemeApiResultModel;
-import fr.dossierfacile.common.repository.PropertyLogRepository;
+import fr.dossierfacile.common.service.interfaces.AdemeApiService;
+import fr.dossierfacile.common.service.interfaces.BufferedLogWriter;
 import fr.dossierfacile.common.service.interfaces.TenantCommonService;
-import fr.dossierfacile.common.utils.MapperUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.http.client.HttpResponseException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
-import java.net.URI;
-import java.net.URISyntaxException;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.time.Instant;
@@ -37,6 +32,10 @@ import java.time.LocalDateTime;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -48,15 +47,18 @@ public class PropertyServiceImpl implements PropertyService {
     private final OwnerPropertyMapper propertyMapper;
     private final PropertyApartmentSharingService propertyApartmentSharingService;
     private final TenantCommonService tenantService;
-    private final PropertyLogRepository propertyLogRepository;
     private final OwnerLogService ownerLogService;
+    private final BufferedLogWriter bufferedLogWriter;
     private final MailService mailService;
-    private final ObjectMapper objectMapper = MapperUtil.newObjectMapper();
+    private final AdemeApiService ademeApiService;
 
     @Qualifier("tenantJwtDecoder")
     @Autowired
     private JwtDecoder tenantJwtDecoder;
 
+    @Value("${ademe.api.sync.timeout.ms:3000}")
+    private long ademeSyncTimeoutMs;
+
     @Override
     public PropertyModel createOrUpdate(PropertyForm propertyForm) throws HttpResponseException, InterruptedException {
         Owner owner = authenticationFacade.getOwner();
@@ -89,8 +91,9 @@ public class PropertyServiceImpl implements PropertyService {
         if (propertyForm.getLivingSpace() != null && propertyForm.getLivingSpace() >= 0) {
             property.setLivingSpace(propertyForm.getLivingSpace());
         }
+        CompletableFuture<AdemeApiResultModel> pendingAdemeLookup = null;
         if (propertyForm.getAdemeNumber() != null && !propertyForm.getAdemeNumber().isBlank()) {
-            setAdemeResult(propertyForm, property);
+            pendingAdemeLookup = setAdemeResult(propertyForm, property);
         } else {
             if (propertyForm.getCo2Emission() != null && propertyForm.getCo2Emission() >= 0) {
                 property.setCo2Emission(propertyForm.getCo2Emission());
@@ -117,45 +120,66 @@ public class PropertyServiceImpl implements PropertyService {
             property.setDpeNotRequired(propertyForm.getDpeNotRequired());
         }
         property.setOwner(owner);
-        return propertyMapper.toPropertyModel(propertyRepository.save(property));
+        Property savedProperty = propertyRepository.save(property);
+        if (pendingAdemeLookup != null) {
+            completeAdemeResultAsync(savedProperty.getId(), propertyForm.getAdemeNumber(), pendingAdemeLookup);
+        }
+        return propertyMapper.toPropertyModel(savedProperty);
     }
 
-    private void setAdemeResult(PropertyForm propertyForm, Property property) throws HttpResponseException, InterruptedException {
-        URI uri;
-        HttpResponse<String> response;
+    /**
+     * Waits for the DPE at most {@code ademeSyncTimeoutMs}: past this delay the property is saved without it and
+     * the returned lookup completes it once the ADEME API answers.
+     */
+    private CompletableFuture<AdemeApiResultModel> setAdemeResult(PropertyForm propertyForm, Property property) throws HttpResponseException, InterruptedException {
+        String ademeNumber = propertyForm.getAdemeNumber();
+        CompletableFuture<AdemeApiResultModel> lookup = ademeApiService.getDpe(ademeNumber);
         try {
-            uri = new URI("https://observatoire-dpe-audit.ademe.fr/pub/dpe/" + propertyForm.getAdemeNumber());
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(uri)
-                    .GET()
-                    .build();
-            try (HttpClient client = HttpClient.newHttpClient()) {
-                response = client.send(request, HttpResponse.BodyHandlers.ofString());
-                String json = response.body();
-                if (response.statusCode() == 404) {
-                    throw new DPENotFoundException("DPE not found");
-                }
-                objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-                AdemeApiResultModel ademeApiResultModel = objectMapper.readValue(json, AdemeApiResultModel.class);
-
-                property.setAdemeNumber(ademeApiResultModel.getNumero());
-                ObjectMapper mapper = new ObjectMapper();
-                property.setAdemeApiResult(mapper.valueToTree(ademeApiResultModel));
-                property.setEnergyConsumption(Float.valueOf(ademeApiResultModel.getConsommation()).intValue());
-                property.setCo2Emission(Float.valueOf(ademeApiResultModel.getEmission()).intValue());
-                Instant instant = Instant.parse(ademeApiResultModel.getDateRealisation());
-                Date dateRealisation = Date.from(instant);
-                property.setDpeDate(dateRealisation);
-                return;
-            } catch (IOException e) {
-                log.error("An error occurred while processing the request", e);
+            applyAdemeResult(property, lookup.get(ademeSyncTimeoutMs, TimeUnit.MILLISECONDS));
+            return null;
+        } catch (TimeoutException e) {
+            log.warn("ADEME API did not answer within {} ms for DPE {}, the property will be completed asynchronously", ademeSyncTimeoutMs, ademeNumber);
+            if (!ademeNumber.equals(property.getAdemeNumber())) {
+                property.setAdemeNumber(ademeNumber);
+                property.setAdemeApiResult(null);
+                property.setEnergyConsumption(null);
+                property.setCo2Emission(null);
+                property.setDpeDate(null);
+            }
+            return lookup;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof NotFoundException) {
+                throw new DPENotFoundException("DPE not found");
             }
-        } catch (URISyntaxException e) {
-            log.error("An error occurred while processing the request", e);
+            log.error("An error occurred while processing the request", e.getCause());
         }
         throw new HttpResponseException(500, "An error occured processing ademe api request");
     }
 
+    private void completeAdemeResultAsync(Long propertyId, String ademeNumber, CompletableFuture<AdemeApiResultModel> lookup) {
+        lookup.thenAccept(ademeApiResultModel -> propertyRepository.findById(propertyId)
+                        .filter(property -> ademeNumber.equals(property.getAdemeNumber()))
+                        .ifPresent(property -> {
+                            applyAdemeResult(property, ademeApiResultModel);
+                            propertyRepository.save(property);
+                        }))
+                .exceptionally(e -> {
+                    log.error("Unable to complete property {} with DPE {}", propertyId, ademeNumber, e);
+                    return null;
+                });
+    }
+
+    private void applyAdemeResult(Property property, AdemeApiResultModel ademeApiResultModel) {
+        property.setAdemeNumber(ademeApiResultModel.getNumero());
+        ObjectMapper mapper = new ObjectMapper();
+        property.setAdemeApiResult(mapper.valueToTree(ademeApiResultModel));
+        property.setEnergyConsumption(Float.valueOf(ademeApiResultModel.getConsommation()).intValue());
+        property.setCo2Emission(Float.valueOf(ademeApiResultModel.getEmission()).intValue());
+        Instant instant = Instant.parse(ademeApiResultModel.getDateRealisation());
+        Date dateRealisation = Date.from(instant);
+        property.setDpeDate(dateRealisation);
+    }
+
     @Override
     public List<PropertyModel> getAllProperties() {
         Owner owner = authenticationFacade.getOwner();
@@ -198,7 +222,7 @@ public class PropertyServiceImpl implements PropertyService {
     @Override
     public void logAccess(Property property) {
         PropertyLog log = PropertyLog.applicationPageVisited(property);
-        propertyLogRepository.save(log);
+        bufferedLogWriter.write(log);
     }
 
     @Override
@@ -8,19 +8,22 @@ import fr.dossierfacile.api.dossierfacileapiowner.register.AuthenticationFacade;
 import fr.dossierfacile.common.entity.Owner;
 import fr.dossierfacile.common.entity.Property;
 import fr.dossierfacile.common.enums.OwnerLogType;
-import fr.dossierfacile.common.repository.PropertyLogRepository;
+import fr.dossierfacile.common.model.AdemeApiResultModel;
+import fr.dossierfacile.common.service.interfaces.AdemeApiService;
+import fr.dossierfacile.common.service.interfaces.BufferedLogWriter;
 import fr.dossierfacile.common.service.interfaces.TenantCommonService;
 import org.apache.http.client.HttpResponseException;
-import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.mockito.AdditionalAnswers;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -36,12 +39,13 @@ class PropertyServiceImplTest {
         OwnerPropertyMapper propertyMapper = mock(OwnerPropertyMapper.class);
         PropertyApartmentSharingService propertyApartmentSharingService = mock(PropertyApartmentSharingService.class);
         TenantCommonService tenantService = mock(TenantCommonService.class);
-        PropertyLogRepository propertyLogRepository = mock(PropertyLogRepository.class);
+        BufferedLogWriter bufferedLogWriter = mock(BufferedLogWriter.class);
         OwnerLogService ownerLogService = mock(OwnerLogService.class);
         MailService mailService = mock(MailService.class);
         JwtDecoder tenantJwtDecoder = mock(JwtDecoder.class);
+        AdemeApiService ademeApiService = mock(AdemeApiService.class);
 
-        PropertyServiceImpl propertyService = new PropertyServiceImpl(authenticationFacade, propertyRepository, propertyMapper, propertyApartmentSharingService, tenantService, propertyLogRepository, ownerLogService, mailService);
+        PropertyServiceImpl propertyService = new PropertyServiceImpl(authenticationFacade, propertyRepository, propertyMapper, propertyApartmentSharingService, tenantService, ownerLogService, bufferedLogWriter, mailService, ademeApiService);
         ReflectionTestUtils.setField(propertyService, "tenantJwtDecoder", tenantJwtDecoder);
 
         Owner owner = new Owner();
@@ -77,12 +81,13 @@ class PropertyServiceImplTest {
         OwnerPropertyMapper propertyMapper = mock(OwnerPropertyMapper.class);
         PropertyApartmentSharingService propertyApartmentSharingService = mock(PropertyApartmentSharingService.class);
         TenantCommonService tenantService = mock(TenantCommonService.class);
-        PropertyLogRepository propertyLogRepository = mock(PropertyLogRepository.class);
+        BufferedLogWriter bufferedLogWriter = mock(BufferedLogWriter.class);
         OwnerLogService ownerLogService = mock(OwnerLogService.class);
         MailService mailService = mock(MailService.class);
         JwtDecoder tenantJwtDecoder = mock(JwtDecoder.class);
+        AdemeApiService ademeApiService = mock(AdemeApiService.class);
 
-        PropertyServiceImpl propertyService = new PropertyServiceImpl(authenticationFacade, propertyRepository, propertyMapper, propertyApartmentSharingService, tenantService, propertyLogRepository, ownerLogService, mailService);
+        PropertyServiceImpl propertyService = new PropertyServiceImpl(authenticationFacade, propertyRepository, propertyMapper, propertyApartmentSharingService, tenantService, ownerLogService, bufferedLogWriter, mailService, ademeApiService);
         ReflectionTestUtils.setField(propertyService, "tenantJwtDecoder", tenantJwtDecoder);
 
         Owner owner = new Owner();
@@ -111,8 +116,6 @@ class PropertyServiceImplTest {
     }
 
     @Test
-    @Disabled
-    // TODO  HttpClient.newHttpClient() is used in PropertyServiceImpl.createOrUpdate -> should be mocked
     public void test_ademe_number_not_null() throws InterruptedException {
         // Arrange
         AuthenticationFacade authenticationFacade = mock(AuthenticationFacade.class);
@@ -120,12 +123,13 @@ class PropertyServiceImplTest {
         OwnerPropertyMapper propertyMapper = new OwnerPropertyMapperImpl();
         PropertyApartmentSharingService propertyApartmentSharingService = mock(PropertyApartmentSharingService.class);
         TenantCommonService tenantService = mock(TenantCommonService.class);
-        PropertyLogRepository propertyLogRepository = mock(PropertyLogRepository.class);
+        BufferedLogWriter bufferedLogWriter = mock(BufferedLogWriter.class);
         OwnerLogService ownerLogService = mock(OwnerLogService.class);
         MailService mailService = mock(MailService.class);
         JwtDecoder tenantJwtDecoder = mock(JwtDecoder.class);
+        AdemeApiService ademeApiService = mock(AdemeApiService.class);
 
-        PropertyServiceImpl propertyService = new PropertyServiceImpl(authenticationFacade, propertyRepository, propertyMapper, propertyApartmentSharingService, tenantService, propertyLogRepository, ownerLogService, mailService);
+        PropertyServiceImpl propertyService = new PropertyServiceImpl(authenticationFacade, propertyRepository, propertyMapper, propertyApartmentSharingService, tenantService, ownerLogService, bufferedLogWriter, mailService, ademeApiService);
         ReflectionTestUtils.setField(propertyService, "tenantJwtDecoder", tenantJwtDecoder);
 
         Owner owner = new Owner();
@@ -135,6 +139,12 @@ class PropertyServiceImplTest {
         PropertyForm propertyForm = new PropertyForm();
         propertyForm.setId(1L);
         propertyForm.setAdemeNumber("2337E0363555K");
+        when(ademeApiService.getDpe("2337E0363555K")).thenReturn(CompletableFuture.completedFuture(AdemeApiResultModel.builder()
+                .numero("2337E0363555K")
+                .consommation("120.5")
+                .emission("20.1")
+                .dateRealisation("2023-06-14T22:00:00Z")
+                .build()));
 
         Property existingProperty = new Property();
         existingProperty.setId(1L);
@@ -155,4 +165,53 @@ class PropertyServiceImplTest {
         assertEquals("2337E0363555K", result.getAdemeNumber());
     }
 
-}
\ No newline at end of file
+    // Save the property without waiting for a slow ADEME API, then complete it
+    @Test
+    public void test_ademe_result_completed_asynchronously_when_api_is_slow() throws Exception {
+        // Arrange
+        AuthenticationFacade authenticationFacade = mock(AuthenticationFacade.class);
+        PropertyRepository propertyRepository = mock(PropertyRepository.class);
+        OwnerPropertyMapper propertyMapper = mock(OwnerPropertyMapper.class);
+        MailService mailService = mock(MailService.class);
+        AdemeApiService ademeApiService = mock(AdemeApiService.class);
+
+        PropertyServiceImpl propertyService = new PropertyServiceImpl(authenticationFacade, propertyRepository, propertyMapper, mock(PropertyApartmentSharingService.class), mock(TenantCommonService.class), mock(OwnerLogService.class), mock(BufferedLogWriter.class), mailService, ademeApiService);
+        ReflectionTestUtils.setField(propertyService, "ademeSyncTimeoutMs", 10L);
+
+        Owner owner = new Owner();
+        owner.setId(1L);
+        when(authenticationFacade.getOwner()).thenReturn(owner);
+
+        PropertyForm propertyForm = new PropertyForm();
+        propertyForm.setId(1L);
+        propertyForm.setAdemeNumber("2337E0363555K");
+        CompletableFuture<AdemeApiResultModel> lookup = new CompletableFuture<>();
+        when(ademeApiService.getDpe("2337E0363555K")).thenReturn(lookup);
+
+        Property existingProperty = new Property();
+        existingProperty.setId(1L);
+        when(propertyRepository.findByIdAndOwnerId(1L, 1L)).thenReturn(Optional.of(existingProperty));
+        when(propertyRepository.findById(1L)).thenReturn(Optional.of(existingProperty));
+        when(propertyRepository.save(any(Property.class))).thenAnswer(AdditionalAnswers.returnsFirstArg());
+        when(propertyMapper.toPropertyModel(any(Property.class))).thenReturn(new PropertyModel());
+
+        // Act
+        PropertyModel result = propertyService.createOrUpdate(propertyForm);
+
+        // Assert
+        assertNotNull(result);
+        assertEquals("2337E0363555K", existingProperty.getAdemeNumber());
+        assertNull(existingProperty.getEnergyConsumption());
+
+        lookup.complete(AdemeApiResultModel.builder()
+                .numero("2337E0363555K")
+                .consommation("120.5")
+                .emission("20.1")
+                .dateRealisation("2023-06-14T22:00:00Z")
+                .build());
+
+        assertEquals(120, existingProperty.getEnergyConsumption());
+        verify(propertyRepository, times(2)).save(existingProperty);
+    }
+
+}
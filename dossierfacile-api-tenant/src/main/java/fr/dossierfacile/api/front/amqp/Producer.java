@@ -7,6 +7,8 @@ import fr.dossierfacile.common.entity.messaging.QueueMessage;
 import fr.dossierfacile.common.entity.messaging.QueueMessageStatus;
 import fr.dossierfacile.common.entity.messaging.QueueName;
 import fr.dossierfacile.common.repository.QueueMessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
@@ -17,9 +19,15 @@ import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Component
 @Slf4j
@@ -28,6 +36,7 @@ public class Producer {
     private final QueueMessageRepository queueMessageRepository;
     private final AmqpTemplate amqpTemplate;
     private final Gson gson;
+    private final MeterRegistry meterRegistry;
     //Pdf generation
     @Value("${rabbitmq.exchange.pdf.generator}")
     private String exchangePdfGenerator;
@@ -67,32 +76,123 @@ public class Producer {
                 .build());
     }
 
+    /**
+     * Minifies and analyzes the file in a single stage, the file is downloaded once.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void processFile(Long documentId, Long fileId) {
+        log.info("Sending file with ID [{}] for minification and analysis", fileId);
+        queueMessageRepository.save(QueueMessage.builder()
+                .queueName(QueueName.QUEUE_FILE_PROCESS)
+                .documentId(documentId)
+                .fileId(fileId)
+                .status(QueueMessageStatus.PENDING)
+                .timestamp(System.currentTimeMillis())
+                .build());
+    }
+
     @Transactional(propagation = Propagation.SUPPORTS)
     public void sendDocumentForAnalysis(Document document) {
         log.debug("Sending document with ID [{}] for analysis", document.getId());
-        List<QueueMessage> messages = queueMessageRepository.findByQueueNameAndDocumentIdAndStatusIn(QueueName.QUEUE_DOCUMENT_ANALYSIS, document.getId(), List.of(QueueMessageStatus.PENDING));
+        scheduleDocumentJob(QueueName.QUEUE_DOCUMENT_ANALYSIS, document.getId());
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void sendDocumentForPdfGeneration(Document document) {
+        log.debug("Sending document with ID [{}] for pdf generation", document.getId());
+        scheduleDocumentJob(QueueName.QUEUE_DOCUMENT_WATERMARK_PDF, document.getId());
+    }
+
+    /**
+     * Drops the analysis and pdf generation jobs still pending for a deleted document.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void cancelDocumentJobs(Long documentId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            PendingDocumentJobs pendingJobs = currentPendingJobs();
+            if (pendingJobs != null) {
+                pendingJobs.cancel(documentId);
+            }
+        }
+        int deleted = queueMessageRepository.deletePendingMessagesByDocumentId(documentId);
+        if (deleted > 0) {
+            log.debug("Dropped {} pending job(s) of deleted document with ID [{}]", deleted, documentId);
+            coalescedJobsCounter("cancelled").increment(deleted);
+        }
+    }
+
+    /**
+     * Jobs requested during a transaction are collapsed per queue and document and written once before commit.
+     * A job already pending for the document is reused and its timestamp pushed back: consumers only pick
+     * messages older than their delay, so a burst of edits results in a single job after a quiet period.
+     */
+    private void scheduleDocumentJob(QueueName queueName, Long documentId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            upsertPendingMessage(queueName, documentId);
+            return;
+        }
+        PendingDocumentJobs pendingJobs = currentPendingJobs();
+        if (pendingJobs == null) {
+            pendingJobs = new PendingDocumentJobs();
+            TransactionSynchronizationManager.registerSynchronization(new PendingDocumentJobsSynchronization(pendingJobs));
+        }
+        if (!pendingJobs.add(queueName, documentId)) {
+            coalescedJobsCounter("transaction").increment();
+        }
+    }
+
+    private void upsertPendingMessage(QueueName queueName, Long documentId) {
+        List<QueueMessage> messages = queueMessageRepository.findByQueueNameAndDocumentIdAndStatusIn(queueName, documentId, List.of(QueueMessageStatus.PENDING));
         QueueMessage message = CollectionUtils.isNotEmpty(messages) ? messages.getFirst() : null;
         if (message == null) {
             message = QueueMessage.builder()
-                    .queueName(QueueName.QUEUE_DOCUMENT_ANALYSIS)
-                    .documentId(document.getId())
+                    .queueName(queueName)
+                    .documentId(documentId)
                     .status(QueueMessageStatus.PENDING)
                     .timestamp(System.currentTimeMillis())
                     .build();
         } else {
             message.setTimestamp(System.currentTimeMillis());
+            coalescedJobsCounter("queue").increment();
         }
         queueMessageRepository.save(message);
     }
 
-    @Transactional(propagation = Propagation.SUPPORTS)
-    public void sendDocumentForPdfGeneration(Document document) {
-        log.debug("Sending document with ID [{}] for pdf generation", document.getId());
-        queueMessageRepository.save(QueueMessage.builder()
-                .queueName(QueueName.QUEUE_DOCUMENT_WATERMARK_PDF)
-                .documentId(document.getId())
-                .status(QueueMessageStatus.PENDING)
-                .timestamp(System.currentTimeMillis())
-                .build());
+    private Counter coalescedJobsCounter(String stage) {
+        return meterRegistry.counter("document.jobs.coalesced", "stage", stage);
+    }
+
+    private static PendingDocumentJobs currentPendingJobs() {
+        return TransactionSynchronizationManager.getSynchronizations().stream()
+                .filter(PendingDocumentJobsSynchronization.class::isInstance)
+                .map(synchronization -> ((PendingDocumentJobsSynchronization) synchronization).pendingJobs)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static class PendingDocumentJobs {
+        private final Map<QueueName, Set<Long>> documentIdsByQueue = new EnumMap<>(QueueName.class);
+
+        boolean add(QueueName queueName, Long documentId) {
+            return documentIdsByQueue.computeIfAbsent(queueName, q -> new LinkedHashSet<>()).add(documentId);
+        }
+
+        void cancel(Long documentId) {
+            documentIdsByQueue.values().forEach(documentIds -> documentIds.remove(documentId));
+        }
+    }
+
+    private class PendingDocumentJobsSynchronization implements TransactionSynchronization {
+        private final PendingDocumentJobs pendingJobs;
+
+        PendingDocumentJobsSynchronization(PendingDocumentJobs pendingJobs) {
+            this.pendingJobs = pendingJobs;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            pendingJobs.documentIdsByQueue.forEach((queueName, documentIds) ->
+                    documentIds.forEach(documentId -> upsertPendingMessage(queueName, documentId)));
+        }
     }
 }
@@ -1,10 +1,12 @@
 package fr.dossierfacile.api.front.config.filter;
 
+import fr.dossierfacile.api.front.config.filter.ratelimit.BucketStore;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
 import io.github.bucket4j.ConsumptionProbe;
 import io.github.bucket4j.Refill;
-import io.github.bucket4j.local.LocalBucketBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.Filter;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.FilterConfig;
@@ -14,16 +16,18 @@ import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 
 import java.io.IOException;
 import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 
 @Slf4j
 public abstract class AbstractRateLimitingFilter implements Filter {
-    private final Map<String, Bucket> ipBuckets = new ConcurrentHashMap<>();
+    @Autowired
+    private BucketStore bucketStore;
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     protected abstract int getRegisterCapacity();
 
@@ -33,24 +37,17 @@ public abstract class AbstractRateLimitingFilter implements Filter {
         return 1;
     }
 
-    protected int getMapSizeLimit() {
-        return 10000;
-    }
-
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
-        if (ipBuckets.size() > getMapSizeLimit()) {
-            log.warn("ipBuckets list has been reset");
-            ipBuckets.clear();
-        }
-        // specific to scalingo infra
-        Bucket bucket = ipBuckets.computeIfAbsent(((HttpServletRequest) request).getHeader("X-Real-Ip"), this::createNewBucket);
+        String clientIp = getClientIp((HttpServletRequest) request);
+        Bucket bucket = bucketStore.resolve(getClass().getSimpleName() + ":" + clientIp, getBucketConfiguration(), getRetention());
 
         ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
         if (probe.isConsumed()) {
             chain.doFilter(request, response);
         } else {
-            log.error("Too Many request has been detected from " + ((HttpServletRequest) request).getHeader("X-Real-Ip"));
+            log.error("Too Many request has been detected from " + clientIp);
+            meterRegistry.counter("ratelimit.rejected", "filter", getClass().getSimpleName()).increment();
             HttpServletResponse httpServletResponse = (HttpServletResponse) response;
             httpServletResponse.setContentType("text/plain");
             httpServletResponse.setStatus(429);
@@ -58,8 +55,24 @@ public abstract class AbstractRateLimitingFilter implements Filter {
         }
     }
 
-    private Bucket createNewBucket(String key) {
-        return new LocalBucketBuilder().addLimit(Bandwidth.classic(getRegisterCapacity(), Refill.intervally(getRefillTokensByDelay(), Duration.ofMinutes(getRefillDelayInMinute())))).build();
+    private String getClientIp(HttpServletRequest request) {
+        // specific to scalingo infra
+        String realIp = request.getHeader("X-Real-Ip");
+        return realIp != null ? realIp : request.getRemoteAddr();
+    }
+
+    private BucketConfiguration getBucketConfiguration() {
+        return BucketConfiguration.builder()
+                .addLimit(Bandwidth.classic(getRegisterCapacity(), Refill.intervally(getRefillTokensByDelay(), Duration.ofMinutes(getRefillDelayInMinute()))))
+                .build();
+    }
+
+    /**
+     * Time after which an unused bucket is full again and can be forgotten.
+     */
+    private Duration getRetention() {
+        long refillsToFull = (getRegisterCapacity() + getRefillTokensByDelay() - 1) / getRefillTokensByDelay();
+        return Duration.ofMinutes(refillsToFull * getRefillDelayInMinute());
     }
 
     @Override
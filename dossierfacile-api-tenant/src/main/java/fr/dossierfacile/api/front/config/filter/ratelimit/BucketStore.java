@@ -0,0 +1,17 @@
+package fr.dossierfacile.api.front.config.filter.ratelimit;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+
+import java.time.Duration;
+
+/**
+ * Holds the rate limiting buckets. A bucket which has not been used during its retention time is full again,
+ * so it can be dropped safely: it will be recreated identical on the next request.
+ */
+public interface BucketStore {
+
+    Bucket resolve(String key, BucketConfiguration configuration, Duration retention);
+
+    long size();
+}
@@ -0,0 +1,97 @@
+package fr.dossierfacile.api.front.config.filter.ratelimit;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.local.LocalBucketBuilder;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory store bounded by an access-ordered map: resolving a key moves its bucket to the tail, and when the store
+ * is full the least recently used bucket, at the head, is evicted in constant time. Buckets idle for longer than their
+ * retention are replaced on access and purged periodically. The map is only locked for these lookups: the buckets
+ * themselves are consumed outside of the lock.
+ */
+@Component
+@ConditionalOnProperty(name = "ratelimit.store", havingValue = "local", matchIfMissing = true)
+public class LocalBucketStore implements BucketStore {
+    private final Map<String, Entry> buckets;
+    private final LongSupplier clock;
+
+    @Autowired
+    public LocalBucketStore(@Value("${ratelimit.store.max.size:10000}") int maxSize, MeterRegistry meterRegistry) {
+        this(maxSize, meterRegistry, System::currentTimeMillis);
+    }
+
+    LocalBucketStore(int maxSize, MeterRegistry meterRegistry, LongSupplier clock) {
+        int maximumSize = Math.max(1, maxSize);
+        this.clock = clock;
+        this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maximumSize;
+            }
+        };
+        Gauge.builder("ratelimit.store.size", this, LocalBucketStore::size)
+                .tag("store", "local")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public synchronized Bucket resolve(String key, BucketConfiguration configuration, Duration retention) {
+        long now = clock.getAsLong();
+        Entry entry = buckets.get(key);
+        if (entry == null || entry.isExpired(now)) {
+            entry = new Entry(newBucket(configuration), retention.toMillis(), now);
+            buckets.put(key, entry);
+        }
+        entry.lastAccess = now;
+        return entry.bucket;
+    }
+
+    @Override
+    public synchronized long size() {
+        return buckets.size();
+    }
+
+    @Scheduled(fixedDelayString = "${ratelimit.store.purge.delay.ms:600000}")
+    public synchronized void purgeExpiredBuckets() {
+        long now = clock.getAsLong();
+        buckets.values().removeIf(entry -> entry.isExpired(now));
+    }
+
+    private static Bucket newBucket(BucketConfiguration configuration) {
+        LocalBucketBuilder builder = Bucket.builder();
+        for (Bandwidth bandwidth : configuration.getBandwidths()) {
+            builder.addLimit(bandwidth);
+        }
+        return builder.build();
+    }
+
+    private static class Entry {
+        private final Bucket bucket;
+        private final long retentionMillis;
+        private long lastAccess;
+
+        private Entry(Bucket bucket, long retentionMillis, long lastAccess) {
+            this.bucket = bucket;
+            this.retentionMillis = retentionMillis;
+            this.lastAccess = lastAccess;
+        }
+
+        private boolean isExpired(long now) {
+            return now - lastAccess > retentionMillis;
+        }
+    }
+}
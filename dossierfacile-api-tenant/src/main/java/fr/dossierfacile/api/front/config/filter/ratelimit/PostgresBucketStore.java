@@ -0,0 +1,179 @@
+package fr.dossierfacile.api.front.config.filter.ratelimit;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketExceptions;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.generic.select_for_update.AbstractSelectForUpdateBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.select_for_update.LockAndGetResult;
+import io.github.bucket4j.distributed.proxy.generic.select_for_update.SelectForUpdateBasedTransaction;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Store shared by every api-tenant instance: bucket states live in the rate_limit_bucket table and are
+ * updated under SELECT ... FOR UPDATE, so a client is limited globally and not per instance.
+ * The expiration date is pushed back by the same statement as the state, within the bucket4j transaction.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "ratelimit.store", havingValue = "postgres")
+public class PostgresBucketStore implements BucketStore {
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final PostgresProxyManager proxyManager;
+
+    public PostgresBucketStore(DataSource dataSource, MeterRegistry meterRegistry) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.proxyManager = new PostgresProxyManager();
+        Gauge.builder("ratelimit.store.size", this, PostgresBucketStore::size)
+                .tag("store", "postgres")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Bucket resolve(String key, BucketConfiguration configuration, Duration retention) {
+        return proxyManager.builder().build(new BucketKey(key, retention), configuration);
+    }
+
+    @Override
+    public long size() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rate_limit_bucket", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    @Scheduled(fixedDelayString = "${ratelimit.store.purge.delay.ms:600000}")
+    public void purgeExpiredBuckets() {
+        int deleted = jdbcTemplate.update("DELETE FROM rate_limit_bucket WHERE expiration_date < ?", Timestamp.valueOf(LocalDateTime.now()));
+        if (deleted > 0) {
+            log.info("{} expired rate limit buckets have been purged", deleted);
+        }
+    }
+
+    private class PostgresProxyManager extends AbstractSelectForUpdateBasedProxyManager<BucketKey> {
+
+        private PostgresProxyManager() {
+            super(ClientSideConfig.getDefault());
+        }
+
+        @Override
+        protected SelectForUpdateBasedTransaction allocateTransaction(BucketKey key) {
+            Connection connection;
+            try {
+                connection = dataSource.getConnection();
+            } catch (SQLException e) {
+                throw new BucketExceptions.BucketExecutionException(e);
+            }
+            return new PostgresTransaction(connection, key);
+        }
+
+        @Override
+        public void removeProxy(BucketKey key) {
+            jdbcTemplate.update("DELETE FROM rate_limit_bucket WHERE id = ?", key.id());
+        }
+    }
+
+    /**
+     * Retention of the bucket, carried along its id so that each transaction can push back its expiration date.
+     */
+    private record BucketKey(String id, Duration retention) {
+        private Timestamp expirationDate() {
+            return Timestamp.valueOf(LocalDateTime.now().plus(retention));
+        }
+    }
+
+    private record PostgresTransaction(Connection connection, BucketKey key) implements SelectForUpdateBasedTransaction {
+
+        @Override
+        public void begin() {
+            try {
+                connection.setAutoCommit(false);
+            } catch (SQLException e) {
+                throw new BucketExceptions.BucketExecutionException(e);
+            }
+        }
+
+        @Override
+        public LockAndGetResult tryLockAndGet() {
+            try (PreparedStatement statement = connection.prepareStatement("SELECT state FROM rate_limit_bucket WHERE id = ? FOR UPDATE")) {
+                statement.setString(1, key.id());
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (!resultSet.next()) {
+                        return LockAndGetResult.notLocked();
+                    }
+                    return LockAndGetResult.locked(resultSet.getBytes("state"));
+                }
+            } catch (SQLException e) {
+                throw new BucketExceptions.BucketExecutionException(e);
+            }
+        }
+
+        @Override
+        public boolean tryInsertEmptyData() {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO rate_limit_bucket (id, state, expiration_date) VALUES (?, null, ?) ON CONFLICT (id) DO NOTHING")) {
+                statement.setString(1, key.id());
+                statement.setTimestamp(2, key.expirationDate());
+                return statement.executeUpdate() > 0;
+            } catch (SQLException e) {
+                throw new BucketExceptions.BucketExecutionException(e);
+            }
+        }
+
+        @Override
+        public void update(byte[] data, RemoteBucketState newState) {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "UPDATE rate_limit_bucket SET state = ?, expiration_date = ? WHERE id = ?")) {
+                statement.setBytes(1, data);
+                statement.setTimestamp(2, key.expirationDate());
+                statement.setString(3, key.id());
+                statement.executeUpdate();
+            } catch (SQLException e) {
+                throw new BucketExceptions.BucketExecutionException(e);
+            }
+        }
+
+        @Override
+        public void commit() {
+            try {
+                connection.commit();
+            } catch (SQLException e) {
+                throw new BucketExceptions.BucketExecutionException(e);
+            }
+        }
+
+        @Override
+        public void rollback() {
+            try {
+                connection.rollback();
+            } catch (SQLException e) {
+                throw new BucketExceptions.BucketExecutionException(e);
+            }
+        }
+
+        @Override
+        public void release() {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                throw new BucketExceptions.BucketExecutionException(e);
+            }
+        }
+    }
+}
@@ -5,22 +5,28 @@ import fr.dossierfacile.api.front.repository.FileRepository;
 import fr.dossierfacile.api.front.security.interfaces.AuthenticationFacade;
 import fr.dossierfacile.api.front.service.interfaces.FileService;
 import fr.dossierfacile.common.entity.File;
+import fr.dossierfacile.common.entity.StorageFile;
 import fr.dossierfacile.common.entity.Tenant;
-import fr.dossierfacile.common.service.interfaces.FileStorageService;
+import fr.dossierfacile.common.enums.PreviewSize;
+import fr.dossierfacile.common.service.StorageFileResponseService;
+import fr.dossierfacile.common.service.interfaces.FilePreviewService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.IOUtils;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequiredArgsConstructor
@@ -28,10 +34,14 @@ import java.io.InputStream;
 @Slf4j
 public class FileController {
     private static final String FILE_NO_EXIST = "The file does not exist";
+    // access is checked on every request: files are revalidated, previews are kept a short time by the browser
+    private static final CacheControl FILE_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+    private static final CacheControl PREVIEW_CACHE_CONTROL = CacheControl.maxAge(1, TimeUnit.HOURS).cachePrivate();
     private final FileService fileService;
     private final AuthenticationFacade authenticationFacade;
     private final FileRepository fileRepository;
-    private final FileStorageService fileStorageService;
+    private final FilePreviewService filePreviewService;
+    private final StorageFileResponseService storageFileResponseService;
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
@@ -41,13 +51,12 @@ public class FileController {
     }
 
     @GetMapping(value = "/resource/{id}", produces = {MediaType.APPLICATION_PDF_VALUE, MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE})
-    public void getPrivateFileAsByteArray(HttpServletResponse response, @PathVariable Long id) {
+    public void getPrivateFileAsByteArray(HttpServletRequest request, HttpServletResponse response, @PathVariable Long id) {
         Tenant tenant = authenticationFacade.getLoggedTenant();
         File file = fileRepository.findByIdForTenant(id, tenant.getId()).orElseThrow(() -> new FileNotFoundException(id));
 
-        try (InputStream in = fileStorageService.download(file.getStorageFile())) {
-            response.setContentType(file.getStorageFile().getContentType());
-            IOUtils.copy(in, response.getOutputStream());
+        try {
+            storageFileResponseService.write(request, response, file.getStorageFile(), FILE_CACHE_CONTROL);
         } catch (final java.io.FileNotFoundException e) {
             log.error(FILE_NO_EXIST, e);
             response.setStatus(404);
@@ -57,14 +66,23 @@ public class FileController {
         }
     }
 
+    /**
+     * The first page thumbnail is generated at upload, other sizes and pages are generated on first request.
+     */
     @GetMapping(value = "/preview/{fileId}")
-    public void getPreviewFromFileIdAsByteArray(HttpServletResponse response, @PathVariable Long fileId) {
+    public void getPreviewFromFileIdAsByteArray(HttpServletRequest request, HttpServletResponse response, @PathVariable Long fileId,
+                                                @RequestParam(defaultValue = "THUMBNAIL") PreviewSize size,
+                                                @RequestParam(defaultValue = "0") int page) {
         Tenant tenant = authenticationFacade.getLoggedTenant();
         File file = fileRepository.findByIdForAppartmentSharing(fileId, tenant.getApartmentSharing().getId()).orElseThrow(() -> new FileNotFoundException(fileId));
 
-        try (InputStream in = fileStorageService.download(file.getPreview())) {
-            response.setContentType(file.getPreview().getContentType());
-            IOUtils.copy(in, response.getOutputStream());
+        Optional<StorageFile> preview = filePreviewService.getOrCreate(file, size, page);
+        if (preview.isEmpty()) {
+            response.setStatus(404);
+            return;
+        }
+        try {
+            storageFileResponseService.write(request, response, preview.get(), PREVIEW_CACHE_CONTROL);
         } catch (final java.io.FileNotFoundException e) {
             log.error(FILE_NO_EXIST, e);
             response.setStatus(404);
@@ -1,17 +1,19 @@
 package fr.dossierfacile.api.front.dfc.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import fr.dossierfacile.api.front.aop.annotation.MethodLogTime;
 import fr.dossierfacile.api.front.mapper.TenantMapper;
 import fr.dossierfacile.api.front.model.ListMetadata;
-import fr.dossierfacile.api.front.model.ResponseWrapper;
 import fr.dossierfacile.api.front.model.dfc.tenant.ConnectedTenantModel;
 import fr.dossierfacile.api.front.security.interfaces.ClientAuthenticationFacade;
 import fr.dossierfacile.api.front.service.interfaces.TenantPermissionsService;
 import fr.dossierfacile.api.front.service.interfaces.TenantService;
+import fr.dossierfacile.api.front.util.StreamingListWriter;
 import fr.dossierfacile.common.entity.Tenant;
 import fr.dossierfacile.common.entity.UserApi;
 import fr.dossierfacile.common.model.TenantUpdate;
 import io.swagger.annotations.ApiOperation;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -25,8 +27,8 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
-import java.util.List;
 
 import static org.springframework.http.ResponseEntity.ok;
 
@@ -41,35 +43,39 @@ public class DfcTenantsController {
     private final TenantService tenantService;
     private final TenantMapper tenantMapper;
     private final TenantPermissionsService tenantPermissionsService;
+    private final ObjectMapper objectMapper;
 
     @ApiOperation(value = "Gets a list of tenants associated",
-            notes = "Result is ordered by last_update_date. Use 'after' parameter to define a starting point")
+            notes = "Result is ordered by last_update_date then id. Use 'after' and 'afterId' parameters, as given in the next link, to define a starting point")
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<ResponseWrapper<List<TenantUpdate>, ListMetadata>> list(@RequestParam(value = "after", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime after,
-                                                                                  @RequestParam(value = "limit", defaultValue = "1000") Long limit,
-                                                                                  @RequestParam(value = "includeDeleted", defaultValue = "false") boolean includeDeleted,
-                                                                                  @RequestParam(value = "includeRevoked", defaultValue = "false") boolean includeRevoked
-    ) {
+    public void list(HttpServletResponse response,
+                     @RequestParam(value = "after", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime after,
+                     @RequestParam(value = "afterId", required = false) Long afterId,
+                     @RequestParam(value = "limit", defaultValue = "1000") Long limit,
+                     @RequestParam(value = "includeDeleted", defaultValue = "false") boolean includeDeleted,
+                     @RequestParam(value = "includeRevoked", defaultValue = "false") boolean includeRevoked
+    ) throws IOException {
         UserApi userApi = clientAuthenticationFacade.getClient();
-        List<TenantUpdate> result = tenantService.findTenantUpdateByLastUpdateAndPartner(after, userApi, limit, includeDeleted, includeRevoked);
+        try (StreamingListWriter<TenantUpdate> writer = new StreamingListWriter<>(objectMapper, response)) {
+            tenantService.streamTenantUpdateByLastUpdateAndPartner(after, afterId, userApi, limit, includeDeleted, includeRevoked, writer);
 
-        LocalDateTime nextTimeToken = result.isEmpty() ? after : result.get(result.size() - 1).getLastUpdateDate();
+            TenantUpdate last = writer.getLast();
+            UriComponentsBuilder nextLink = UriComponentsBuilder.fromPath(PATH)
+                    .queryParam("limit", limit)
+                    .queryParam("after", last == null ? after : last.eventDate());
+            Long nextId = last == null ? afterId : last.getId();
+            if (nextId != null) {
+                nextLink.queryParam("afterId", nextId);
+            }
+            nextLink.queryParam("includeDeleted", includeDeleted)
+                    .queryParam("includeRevoked", includeRevoked);
 
-        String nextLink = UriComponentsBuilder.fromPath(PATH)
-                .queryParam("limit", limit)
-                .queryParam("after", nextTimeToken)
-                .queryParam("includeDeleted", includeDeleted)
-                .queryParam("includeRevoked", includeRevoked)
-                .build().encode().toUriString();
-
-        return ok(ResponseWrapper.<List<TenantUpdate>, ListMetadata>builder()
-                .metadata(ListMetadata.builder()
-                        .limit(limit)
-                        .resultCount(result.size())
-                        .nextLink(nextLink)
-                        .build())
-                .data(result)
-                .build());
+            writer.writeMetadata(ListMetadata.builder()
+                    .limit(limit)
+                    .resultCount(writer.getCount())
+                    .nextLink(nextLink.build().encode().toUriString())
+                    .build());
+        }
     }
 
     @ApiOperation(value = "Gets tenant by ID")
@@ -6,11 +6,12 @@ import fr.dossierfacile.api.front.service.interfaces.FileService;
 import fr.dossierfacile.api.front.service.interfaces.TenantService;
 import fr.dossierfacile.common.entity.Document;
 import fr.dossierfacile.common.entity.File;
-import fr.dossierfacile.common.service.interfaces.FileStorageService;
+import fr.dossierfacile.common.service.StorageFileResponseService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.IOUtils;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -21,7 +22,6 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.io.IOException;
-import java.io.InputStream;
 
 @RestController
 @RequiredArgsConstructor
@@ -31,7 +31,7 @@ public class ApiPartnerFileController {
     private final FileService fileService;
     private final TenantService tenantService;
     private final FileRepository fileRepository;
-    private final FileStorageService fileStorageService;
+    private final StorageFileResponseService storageFileResponseService;
 
     @PreAuthorize("hasPermissionOnTenant(#tenantId)")
     @DeleteMapping("/{id}")
@@ -44,12 +44,11 @@ public class ApiPartnerFileController {
 
     @PreAuthorize("hasPermissionOnTenant(#tenantId)")
     @GetMapping(value = "/resource/{id}", produces = {MediaType.APPLICATION_PDF_VALUE, MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE})
-    public void getPrivateFileAsByteArray(HttpServletResponse response, @PathVariable Long id, @PathVariable Long tenantId) {
+    public void getPrivateFileAsByteArray(HttpServletRequest request, HttpServletResponse response, @PathVariable Long id, @PathVariable Long tenantId) {
         File file = fileRepository.findByIdForTenant(id, tenantId).orElseThrow(() -> new FileNotFoundException(id));
 
-        try (InputStream in = fileStorageService.download(file.getStorageFile()) ) {
-            response.setContentType(file.getStorageFile().getContentType());
-            IOUtils.copy(in, response.getOutputStream());
+        try {
+            storageFileResponseService.write(request, response, file.getStorageFile(), CacheControl.noCache().cachePrivate());
         } catch (final IOException e) {
             log.error("The file does not exist");
             response.setStatus(404);
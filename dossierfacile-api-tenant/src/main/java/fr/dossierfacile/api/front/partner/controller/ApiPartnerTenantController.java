@@ -1,17 +1,19 @@
 package fr.dossierfacile.api.front.partner.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import fr.dossierfacile.api.front.aop.annotation.MethodLogTime;
 import fr.dossierfacile.api.front.mapper.TenantMapper;
 import fr.dossierfacile.api.front.model.ListMetadata;
-import fr.dossierfacile.api.front.model.ResponseWrapper;
 import fr.dossierfacile.api.front.model.TenantSortType;
 import fr.dossierfacile.api.front.model.tenant.TenantModel;
 import fr.dossierfacile.api.front.security.interfaces.ClientAuthenticationFacade;
 import fr.dossierfacile.api.front.service.interfaces.TenantService;
 import fr.dossierfacile.api.front.service.interfaces.UserService;
+import fr.dossierfacile.api.front.util.StreamingListWriter;
 import fr.dossierfacile.common.entity.Tenant;
 import fr.dossierfacile.common.entity.UserApi;
 import fr.dossierfacile.common.model.TenantUpdate;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
@@ -26,8 +28,8 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
-import java.util.List;
 
 import static org.springframework.http.ResponseEntity.ok;
 import static org.springframework.http.ResponseEntity.status;
@@ -41,50 +43,57 @@ public class ApiPartnerTenantController {
     private final TenantService tenantService;
     private final TenantMapper tenantMapper;
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     @MethodLogTime
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<ResponseWrapper<List<TenantUpdate>, ListMetadata>> list(@RequestParam(value = "after", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime after,
-                                                                                  @RequestParam(value = "limit", defaultValue = "1000") Long limit,
-                                                                                  @RequestParam(value = "orderBy", defaultValue = "LAST_UPDATE_DATE") TenantSortType orderBy,
-                                                                                  @RequestParam(value = "includeDeleted", defaultValue = "false") boolean includeDeleted,
-                                                                                  @RequestParam(value = "includeRevoked", defaultValue = "false") boolean includeRevoked
-    ) {
+    public void list(HttpServletResponse response,
+                     @RequestParam(value = "after", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime after,
+                     @RequestParam(value = "afterId", required = false) Long afterId,
+                     @RequestParam(value = "limit", defaultValue = "1000") Long limit,
+                     @RequestParam(value = "orderBy", defaultValue = "LAST_UPDATE_DATE") TenantSortType orderBy,
+                     @RequestParam(value = "includeDeleted", defaultValue = "false") boolean includeDeleted,
+                     @RequestParam(value = "includeRevoked", defaultValue = "false") boolean includeRevoked
+    ) throws IOException {
+        if (orderBy == TenantSortType.CREATION_DATE && (includeDeleted || includeRevoked)) {
+            throw new IllegalArgumentException("includeDelete and includeRevoked are not available with creationDate order");
+        }
         UserApi userApi = clientAuthenticationFacade.getClient();
-        List<TenantUpdate> result;
-        LocalDateTime nextTimeToken;
-        switch (orderBy) {
-            case CREATION_DATE -> {
-                if (includeDeleted || includeRevoked) {
-                    throw new IllegalArgumentException("includeDelete and includeRevoked are not available with creationDate order");
+        try (StreamingListWriter<TenantUpdate> writer = new StreamingListWriter<>(objectMapper, response)) {
+            LocalDateTime nextTimeToken = after;
+            switch (orderBy) {
+                case CREATION_DATE -> {
+                    tenantService.streamTenantUpdateByCreatedAndPartner(after, afterId, userApi, limit, writer);
+                    if (writer.getLast() != null) {
+                        nextTimeToken = writer.getLast().getCreationDate();
+                    }
                 }
-                result = tenantService.findTenantUpdateByCreatedAndPartner(after, userApi, limit);
-                nextTimeToken = result.isEmpty() ? after : result.get(result.size() - 1).getCreationDate();
-            }
-            case LAST_UPDATE_DATE -> {
-                result = tenantService.findTenantUpdateByLastUpdateAndPartner(after, userApi, limit, includeDeleted, includeRevoked);
-                nextTimeToken = result.isEmpty() ? after : result.get(result.size() - 1).getLastUpdateDate();
+                case LAST_UPDATE_DATE -> {
+                    tenantService.streamTenantUpdateByLastUpdateAndPartner(after, afterId, userApi, limit, includeDeleted, includeRevoked, writer);
+                    if (writer.getLast() != null) {
+                        nextTimeToken = writer.getLast().eventDate();
+                    }
+                }
+                default -> throw new IllegalArgumentException();
             }
-            default -> throw new IllegalArgumentException();
-        }
 
-        String nextLink = UriComponentsBuilder.fromPath("/api-partner/tenant")
-                .queryParam("limit", limit)
-                .queryParam("orderBy", orderBy)
-                .queryParam("after", nextTimeToken)
-                .queryParam("includeDeleted", includeDeleted)
-                .queryParam("includeRevoked", includeRevoked)
-                .build().encode().toUriString();
-
-        return ok(ResponseWrapper.<List<TenantUpdate>, ListMetadata>builder()
-                .metadata(ListMetadata.builder()
-                        .limit(limit)
-                        .resultCount(result.size())
-                        .nextLink(nextLink)
-                        .build())
-                .data(result)
-                .build());
+            UriComponentsBuilder nextLink = UriComponentsBuilder.fromPath("/api-partner/tenant")
+                    .queryParam("limit", limit)
+                    .queryParam("orderBy", orderBy)
+                    .queryParam("after", nextTimeToken);
+            Long nextId = writer.getLast() == null ? afterId : writer.getLast().getId();
+            if (nextId != null) {
+                nextLink.queryParam("afterId", nextId);
+            }
+            nextLink.queryParam("includeDeleted", includeDeleted)
+                    .queryParam("includeRevoked", includeRevoked);
 
+            writer.writeMetadata(ListMetadata.builder()
+                    .limit(limit)
+                    .resultCount(writer.getCount())
+                    .nextLink(nextLink.build().encode().toUriString())
+                    .build());
+        }
     }
 
     @PreAuthorize("hasPermissionOnTenant(#tenantId)")
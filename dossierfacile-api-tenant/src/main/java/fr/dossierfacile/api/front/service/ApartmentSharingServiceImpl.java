@@ -23,6 +23,7 @@ import fr.dossierfacile.common.mapper.ApartmentSharingMapper;
 import fr.dossierfacile.common.mapper.ApplicationBasicMapper;
 import fr.dossierfacile.common.mapper.ApplicationFullMapper;
 import fr.dossierfacile.common.mapper.ApplicationLightMapper;
+import fr.dossierfacile.common.model.ApartmentSharingVersion;
 import fr.dossierfacile.common.model.apartment_sharing.ApplicationModel;
 import fr.dossierfacile.common.repository.ApartmentSharingLinkRepository;
 import fr.dossierfacile.common.repository.ApartmentSharingRepository;
@@ -73,37 +74,39 @@ public class ApartmentSharingServiceImpl implements ApartmentSharingService {
     private final ApartmentSharingCommonService apartmentSharingCommonService;
     private final ApiTenantLogRepository tenantLogRepository;
     private final LogService logService;
+    private final ApplicationModelCache applicationModelCache;
 
     @Override
     public ApplicationModel full(String token) {
-        ApartmentSharing apartmentSharing = apartmentSharingRepository.findByToken(token).orElse(null);
-        if (apartmentSharing == null) {
-            Optional<ApartmentSharingLink> apartmentSharingLink = apartmentSharingLinkRepository.findByTokenAndFullDataAndDisabledIsFalse(token, true);
-            if (apartmentSharingLink.isEmpty()) {
-                throw new ApartmentSharingNotFoundException(token);
-            }
-            apartmentSharing = apartmentSharingLink.get().getApartmentSharing();
-        }
-        saveLinkLog(apartmentSharing, token, LinkType.FULL_APPLICATION);
-        ApplicationModel applicationModel = applicationFullMapper.toApplicationModel(apartmentSharing, null);
-        applicationModel.setLastUpdateDate(getLastUpdateDate(apartmentSharing));
-        return applicationModel;
+        ApartmentSharingVersion version = apartmentSharingRepository.findVersionByToken(token)
+                .or(() -> apartmentSharingRepository.findVersionByLinkToken(token, true))
+                .orElseThrow(() -> new ApartmentSharingNotFoundException(token));
+        saveLinkLog(apartmentSharingRepository.getReferenceById(version.getId()), token, LinkType.FULL_APPLICATION);
+        return applicationModelCache.get(ApplicationModelCache.View.FULL, version, () -> {
+            ApartmentSharing apartmentSharing = findWithTenantsById(version.getId(), token);
+            ApplicationModel applicationModel = applicationFullMapper.toApplicationModel(apartmentSharing, null);
+            applicationModel.setLastUpdateDate(getLastUpdateDate(apartmentSharing));
+            return applicationModel;
+        });
     }
 
     @Override
     public ApplicationModel light(String token) {
-        ApartmentSharing apartmentSharing = apartmentSharingRepository.findByTokenPublic(token).orElse(null);
-        if (apartmentSharing == null) {
-            Optional<ApartmentSharingLink> apartmentSharingLink = apartmentSharingLinkRepository.findByTokenAndFullDataAndDisabledIsFalse(token, false);
-            if (apartmentSharingLink.isEmpty()) {
-                throw new ApartmentSharingNotFoundException(token);
-            }
-            apartmentSharing = apartmentSharingLink.get().getApartmentSharing();
-        }
-        saveLinkLog(apartmentSharing, token, LinkType.LIGHT_APPLICATION);
-        ApplicationModel applicationModel = applicationLightMapper.toApplicationModel(apartmentSharing);
-        applicationModel.setLastUpdateDate(getLastUpdateDate(apartmentSharing));
-        return applicationModel;
+        ApartmentSharingVersion version = apartmentSharingRepository.findVersionByTokenPublic(token)
+                .or(() -> apartmentSharingRepository.findVersionByLinkToken(token, false))
+                .orElseThrow(() -> new ApartmentSharingNotFoundException(token));
+        saveLinkLog(apartmentSharingRepository.getReferenceById(version.getId()), token, LinkType.LIGHT_APPLICATION);
+        return applicationModelCache.get(ApplicationModelCache.View.LIGHT, version, () -> {
+            ApartmentSharing apartmentSharing = findWithTenantsById(version.getId(), token);
+            ApplicationModel applicationModel = applicationLightMapper.toApplicationModel(apartmentSharing);
+            applicationModel.setLastUpdateDate(getLastUpdateDate(apartmentSharing));
+            return applicationModel;
+        });
+    }
+
+    private ApartmentSharing findWithTenantsById(Long apartmentSharingId, String token) {
+        return apartmentSharingRepository.findWithTenantsById(apartmentSharingId)
+                .orElseThrow(() -> new ApartmentSharingNotFoundException(token));
     }
 
     private LocalDateTime getLastUpdateDate(ApartmentSharing apartmentSharing) {
@@ -160,7 +163,7 @@ public class ApartmentSharingServiceImpl implements ApartmentSharingService {
 
     @Override
     public Optional<ApartmentSharing> findById(Long apartmentSharingId) {
-        return apartmentSharingRepository.findById(apartmentSharingId);
+        return apartmentSharingRepository.findWithTenantsById(apartmentSharingId);
     }
 
     private void saveLinkLog(ApartmentSharing apartmentSharing, String token, LinkType linkType) {
@@ -0,0 +1,90 @@
+package fr.dossierfacile.api.front.service;
+
+import fr.dossierfacile.common.model.ApartmentSharingVersion;
+import fr.dossierfacile.common.model.apartment_sharing.ApplicationModel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * In-memory LRU cache of the application models served through the sharing tokens.
+ * An entry is keyed by apartment sharing and view, and is only served while its version matches the
+ * apartment sharing model version, which database triggers increment on every change of the application:
+ * a stale entry is replaced by the next read, there is no other invalidation to trigger.
+ * Cached models are shared between requests and must not be modified.
+ */
+@Component
+public class ApplicationModelCache {
+    private static final String CACHE_NAME = "application-model";
+
+    public enum View {
+        FULL,
+        LIGHT
+    }
+
+    private final Map<Key, Entry> entries;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public ApplicationModelCache(@Value("${application.model.cache.max.size:2000}") int maxSize, MeterRegistry meterRegistry) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.hits = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("cache.evictions").tag("cache", CACHE_NAME).register(meterRegistry);
+        Gauge.builder("cache.size", this, ApplicationModelCache::size)
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached model of this version, or builds it with the loader and caches it.
+     * The loader runs outside the lock: concurrent misses on the same application may build it twice.
+     */
+    public ApplicationModel get(View view, ApartmentSharingVersion version, Supplier<ApplicationModel> loader) {
+        Key key = new Key(version.getId(), view);
+        long modelVersion = Objects.requireNonNullElse(version.getModelVersion(), 0L);
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.version == modelVersion) {
+                hits.increment();
+                return entry.model;
+            }
+        }
+        misses.increment();
+        ApplicationModel model = loader.get();
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry == null || entry.version < modelVersion) {
+                entries.put(key, new Entry(modelVersion, model));
+            }
+        }
+        return model;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private record Key(Long apartmentSharingId, View view) {
+    }
+
+    private record Entry(long version, ApplicationModel model) {
+    }
+}
@@ -19,6 +19,7 @@ import fr.dossierfacile.common.service.interfaces.FileStorageService;
 import fr.dossierfacile.common.service.interfaces.LogService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -43,6 +44,8 @@ public class DocumentServiceImpl implements DocumentService {
     private final DocumentHelperService documentHelperService;
     private final LogService logService;
     private final Producer producer;
+    @Value("${file.processing.fused.enabled:false}")
+    private boolean fusedFileProcessing;
 
     @Override
     @Transactional
@@ -80,6 +83,7 @@ public class DocumentServiceImpl implements DocumentService {
 
         ownerOfDocument.getDocuments().removeIf(d -> Objects.equals(d.getId(), document.getId()));
         documentRepository.delete(document);
+        producer.cancelDocumentJobs(document.getId());
         tenantStatusService.updateTenantStatus(tenantOfDocument);
         apartmentSharingService.resetDossierPdfGenerated(tenantOfDocument.getApartmentSharing());
     }
@@ -128,8 +132,12 @@ public class DocumentServiceImpl implements DocumentService {
     public void addFile(MultipartFile multipartFile, Document document) throws IOException {
         File file = documentHelperService.addFile(multipartFile, document);
         markDocumentAsEdited(document);
-        producer.minifyFile(document.getId(), file.getId());
-        producer.analyzeFile(document.getId(), file.getId());
+        if (fusedFileProcessing) {
+            producer.processFile(document.getId(), file.getId());
+        } else {
+            producer.minifyFile(document.getId(), file.getId());
+            producer.analyzeFile(document.getId(), file.getId());
+        }
     }
 
     @Override
@@ -5,6 +5,7 @@ import fr.dossierfacile.common.entity.Stats;
 import fr.dossierfacile.common.repository.StatsRepository;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -26,6 +27,7 @@ public class StatsServiceImpl implements StatsService {
     }
 
     @Override
+    @CacheEvict(value = "stats-by-key", allEntries = true)
     public void updateStats() {
         Stats processedDossierCount = statsRepository.findByKey(VALIDATED_DOSSIER_COUNT)
                 .orElse(Stats.builder().key(VALIDATED_DOSSIER_COUNT).build());
@@ -39,6 +39,8 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static fr.dossierfacile.common.enums.ApartmentSharingLinkType.MAIL;
 
@@ -165,13 +167,19 @@ public class TenantServiceImpl implements TenantService {
     }
 
     @Override
-    public List<TenantUpdate> findTenantUpdateByCreatedAndPartner(LocalDateTime from, UserApi userApi, Long limit) {
-        return tenantRepository.findTenantUpdateByCreationDateAndPartner(from, userApi.getId(), limit);
+    @Transactional(readOnly = true)
+    public void streamTenantUpdateByCreatedAndPartner(LocalDateTime from, Long fromId, UserApi userApi, Long limit, Consumer<TenantUpdate> consumer) {
+        try (Stream<TenantUpdate> updates = tenantRepository.streamTenantUpdateByCreationDateAndPartner(from, fromId, userApi.getId(), limit)) {
+            updates.forEach(consumer);
+        }
     }
 
     @Override
-    public List<TenantUpdate> findTenantUpdateByLastUpdateAndPartner(LocalDateTime since, UserApi userApi, Long limit, boolean includeDeleted, boolean includeRevoked) {
-        return tenantRepository.findTenantUpdateByLastUpdateAndPartner(since, userApi.getId(), limit, includeDeleted, includeRevoked);
+    @Transactional(readOnly = true)
+    public void streamTenantUpdateByLastUpdateAndPartner(LocalDateTime from, Long fromId, UserApi userApi, Long limit, boolean includeDeleted, boolean includeRevoked, Consumer<TenantUpdate> consumer) {
+        try (Stream<TenantUpdate> updates = tenantRepository.streamTenantUpdateByLastUpdateAndPartner(from, fromId, userApi.getId(), limit, includeDeleted, includeRevoked)) {
+            updates.forEach(consumer);
+        }
     }
 
     @Override
@@ -11,6 +11,8 @@ import fr.dossierfacile.common.entity.UserApi;
 import fr.dossierfacile.common.repository.TenantUserApiRepository;
 import lombok.AllArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -31,6 +33,7 @@ public class UserApiServiceImpl implements UserApiService {
     }
 
     @Override
+    @Cacheable(value = "user-api-by-name", unless = "#result == null")
     public Optional<UserApi> findByName(String partner) {
         return userApiRepository.findByName(partner);
     }
@@ -43,6 +46,7 @@ public class UserApiServiceImpl implements UserApiService {
 
     @Transactional
     @Override
+    @CacheEvict(value = "user-api-by-name", allEntries = true)
     public UserApi update(UserApi userApiParam, PartnerSettings settings) {
         UserApi userApi = userApiRepository.findById(userApiParam.getId()).get();
 
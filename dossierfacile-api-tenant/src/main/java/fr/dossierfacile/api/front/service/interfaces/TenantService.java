@@ -11,6 +11,7 @@ import fr.dossierfacile.common.model.TenantUpdate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface TenantService {
     <T> TenantModel saveStepRegister(Tenant tenant, T formStep, StepRegister step);
@@ -27,9 +28,15 @@ public interface TenantService {
 
     Optional<Tenant> findByEmail(String email);
 
-    List<TenantUpdate> findTenantUpdateByCreatedAndPartner(LocalDateTime from, UserApi userApi, Long limit);
+    /**
+     * Streams the tenants of the partner created after the (from, fromId) cursor to the consumer, without loading the whole page.
+     */
+    void streamTenantUpdateByCreatedAndPartner(LocalDateTime from, Long fromId, UserApi userApi, Long limit, Consumer<TenantUpdate> consumer);
 
-    List<TenantUpdate> findTenantUpdateByLastUpdateAndPartner(LocalDateTime from, UserApi userApi, Long limit, boolean includeDeleted, boolean includeRevoked);
+    /**
+     * Streams the updates of the partner's tenants after the (from, fromId) cursor to the consumer, without loading the whole page.
+     */
+    void streamTenantUpdateByLastUpdateAndPartner(LocalDateTime from, Long fromId, UserApi userApi, Long limit, boolean includeDeleted, boolean includeRevoked, Consumer<TenantUpdate> consumer);
 
     void sendFileByMail(Tenant tenant, String email, String shareType);
 
@@ -0,0 +1,81 @@
+package fr.dossierfacile.api.front.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import fr.dossierfacile.api.front.model.ListMetadata;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.Getter;
+import org.springframework.http.MediaType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Writes a {@link fr.dossierfacile.api.front.model.ResponseWrapper} of a list straight to the response: each item is
+ * serialized as soon as it is read, and the metadata, which depends on the last item, is written after the data.
+ * <p>
+ * When the writer is closed without its metadata, the listing failed: if nothing has been sent yet the response
+ * is reset so that the error handler sets the status, otherwise the document ends with an {@code error} field instead
+ * of the metadata, so that clients can tell an interrupted page from a complete one.
+ */
+public class StreamingListWriter<T> implements Consumer<T>, Closeable {
+    static final String INTERRUPTED_ERROR = "The listing has been interrupted, the page is incomplete";
+
+    private final HttpServletResponse response;
+    private final ObjectWriter itemWriter;
+    private final JsonGenerator generator;
+    private boolean complete;
+    @Getter
+    private long count;
+    @Getter
+    private T last;
+
+    public StreamingListWriter(ObjectMapper objectMapper, HttpServletResponse response) throws IOException {
+        this.response = response;
+        // items are sent when the response buffer is full, not flushed one by one
+        this.itemWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        generator = objectMapper.getFactory().createGenerator(response.getOutputStream());
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("data");
+    }
+
+    @Override
+    public void accept(T item) {
+        try {
+            itemWriter.writeValue(generator, item);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        count++;
+        last = item;
+    }
+
+    public void writeMetadata(ListMetadata metadata) throws IOException {
+        generator.writeEndArray();
+        generator.writeObjectField("metadata", metadata);
+        generator.writeEndObject();
+        complete = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!complete) {
+            if (!response.isCommitted()) {
+                // the items still buffered by the generator are dropped along with the response buffer
+                response.reset();
+                return;
+            }
+            generator.writeEndArray();
+            generator.writeStringField("error", INTERRUPTED_ERROR);
+            generator.writeEndObject();
+        }
+        generator.close();
+    }
+}
@@ -0,0 +1,98 @@
+package fr.dossierfacile.api.front.amqp;
+
+import com.google.gson.Gson;
+import fr.dossierfacile.common.entity.Document;
+import fr.dossierfacile.common.entity.messaging.QueueMessage;
+import fr.dossierfacile.common.entity.messaging.QueueMessageStatus;
+import fr.dossierfacile.common.entity.messaging.QueueName;
+import fr.dossierfacile.common.repository.QueueMessageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProducerTest {
+    private final QueueMessageRepository queueMessageRepository = mock(QueueMessageRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Producer producer = new Producer(queueMessageRepository, mock(AmqpTemplate.class), new Gson(), meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void should_write_one_job_per_document_and_queue_when_transaction_commits() {
+        TransactionSynchronizationManager.initSynchronization();
+        Document document = document(1L);
+
+        producer.sendDocumentForAnalysis(document);
+        producer.sendDocumentForAnalysis(document);
+        producer.sendDocumentForPdfGeneration(document);
+        producer.sendDocumentForPdfGeneration(document);
+        verify(queueMessageRepository, never()).save(any());
+
+        commit();
+
+        verify(queueMessageRepository, times(2)).save(any(QueueMessage.class));
+        assertThat(meterRegistry.counter("document.jobs.coalesced", "stage", "transaction").count()).isEqualTo(2);
+    }
+
+    @Test
+    void should_push_back_job_already_pending() {
+        QueueMessage pending = QueueMessage.builder()
+                .queueName(QueueName.QUEUE_DOCUMENT_WATERMARK_PDF)
+                .documentId(1L)
+                .status(QueueMessageStatus.PENDING)
+                .timestamp(0L)
+                .build();
+        when(queueMessageRepository.findByQueueNameAndDocumentIdAndStatusIn(eq(QueueName.QUEUE_DOCUMENT_WATERMARK_PDF), eq(1L), any()))
+                .thenReturn(List.of(pending));
+
+        producer.sendDocumentForPdfGeneration(document(1L));
+
+        verify(queueMessageRepository).save(pending);
+        assertThat(pending.getTimestamp()).isPositive();
+        assertThat(meterRegistry.counter("document.jobs.coalesced", "stage", "queue").count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_drop_jobs_of_deleted_document() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        producer.sendDocumentForAnalysis(document(1L));
+        producer.sendDocumentForAnalysis(document(2L));
+        producer.cancelDocumentJobs(1L);
+        commit();
+
+        verify(queueMessageRepository).deletePendingMessagesByDocumentId(1L);
+        verify(queueMessageRepository, never()).findByQueueNameAndDocumentIdAndStatusIn(any(), eq(1L), any());
+        verify(queueMessageRepository).findByQueueNameAndDocumentIdAndStatusIn(eq(QueueName.QUEUE_DOCUMENT_ANALYSIS), eq(2L), any());
+    }
+
+    private static void commit() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.beforeCommit(false));
+        TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    private static Document document(Long id) {
+        Document document = new Document();
+        document.setId(id);
+        return document;
+    }
+}
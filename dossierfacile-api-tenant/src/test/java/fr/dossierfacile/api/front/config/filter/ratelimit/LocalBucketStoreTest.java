@@ -0,0 +1,107 @@
+package fr.dossierfacile.api.front.config.filter.ratelimit;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.Refill;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalBucketStoreTest {
+
+    private static final Duration RETENTION = Duration.ofMinutes(1);
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LocalBucketStore store = new LocalBucketStore(10, meterRegistry, now::get);
+
+    @Test
+    void should_reuse_the_bucket_of_a_key() {
+        Bucket bucket = resolve("client");
+        assertThat(bucket.tryConsume(2)).isTrue();
+
+        now.addAndGet(RETENTION.toMillis());
+
+        assertThat(resolve("client")).isSameAs(bucket);
+        assertThat(resolve("client").tryConsume(1)).isFalse();
+        assertThat(resolve("other").tryConsume(1)).isTrue();
+        assertThat(meterRegistry.get("ratelimit.store.size").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void should_forget_a_bucket_idle_for_longer_than_its_retention() {
+        Bucket bucket = resolve("client");
+        bucket.tryConsume(2);
+
+        now.addAndGet(RETENTION.toMillis() + 1);
+
+        Bucket renewed = resolve("client");
+        assertThat(renewed).isNotSameAs(bucket);
+        assertThat(renewed.tryConsume(2)).isTrue();
+    }
+
+    @Test
+    void should_purge_expired_buckets() {
+        resolve("idle");
+        now.addAndGet(RETENTION.toMillis());
+        resolve("active").tryConsume(2);
+        now.addAndGet(1);
+
+        store.purgeExpiredBuckets();
+
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(resolve("active").tryConsume(1)).isFalse();
+    }
+
+    @Test
+    void should_evict_the_least_recently_used_buckets_when_full() {
+        for (int i = 0; i < 10; i++) {
+            resolve("client-" + i).tryConsume(2);
+            now.incrementAndGet();
+        }
+        resolve("client-0");
+        now.incrementAndGet();
+
+        resolve("client-10");
+
+        assertThat(store.size()).isEqualTo(10);
+        assertThat(resolve("client-0").tryConsume(1)).isFalse();
+        assertThat(resolve("client-2").tryConsume(1)).isFalse();
+        assertThat(resolve("client-1").tryConsume(1)).isTrue();
+    }
+
+    @Test
+    void should_never_hold_more_buckets_than_its_maximum_size() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicLong largestSize = new AtomicLong();
+        for (int thread = 0; thread < 8; thread++) {
+            String prefix = "thread-" + thread + "-";
+            executor.execute(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    resolve(prefix + i);
+                    largestSize.accumulateAndGet(store.size(), Math::max);
+                }
+            });
+        }
+        executor.shutdown();
+
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(largestSize.get()).isEqualTo(10);
+        assertThat(store.size()).isEqualTo(10);
+    }
+
+    private Bucket resolve(String key) {
+        BucketConfiguration configuration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.classic(2, Refill.intervally(1, RETENTION)))
+                .build();
+        return store.resolve(key, configuration, RETENTION);
+    }
+}
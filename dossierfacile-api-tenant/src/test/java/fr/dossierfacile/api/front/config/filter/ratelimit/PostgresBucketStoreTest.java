@@ -0,0 +1,97 @@
+package fr.dossierfacile.api.front.config.filter.ratelimit;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.Refill;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PostgresBucketStoreTest {
+
+    private static final Duration RETENTION = Duration.ofMinutes(10);
+
+    private final List<String> statements = new ArrayList<>();
+    private final List<Timestamp> expirationDates = new ArrayList<>();
+    private byte[] state;
+    private boolean exists;
+    private PostgresBucketStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation -> statement(invocation.getArgument(0)));
+        store = new PostgresBucketStore(dataSource, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void should_create_a_bucket_with_its_expiration_date() {
+        assertThat(resolve().tryConsume(1)).isTrue();
+
+        assertThat(statements)
+                .containsOnlyOnce("INSERT INTO rate_limit_bucket (id, state, expiration_date) VALUES (?, null, ?) ON CONFLICT (id) DO NOTHING")
+                .endsWith("UPDATE rate_limit_bucket SET state = ?, expiration_date = ? WHERE id = ?");
+        assertThat(expirationDates).hasSize(2).allSatisfy(date ->
+                assertThat(date.toLocalDateTime()).isAfter(LocalDateTime.now().plus(RETENTION).minusMinutes(1)));
+    }
+
+    @Test
+    void should_reuse_the_stored_state_without_any_other_statement() {
+        resolve().tryConsume(2);
+        statements.clear();
+
+        assertThat(resolve().tryConsume(1)).isFalse();
+
+        // the consumption is rejected: bucket4j releases the lock without updating the state
+        assertThat(statements).containsExactly("SELECT state FROM rate_limit_bucket WHERE id = ? FOR UPDATE");
+    }
+
+    private Bucket resolve() {
+        BucketConfiguration configuration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.classic(2, Refill.intervally(1, RETENTION)))
+                .build();
+        return store.resolve("client", configuration, RETENTION);
+    }
+
+    private PreparedStatement statement(String sql) throws Exception {
+        statements.add(sql);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        doAnswer(invocation -> expirationDates.add(invocation.getArgument(1)))
+                .when(statement).setTimestamp(anyInt(), any(Timestamp.class));
+        doAnswer(invocation -> state = invocation.getArgument(1))
+                .when(statement).setBytes(eq(1), any());
+        when(statement.executeUpdate()).thenAnswer(invocation -> {
+            exists = true;
+            return 1;
+        });
+        when(statement.executeQuery()).thenAnswer(invocation -> {
+            ResultSet resultSet = mock(ResultSet.class);
+            when(resultSet.next()).thenReturn(exists);
+            when(resultSet.getBytes("state")).thenReturn(state);
+            return resultSet;
+        });
+        return statement;
+    }
+}
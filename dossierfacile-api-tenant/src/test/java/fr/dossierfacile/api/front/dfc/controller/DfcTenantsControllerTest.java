@@ -1,24 +1,38 @@
 package fr.dossierfacile.api.front.dfc.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import fr.dossierfacile.api.front.security.interfaces.ClientAuthenticationFacade;
 import fr.dossierfacile.api.front.service.interfaces.TenantService;
+import fr.dossierfacile.common.model.TenantUpdate;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 class DfcTenantsControllerTest {
 
+    private final TenantService tenantService = mock(TenantService.class);
     private MockMvc mvc;
 
     @BeforeEach
     public void setUp() {
-        var controller = new DfcTenantsController(mock(ClientAuthenticationFacade.class), mock(TenantService.class), null, null);
+        var controller = new DfcTenantsController(mock(ClientAuthenticationFacade.class), tenantService, null, null,
+                new ObjectMapper().findAndRegisterModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
         mvc = MockMvcBuilders.standaloneSetup(controller).build();
     }
 
@@ -38,4 +52,46 @@ class DfcTenantsControllerTest {
                 {"data":[],"metadata":{"limit":10,"resultCount":0,"nextLink":"/dfc/api/v1/tenants?limit=10&after=2020-01-31T10:30&includeDeleted=true&includeRevoked=false"}}""");
     }
 
-}
\ No newline at end of file
+    @Test
+    void should_stream_tenants_and_link_to_next_page_with_keyset_cursor() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<TenantUpdate> consumer = invocation.getArgument(6);
+            consumer.accept(new SimpleTenantUpdate(12L, 3L, LocalDateTime.parse("2024-01-01T10:00")));
+            consumer.accept(new SimpleTenantUpdate(15L, 4L, LocalDateTime.parse("2024-01-01T10:00")));
+            return null;
+        }).when(tenantService).streamTenantUpdateByLastUpdateAndPartner(any(), any(), any(), anyLong(), anyBoolean(), anyBoolean(), any());
+
+        String contentAsString = mvc.perform(get("/dfc/api/v1/tenants").queryParam("limit", "2"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse().getContentAsString();
+
+        assertThat(contentAsString).isEqualToIgnoringNewLines("""
+                {"data":[{"id":12,"apartmentSharingId":3,"lastUpdateDate":"2024-01-01T10:00:00","creationDate":null,"deletionDate":null,"revocationDate":null},\
+                {"id":15,"apartmentSharingId":4,"lastUpdateDate":"2024-01-01T10:00:00","creationDate":null,"deletionDate":null,"revocationDate":null}],\
+                "metadata":{"limit":2,"resultCount":2,"nextLink":"/dfc/api/v1/tenants?limit=2&after=2024-01-01T10:00&afterId=15&includeDeleted=false&includeRevoked=false"}}""");
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class SimpleTenantUpdate implements TenantUpdate {
+        private final Long id;
+        private final Long apartmentSharingId;
+        private final LocalDateTime lastUpdateDate;
+
+        @Override
+        public LocalDateTime getCreationDate() {
+            return null;
+        }
+
+        @Override
+        public LocalDateTime getDeletionDate() {
+            return null;
+        }
+
+        @Override
+        public LocalDateTime getRevocationDate() {
+            return null;
+        }
+    }
+}
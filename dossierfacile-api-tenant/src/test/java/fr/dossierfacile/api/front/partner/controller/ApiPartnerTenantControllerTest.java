@@ -1,5 +1,7 @@
 package fr.dossierfacile.api.front.partner.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import fr.dossierfacile.api.front.security.interfaces.ClientAuthenticationFacade;
 import fr.dossierfacile.api.front.service.interfaces.TenantService;
 import org.junit.jupiter.api.BeforeEach;
@@ -18,7 +20,8 @@ class ApiPartnerTenantControllerTest {
 
     @BeforeEach
     public void setUp() {
-        var controller = new ApiPartnerTenantController(mock(ClientAuthenticationFacade.class), mock(TenantService.class), null, null);
+        var controller = new ApiPartnerTenantController(mock(ClientAuthenticationFacade.class), mock(TenantService.class), null, null,
+                new ObjectMapper().findAndRegisterModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
         mvc = MockMvcBuilders.standaloneSetup(controller).build();
     }
 
@@ -0,0 +1,52 @@
+package fr.dossierfacile.api.front.repository;
+
+import fr.dossierfacile.common.entity.ApartmentSharing;
+import fr.dossierfacile.common.mapper.ApplicationFullMapperImpl;
+import fr.dossierfacile.common.mapper.VersionedCategoriesMapper;
+import fr.dossierfacile.common.model.apartment_sharing.ApplicationModel;
+import fr.dossierfacile.common.model.apartment_sharing.TenantModel;
+import fr.dossierfacile.common.repository.ApartmentSharingRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.jdbc.Sql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Sql("/data-application-full.sql")
+class ApplicationFullFetchPlanTest {
+
+    @Autowired
+    private ApartmentSharingRepository apartmentSharingRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Test
+    void should_render_the_full_application_with_one_query_per_association_level() {
+        ApplicationFullMapperImpl mapper = new ApplicationFullMapperImpl();
+        mapper.setCategoriesMapper(new VersionedCategoriesMapper());
+        Statistics statistics = testEntityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        testEntityManager.clear();
+        statistics.clear();
+
+        ApartmentSharing apartmentSharing = apartmentSharingRepository.findWithTenantsById(1L).orElseThrow();
+        ApplicationModel application = mapper.toApplicationModel(apartmentSharing, null);
+
+        assertThat(application.getTenants()).hasSize(2);
+        assertThat(application.getTenants()).flatMap(TenantModel::getDocuments).hasSize(3);
+        assertThat(application.getTenants()).flatMap(TenantModel::getGuarantors).hasSize(3);
+        // apartment sharing with its tenants, then guarantors, tenant documents and guarantor documents by batch;
+        // the inverse one-to-ones (confirmation token of each tenant, analysis report of each document) are still
+        // read one by one
+        long batchedQueries = 4;
+        long tenants = 2;
+        long documents = 6;
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(batchedQueries + tenants + documents);
+    }
+}
@@ -0,0 +1,69 @@
+package fr.dossierfacile.api.front.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.jdbc.Sql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The authenticity status of a tax document is rendered from its barcode analysis: changing the analysis must change
+ * the model version of the apartment sharing.
+ */
+@PostgresRepositoryTest
+@Sql("/postgres/data-barcode-file-analysis.sql")
+class BarCodeFileAnalysisVersionTest {
+
+    private static final long APARTMENT_SHARING_ID = 50;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void should_bump_the_version_when_an_analysis_is_inserted() {
+        long before = modelVersion();
+
+        execute("INSERT INTO barcode_file_analysis (id, file_id, document_type, bar_code_content, bar_code_type, authentication_status, allowed_in_document_category)"
+                + " VALUES (500, 500, 'TAX_ASSESSMENT', 'content', 'TWO_D_DOC', 'VALID', true)");
+
+        assertThat(modelVersion()).isGreaterThan(before);
+    }
+
+    @Test
+    void should_bump_the_version_when_the_authentication_status_of_a_guarantor_file_changes() {
+        long before = modelVersion();
+
+        execute("UPDATE barcode_file_analysis SET authentication_status = 'INVALID' WHERE id = 501");
+
+        assertThat(modelVersion()).isGreaterThan(before);
+    }
+
+    @Test
+    void should_not_bump_the_version_when_no_rendered_column_changes() {
+        long before = modelVersion();
+
+        execute("UPDATE barcode_file_analysis SET bar_code_content = 'other content' WHERE id = 501");
+
+        assertThat(modelVersion()).isEqualTo(before);
+    }
+
+    @Test
+    void should_bump_the_version_when_an_analysis_is_deleted() {
+        long before = modelVersion();
+
+        execute("DELETE FROM barcode_file_analysis WHERE id = 501");
+
+        assertThat(modelVersion()).isGreaterThan(before);
+    }
+
+    private void execute(String statement) {
+        entityManager.createNativeQuery(statement).executeUpdate();
+    }
+
+    private long modelVersion() {
+        return ((Number) entityManager.createNativeQuery("SELECT model_version FROM apartment_sharing WHERE id = :id")
+                .setParameter("id", APARTMENT_SHARING_ID)
+                .getSingleResult()).longValue();
+    }
+}
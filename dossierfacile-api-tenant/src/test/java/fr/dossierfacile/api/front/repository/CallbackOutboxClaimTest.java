@@ -0,0 +1,37 @@
+package fr.dossierfacile.api.front.repository;
+
+import fr.dossierfacile.common.entity.messaging.CallbackOutboxMessage;
+import fr.dossierfacile.common.repository.CallbackOutboxRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@PostgresRepositoryTest
+@Sql("/postgres/data-callback-outbox.sql")
+class CallbackOutboxClaimTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.parse("2024-06-01T10:00:00");
+
+    @Autowired
+    private CallbackOutboxRepository callbackOutboxRepository;
+
+    @Test
+    void should_count_the_callbacks_in_progress_and_claim_one_callback_at_a_time_by_tenant() {
+        assertThat(callbackOutboxRepository.claimDueMessages(NOW, NOW.plusMinutes(5), 3, 10))
+                .extracting(CallbackOutboxMessage::getId)
+                .containsExactlyInAnyOrder(510L, 520L, 600L);
+    }
+
+    @Test
+    void should_only_delete_a_callback_superseded_by_a_newer_one() {
+        assertThat(callbackOutboxRepository.deleteIfSuperseded(510L)).isZero();
+        assertThat(callbackOutboxRepository.deleteIfSuperseded(500L)).isEqualTo(1);
+
+        assertThat(callbackOutboxRepository.findById(500L)).isEmpty();
+        assertThat(callbackOutboxRepository.findById(501L)).isPresent();
+    }
+}
@@ -0,0 +1,78 @@
+package fr.dossierfacile.api.front.repository;
+
+import fr.dossierfacile.common.entity.Tenant;
+import fr.dossierfacile.common.repository.TenantCommonRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.AFTER_TEST_METHOD;
+
+@PostgresRepositoryTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Sql("/postgres/data-claim-applications.sql")
+@Sql(scripts = "/postgres/delete-claim-applications.sql", executionPhase = AFTER_TEST_METHOD)
+class ClaimNextApplicationTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.parse("2024-06-01T10:00:00");
+    private static final long LEASE_MINUTES = 10;
+
+    @Autowired
+    private TenantCommonRepository tenantRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void should_skip_the_application_locked_by_a_concurrent_claim() {
+        TransactionTemplate concurrentTransaction = new TransactionTemplate(transactionManager);
+        concurrentTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        List<Long> claimed = new TransactionTemplate(transactionManager).execute(status -> {
+            Long first = claim(NOW, 1L);
+            // the first claim is not committed yet: the row it updated is still locked
+            Long second = concurrentTransaction.execute(inner -> claim(NOW, 2L));
+            return Arrays.asList(first, second);
+        });
+
+        assertThat(claimed).containsExactly(30L, 31L);
+    }
+
+    @Test
+    void should_give_each_application_to_one_operator_until_its_lease_expires() {
+        assertThat(claimInTransaction(NOW, 1L)).isEqualTo(30L);
+        assertThat(claimInTransaction(NOW, 2L)).isEqualTo(31L);
+        assertThat(claimInTransaction(NOW, 3L)).isEqualTo(32L);
+        assertThat(claimInTransaction(NOW.plusMinutes(LEASE_MINUTES - 1), 4L)).isNull();
+
+        assertThat(claimInTransaction(NOW.plusMinutes(LEASE_MINUTES + 1), 4L)).isEqualTo(30L);
+    }
+
+    @Test
+    void should_show_the_lease_to_the_tenant_loaded_after_the_claim() {
+        Tenant tenant = new TransactionTemplate(transactionManager).execute(status -> {
+            Long tenantId = claim(NOW, 1L);
+            return tenantRepository.findById(tenantId).orElseThrow();
+        });
+
+        assertThat(tenant.getOperatorDateTime()).isEqualTo(NOW);
+    }
+
+    private Long claimInTransaction(LocalDateTime now, Long operatorId) {
+        return new TransactionTemplate(transactionManager).execute(status -> claim(now, operatorId));
+    }
+
+    private Long claim(LocalDateTime now, Long operatorId) {
+        return tenantRepository.claimNextApplication(now.minusMinutes(LEASE_MINUTES), now, operatorId);
+    }
+}
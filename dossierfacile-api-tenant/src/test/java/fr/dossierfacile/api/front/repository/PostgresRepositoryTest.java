@@ -0,0 +1,33 @@
+package fr.dossierfacile.api.front.repository;
+
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Repository test of a statement that H2 cannot run (RETURNING, SKIP LOCKED, plpgsql triggers): it runs against the
+ * PostgreSQL database of POSTGRES_TEST_URL, migrated by Liquibase, and is skipped when that variable is not set.
+ * <p>
+ * e.g. {@code POSTGRES_TEST_URL=jdbc:postgresql://localhost:5432/dossierfacile_test mvn test}
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@EnabledIfEnvironmentVariable(named = "POSTGRES_TEST_URL", matches = ".+")
+@DataJpaTest(properties = {
+        "spring.datasource.url=${POSTGRES_TEST_URL}",
+        "spring.datasource.driver-class-name=org.postgresql.Driver",
+        "spring.datasource.username=${POSTGRES_TEST_USERNAME:postgres}",
+        "spring.datasource.password=${POSTGRES_TEST_PASSWORD:}",
+        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.liquibase.enabled=true",
+        "spring.liquibase.change-log=classpath:db/changelog/databaseChangeLog.xml"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@interface PostgresRepositoryTest {
+}
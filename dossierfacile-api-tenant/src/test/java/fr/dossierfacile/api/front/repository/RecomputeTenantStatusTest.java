@@ -0,0 +1,82 @@
+package fr.dossierfacile.api.front.repository;
+
+import fr.dossierfacile.common.entity.Tenant;
+import fr.dossierfacile.common.enums.TenantFileStatus;
+import fr.dossierfacile.common.repository.TenantCommonRepository;
+import fr.dossierfacile.common.service.TenantCommonServiceImpl;
+import fr.dossierfacile.common.service.interfaces.ApartmentSharingCommonService;
+import fr.dossierfacile.common.service.interfaces.TenantCommonService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static fr.dossierfacile.common.enums.TenantFileStatus.ARCHIVED;
+import static fr.dossierfacile.common.enums.TenantFileStatus.DECLINED;
+import static fr.dossierfacile.common.enums.TenantFileStatus.INCOMPLETE;
+import static fr.dossierfacile.common.enums.TenantFileStatus.TO_PROCESS;
+import static fr.dossierfacile.common.enums.TenantFileStatus.VALIDATED;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@PostgresRepositoryTest
+@Import(TenantCommonServiceImpl.class)
+@Sql("/postgres/data-tenant-statuses.sql")
+class RecomputeTenantStatusTest {
+
+    private static final List<Long> TENANT_IDS = List.of(40L, 41L, 42L, 43L, 44L, 45L, 46L);
+
+    @Autowired
+    private TenantCommonService tenantCommonService;
+
+    @Autowired
+    private TenantCommonRepository tenantRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockBean
+    private ApartmentSharingCommonService apartmentSharingCommonService;
+
+    @Test
+    void should_store_the_status_computed_by_the_tenant_and_count_the_changes() {
+        int updated = tenantCommonService.recomputeStatus(TENANT_IDS);
+        entityManager.clear();
+
+        assertThat(updated).isEqualTo(5);
+        assertThat(tenantRepository.findAllById(TENANT_IDS)).allSatisfy(tenant ->
+                assertThat(tenant.getStatus()).isEqualTo(tenant.computeStatus()));
+        assertThat(storedStatuses()).containsExactlyInAnyOrderEntriesOf(Map.of(
+                40L, VALIDATED,
+                41L, DECLINED,
+                42L, INCOMPLETE,
+                43L, TO_PROCESS,
+                44L, ARCHIVED,
+                45L, INCOMPLETE,
+                46L, INCOMPLETE));
+    }
+
+    @Test
+    void should_refresh_the_tenants_already_loaded() {
+        Tenant tenant = tenantRepository.findById(40L).orElseThrow();
+
+        tenantCommonService.recomputeStatus(List.of(40L));
+
+        assertThat(tenant.getStatus()).isEqualTo(VALIDATED);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, TenantFileStatus> storedStatuses() {
+        List<Object[]> rows = entityManager.createNativeQuery("SELECT id, status FROM tenant WHERE id IN (:ids)")
+                .setParameter("ids", TENANT_IDS)
+                .getResultList();
+        return rows.stream().collect(Collectors.toMap(
+                row -> ((Number) row[0]).longValue(),
+                row -> TenantFileStatus.valueOf((String) row[1])));
+    }
+}
@@ -0,0 +1,15 @@
+package fr.dossierfacile.api.front.repository;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * Found by the @DataJpaTest of this package instead of FrontApplication, whose own component scan would load
+ * every service of the application.
+ */
+@SpringBootConfiguration
+@EntityScan(basePackages = "fr.dossierfacile")
+@EnableJpaRepositories(basePackages = "fr.dossierfacile")
+class RepositoryTestConfiguration {
+}
@@ -0,0 +1,64 @@
+package fr.dossierfacile.api.front.repository;
+
+import fr.dossierfacile.common.model.TenantUpdate;
+import fr.dossierfacile.common.repository.TenantCommonRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Sql("/data-tenant-updates.sql")
+class TenantUpdateKeysetPaginationTest {
+
+    private static final LocalDateTime TEN_O_CLOCK = LocalDateTime.parse("2024-01-01T10:00:00");
+    private static final Long PARTNER_ID = 1L;
+
+    @Autowired
+    private TenantCommonRepository tenantRepository;
+
+    @Test
+    void should_page_on_last_update_date_then_id_across_equal_dates() {
+        assertThat(byLastUpdate(null, null, 2, false)).containsExactly(10L, 11L);
+        assertThat(byLastUpdate(TEN_O_CLOCK, 11L, 2, false)).containsExactly(12L, 13L);
+        assertThat(byLastUpdate(TEN_O_CLOCK.plusSeconds(1), 13L, 2, false)).isEmpty();
+    }
+
+    @Test
+    void should_interleave_deleted_tenants_with_updated_ones_on_the_same_cursor() {
+        assertThat(byLastUpdate(null, null, 3, true)).containsExactly(10L, 11L, 12L);
+        assertThat(byLastUpdate(TEN_O_CLOCK, 12L, 3, true)).containsExactly(20L, 13L);
+    }
+
+    @Test
+    void should_skip_rows_of_the_cursor_date_without_after_id() {
+        assertThat(byLastUpdate(TEN_O_CLOCK, null, 10, true)).containsExactly(13L);
+    }
+
+    @Test
+    void should_page_on_creation_date_then_id_across_equal_dates() {
+        assertThat(byCreation(null, null, 2)).containsExactly(10L, 11L);
+        assertThat(byCreation(TEN_O_CLOCK, 11L, 2)).containsExactly(12L, 13L);
+        assertThat(byCreation(TEN_O_CLOCK, null, 2)).containsExactly(13L);
+    }
+
+    private List<Long> byLastUpdate(LocalDateTime after, Long afterId, long limit, boolean includeDeleted) {
+        try (Stream<TenantUpdate> updates = tenantRepository.streamTenantUpdateByLastUpdateAndPartner(
+                after, afterId, PARTNER_ID, limit, includeDeleted, false)) {
+            return updates.map(TenantUpdate::getId).toList();
+        }
+    }
+
+    private List<Long> byCreation(LocalDateTime after, Long afterId, long limit) {
+        try (Stream<TenantUpdate> updates = tenantRepository.streamTenantUpdateByCreationDateAndPartner(
+                after, afterId, PARTNER_ID, limit)) {
+            return updates.map(TenantUpdate::getId).toList();
+        }
+    }
+}
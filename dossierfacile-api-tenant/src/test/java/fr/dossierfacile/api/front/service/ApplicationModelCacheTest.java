@@ -0,0 +1,87 @@
+package fr.dossierfacile.api.front.service;
+
+import fr.dossierfacile.common.model.ApartmentSharingVersion;
+import fr.dossierfacile.common.model.apartment_sharing.ApplicationModel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static fr.dossierfacile.api.front.service.ApplicationModelCache.View.FULL;
+import static fr.dossierfacile.api.front.service.ApplicationModelCache.View.LIGHT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ApplicationModelCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ApplicationModelCache cache = new ApplicationModelCache(2, meterRegistry);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void should_serve_same_version_from_cache() {
+        ApplicationModel first = cache.get(FULL, version(1L, 3L), loader());
+        ApplicationModel second = cache.get(FULL, version(1L, 3L), loader());
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_reload_when_version_changes() {
+        ApplicationModel first = cache.get(FULL, version(1L, 3L), loader());
+        ApplicationModel second = cache.get(FULL, version(1L, 4L), loader());
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(cache.get(FULL, version(1L, 4L), loader())).isSameAs(second);
+        assertThat(loads).hasValue(2);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void should_cache_views_separately() {
+        ApplicationModel full = cache.get(FULL, version(1L, 3L), loader());
+        ApplicationModel light = cache.get(LIGHT, version(1L, 3L), loader());
+
+        assertThat(light).isNotSameAs(full);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void should_evict_least_recently_used_entry() {
+        cache.get(FULL, version(1L, 0L), loader());
+        cache.get(FULL, version(2L, 0L), loader());
+        cache.get(FULL, version(1L, 0L), loader());
+        cache.get(FULL, version(3L, 0L), loader());
+
+        cache.get(FULL, version(1L, 0L), loader());
+        cache.get(FULL, version(2L, 0L), loader());
+
+        assertThat(loads).hasValue(4);
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(meterRegistry.get("cache.evictions").counter().count()).isEqualTo(2);
+    }
+
+    private Supplier<ApplicationModel> loader() {
+        return () -> {
+            loads.incrementAndGet();
+            return new ApplicationModel();
+        };
+    }
+
+    private static ApartmentSharingVersion version(Long id, Long modelVersion) {
+        return new ApartmentSharingVersion() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getModelVersion() {
+                return modelVersion;
+            }
+        };
+    }
+}
@@ -0,0 +1,60 @@
+package fr.dossierfacile.api.front.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.dossierfacile.api.front.model.ListMetadata;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StreamingListWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    void should_write_items_then_metadata() throws Exception {
+        try (StreamingListWriter<Map<String, Integer>> writer = new StreamingListWriter<>(objectMapper, response)) {
+            writer.accept(Map.of("id", 1));
+            writer.writeMetadata(ListMetadata.builder().limit(10L).resultCount(writer.getCount()).build());
+        }
+
+        JsonNode body = objectMapper.readTree(response.getContentAsString());
+        assertThat(body.get("data")).hasSize(1);
+        assertThat(body.get("metadata").get("resultCount").asLong()).isEqualTo(1);
+        assertThat(body.has("error")).isFalse();
+    }
+
+    @Test
+    void should_reset_the_response_when_nothing_has_been_sent_yet() throws Exception {
+        assertThatThrownBy(() -> {
+            try (StreamingListWriter<Map<String, Integer>> writer = new StreamingListWriter<>(objectMapper, response)) {
+                writer.accept(Map.of("id", 1));
+                throw new IllegalStateException("database unavailable");
+            }
+        }).isInstanceOf(IllegalStateException.class);
+
+        assertThat(response.isCommitted()).isFalse();
+        assertThat(response.getContentAsString()).isEmpty();
+    }
+
+    @Test
+    void should_end_with_an_error_instead_of_metadata_once_the_response_is_committed() throws Exception {
+        assertThatThrownBy(() -> {
+            try (StreamingListWriter<Map<String, Integer>> writer = new StreamingListWriter<>(objectMapper, response)) {
+                writer.accept(Map.of("id", 1));
+                response.setCommitted(true);
+                throw new IllegalStateException("database unavailable");
+            }
+        }).isInstanceOf(IllegalStateException.class);
+
+        JsonNode body = objectMapper.readTree(response.getContentAsString());
+        assertThat(body.get("data")).hasSize(1);
+        assertThat(body.get("error").asText()).isEqualTo(StreamingListWriter.INTERRUPTED_ERROR);
+        assertThat(body.has("metadata")).isFalse();
+    }
+}
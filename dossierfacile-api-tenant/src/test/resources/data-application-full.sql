@@ -0,0 +1,52 @@
+-- character varying[] and jsonb columns cannot be generated on H2; created first so that the rows below are still rolled back
+DROP TABLE IF EXISTS storage_file;
+CREATE TABLE storage_file (
+    id bigint generated by default as identity primary key,
+    created_date timestamp,
+    last_modified_date timestamp,
+    created_by varchar(255),
+    last_modified_by varchar(255),
+    encryption_key_id bigint,
+    size bigint,
+    content_type varchar(255),
+    label varchar(255),
+    md5 varchar(255),
+    name varchar(255),
+    path varchar(255),
+    provider varchar(255),
+    status varchar(255),
+    providers varchar array
+);
+DROP TABLE IF EXISTS document_analysis_report;
+CREATE TABLE document_analysis_report (
+    id bigint generated by default as identity primary key,
+    document_id bigint unique,
+    analysis_status varchar(255),
+    broken_rules varchar,
+    comment varchar(255)
+);
+
+-- A couple with guarantors, every tenant and guarantor holding documents
+INSERT INTO apartment_sharing (id, token, token_public, application_type, last_update_date)
+VALUES (1, 'full-token', 'light-token', 'COUPLE', TIMESTAMP '2024-01-01 10:00:00');
+
+INSERT INTO user_account (id, creation_date, email, first_name, last_name, enabled, france_connect, user_type)
+VALUES (1, TIMESTAMP '2024-01-01 10:00:00', 'tenant1@example.com', 'Prénom', 'Nom', true, false, 'TENANT'),
+       (2, TIMESTAMP '2024-01-01 10:00:00', NULL, 'PrenomConjoint', 'NomConjoint', true, false, 'TENANT');
+
+INSERT INTO tenant (id, tenant_type, apartment_sharing_id, honor_declaration, last_update_date, status, warnings)
+VALUES (1, 'CREATE', 1, true, TIMESTAMP '2024-01-01 10:00:00', 'TO_PROCESS', 0),
+       (2, 'JOIN', 1, true, TIMESTAMP '2024-01-01 10:00:00', 'TO_PROCESS', 0);
+
+INSERT INTO guarantor (id, first_name, last_name, type_guarantor, tenant_id)
+VALUES (1, 'Garant', 'Un', 'NATURAL_PERSON', 1),
+       (2, 'Garant', 'Deux', 'NATURAL_PERSON', 1),
+       (3, 'Garant', 'Trois', 'NATURAL_PERSON', 2);
+
+INSERT INTO document (id, name, document_category, document_sub_category, tenant_id, guarantor_id, document_status)
+VALUES (1, 'doc-1', 'IDENTIFICATION', 'FRENCH_IDENTITY_CARD', 1, NULL, 'TO_PROCESS'),
+       (2, 'doc-2', 'RESIDENCY', 'TENANT', 1, NULL, 'TO_PROCESS'),
+       (3, 'doc-3', 'IDENTIFICATION', 'FRENCH_IDENTITY_CARD', 2, NULL, 'TO_PROCESS'),
+       (4, 'doc-4', 'IDENTIFICATION', 'FRENCH_IDENTITY_CARD', NULL, 1, 'TO_PROCESS'),
+       (5, 'doc-5', 'IDENTIFICATION', 'FRENCH_IDENTITY_CARD', NULL, 2, 'TO_PROCESS'),
+       (6, 'doc-6', 'IDENTIFICATION', 'FRENCH_IDENTITY_CARD', NULL, 3, 'TO_PROCESS');
@@ -0,0 +1,44 @@
+-- bigint[] and jsonb columns cannot be generated on H2; created first so that the rows below are still rolled back
+DROP TABLE IF EXISTS tenant_log;
+CREATE TABLE tenant_log (
+    id bigint generated by default as identity primary key,
+    tenant_id bigint,
+    operator_id bigint,
+    creation_date timestamp,
+    log_type varchar(255),
+    user_apis bigint array,
+    json_profile varchar,
+    log_details varchar,
+    message_id bigint
+);
+
+-- Tenants 10 to 12 and the deleted tenant 20 share the same event date: pages must not skip nor repeat them
+INSERT INTO apartment_sharing (id, application_type, last_update_date)
+VALUES (1, 'GROUP', TIMESTAMP '2024-01-01 10:00:00');
+
+INSERT INTO user_api (id, name, disabled)
+VALUES (1, 'partner', false), (2, 'other-partner', false);
+
+INSERT INTO user_account (id, creation_date, email, enabled, france_connect, user_type)
+VALUES (10, TIMESTAMP '2024-01-01 10:00:00', 'tenant10@example.com', true, false, 'TENANT'),
+       (11, TIMESTAMP '2024-01-01 10:00:00', 'tenant11@example.com', true, false, 'TENANT'),
+       (12, TIMESTAMP '2024-01-01 10:00:00', 'tenant12@example.com', true, false, 'TENANT'),
+       (13, TIMESTAMP '2024-01-01 10:00:01', 'tenant13@example.com', true, false, 'TENANT'),
+       (14, TIMESTAMP '2024-01-01 10:00:00', 'tenant14@example.com', true, false, 'TENANT');
+
+INSERT INTO tenant (id, tenant_type, apartment_sharing_id, honor_declaration, last_update_date, status, warnings)
+VALUES (10, 'CREATE', 1, true, TIMESTAMP '2024-01-01 10:00:00', 'INCOMPLETE', 0),
+       (11, 'JOIN', 1, true, TIMESTAMP '2024-01-01 10:00:00', 'INCOMPLETE', 0),
+       (12, 'JOIN', 1, true, TIMESTAMP '2024-01-01 10:00:00', 'INCOMPLETE', 0),
+       (13, 'JOIN', 1, true, TIMESTAMP '2024-01-01 10:00:01', 'INCOMPLETE', 0),
+       (14, 'JOIN', 1, true, TIMESTAMP '2024-01-01 10:00:00', 'INCOMPLETE', 0);
+
+INSERT INTO tenant_userapi (tenant_id, userapi_id, access_granted_date)
+VALUES (10, 1, TIMESTAMP '2024-01-01 10:00:00'),
+       (11, 1, TIMESTAMP '2024-01-01 10:00:00'),
+       (12, 1, TIMESTAMP '2024-01-01 10:00:00'),
+       (13, 1, TIMESTAMP '2024-01-01 10:00:00'),
+       (14, 2, TIMESTAMP '2024-01-01 10:00:00');
+
+INSERT INTO tenant_log (tenant_id, creation_date, log_type, user_apis)
+VALUES (20, TIMESTAMP '2024-01-01 10:00:00', 'ACCOUNT_DELETE', ARRAY[1]);
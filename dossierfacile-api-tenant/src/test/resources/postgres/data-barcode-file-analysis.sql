@@ -0,0 +1,23 @@
+-- 500: tax document of the tenant, 501: tax document of its guarantor
+INSERT INTO apartment_sharing (id, application_type, last_update_date)
+VALUES (50, 'ALONE', TIMESTAMP '2024-06-01 09:00:00');
+
+INSERT INTO user_account (id, creation_date, email, enabled, france_connect, user_type)
+VALUES (50, TIMESTAMP '2024-06-01 09:00:00', 'barcode50@example.com', true, false, 'TENANT');
+
+INSERT INTO tenant (id, tenant_type, apartment_sharing_id, honor_declaration, last_update_date, status, warnings)
+VALUES (50, 'CREATE', 50, true, TIMESTAMP '2024-06-01 09:00:00', 'TO_PROCESS', 0);
+
+INSERT INTO guarantor (id, tenant_id, type_guarantor)
+VALUES (50, 50, 'NATURAL_PERSON');
+
+INSERT INTO document (id, tenant_id, guarantor_id, document_category, document_status)
+VALUES (500, 50, null, 'TAX', 'TO_PROCESS'),
+       (501, null, 50, 'TAX', 'TO_PROCESS');
+
+INSERT INTO file (id, document_id)
+VALUES (500, 500),
+       (501, 501);
+
+INSERT INTO barcode_file_analysis (id, file_id, document_type, bar_code_content, bar_code_type, authentication_status, allowed_in_document_category)
+VALUES (501, 501, 'TAX_ASSESSMENT', 'content', 'TWO_D_DOC', 'VALID', true);
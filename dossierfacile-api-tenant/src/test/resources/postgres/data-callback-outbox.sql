@@ -0,0 +1,8 @@
+-- Partner 1 has callback 500 in progress, so 501 of the same tenant waits for it and only two more can be claimed
+INSERT INTO callback_outbox (id, tenant_id, user_api_id, content, creation_date, next_attempt_date, attempts, status)
+VALUES (500, 50, 1, '{}', TIMESTAMP '2024-06-01 09:00:00', TIMESTAMP '2024-06-01 10:05:00', 1, 'PROCESSING'),
+       (501, 50, 1, '{}', TIMESTAMP '2024-06-01 09:01:00', TIMESTAMP '2024-06-01 09:01:00', 0, 'PENDING'),
+       (510, 51, 1, '{}', TIMESTAMP '2024-06-01 09:02:00', TIMESTAMP '2024-06-01 09:02:00', 0, 'PENDING'),
+       (520, 52, 1, '{}', TIMESTAMP '2024-06-01 09:03:00', TIMESTAMP '2024-06-01 09:03:00', 0, 'PENDING'),
+       (530, 53, 1, '{}', TIMESTAMP '2024-06-01 09:04:00', TIMESTAMP '2024-06-01 09:04:00', 0, 'PENDING'),
+       (600, 60, 2, '{}', TIMESTAMP '2024-06-01 09:05:00', TIMESTAMP '2024-06-01 09:05:00', 0, 'PENDING');
@@ -0,0 +1,13 @@
+-- Committed rows: the claims are made by concurrent transactions. Tenants 30 to 32 are queued in this order.
+INSERT INTO apartment_sharing (id, application_type, last_update_date)
+VALUES (30, 'ALONE', TIMESTAMP '2024-06-01 09:00:00');
+
+INSERT INTO user_account (id, creation_date, email, enabled, france_connect, user_type)
+VALUES (30, TIMESTAMP '2024-06-01 09:00:00', 'claim30@example.com', true, false, 'TENANT'),
+       (31, TIMESTAMP '2024-06-01 09:00:00', 'claim31@example.com', true, false, 'TENANT'),
+       (32, TIMESTAMP '2024-06-01 09:00:00', 'claim32@example.com', true, false, 'TENANT');
+
+INSERT INTO tenant (id, tenant_type, apartment_sharing_id, honor_declaration, last_update_date, status, warnings)
+VALUES (30, 'CREATE', 30, true, TIMESTAMP '2024-06-01 09:00:00', 'TO_PROCESS', 0),
+       (31, 'JOIN', 30, true, TIMESTAMP '2024-06-01 09:00:01', 'TO_PROCESS', 0),
+       (32, 'JOIN', 30, true, TIMESTAMP '2024-06-01 09:00:02', 'TO_PROCESS', 0);
@@ -0,0 +1,51 @@
+-- Stored statuses are all stale except for 44 (archived) and 46 (already up to date)
+INSERT INTO apartment_sharing (id, application_type, last_update_date)
+VALUES (40, 'GROUP', TIMESTAMP '2024-06-01 09:00:00');
+
+INSERT INTO user_account (id, creation_date, email, enabled, france_connect, user_type)
+VALUES (40, TIMESTAMP '2024-06-01 09:00:00', 'status40@example.com', true, false, 'TENANT'),
+       (41, TIMESTAMP '2024-06-01 09:00:00', 'status41@example.com', true, false, 'TENANT'),
+       (42, TIMESTAMP '2024-06-01 09:00:00', 'status42@example.com', true, false, 'TENANT'),
+       (43, TIMESTAMP '2024-06-01 09:00:00', 'status43@example.com', true, false, 'TENANT'),
+       (44, TIMESTAMP '2024-06-01 09:00:00', 'status44@example.com', true, false, 'TENANT'),
+       (45, TIMESTAMP '2024-06-01 09:00:00', 'status45@example.com', true, false, 'TENANT'),
+       (46, TIMESTAMP '2024-06-01 09:00:00', 'status46@example.com', true, false, 'TENANT');
+
+INSERT INTO tenant (id, tenant_type, apartment_sharing_id, honor_declaration, last_update_date, status, warnings)
+VALUES (40, 'CREATE', 40, true, TIMESTAMP '2024-06-01 09:00:00', 'TO_PROCESS', 0),
+       (41, 'JOIN', 40, true, TIMESTAMP '2024-06-01 09:00:00', 'VALIDATED', 0),
+       (42, 'JOIN', 40, true, TIMESTAMP '2024-06-01 09:00:00', 'VALIDATED', 0),
+       (43, 'JOIN', 40, true, TIMESTAMP '2024-06-01 09:00:00', 'INCOMPLETE', 0),
+       (44, 'JOIN', 40, true, TIMESTAMP '2024-06-01 09:00:00', 'ARCHIVED', 0),
+       (45, 'JOIN', 40, true, TIMESTAMP '2024-06-01 09:00:00', 'VALIDATED', 0),
+       (46, 'JOIN', 40, false, TIMESTAMP '2024-06-01 09:00:00', 'INCOMPLETE', 0);
+
+INSERT INTO guarantor (id, tenant_id, type_guarantor)
+VALUES (43, 43, 'NATURAL_PERSON'),
+       (45, 45, 'ORGANISM');
+
+-- 40, 43 and its guarantor, 45: complete; 41: one declined document; 42: identification only
+INSERT INTO document (id, tenant_id, guarantor_id, document_category, document_status)
+VALUES (400, 40, null, 'IDENTIFICATION', 'VALIDATED'),
+       (401, 40, null, 'RESIDENCY', 'VALIDATED'),
+       (402, 40, null, 'PROFESSIONAL', 'VALIDATED'),
+       (403, 40, null, 'FINANCIAL', 'VALIDATED'),
+       (404, 40, null, 'TAX', 'VALIDATED'),
+       (410, 41, null, 'IDENTIFICATION', 'VALIDATED'),
+       (411, 41, null, 'RESIDENCY', 'DECLINED'),
+       (420, 42, null, 'IDENTIFICATION', 'VALIDATED'),
+       (430, 43, null, 'IDENTIFICATION', 'VALIDATED'),
+       (431, 43, null, 'RESIDENCY', 'VALIDATED'),
+       (432, 43, null, 'PROFESSIONAL', 'VALIDATED'),
+       (433, 43, null, 'FINANCIAL', 'TO_PROCESS'),
+       (434, 43, null, 'TAX', 'VALIDATED'),
+       (435, null, 43, 'IDENTIFICATION', 'VALIDATED'),
+       (436, null, 43, 'RESIDENCY', 'VALIDATED'),
+       (437, null, 43, 'PROFESSIONAL', 'VALIDATED'),
+       (438, null, 43, 'FINANCIAL', 'VALIDATED'),
+       (439, null, 43, 'TAX', 'VALIDATED'),
+       (450, 45, null, 'IDENTIFICATION', 'VALIDATED'),
+       (451, 45, null, 'RESIDENCY', 'VALIDATED'),
+       (452, 45, null, 'PROFESSIONAL', 'VALIDATED'),
+       (453, 45, null, 'FINANCIAL', 'VALIDATED'),
+       (454, 45, null, 'TAX', 'VALIDATED');
@@ -0,0 +1,3 @@
+DELETE FROM tenant WHERE id IN (30, 31, 32);
+DELETE FROM user_account WHERE id IN (30, 31, 32);
+DELETE FROM apartment_sharing WHERE id = 30;
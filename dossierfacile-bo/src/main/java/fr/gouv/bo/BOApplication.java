@@ -6,6 +6,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.boot.web.servlet.support.SpringBootServletInitializer;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
@@ -22,6 +23,7 @@ import java.lang.management.MemoryMXBean;
 @ComponentScan(basePackages = {"fr.gouv", "fr.dossierfacile"})
 @EnableScheduling
 @EnableAsync
+@EnableCaching
 @Slf4j
 public class BOApplication extends SpringBootServletInitializer {
 
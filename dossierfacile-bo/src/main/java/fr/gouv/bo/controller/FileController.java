@@ -1,22 +1,28 @@
 package fr.gouv.bo.controller;
 
 import fr.dossierfacile.common.entity.Document;
-import fr.dossierfacile.common.service.interfaces.FileStorageService;
+import fr.dossierfacile.common.entity.StorageFile;
+import fr.dossierfacile.common.enums.PreviewSize;
+import fr.dossierfacile.common.service.StorageFileResponseService;
+import fr.dossierfacile.common.service.interfaces.FilePreviewService;
 import fr.dossierfacile.common.service.interfaces.SharedFileService;
 import fr.gouv.bo.exception.DocumentNotFoundException;
 import fr.gouv.bo.repository.DocumentRepository;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.IOUtils;
+import org.springframework.http.CacheControl;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @RequiredArgsConstructor
 @Controller
@@ -24,19 +30,22 @@ import java.io.InputStream;
 public class FileController {
 
     private static final String FILE_NO_EXIST = "The file does not exist";
+    // access is checked on every request: files are revalidated, previews are kept a short time by the browser
+    private static final CacheControl FILE_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+    private static final CacheControl PREVIEW_CACHE_CONTROL = CacheControl.maxAge(1, TimeUnit.HOURS).cachePrivate();
 
     private final DocumentRepository documentRepository;
-    private final FileStorageService fileStorageService;
+    private final StorageFileResponseService storageFileResponseService;
     private final SharedFileService fileService;
+    private final FilePreviewService filePreviewService;
 
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/files/{id}")
-    public void getOriginalFileAsByteArray(HttpServletResponse response, @PathVariable Long id) {
+    public void getOriginalFileAsByteArray(HttpServletRequest request, HttpServletResponse response, @PathVariable Long id) {
         fileService.findById(id).ifPresentOrElse(
                 file -> {
-                    try (InputStream in = fileStorageService.download(file.getStorageFile())) {
-                        response.setContentType(file.getStorageFile().getContentType());
-                        IOUtils.copy(in, response.getOutputStream());
+                    try {
+                        storageFileResponseService.write(request, response, file.getStorageFile(), FILE_CACHE_CONTROL);
                     } catch (final FileNotFoundException e) {
                         log.error(FILE_NO_EXIST, e);
                         response.setStatus(404);
@@ -51,16 +60,41 @@ public class FileController {
         );
     }
 
+    /**
+     * Lighter than the original file for operators: review sized previews are generated on first request and kept.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/files/{id}/preview")
+    public void getPreviewAsByteArray(HttpServletRequest request, HttpServletResponse response, @PathVariable Long id,
+                                      @RequestParam(defaultValue = "REVIEW") PreviewSize size,
+                                      @RequestParam(defaultValue = "0") int page) {
+        Optional<StorageFile> preview = fileService.findById(id)
+                .flatMap(file -> filePreviewService.getOrCreate(file, size, page));
+        if (preview.isEmpty()) {
+            log.error("Preview not found");
+            response.setStatus(404);
+            return;
+        }
+        try {
+            storageFileResponseService.write(request, response, preview.get(), PREVIEW_CACHE_CONTROL);
+        } catch (final FileNotFoundException e) {
+            log.error(FILE_NO_EXIST, e);
+            response.setStatus(404);
+        } catch (final IOException e) {
+            log.error("Unable to download file", e);
+            response.setStatus(408);
+        }
+    }
+
     /**
      * This endpoint does not allow decrypting protected file
      */
     @GetMapping("/documents/{name:.+}")
-    public void getFileAsByteArray(HttpServletResponse response, @PathVariable String name) {
+    public void getFileAsByteArray(HttpServletRequest request, HttpServletResponse response, @PathVariable String name) {
         Document document = documentRepository.findByName(name).orElseThrow(() -> new DocumentNotFoundException(name));
 
-        try (InputStream in = fileStorageService.download(document.getWatermarkFile())) {
-            response.setContentType(document.getWatermarkFile().getContentType());
-            IOUtils.copy(in, response.getOutputStream());
+        try {
+            storageFileResponseService.write(request, response, document.getWatermarkFile(), FILE_CACHE_CONTROL);
         } catch (final FileNotFoundException e) {
             log.error(FILE_NO_EXIST, e);
             response.setStatus(404);
@@ -2,12 +2,15 @@ package fr.gouv.bo.repository;
 
 import fr.dossierfacile.common.entity.DocumentDeniedOptions;
 import fr.dossierfacile.common.enums.DocumentSubCategory;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
 
 public interface DocumentDeniedOptionsRepository extends JpaRepository<DocumentDeniedOptions, Integer> {
+    String DOCUMENT_DENIED_OPTIONS_CACHE = "document-denied-options";
 
+    @Cacheable(DOCUMENT_DENIED_OPTIONS_CACHE)
     List<DocumentDeniedOptions> findAllByDocumentSubCategoryAndDocumentUserTypeOrderByCode(DocumentSubCategory documentSubCategory, String documentUserType);
 
     List<DocumentDeniedOptions> findAllByDocumentSubCategory(DocumentSubCategory documentSubCategory);
@@ -5,6 +5,7 @@ import fr.dossierfacile.common.enums.DocumentSubCategory;
 import fr.gouv.bo.dto.DocumentDeniedOptionsDTO;
 import fr.gouv.bo.repository.DocumentDeniedOptionsRepository;
 import lombok.AllArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -29,6 +30,7 @@ public class DocumentDeniedOptionsService {
         return repository.findAll();
     }
 
+    @CacheEvict(value = DocumentDeniedOptionsRepository.DOCUMENT_DENIED_OPTIONS_CACHE, allEntries = true)
     public void updateMessage(int id, String message) {
         repository.findById(id).ifPresent(option -> {
             option.setMessageValue(message);
@@ -36,6 +38,7 @@ public class DocumentDeniedOptionsService {
         });
     }
 
+    @CacheEvict(value = DocumentDeniedOptionsRepository.DOCUMENT_DENIED_OPTIONS_CACHE, allEntries = true)
     public void createDocumentDeniedOption(DocumentDeniedOptionsDTO createdOption) {
         DocumentSubCategory category = createdOption.getDocumentSubCategory();
         String userType = createdOption.getDocumentUserType();
@@ -48,6 +51,7 @@ public class DocumentDeniedOptionsService {
         repository.save(documentDeniedOptions);
     }
 
+    @CacheEvict(value = DocumentDeniedOptionsRepository.DOCUMENT_DENIED_OPTIONS_CACHE, allEntries = true)
     public void deleteDocumentDeniedOption(int id) {
         repository.deleteById(id);
     }
@@ -1,5 +0,0 @@
-package fr.gouv.bo.service;
-
-public interface ScheduledTasksService {
-    void scheduledRefreshRank();
-}
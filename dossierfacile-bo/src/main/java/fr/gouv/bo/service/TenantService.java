@@ -9,6 +9,7 @@ import fr.dossierfacile.common.mapper.mail.TenantMapperForMail;
 import fr.dossierfacile.common.repository.TenantCommonRepository;
 import fr.dossierfacile.common.service.interfaces.LogService;
 import fr.dossierfacile.common.service.interfaces.PartnerCallBackService;
+import fr.dossierfacile.common.service.interfaces.TenantCommonService;
 import fr.dossierfacile.common.utils.TransactionalUtil;
 import fr.gouv.bo.dto.*;
 import fr.gouv.bo.exception.DocumentNotFoundException;
@@ -62,6 +63,7 @@ public class TenantService {
     private final GuarantorRepository guarantorRepository;
     private final TenantMapperForMail tenantMapperForMail;
     private final ApartmentSharingMapperForMail apartmentSharingMapperForMail;
+    private final TenantCommonService tenantCommonService;
 
     @Value("${time.reprocess.application.minutes}")
     private int timeReprocessApplicationMinutes;
@@ -72,6 +74,8 @@ public class TenantService {
     private Long maxDossiersByInterval;
     @Value("${process.max.dossier.by.day:600}")
     private Long maxDossiersByDay;
+    @Value("${bo.tenant.search.max.results:500}")
+    private int maxSearchResults;
 
     public Page<Tenant> getTenantByIdOrEmail(String email, Pageable pageable) {
         if (isNumeric(email)) {
@@ -86,7 +90,33 @@ public class TenantService {
                     .orElse(Collections.emptyList());
             return new PageImpl<>(result, pageable, result.size());
         }
-        return tenantRepository.findTenantByFirstNameOrLastNameOrFullName(email.toLowerCase(Locale.ROOT), pageable);
+        return searchTenants(email, pageable);
+    }
+
+    /**
+     * Ranked search on names and emails: only the best {@code maxSearchResults} matches are paginated.
+     */
+    private Page<Tenant> searchTenants(String query, Pageable pageable) {
+        String trimmedQuery = query.trim();
+        List<Long> ids = tenantRepository.searchTenantIds(trimmedQuery, likePattern(trimmedQuery), maxSearchResults);
+        int from = (int) Math.min(pageable.getOffset(), ids.size());
+        List<Long> pageIds = ids.subList(from, Math.min(from + pageable.getPageSize(), ids.size()));
+        Map<Long, Tenant> tenantsById = tenantRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Tenant::getId, tenant -> tenant));
+        List<Tenant> result = pageIds.stream()
+                .map(tenantsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(result, pageable, ids.size());
+    }
+
+    /**
+     * Escapes the LIKE wildcards so that a {@code %} or {@code _} typed in the search box is matched literally.
+     */
+    static String likePattern(String query) {
+        return query.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
     }
 
 
@@ -127,8 +157,12 @@ public class TenantService {
         return keyCloakUser.isEmailVerified();
     }
 
-    public synchronized String redirectToApplication(Principal principal, Long tenantId) {
-        LocalDateTime localDateTime = LocalDateTime.now().minusMinutes(timeReprocessApplicationMinutes);
+    /**
+     * No JVM lock here: the next application is claimed in database (see {@link TenantCommonRepository#claimNextApplication})
+     * so several operators on several BO instances can pull work concurrently.
+     */
+    @Transactional
+    public String redirectToApplication(Principal principal, Long tenantId) {
         Tenant tenant;
         if (tenantId == null) {
             UserPrincipal operator = (UserPrincipal) ((OAuth2AuthenticationToken) principal).getPrincipal();
@@ -140,9 +174,14 @@ public class TenantService {
             if (operatorLogRepository.countByOperatorIdAndActionOperatorTypeAndCreationDateGreaterThanEqual(operatorId, ActionOperatorType.START_PROCESS, LocalDateTime.now().toLocalDate().atStartOfDay()) > maxDossiersByDay) {
                 throw new IllegalStateException("Vous ne pouvez pas ouvrir plus de " + maxDossiersByDay + " dossiers par jour");
             }
-            tenant = tenantRepository.findMyNextApplication(localDateTime, operatorId);
+            LocalDateTime now = LocalDateTime.now();
+            Long claimedTenantId = tenantRepository.claimNextApplication(now.minusMinutes(timeReprocessApplicationMinutes), now, operatorId);
+            tenant = claimedTenantId == null ? null : find(claimedTenantId);
         } else {
             tenant = find(tenantId);
+            if (tenant != null) {
+                updateOperatorDateTimeTenant(tenant.getId());
+            }
         }
 
         if (tenant != null) {
@@ -150,7 +189,6 @@ public class TenantService {
             operatorLogRepository.save(new OperatorLog(
                     tenant, user, tenant.getStatus(), ActionOperatorType.START_PROCESS
             ));
-            updateOperatorDateTimeTenant(tenant.getId());
             return "redirect:/bo/tenant/" + tenant.getId() + "/processFile";
         } else {
             return "redirect:/bo";
@@ -158,7 +196,7 @@ public class TenantService {
     }
 
     public List<Tenant> findAllTenantsByApartmentSharingAndReorderDocumentsByCategory(Long id) {
-        List<Tenant> tenants = tenantRepository.findAllByApartmentSharingId(id);
+        List<Tenant> tenants = tenantRepository.findAllWithDocumentsByApartmentSharingId(id);
         for (Tenant tenant : tenants) {
             tenant.getDocuments().sort(Comparator.comparing(Document::getDocumentCategory));
             for (Guarantor guarantor : tenant.getGuarantors()) {
@@ -582,25 +620,14 @@ public class TenantService {
         });
     }
 
-    @Transactional
     public void updateStatusOfSomeTenants(String tenantList) {
         List<String> tenantList2 = Arrays.asList(tenantList.split(","));
-        List<Long> idList = tenantList2.stream().map(Long::parseLong).collect(Collectors.toList());
+        List<Long> idList = tenantList2.stream().map(String::trim).map(Long::parseLong).collect(Collectors.toList());
         log.info("Found [" + idList.size() + "] tenants to recalculate their status");
 
-        List<Tenant> tenantsById = tenantRepository.findAllById(idList);
-        List<Tenant> tenantsToUpdate = new ArrayList<>();
-        for (Tenant tenant : tenantsById) {
-            TenantFileStatus newStatus = tenant.computeStatus();
-            if (tenant.getStatus().ordinal() != newStatus.ordinal()) {
-                log.info("Updating status of tenant with ID [" + tenant.getId() + "] from [" + tenant.getStatus() + "] to [" + newStatus.name() + "]");
-                tenant.setStatus(newStatus);
-                tenantsToUpdate.add(tenant);
-            }
-        }
+        int updatedTenants = tenantCommonService.recomputeStatus(idList);
 
-        log.info("Tenants needed to update [" + tenantsToUpdate.size() + "]");
-        tenantRepository.saveAll(tenantsToUpdate);
+        log.info("Tenants needed to update [" + updatedTenants + "]");
     }
 
     public List<Document> getAllDocumentCategories(Tenant tenant) {
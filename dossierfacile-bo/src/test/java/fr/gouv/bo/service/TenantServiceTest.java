@@ -0,0 +1,92 @@
+package fr.gouv.bo.service;
+
+import fr.dossierfacile.common.entity.Tenant;
+import fr.dossierfacile.common.repository.TenantCommonRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TenantServiceTest {
+
+    private static final int MAX_SEARCH_RESULTS = 500;
+
+    @Mock
+    private TenantCommonRepository tenantRepository;
+
+    @InjectMocks
+    private TenantService tenantService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(tenantService, "maxSearchResults", MAX_SEARCH_RESULTS);
+    }
+
+    @Nested
+    class Search {
+
+        @Test
+        void should_page_the_ranked_ids_in_their_order() {
+            when(tenantRepository.searchTenantIds("dupont", "dupont", MAX_SEARCH_RESULTS)).thenReturn(List.of(5L, 3L, 9L, 1L, 7L));
+            when(tenantRepository.findAllById(List.of(9L, 1L))).thenReturn(tenants(1L, 9L));
+
+            Page<Tenant> page = tenantService.getTenantByIdOrEmail(" dupont ", PageRequest.of(1, 2));
+
+            assertThat(page.getContent()).extracting(Tenant::getId).containsExactly(9L, 1L);
+            assertThat(page.getTotalElements()).isEqualTo(5);
+        }
+
+        @Test
+        void should_return_an_empty_page_past_the_last_result() {
+            when(tenantRepository.searchTenantIds("dupont", "dupont", MAX_SEARCH_RESULTS)).thenReturn(List.of(5L, 3L, 9L));
+            when(tenantRepository.findAllById(anyIterable())).thenReturn(List.of());
+
+            Page<Tenant> page = tenantService.getTenantByIdOrEmail("dupont", PageRequest.of(4, 2));
+
+            assertThat(page.getContent()).isEmpty();
+            assertThat(page.getTotalElements()).isEqualTo(3);
+            verify(tenantRepository).findAllById(List.of());
+        }
+
+        @Test
+        void should_skip_the_tenants_deleted_since_the_search() {
+            when(tenantRepository.searchTenantIds("dupont", "dupont", MAX_SEARCH_RESULTS)).thenReturn(List.of(5L, 3L, 9L, 1L, 7L));
+            when(tenantRepository.findAllById(List.of(5L, 3L, 9L))).thenReturn(tenants(9L, 5L));
+
+            Page<Tenant> page = tenantService.getTenantByIdOrEmail("dupont", PageRequest.of(0, 3));
+
+            assertThat(page.getContent()).extracting(Tenant::getId).containsExactly(5L, 9L);
+            assertThat(page.getTotalElements()).isEqualTo(5);
+        }
+
+        @Test
+        void should_match_the_like_wildcards_literally() {
+            when(tenantRepository.searchTenantIds("50%_a\\b", "50\\%\\_a\\\\b", MAX_SEARCH_RESULTS)).thenReturn(List.of());
+
+            Page<Tenant> page = tenantService.getTenantByIdOrEmail("50%_a\\b", PageRequest.of(0, 10));
+
+            assertThat(page.getContent()).isEmpty();
+        }
+
+        private List<Tenant> tenants(Long... ids) {
+            return Stream.of(ids)
+                    .map(id -> (Tenant) Tenant.lombokBuilder().id(id).build())
+                    .toList();
+        }
+    }
+}
@@ -5,7 +5,6 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.Collections;
 import java.util.List;
 
 @Configuration
@@ -24,8 +23,4 @@ public class DynamicProviderConfig {
         return providers;
     }
 
-    public void shift() {
-        Collections.rotate(DynamicProviderConfig.providers, 1);
-    }
-
 }
@@ -0,0 +1,41 @@
+package fr.dossierfacile.common.config;
+
+import fr.dossierfacile.common.service.StorageFileDiskCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Publishes the storage.cache.* metrics of the storage disk cache when it is enabled, in the applications embedding
+ * the actuator.
+ */
+@Configuration
+@ConditionalOnClass(MeterRegistry.class)
+public class StorageFileDiskCacheMetricsConfig {
+
+    @Bean
+    public MeterBinder storageFileDiskCacheMeterBinder(ObjectProvider<StorageFileDiskCache> storageFileDiskCache) {
+        return registry -> storageFileDiskCache.ifAvailable(cache -> {
+            FunctionCounter.builder("storage.cache.gets", cache, StorageFileDiskCache::hitCount)
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("storage.cache.gets", cache, StorageFileDiskCache::missCount)
+                    .tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("storage.cache.saved", cache, StorageFileDiskCache::savedBytes)
+                    .baseUnit(BaseUnits.BYTES)
+                    .register(registry);
+            FunctionCounter.builder("storage.cache.evictions", cache, StorageFileDiskCache::evictionCount)
+                    .register(registry);
+            Gauge.builder("storage.cache.size", cache, StorageFileDiskCache::sizeBytes)
+                    .baseUnit(BaseUnits.BYTES)
+                    .register(registry);
+        });
+    }
+}
@@ -0,0 +1,46 @@
+package fr.dossierfacile.common.config;
+
+import fr.dossierfacile.common.entity.ObjectStorageProvider;
+import fr.dossierfacile.common.service.StorageProviderHealth;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Publishes, by storage provider, the storage.provider.calls (success/failure), storage.provider.hedges,
+ * storage.provider.latency (moving average, ms) and storage.provider.circuit.open (0/1) metrics, in the applications
+ * embedding the actuator.
+ */
+@Configuration
+@ConditionalOnClass(MeterRegistry.class)
+public class StorageProviderMetricsConfig {
+
+    @Bean
+    public MeterBinder storageProviderHealthMeterBinder(StorageProviderHealth health) {
+        return registry -> {
+            for (ObjectStorageProvider provider : ObjectStorageProvider.values()) {
+                String name = provider.name();
+                FunctionCounter.builder("storage.provider.calls", health, h -> h.successCount(provider))
+                        .tags("provider", name, "result", "success")
+                        .register(registry);
+                FunctionCounter.builder("storage.provider.calls", health, h -> h.failureCount(provider))
+                        .tags("provider", name, "result", "failure")
+                        .register(registry);
+                FunctionCounter.builder("storage.provider.hedges", health, h -> h.hedgeCount(provider))
+                        .tag("provider", name)
+                        .register(registry);
+                Gauge.builder("storage.provider.latency", health, h -> h.latencyMs(provider))
+                        .tag("provider", name)
+                        .baseUnit("milliseconds")
+                        .register(registry);
+                Gauge.builder("storage.provider.circuit.open", health, h -> h.isCircuitOpen(provider) ? 1 : 0)
+                        .tag("provider", name)
+                        .register(registry);
+            }
+        };
+    }
+}
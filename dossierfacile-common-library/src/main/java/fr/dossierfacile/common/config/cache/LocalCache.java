@@ -0,0 +1,145 @@
+package fr.dossierfacile.common.config.cache;
+
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded in-memory cache: the least recently used entry is evicted when the cache is full
+ * and entries expire a fixed duration after being written. Hits, misses, puts and evictions are counted
+ * for the cache metrics.
+ */
+public class LocalCache extends AbstractValueAdaptingCache {
+    private final String name;
+    private final int maximumSize;
+    private final long expireAfterWriteMillis;
+    private final Map<Object, Entry> store;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public LocalCache(String name, int maximumSize, Duration expireAfterWrite) {
+        super(true);
+        this.name = name;
+        this.maximumSize = maximumSize;
+        this.expireAfterWriteMillis = expireAfterWrite.toMillis();
+        this.store = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                if (size() > maximumSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return store;
+    }
+
+    @Override
+    protected synchronized Object lookup(Object key) {
+        long now = System.currentTimeMillis();
+        Entry entry = store.get(key);
+        if (entry != null && entry.isExpired(now)) {
+            store.remove(key);
+            evictions.increment();
+            entry = null;
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object storeValue = lookup(key);
+        if (storeValue != null) {
+            return (T) fromStoreValue(storeValue);
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public synchronized void put(Object key, Object value) {
+        long now = System.currentTimeMillis();
+        if (store.size() >= maximumSize) {
+            // expired entries go before the least recently used one
+            removeExpiredEntries(now);
+        }
+        store.put(key, new Entry(toStoreValue(value), now + expireAfterWriteMillis));
+        puts.increment();
+    }
+
+    @Override
+    public synchronized void evict(Object key) {
+        store.remove(key);
+    }
+
+    @Override
+    public synchronized void clear() {
+        store.clear();
+    }
+
+    public synchronized long size() {
+        return store.size();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long putCount() {
+        return puts.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private void removeExpiredEntries(long now) {
+        Iterator<Entry> iterator = store.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().isExpired(now)) {
+                iterator.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private record Entry(Object value, long expiresAt) {
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package fr.dossierfacile.common.config.cache;
+
+import fr.dossierfacile.common.config.cache.LocalCacheManager.Spec;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Local caches of read-mostly data (encryption key, stats, partners, reference data), used by the applications
+ * enabling caching. Each cache is bounded and expires its entries, e.g.:
+ * <pre>
+ * cache.local.encryption-key.maximum-size=2
+ * cache.local.encryption-key.expire-after-write=5m
+ * </pre>
+ */
+@Configuration
+public class LocalCacheConfig {
+    private static final Spec DEFAULT_SPEC = new Spec(1000, Duration.ofMinutes(10));
+
+    @Bean
+    public CacheManager cacheManager(Environment environment) {
+        Binder binder = Binder.get(environment);
+        Map<String, Spec> specs = binder.bind("cache.local", Bindable.mapOf(String.class, Spec.class)).orElse(Map.of());
+        Spec defaultSpec = binder.bind("cache.default", Spec.class).orElse(DEFAULT_SPEC);
+        return new LocalCacheManager(specs, defaultSpec);
+    }
+}
@@ -0,0 +1,41 @@
+package fr.dossierfacile.common.config.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractCacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Cache manager of {@link LocalCache}s: caches listed in the specs are created at startup,
+ * other names are created on first use with the default spec.
+ */
+public class LocalCacheManager extends AbstractCacheManager {
+    private final Map<String, Spec> specs;
+    private final Spec defaultSpec;
+
+    public LocalCacheManager(Map<String, Spec> specs, Spec defaultSpec) {
+        this.specs = specs;
+        this.defaultSpec = defaultSpec;
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        return specs.entrySet().stream()
+                .map(entry -> create(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        return create(name, specs.getOrDefault(name, defaultSpec));
+    }
+
+    private static LocalCache create(String name, Spec spec) {
+        return new LocalCache(name, spec.maximumSize(), spec.expireAfterWrite());
+    }
+
+    public record Spec(int maximumSize, Duration expireAfterWrite) {
+    }
+}
@@ -0,0 +1,64 @@
+package fr.dossierfacile.common.config.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Publishes the cache.gets (hit/miss), cache.puts, cache.evictions and cache.size metrics of the local caches,
+ * in the applications embedding the actuator.
+ */
+@Configuration
+@ConditionalOnClass({MeterRegistry.class, CacheMeterBinderProvider.class})
+public class LocalCacheMetricsConfig {
+
+    @Bean
+    public CacheMeterBinderProvider<LocalCache> localCacheMeterBinderProvider() {
+        return LocalCacheMeterBinder::new;
+    }
+
+    private static class LocalCacheMeterBinder extends CacheMeterBinder<LocalCache> {
+
+        LocalCacheMeterBinder(LocalCache cache, Iterable<Tag> tags) {
+            super(cache, cache.getName(), tags);
+        }
+
+        @Override
+        protected Long size() {
+            LocalCache cache = getCache();
+            return cache == null ? null : cache.size();
+        }
+
+        @Override
+        protected long hitCount() {
+            LocalCache cache = getCache();
+            return cache == null ? 0 : cache.hitCount();
+        }
+
+        @Override
+        protected Long missCount() {
+            LocalCache cache = getCache();
+            return cache == null ? null : cache.missCount();
+        }
+
+        @Override
+        protected Long evictionCount() {
+            LocalCache cache = getCache();
+            return cache == null ? null : cache.evictionCount();
+        }
+
+        @Override
+        protected long putCount() {
+            LocalCache cache = getCache();
+            return cache == null ? 0 : cache.putCount();
+        }
+
+        @Override
+        protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        }
+    }
+}
@@ -10,6 +10,7 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
@@ -27,13 +28,21 @@ import java.util.UUID;
 @NoArgsConstructor
 @Builder
 @EntityListeners(AuditingEntityListener.class)
+@NamedEntityGraph(name = ApartmentSharing.WITH_TENANTS, attributeNodes = @NamedAttributeNode("tenants"))
 public class ApartmentSharing implements Serializable {
 
+    /**
+     * Fetch plan of the application views: tenants are joined, their guarantors, documents and files are then
+     * loaded by batches (see {@link BatchSize} on the collections) instead of one query per element.
+     */
+    public static final String WITH_TENANTS = "ApartmentSharing.tenants";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @OneToMany(mappedBy = "apartmentSharing", fetch = FetchType.LAZY, cascade = CascadeType.REMOVE)
+    @BatchSize(size = 50)
     private List<Tenant> tenants = new ArrayList<>();
 
     @OneToMany(mappedBy = "apartmentSharing", fetch = FetchType.LAZY, cascade = CascadeType.REMOVE)
@@ -63,6 +72,13 @@ public class ApartmentSharing implements Serializable {
     @LastModifiedDate
     private LocalDateTime lastUpdateDate;
 
+    /**
+     * Incremented by database triggers on every change of the data rendered in the application
+     * (tenants, guarantors, documents, files, partner links).
+     */
+    @Column(insertable = false, updatable = false)
+    private Long modelVersion;
+
     @OneToMany(mappedBy = "apartmentSharing", fetch = FetchType.LAZY, cascade = CascadeType.REMOVE)
     private List<ApartmentSharingLink> apartmentSharingLinks = new ArrayList<>();
 
@@ -13,6 +13,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
 import org.hibernate.Hibernate;
+import org.hibernate.annotations.BatchSize;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
@@ -71,6 +72,7 @@ public class Document implements Serializable {
 
     @Builder.Default
     @OneToMany(mappedBy = "document", fetch = FetchType.LAZY, cascade = CascadeType.REMOVE)
+    @BatchSize(size = 50)
     @ToString.Exclude
     private List<File> files = new ArrayList<>();
 
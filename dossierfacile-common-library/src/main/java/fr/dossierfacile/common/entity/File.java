@@ -14,6 +14,7 @@ import org.hibernate.Hibernate;
 import java.io.Serial;
 import java.io.Serializable;
 import java.util.Date;
+import java.util.List;
 import java.util.Objects;
 
 @Entity
@@ -59,6 +60,10 @@ public class File implements Serializable {
     @OneToOne(mappedBy= "file", fetch = FetchType.LAZY)
     private ParsedFileAnalysis parsedFileAnalysis;
 
+    @OneToMany(mappedBy = "file", fetch = FetchType.LAZY, cascade = CascadeType.REMOVE)
+    @ToString.Exclude
+    private List<FilePreview> previews;
+
     @PreRemove
     void deleteCascade() {
         if (storageFile != null)
@@ -0,0 +1,53 @@
+package fr.dossierfacile.common.entity;
+
+import fr.dossierfacile.common.enums.FileStorageStatus;
+import fr.dossierfacile.common.enums.PreviewSize;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Preview of one page of a file at a given size. The first page thumbnail remains stored in {@link File#getPreview()}.
+ */
+@Entity
+@Table(name = "file_preview")
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class FilePreview {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "file_id")
+    @ToString.Exclude
+    private File file;
+
+    @Enumerated(EnumType.STRING)
+    private PreviewSize size;
+
+    private int page;
+
+    @OneToOne
+    @JoinColumn(name = "storage_file_id")
+    private StorageFile storageFile;
+
+    @Builder.Default
+    private LocalDateTime creationDate = LocalDateTime.now();
+
+    @PreRemove
+    void deleteCascade() {
+        if (storageFile != null)
+            storageFile.setStatus(FileStorageStatus.TO_DELETE);
+    }
+}
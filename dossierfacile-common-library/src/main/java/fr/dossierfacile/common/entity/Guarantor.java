@@ -21,6 +21,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.apache.commons.lang3.StringUtils;
+import org.hibernate.annotations.BatchSize;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -58,6 +59,7 @@ public class Guarantor implements Person, Serializable {
 
     @Builder.Default
     @OneToMany(mappedBy = "guarantor", fetch = FetchType.LAZY, cascade = CascadeType.REMOVE)
+    @BatchSize(size = 50)
     private List<Document> documents = new ArrayList<>();
 
     private String legalPersonName;
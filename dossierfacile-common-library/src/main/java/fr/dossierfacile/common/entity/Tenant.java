@@ -17,6 +17,8 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OrderBy;
 import jakarta.persistence.Table;
@@ -28,6 +30,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.SuperBuilder;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.annotations.BatchSize;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
@@ -49,14 +52,24 @@ import static fr.dossierfacile.common.enums.DocumentStatus.TO_PROCESS;
 @NoArgsConstructor
 @SuperBuilder(builderMethodName = "lombokBuilder")
 @Slf4j
+@NamedEntityGraph(name = Tenant.WITH_DOCUMENTS, attributeNodes = {
+        @NamedAttributeNode("documents"),
+        @NamedAttributeNode("apartmentSharing")
+})
 public class Tenant extends User implements Person, Serializable {
 
+    /**
+     * Fetch plan of the back-office dossier view: documents and apartment sharing are joined, guarantors are batch loaded.
+     */
+    public static final String WITH_DOCUMENTS = "Tenant.documents";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @OneToMany(mappedBy = "tenant", fetch = FetchType.LAZY, cascade = CascadeType.REMOVE, orphanRemoval = true)
     @OrderBy("id")
+    @BatchSize(size = 50)
     private List<Guarantor> guarantors;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -72,10 +85,12 @@ public class Tenant extends User implements Person, Serializable {
 
     @Builder.Default
     @OneToMany(mappedBy = "tenant", fetch = FetchType.LAZY, cascade = CascadeType.REMOVE)
+    @BatchSize(size = 50)
     private List<TenantUserApi> tenantsUserApi = new ArrayList<>();
 
     @Builder.Default
     @OneToMany(mappedBy = "tenant", fetch = FetchType.LAZY, cascade = CascadeType.REMOVE)
+    @BatchSize(size = 50)
     private List<Document> documents = new ArrayList<>();
 
     private String zipCode;
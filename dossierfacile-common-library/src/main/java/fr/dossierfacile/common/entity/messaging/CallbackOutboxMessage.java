@@ -0,0 +1,36 @@
+package fr.dossierfacile.common.entity.messaging;
+
+import fr.dossierfacile.common.enums.PartnerCallBackType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Partner callback waiting to be delivered. It is written in the transaction which changed the tenant
+ * and deleted once the partner acknowledged it.
+ */
+@Entity
+@Table(name = "callback_outbox")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString(exclude = "content")
+public class CallbackOutboxMessage {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private Long tenantId;
+    private Long userApiId;
+    @Enumerated(EnumType.STRING)
+    private PartnerCallBackType partnerCallBackType;
+    private String content;
+    private LocalDateTime creationDate;
+    private LocalDateTime nextAttemptDate;
+    private int attempts;
+    @Enumerated(EnumType.STRING)
+    private QueueMessageStatus status;
+    private String lastError;
+}
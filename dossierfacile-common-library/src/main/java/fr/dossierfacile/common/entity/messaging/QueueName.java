@@ -4,5 +4,6 @@ public enum QueueName {
     QUEUE_DOCUMENT_ANALYSIS,
     QUEUE_DOCUMENT_WATERMARK_PDF,
     QUEUE_FILE_MINIFY,
-    QUEUE_FILE_ANALYSIS
+    QUEUE_FILE_ANALYSIS,
+    QUEUE_FILE_PROCESS
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package fr.dossierfacile.common.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+@Getter
+@AllArgsConstructor
+public enum PreviewSize {
+    THUMBNAIL(300, true),
+    REVIEW(1240, true);
+
+    private final int width;
+    /**
+     * Generated for the first page as soon as the file is uploaded, other pages and sizes are generated on first request.
+     */
+    private final boolean eager;
+
+    public static Set<PreviewSize> eagerSizes() {
+        Set<PreviewSize> sizes = EnumSet.noneOf(PreviewSize.class);
+        for (PreviewSize size : values()) {
+            if (size.eager) {
+                sizes.add(size);
+            }
+        }
+        return sizes;
+    }
+}
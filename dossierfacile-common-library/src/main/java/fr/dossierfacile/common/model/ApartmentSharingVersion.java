@@ -0,0 +1,6 @@
+package fr.dossierfacile.common.model;
+
+public interface ApartmentSharingVersion {
+    Long getId();
+    Long getModelVersion();
+}
@@ -0,0 +1,8 @@
+package fr.dossierfacile.common.model;
+
+import java.time.LocalDateTime;
+
+public interface LinkLastVisit {
+    String getToken();
+    LocalDateTime getLastVisit();
+}
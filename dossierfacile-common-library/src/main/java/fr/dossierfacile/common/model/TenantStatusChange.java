@@ -0,0 +1,9 @@
+package fr.dossierfacile.common.model;
+
+import fr.dossierfacile.common.enums.TenantFileStatus;
+
+public interface TenantStatusChange {
+    Long getId();
+    TenantFileStatus getPreviousStatus();
+    TenantFileStatus getNewStatus();
+}
@@ -9,4 +9,14 @@ public interface TenantUpdate {
     LocalDateTime getCreationDate();
     LocalDateTime getDeletionDate();
     LocalDateTime getRevocationDate();
-}
\ No newline at end of file
+
+    /**
+     * Date on which updates are ordered: the update, deletion or revocation date depending on the event.
+     */
+    default LocalDateTime eventDate() {
+        if (getLastUpdateDate() != null) {
+            return getLastUpdateDate();
+        }
+        return getDeletionDate() != null ? getDeletionDate() : getRevocationDate();
+    }
+}
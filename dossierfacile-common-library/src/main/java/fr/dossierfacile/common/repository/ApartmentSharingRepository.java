@@ -2,7 +2,9 @@ package fr.dossierfacile.common.repository;
 
 import fr.dossierfacile.common.entity.ApartmentSharing;
 import fr.dossierfacile.common.entity.UserApi;
+import fr.dossierfacile.common.model.ApartmentSharingVersion;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -19,6 +21,28 @@ public interface ApartmentSharingRepository extends JpaRepository<ApartmentShari
 
     Optional<ApartmentSharing> findByTokenPublic(String token);
 
+    /**
+     * Application views (full, light and partner): loads the apartment sharing with its tenants for the mappers.
+     */
+    @EntityGraph(ApartmentSharing.WITH_TENANTS)
+    Optional<ApartmentSharing> findWithTenantsById(Long id);
+
+    @Query("SELECT a.id AS id, a.modelVersion AS modelVersion FROM ApartmentSharing a WHERE a.token = :token")
+    Optional<ApartmentSharingVersion> findVersionByToken(@Param("token") String token);
+
+    @Query("SELECT a.id AS id, a.modelVersion AS modelVersion FROM ApartmentSharing a WHERE a.tokenPublic = :token")
+    Optional<ApartmentSharingVersion> findVersionByTokenPublic(@Param("token") String token);
+
+    @Query("""
+            SELECT a.id AS id, a.modelVersion AS modelVersion
+            FROM ApartmentSharingLink l
+            JOIN l.apartmentSharing a
+            WHERE l.token = :token
+              AND l.fullData = :fullData
+              AND l.disabled = false
+            """)
+    Optional<ApartmentSharingVersion> findVersionByLinkToken(@Param("token") String token, @Param("fullData") boolean fullData);
+
     @Query(value = """
             SELECT a 
             FROM ApartmentSharing a
@@ -0,0 +1,109 @@
+package fr.dossierfacile.common.repository;
+
+import fr.dossierfacile.common.entity.messaging.CallbackOutboxMessage;
+import fr.dossierfacile.common.entity.messaging.QueueMessageStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface CallbackOutboxRepository extends JpaRepository<CallbackOutboxMessage, Long> {
+
+    /**
+     * Removes the pending callbacks of a tenant to a partner: they are superseded by a newer state of the application.
+     * Callbacks leased by a dispatcher are left alone, their delivery is in progress and reports back on its own row.
+     */
+    @Modifying
+    @Query(value = """
+            DELETE FROM callback_outbox
+            WHERE tenant_id = :tenantId
+            AND user_api_id = :userApiId
+            AND status = 'PENDING'
+            """, nativeQuery = true)
+    void deletePendingMessages(@Param("tenantId") Long tenantId, @Param("userApiId") Long userApiId);
+
+    /**
+     * Claims the due callbacks so that each partner has at most {@code perPartner} callbacks leased, counting the ones
+     * still in progress. The callbacks of a tenant to a partner are claimed one at a time, oldest first, so that an
+     * older state of the application is never delivered after a newer one. Claimed messages are PROCESSING and
+     * leased until {@code leaseUntil}: if the dispatcher dies they become due again once the lease is over.
+     */
+    @Transactional
+    @Query(value = """
+            WITH in_progress AS (
+                SELECT user_api_id, COUNT(*) AS leased
+                FROM callback_outbox
+                WHERE status = 'PROCESSING'
+                AND next_attempt_date > :now
+                GROUP BY user_api_id
+            ), due AS (
+                SELECT c.id,
+                    ROW_NUMBER() OVER (PARTITION BY c.user_api_id ORDER BY c.next_attempt_date, c.id) + COALESCE(p.leased, 0) AS rn
+                FROM callback_outbox c
+                  LEFT JOIN in_progress p ON p.user_api_id = c.user_api_id
+                WHERE c.status IN ('PENDING', 'PROCESSING')
+                AND c.next_attempt_date <= :now
+                AND NOT EXISTS (
+                    SELECT 1
+                    FROM callback_outbox o
+                    WHERE o.tenant_id = c.tenant_id
+                    AND o.user_api_id = c.user_api_id
+                    AND o.status IN ('PENDING', 'PROCESSING')
+                    AND o.id < c.id
+                )
+            ), candidate AS (
+                SELECT c.id
+                FROM callback_outbox c
+                WHERE c.id IN (SELECT id FROM due WHERE rn <= :perPartner)
+                ORDER BY c.next_attempt_date, c.id
+                LIMIT :batchSize
+                FOR UPDATE SKIP LOCKED
+            )
+            UPDATE callback_outbox
+            SET status = 'PROCESSING',
+                next_attempt_date = :leaseUntil,
+                attempts = callback_outbox.attempts + 1
+            FROM candidate
+            WHERE callback_outbox.id = candidate.id
+            RETURNING callback_outbox.*
+            """, nativeQuery = true)
+    List<CallbackOutboxMessage> claimDueMessages(@Param("now") LocalDateTime now,
+                                                 @Param("leaseUntil") LocalDateTime leaseUntil,
+                                                 @Param("perPartner") int perPartner,
+                                                 @Param("batchSize") int batchSize);
+
+    /**
+     * Removes a callback whose delivery failed when a newer callback of the same tenant to the same partner is
+     * queued: retrying it would deliver the older state of the application after the newer one.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            DELETE FROM callback_outbox c
+            WHERE c.id = :id
+            AND EXISTS (
+                SELECT 1
+                FROM callback_outbox n
+                WHERE n.tenant_id = c.tenant_id
+                AND n.user_api_id = c.user_api_id
+                AND n.id > c.id
+            )
+            """, nativeQuery = true)
+    int deleteIfSuperseded(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE CallbackOutboxMessage m
+            SET m.nextAttemptDate = :nextAttemptDate, m.status = :status, m.lastError = :lastError
+            WHERE m.id = :id
+            """)
+    void markFailedAttempt(@Param("id") Long id,
+                           @Param("nextAttemptDate") LocalDateTime nextAttemptDate,
+                           @Param("status") QueueMessageStatus status,
+                           @Param("lastError") String lastError);
+}
@@ -2,6 +2,64 @@ package fr.dossierfacile.common.repository;
 
 import fr.dossierfacile.common.entity.Document;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
+
+/**
+ * The bulk operations below bypass the persistence context: documents already loaded must not be used afterwards.
+ */
 public interface DocumentCommonRepository extends JpaRepository<Document, Long> {
-}
\ No newline at end of file
+
+    /**
+     * Documents of the tenant and of its guarantors
+     */
+    @Query(value = """
+            SELECT d.id
+            FROM document d
+            WHERE d.tenant_id = :tenantId
+            OR d.guarantor_id IN (SELECT g.id FROM guarantor g WHERE g.tenant_id = :tenantId)
+            """, nativeQuery = true)
+    List<Long> findAllIdsByTenantId(@Param("tenantId") Long tenantId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            WITH files AS (
+                SELECT f.id, f.storage_file_id, f.preview_file_id
+                FROM file f
+                WHERE f.document_id IN (:documentIds)
+            )
+            UPDATE storage_file
+            SET status = 'TO_DELETE'
+            WHERE id IN (
+                SELECT d.watermark_file_id FROM document d WHERE d.id IN (:documentIds)
+                UNION SELECT storage_file_id FROM files
+                UNION SELECT preview_file_id FROM files
+                UNION SELECT fp.storage_file_id FROM file_preview fp WHERE fp.file_id IN (SELECT id FROM files)
+            )
+            """, nativeQuery = true)
+    int markStorageFilesToDeleteByDocumentIdIn(@Param("documentIds") List<Long> documentIds);
+
+    @Modifying
+    @Query(value = """
+            DELETE FROM barcode_file_analysis
+            WHERE file_id IN (SELECT f.id FROM file f WHERE f.document_id IN (:documentIds))
+            """, nativeQuery = true)
+    void deleteBarCodeFileAnalysesByDocumentIdIn(@Param("documentIds") List<Long> documentIds);
+
+    /**
+     * Parsed file analyses and previews are removed by their ON DELETE CASCADE constraint
+     */
+    @Modifying
+    @Query(value = "DELETE FROM file WHERE document_id IN (:documentIds)", nativeQuery = true)
+    void deleteFilesByDocumentIdIn(@Param("documentIds") List<Long> documentIds);
+
+    /**
+     * Analysis reports are removed by their ON DELETE CASCADE constraint
+     */
+    @Modifying
+    @Query(value = "DELETE FROM document WHERE id IN (:documentIds)", nativeQuery = true)
+    int deleteByIdIn(@Param("documentIds") List<Long> documentIds);
+}
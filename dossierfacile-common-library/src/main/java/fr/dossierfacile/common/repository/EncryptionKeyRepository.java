@@ -8,6 +8,6 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.Optional;
 
 public interface EncryptionKeyRepository extends JpaRepository<EncryptionKey, Long> {
-    @Cacheable("encryption-key")
+    @Cacheable(value = "encryption-key", unless = "#result == null")
     Optional<EncryptionKey> findByStatus(EncryptionKeyStatus status);
 }
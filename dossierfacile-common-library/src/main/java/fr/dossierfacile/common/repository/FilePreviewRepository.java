@@ -0,0 +1,11 @@
+package fr.dossierfacile.common.repository;
+
+import fr.dossierfacile.common.entity.FilePreview;
+import fr.dossierfacile.common.enums.PreviewSize;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface FilePreviewRepository extends JpaRepository<FilePreview, Long> {
+    Optional<FilePreview> findByFileIdAndSizeAndPage(Long fileId, PreviewSize size, int page);
+}
@@ -2,12 +2,30 @@ package fr.dossierfacile.common.repository;
 
 import fr.dossierfacile.common.entity.ApartmentSharing;
 import fr.dossierfacile.common.entity.LinkLog;
+import fr.dossierfacile.common.enums.LinkType;
+import fr.dossierfacile.common.model.LinkLastVisit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface LinkLogRepository extends JpaRepository<LinkLog, Long> {
 
-    List<LinkLog> findByApartmentSharingAndToken(ApartmentSharing apartmentSharing, String token);
+    /**
+     * Last visit of each token, served by the link_log (apartment_sharing_id, token, link_type, creation_date) index.
+     */
+    @Query("""
+            SELECT l.token AS token, MAX(l.creationDate) AS lastVisit
+            FROM LinkLog l
+            WHERE l.apartmentSharing = :apartmentSharing
+            AND l.token IN :tokens
+            AND l.linkType IN :linkTypes
+            GROUP BY l.token
+            """)
+    List<LinkLastVisit> findLastVisits(@Param("apartmentSharing") ApartmentSharing apartmentSharing,
+                                       @Param("tokens") Collection<String> tokens,
+                                       @Param("linkTypes") Collection<LinkType> linkTypes);
 
 }
@@ -11,11 +11,24 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface QueueMessageRepository extends JpaRepository<QueueMessage, Long> {
     List<QueueMessage> findByQueueNameAndDocumentIdAndStatusIn(QueueName queueName, Long documentId, List<QueueMessageStatus> queueMessageStatus);
 
+    boolean existsByQueueNameInAndDocumentIdAndStatusIn(List<QueueName> queueNames, Long documentId, List<QueueMessageStatus> queueMessageStatus);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM QueueMessage m WHERE m.documentId = :documentId AND m.status = fr.dossierfacile.common.entity.messaging.QueueMessageStatus.PENDING")
+    int deletePendingMessagesByDocumentId(@Param("documentId") Long documentId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM QueueMessage m WHERE m.documentId IN (:documentIds) AND m.status = fr.dossierfacile.common.entity.messaging.QueueMessageStatus.PENDING")
+    int deletePendingMessagesByDocumentIdIn(@Param("documentIds") List<Long> documentIds);
+
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     QueueMessage findFirstByStatusAndQueueNameAndTimestampLessThanOrderByTimestampAsc(
             QueueMessageStatus status,
@@ -38,4 +51,32 @@ public interface QueueMessageRepository extends JpaRepository<QueueMessage, Long
             );
             """, nativeQuery = true)
     void cleanQueue(@Param("queueName") String queueName);
+
+    /**
+     * Enqueues the watermark PDF generation of at most {@code limit} documents still without PDF, skipping
+     * the documents whose generation is already pending or in progress.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO queue_message (queue_name, timestamp, document_id, status)
+            SELECT 'QUEUE_DOCUMENT_WATERMARK_PDF', :timestamp, d.id, 'PENDING'
+            FROM document d
+            WHERE d.watermark_file_id IS NULL
+            AND (d.last_modified_date IS NULL OR d.last_modified_date < :to)
+            AND NOT EXISTS (
+                SELECT 1
+                FROM queue_message qm
+                WHERE qm.queue_name = 'QUEUE_DOCUMENT_WATERMARK_PDF'
+                AND qm.document_id = d.id
+                AND qm.status IN ('PENDING', 'PROCESSING')
+            )
+            ORDER BY
+              CASE WHEN d.last_modified_date IS NULL THEN 1 ELSE 0 END,
+              d.last_modified_date DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    int enqueueDocumentsWithoutWatermarkPdf(@Param("to") LocalDateTime to,
+                                            @Param("timestamp") long timestamp,
+                                            @Param("limit") int limit);
 }
@@ -8,12 +8,17 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface StorageFileRepository extends JpaRepository<StorageFile, Long> {
     List<StorageFile> findAllByName(String s);
 
+    /**
+     * Keyset iteration, oldest first, over the recent files stored on a single provider
+     */
     @Query(value = """
             SELECT *
             FROM storage_file sf
@@ -22,9 +27,13 @@ public interface StorageFileRepository extends JpaRepository<StorageFile, Long>
             AND sf.last_modified_date < NOW() - INTERVAL '10' MINUTE
             AND sf.last_modified_date > NOW() - INTERVAL '10' DAY
             AND sf.status is null
-            ORDER BY sf.last_modified_date DESC
+            AND (sf.last_modified_date, sf.id) > (:afterDate, :afterId)
+            ORDER BY sf.last_modified_date, sf.id
+            LIMIT :limit
             """, nativeQuery = true)
-    List<StorageFile> findAllWithOneProviderAndReady(Pageable pageable);
+    List<StorageFile> findAllWithOneProviderAndReadyAfter(@Param("afterDate") LocalDateTime afterDate,
+                                                          @Param("afterId") long afterId,
+                                                          @Param("limit") int limit);
 
     @Query(value = """
             SELECT *
@@ -34,9 +43,41 @@ public interface StorageFileRepository extends JpaRepository<StorageFile, Long>
             AND sf.last_modified_date < NOW() - INTERVAL '10' MINUTE
             AND sf.last_modified_date > NOW() - INTERVAL '10' DAY
             AND sf.status = 'COPY_FAILED'
-            ORDER BY sf.last_modified_date DESC
+            AND (sf.last_modified_date, sf.id) > (:afterDate, :afterId)
+            ORDER BY sf.last_modified_date, sf.id
+            LIMIT :limit
             """, nativeQuery = true)
-    List<StorageFile> findAllWithOneProviderAndCopyFailed(Pageable pageable);
+    List<StorageFile> findAllWithOneProviderAndCopyFailedAfter(@Param("afterDate") LocalDateTime afterDate,
+                                                               @Param("afterId") long afterId,
+                                                               @Param("limit") int limit);
+
+    /**
+     * Age in seconds of the oldest recent file still waiting for its backup, null when every file is replicated
+     */
+    @Query(value = """
+            SELECT CAST(EXTRACT(EPOCH FROM NOW() - MIN(sf.last_modified_date)) AS bigint)
+            FROM storage_file sf
+            WHERE array_length(sf.providers, 1) < 2
+            AND sf.last_modified_date > NOW() - INTERVAL '10' DAY
+            AND (sf.status is null OR sf.status = 'COPY_FAILED')
+            """, nativeQuery = true)
+    Long findOldestNotReplicatedFileAge();
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE storage_file
+            SET providers = array_append(COALESCE(providers, '{}'), CAST(:provider AS varchar)),
+                status = CASE WHEN status = 'COPY_FAILED' THEN NULL ELSE status END
+            WHERE id = :id
+            AND NOT (CAST(:provider AS varchar) = ANY (COALESCE(providers, '{}')))
+            """, nativeQuery = true)
+    void addProvider(@Param("id") Long id, @Param("provider") String provider);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE storage_file SET status = 'COPY_FAILED' WHERE id = :id AND status is null", nativeQuery = true)
+    void markCopyFailed(@Param("id") Long id);
 
 
     @Query(value = "SELECT path FROM storage_file WHERE path IN (:pathsToSearch)",
@@ -45,5 +86,44 @@ public interface StorageFileRepository extends JpaRepository<StorageFile, Long>
 
     List<StorageFile> findAllByStatusOrderByIdAsc(FileStorageStatus fileStorageStatus, Pageable pageable);
 
+    long countByStatus(FileStorageStatus fileStorageStatus);
+
+    /**
+     * Locks the next files having this status until the end of the transaction, skipping the files already
+     * locked by another worker
+     */
+    @Query(value = """
+            SELECT *
+            FROM storage_file
+            WHERE status = :status
+            AND id > :afterId
+            ORDER BY id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<StorageFile> lockAllByStatusAfter(@Param("status") String status,
+                                          @Param("afterId") long afterId,
+                                          @Param("limit") int limit);
+
+    /**
+     * Deletes the given files which are not referenced anymore; the referenced ones are left untouched
+     */
+    @Modifying
+    @Query(value = """
+            DELETE FROM storage_file sf
+            WHERE sf.id IN (:ids)
+            AND NOT EXISTS (SELECT 1 FROM file f WHERE f.storage_file_id = sf.id OR f.preview_file_id = sf.id)
+            AND NOT EXISTS (SELECT 1 FROM file_preview fp WHERE fp.storage_file_id = sf.id)
+            AND NOT EXISTS (SELECT 1 FROM document d WHERE d.watermark_file_id = sf.id)
+            AND NOT EXISTS (SELECT 1 FROM apartment_sharing a WHERE a.pdf_dossier_file_id = sf.id)
+            AND NOT EXISTS (SELECT 1 FROM watermark_document wd WHERE wd.pdf_file_id = sf.id)
+            AND NOT EXISTS (SELECT 1 FROM watermark_document_storage_file wdsf WHERE wdsf.storage_file_id = sf.id)
+            """, nativeQuery = true)
+    int deleteUnreferencedByIdIn(@Param("ids") List<Long> ids);
+
+    @Modifying
+    @Query(value = "UPDATE storage_file SET status = 'DELETE_FAILED' WHERE id IN (:ids)", nativeQuery = true)
+    void markDeleteFailed(@Param("ids") List<Long> ids);
+
     void delete(@NotNull StorageFile storageFile);
 }
@@ -3,17 +3,23 @@ package fr.dossierfacile.common.repository;
 import fr.dossierfacile.common.entity.ApartmentSharing;
 import fr.dossierfacile.common.entity.Tenant;
 import fr.dossierfacile.common.enums.TenantFileStatus;
+import fr.dossierfacile.common.model.TenantStatusChange;
 import fr.dossierfacile.common.model.TenantUpdate;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.jpa.repository.query.Procedure;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface TenantCommonRepository extends JpaRepository<Tenant, Long> {
     Optional<Tenant> findByEmail(String email);
@@ -22,8 +28,23 @@ public interface TenantCommonRepository extends JpaRepository<Tenant, Long> {
 
     boolean existsByEmail(String email);
 
-    @Query("select distinct t FROM Tenant t where concat(LOWER(coalesce(t.firstName, '')),' ',LOWER(coalesce(t.lastName, ''))) like CONCAT('%', :nameUser, '%')")
-    Page<Tenant> findTenantByFirstNameOrLastNameOrFullName(@Param("nameUser") String nameUser, Pageable pageable);
+    /**
+     * Ids of the tenants whose name or email contains the query, best matches first. Names are compared
+     * accent-insensitively (normalize_search_text), both conditions being served by the trigram indexes of user_account.
+     * The pattern is the query with its LIKE wildcards ({@code \}, {@code %} and {@code _}) escaped by a backslash.
+     */
+    @Query(value = """
+            SELECT u.id
+            FROM user_account u
+              JOIN tenant t ON t.id = u.id
+            WHERE user_search_name(u.first_name, u.last_name, u.preferred_name) LIKE '%' || normalize_search_text(:pattern) || '%' ESCAPE '\\'
+               OR u.email ILIKE '%' || :pattern || '%' ESCAPE '\\'
+            ORDER BY greatest(
+                similarity(user_search_name(u.first_name, u.last_name, u.preferred_name), normalize_search_text(:query)),
+                similarity(lower(u.email), lower(:query))) DESC, u.id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Long> searchTenantIds(@Param("query") String query, @Param("pattern") String pattern, @Param("limit") int limit);
 
     @Query("select t from Tenant t " +
             " where (t.operatorDateTime is null or t.operatorDateTime < :localDateTime)" +
@@ -32,32 +53,44 @@ public interface TenantCommonRepository extends JpaRepository<Tenant, Long> {
     Page<Tenant> findTenantsToProcess(@Param("localDateTime") LocalDateTime localDateTime, Pageable pageable);
 
 
-    // rank condition is set to avoid to treat too fast a returning tenant
-    // status and honorDeclaration are redundancy but that okay
+    /**
+     * Atomically claims the next application for an operator: the candidate row is locked with SKIP LOCKED so that
+     * concurrent operators, on any BO instance, never get the same tenant, and operator_date_time is set as a lease
+     * which lets the tenant go back to the queue once it is older than leaseExpiredBefore.
+     * rank condition (head of the queue) is set to avoid to treat too fast a returning tenant
+     * <p>
+     * Not {@code @Modifying}: it runs executeUpdate, which rejects the row returned by RETURNING. The persistence
+     * context is therefore not cleared, the claimed tenant has to be loaded after the claim.
+     */
+    @Transactional
     @Query(value = """
-            SELECT t.*,ua.*
-            FROM ranked_tenant rt
-              INNER JOIN tenant t ON rt.tid=t.id and rt.last_update_date=t.last_update_date
-              INNER JOIN user_account ua ON t.id=ua.id
-            WHERE (t.operator_date_time IS NULL OR t.operator_date_time < :toLocalDateTime)
-              AND t.status = 'TO_PROCESS'
-              AND t.honor_declaration = true
-              AND rank < 200
-            ORDER BY
-             CASE WHEN rt.operator_id = :operatorId THEN 0 ELSE 1 END,
-             rt.rank
-            LIMIT 1
+            WITH candidate AS (
+              SELECT t.id
+              FROM (
+                SELECT tq.tenant_id, tq.last_update_date, tq.operator_id
+                FROM tenant_queue tq
+                ORDER BY tq.last_update_date, tq.tenant_id
+                LIMIT 200
+              ) q
+                INNER JOIN tenant t ON q.tenant_id=t.id
+              WHERE (t.operator_date_time IS NULL OR t.operator_date_time < :leaseExpiredBefore)
+                AND t.status = 'TO_PROCESS'
+                AND t.honor_declaration = true
+              ORDER BY
+               CASE WHEN q.operator_id = :operatorId THEN 0 ELSE 1 END,
+               q.last_update_date, q.tenant_id
+              LIMIT 1
+              FOR UPDATE OF t SKIP LOCKED
+            )
+            UPDATE tenant
+            SET operator_date_time = :now
+            FROM candidate
+            WHERE tenant.id = candidate.id
+            RETURNING tenant.id
             """, nativeQuery = true)
-    Tenant findMyNextApplication(@Param("toLocalDateTime") LocalDateTime toLocalDateTime,
-                                 @Param("operatorId") Long operatorId);
-
-    @Procedure(procedureName = "refresh_mv")
-    void refreshMaterializedView(@Param("viewName") String viewName);
-
-    default void refreshRank() {
-        refreshMaterializedView("latest_operator");
-        refreshMaterializedView("ranked_tenant");
-    }
+    Long claimNextApplication(@Param("leaseExpiredBefore") LocalDateTime leaseExpiredBefore,
+                              @Param("now") LocalDateTime now,
+                              @Param("operatorId") Long operatorId);
 
     @Query("""
             SELECT t
@@ -70,6 +103,12 @@ public interface TenantCommonRepository extends JpaRepository<Tenant, Long> {
 
     List<Tenant> findAllByApartmentSharingId(Long ap);
 
+    /**
+     * Back-office dossier view: loads the tenants of an apartment sharing with their documents.
+     */
+    @EntityGraph(Tenant.WITH_DOCUMENTS)
+    List<Tenant> findAllWithDocumentsByApartmentSharingId(Long ap);
+
     Tenant findOneById(Long id);
 
     @Query(
@@ -188,9 +227,15 @@ public interface TenantCommonRepository extends JpaRepository<Tenant, Long> {
 
     Tenant findByKeycloakId(String keycloakId);
 
+    /**
+     * Keyset pagination on (date, id): rows after the given cursor, ordered by their update, deletion or revocation date.
+     * Without lastIdFrom, rows having exactly the lastUpdateFrom date are skipped as before.
+     * Each branch is limited on its own so that the union never materializes more than three pages.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "200"))
     @Query(value = """
             SELECT * FROM (
-                SELECT tenant_id as id,
+                (SELECT tenant_id as id,
                  CAST(null AS bigint) as apartmentSharingId,
                  CAST(null AS timestamp) as lastUpdateDate,
                  CAST(null AS timestamp) as creationDate,
@@ -198,11 +243,13 @@ public interface TenantCommonRepository extends JpaRepository<Tenant, Long> {
                  CAST(null AS timestamp) as revocationDate
                 FROM tenant_log
                 WHERE  (CAST(CAST(:lastUpdateFrom AS text) AS timestamp) IS NULL
-                 OR creation_date > CAST(CAST(:lastUpdateFrom AS text) AS timestamp))
+                 OR creation_date > CAST(CAST(:lastUpdateFrom AS text) AS timestamp)
+                 OR (creation_date = CAST(CAST(:lastUpdateFrom AS text) AS timestamp) AND tenant_id > :lastIdFrom))
                  AND log_type = 'ACCOUNT_DELETE'
                  AND :partnerId = ANY (user_apis)
                  AND :includeDeleted
-                UNION
+                ORDER BY creation_date, tenant_id LIMIT :limit)
+                UNION ALL
                 (SELECT tenant_id as id,
                  CAST(null AS bigint) as apartmentSharingId,
                  CAST(null AS timestamp) as lastUpdateDate,
@@ -211,14 +258,15 @@ public interface TenantCommonRepository extends JpaRepository<Tenant, Long> {
                  creation_date as revocationDate
                 FROM tenant_log tl
                 WHERE  (CAST(CAST(:lastUpdateFrom AS text) AS timestamp) IS NULL
-                 OR creation_date > CAST(CAST(:lastUpdateFrom AS text) AS timestamp))
+                 OR creation_date > CAST(CAST(:lastUpdateFrom AS text) AS timestamp)
+                 OR (creation_date = CAST(CAST(:lastUpdateFrom AS text) AS timestamp) AND tenant_id > :lastIdFrom))
                  AND log_type = 'PARTNER_ACCESS_REVOKED'
                  AND :partnerId = ANY (user_apis)
                  AND NOT EXISTS (SELECT 1 FROM tenant_userapi tua WHERE tua.tenant_id = tl.tenant_id AND tua.userapi_id = :partnerId)
                  AND :includeRevoked
                 ORDER BY revocationDate DESC LIMIT 1)
-                UNION
-                SELECT t.id as id,
+                UNION ALL
+                (SELECT t.id as id,
                  t.apartment_sharing_id as apartmentSharingId,
                  t.last_update_date as lastUpdateDate,
                  ua.creation_date as creationDate,
@@ -228,34 +276,100 @@ public interface TenantCommonRepository extends JpaRepository<Tenant, Long> {
                  INNER JOIN user_account ua ON ua.id = t.id
                  INNER JOIN tenant_userapi tua ON tua.tenant_id = t.id
                 WHERE tua.userapi_id = :partnerId
-                 AND (CAST(CAST(:lastUpdateFrom AS text) AS timestamp) IS NULL OR t.last_update_date > CAST(CAST(:lastUpdateFrom AS text) AS timestamp))
+                 AND (CAST(CAST(:lastUpdateFrom AS text) AS timestamp) IS NULL
+                  OR t.last_update_date > CAST(CAST(:lastUpdateFrom AS text) AS timestamp)
+                  OR (t.last_update_date = CAST(CAST(:lastUpdateFrom AS text) AS timestamp) AND t.id > :lastIdFrom))
+                ORDER BY t.last_update_date, t.id LIMIT :limit)
                     ) AS tenantupdate
-            ORDER BY lastUpdateDate ASC
+            ORDER BY COALESCE(lastUpdateDate, deletionDate, revocationDate) ASC, id ASC
             LIMIT :limit
             """, nativeQuery = true)
-    List<TenantUpdate> findTenantUpdateByLastUpdateAndPartner(@Param("lastUpdateFrom") LocalDateTime from,
-                                                              @Param("partnerId") Long id, @Param("limit") Long limit,
-                                                              @Param("includeDeleted") boolean includeDeleted,
-                                                              @Param("includeRevoked") boolean includeRevoked);
+    Stream<TenantUpdate> streamTenantUpdateByLastUpdateAndPartner(@Param("lastUpdateFrom") LocalDateTime from,
+                                                                  @Param("lastIdFrom") Long lastIdFrom,
+                                                                  @Param("partnerId") Long id, @Param("limit") Long limit,
+                                                                  @Param("includeDeleted") boolean includeDeleted,
+                                                                  @Param("includeRevoked") boolean includeRevoked);
 
+    /**
+     * Keyset pagination on (creation date, id), see {@link #streamTenantUpdateByLastUpdateAndPartner}.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "200"))
     @Query(value = """
-            SELECT t.id as id, t.apartment_sharing_id as apartmentSharingId, t.last_update_date as lastUpdateDate, ua.creation_date as creationDate 
-            FROM  user_account ua 
+            SELECT t.id as id, t.apartment_sharing_id as apartmentSharingId, t.last_update_date as lastUpdateDate, ua.creation_date as creationDate
+            FROM  user_account ua
             INNER JOIN tenant t ON t.id = ua.id
-            INNER JOIN tenant_userapi tua ON tua.tenant_id = t.id  
+            INNER JOIN tenant_userapi tua ON tua.tenant_id = t.id
             WHERE tua.userapi_id = :partnerId
-            AND ( CAST( CAST(:creationDateFrom AS text) AS timestamp) IS NULL OR ua.creation_date > CAST( CAST(:creationDateFrom AS text) AS timestamp))
-            ORDER BY ua.creation_date ASC
+            AND ( CAST( CAST(:creationDateFrom AS text) AS timestamp) IS NULL
+             OR ua.creation_date > CAST( CAST(:creationDateFrom AS text) AS timestamp)
+             OR (ua.creation_date = CAST( CAST(:creationDateFrom AS text) AS timestamp) AND t.id > :lastIdFrom))
+            ORDER BY ua.creation_date ASC, t.id ASC
             LIMIT :limit
             """, nativeQuery = true
     )
-    List<TenantUpdate> findTenantUpdateByCreationDateAndPartner(@Param("creationDateFrom") LocalDateTime from, @Param("partnerId") Long id, @Param("limit") Long limit);
+    Stream<TenantUpdate> streamTenantUpdateByCreationDateAndPartner(@Param("creationDateFrom") LocalDateTime from, @Param("lastIdFrom") Long lastIdFrom,
+                                                                    @Param("partnerId") Long id, @Param("limit") Long limit);
+
+    /**
+     * Set-based equivalent of {@link Tenant#computeStatus()}: recomputes and stores the status of the given tenants
+     * in a single statement and returns only the tenants whose status changed.
+     */
+    @Transactional
+    @Query(value = """
+            WITH computed AS (
+              SELECT t.id, t.status AS previous_status,
+                CASE
+                  WHEN t.status = 'ARCHIVED' THEN 'ARCHIVED'
+                  WHEN EXISTS (SELECT 1 FROM document d WHERE d.tenant_id = t.id AND d.document_status = 'DECLINED')
+                    OR EXISTS (SELECT 1 FROM guarantor g JOIN document d ON d.guarantor_id = g.id WHERE g.tenant_id = t.id AND d.document_status = 'DECLINED')
+                    THEN 'DECLINED'
+                  WHEN t.honor_declaration IS NOT TRUE
+                    OR (SELECT COUNT(DISTINCT d.document_category) FROM document d
+                        WHERE d.tenant_id = t.id AND d.document_category IN ('IDENTIFICATION', 'RESIDENCY', 'PROFESSIONAL', 'FINANCIAL', 'TAX')) < 5
+                    OR EXISTS (
+                      SELECT 1 FROM guarantor g
+                      WHERE g.tenant_id = t.id
+                        AND (
+                          NOT EXISTS (SELECT 1 FROM document d WHERE d.guarantor_id = g.id)
+                          OR (g.type_guarantor = 'ORGANISM'
+                              AND ((SELECT COUNT(*) FROM document d WHERE d.guarantor_id = g.id) <> 1
+                                   OR NOT EXISTS (SELECT 1 FROM document d WHERE d.guarantor_id = g.id AND d.document_category = 'GUARANTEE_PROVIDER_CERTIFICATE')))
+                          OR (g.type_guarantor = 'NATURAL_PERSON'
+                              AND (SELECT COUNT(DISTINCT d.document_category) FROM document d
+                                   WHERE d.guarantor_id = g.id AND d.document_category IN ('IDENTIFICATION', 'RESIDENCY', 'PROFESSIONAL', 'FINANCIAL', 'TAX')) < 5)
+                          OR (g.type_guarantor = 'LEGAL_PERSON'
+                              AND (SELECT COUNT(DISTINCT d.document_category) FROM document d
+                                   WHERE d.guarantor_id = g.id AND d.document_category IN ('IDENTIFICATION', 'IDENTIFICATION_LEGAL_PERSON')) < 2)
+                        )
+                    )
+                    THEN 'INCOMPLETE'
+                  WHEN EXISTS (SELECT 1 FROM document d WHERE d.tenant_id = t.id AND d.document_status = 'TO_PROCESS')
+                    OR EXISTS (SELECT 1 FROM guarantor g JOIN document d ON d.guarantor_id = g.id WHERE g.tenant_id = t.id AND d.document_status = 'TO_PROCESS')
+                    THEN 'TO_PROCESS'
+                  ELSE 'VALIDATED'
+                END AS new_status
+              FROM tenant t
+              WHERE t.id IN (:tenantIds)
+            )
+            UPDATE tenant
+            SET status = c.new_status
+            FROM computed c
+            WHERE tenant.id = c.id
+              AND c.previous_status IS DISTINCT FROM c.new_status
+            RETURNING tenant.id AS id, c.previous_status AS previousStatus, c.new_status AS newStatus
+            """, nativeQuery = true)
+    List<TenantStatusChange> recomputeStatus(@Param("tenantIds") List<Long> tenantIds);
 
+    /**
+     * tenant_queue is maintained by triggers on tenant, document and operator_log: the rank is always up to date
+     * and is computed from the (last_update_date, tenant_id) index.
+     */
     @Query(value = """
-            SELECT rank
-            FROM ranked_tenant
-            WHERE tid = :tenantId
-            LIMIT 1
+            SELECT COUNT(*) + 1
+            FROM tenant_queue tq
+            JOIN tenant_queue me ON me.tenant_id = :tenantId
+            WHERE (tq.last_update_date, tq.tenant_id) < (me.last_update_date, me.tenant_id)
+            HAVING EXISTS (SELECT 1 FROM tenant_queue WHERE tenant_id = :tenantId)
             """, nativeQuery = true)
     Long getTenantRank(@Param("tenantId") Long tenantId);
 }
@@ -0,0 +1,122 @@
+package fr.dossierfacile.common.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.dossierfacile.common.config.cache.LocalCache;
+import fr.dossierfacile.common.exceptions.NotFoundException;
+import fr.dossierfacile.common.model.AdemeApiResultModel;
+import fr.dossierfacile.common.service.interfaces.AdemeApiService;
+import fr.dossierfacile.common.utils.MapperUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ADEME DPE lookups share a single HTTP client, which keeps its connections alive between requests.
+ * A DPE does not change once published: results are cached by number, errors are not.
+ */
+@Slf4j
+@Service
+public class AdemeApiServiceImpl implements AdemeApiService {
+    private static final String CACHE_NAME = "ademe-dpe";
+
+    private final String apiUrl;
+    private final Duration requestTimeout;
+    private final HttpClient httpClient;
+    private final LocalCache cache;
+    private final Map<String, CompletableFuture<AdemeApiResultModel>> pendingRequests = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper = MapperUtil.newObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    public AdemeApiServiceImpl(@Value("${ademe.api.url:https://observatoire-dpe-audit.ademe.fr/pub/dpe/}") String apiUrl,
+                               @Value("${ademe.api.connect.timeout.ms:3000}") long connectTimeout,
+                               @Value("${ademe.api.request.timeout.ms:10000}") long requestTimeout,
+                               @Value("${ademe.api.cache.max.size:1000}") int cacheMaxSize,
+                               @Value("${ademe.api.cache.expire.after.write.hours:24}") long cacheExpireAfterWrite) {
+        this.apiUrl = apiUrl;
+        this.requestTimeout = Duration.ofMillis(requestTimeout);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeout))
+                .build();
+        this.cache = new LocalCache(CACHE_NAME, cacheMaxSize, Duration.ofHours(cacheExpireAfterWrite));
+    }
+
+    @Override
+    public CompletableFuture<AdemeApiResultModel> getDpe(String ademeNumber) {
+        AdemeApiResultModel cached = cache.get(ademeNumber, AdemeApiResultModel.class);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<AdemeApiResultModel> request = new CompletableFuture<>();
+        CompletableFuture<AdemeApiResultModel> pending = pendingRequests.putIfAbsent(ademeNumber, request);
+        if (pending != null) {
+            return pending.copy();
+        }
+        httpClient.sendAsync(buildRequest(ademeNumber), HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> toResult(ademeNumber, response))
+                .whenComplete((result, error) -> {
+                    if (result != null) {
+                        cache.put(ademeNumber, result);
+                    }
+                    pendingRequests.remove(ademeNumber, request);
+                    if (error != null) {
+                        request.completeExceptionally(toRestClientException(ademeNumber, error));
+                    } else {
+                        request.complete(result);
+                    }
+                });
+        // callers get their own copy so that cancelling it does not affect the other waiting callers
+        return request.copy();
+    }
+
+    @Override
+    public AdemeApiResultModel fetchDpe(String ademeNumber) throws IOException, InterruptedException {
+        return toResult(ademeNumber, httpClient.send(buildRequest(ademeNumber), HttpResponse.BodyHandlers.ofString()));
+    }
+
+    private HttpRequest buildRequest(String ademeNumber) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(apiUrl + URLEncoder.encode(ademeNumber, StandardCharsets.UTF_8)))
+                .timeout(requestTimeout)
+                .GET()
+                .build();
+    }
+
+    private AdemeApiResultModel toResult(String ademeNumber, HttpResponse<String> response) {
+        if (response.statusCode() == 404) {
+            throw new NotFoundException("DPE not found : " + ademeNumber);
+        }
+        if (response.statusCode() != 200) {
+            throw new RestClientException("ADEME API responded " + response.statusCode() + " for DPE " + ademeNumber);
+        }
+        try {
+            return objectMapper.readValue(response.body(), AdemeApiResultModel.class);
+        } catch (JsonProcessingException e) {
+            throw new RestClientException("Unable to read the ADEME API response for DPE " + ademeNumber, e);
+        }
+    }
+
+    private static RuntimeException toRestClientException(String ademeNumber, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof NotFoundException || cause instanceof RestClientException) {
+            return (RuntimeException) cause;
+        }
+        return new RestClientException("Unable to call the ADEME API for DPE " + ademeNumber, cause);
+    }
+
+}
@@ -29,6 +29,10 @@ public class ApartmentSharingCommonServiceImpl implements ApartmentSharingCommon
     @Override
     @Transactional(propagation = Propagation.SUPPORTS)
     public void resetDossierPdfGenerated(ApartmentSharing apartmentSharing) {
+        if (apartmentSharing.getPdfDossierFile() == null && apartmentSharing.getDossierPdfDocumentStatus() == FileStatus.DELETED) {
+            // already reset by a previous edit, nothing left to invalidate
+            return;
+        }
         StorageFile pdfFile = apartmentSharing.getPdfDossierFile();
         apartmentSharing.setPdfDossierFile(null);
         apartmentSharing.setDossierPdfDocumentStatus(FileStatus.DELETED);
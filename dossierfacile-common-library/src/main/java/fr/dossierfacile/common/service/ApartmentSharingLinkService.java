@@ -13,6 +13,8 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static fr.dossierfacile.common.enums.ApartmentSharingLinkType.MAIL;
 import static fr.dossierfacile.common.enums.LinkType.*;
@@ -26,14 +28,15 @@ public class ApartmentSharingLinkService {
     private final LinkLogService linkLogService;
 
     public List<ApartmentSharingLinkModel> getLinksByMail(ApartmentSharing apartmentSharing) {
-        return apartmentSharingLinkRepository.findByApartmentSharingAndLinkType(apartmentSharing, MAIL)
-                .stream()
-                .map(link -> mapApartmentSharingLink(link, apartmentSharing))
+        List<ApartmentSharingLink> links = apartmentSharingLinkRepository.findByApartmentSharingAndLinkType(apartmentSharing, MAIL);
+        Map<String, LocalDateTime> lastVisits = linkLogService.getLastVisits(
+                links.stream().map(ApartmentSharingLink::getToken).collect(Collectors.toSet()), apartmentSharing);
+        return links.stream()
+                .map(link -> mapApartmentSharingLink(link, lastVisits.get(link.getToken())))
                 .toList();
     }
 
-    private ApartmentSharingLinkModel mapApartmentSharingLink(ApartmentSharingLink link, ApartmentSharing apartmentSharing) {
-        LocalDateTime lastVisit = linkLogService.getLastVisit(link.getToken(), apartmentSharing).orElse(null);
+    private ApartmentSharingLinkModel mapApartmentSharingLink(ApartmentSharingLink link, LocalDateTime lastVisit) {
         return ApartmentSharingLinkModel.builder()
                 .id(link.getId())
                 .creationDate(link.getCreationDate())
@@ -0,0 +1,242 @@
+package fr.dossierfacile.common.service;
+
+import fr.dossierfacile.common.entity.LinkLog;
+import fr.dossierfacile.common.entity.OwnerLog;
+import fr.dossierfacile.common.entity.PropertyLog;
+import fr.dossierfacile.common.entity.TenantLog;
+import fr.dossierfacile.common.service.interfaces.BufferedLogWriter;
+import fr.dossierfacile.common.utils.TransactionalUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Logs are kept in a bounded queue and flushed by a single thread with JDBC batch inserts, as soon as a batch
+ * is full or when the flush interval is over. When the queue is full, logs are written in the caller's thread.
+ */
+@Service
+@Slf4j
+public class BufferedLogWriterImpl implements BufferedLogWriter {
+    private static final String INSERT_TENANT_LOG = """
+            INSERT INTO tenant_log (tenant_id, operator_id, creation_date, log_type, user_apis, json_profile, log_details, message_id)
+            VALUES (?, ?, ?, ?, ?, ?::jsonb, ?::jsonb, ?)
+            """;
+    private static final String INSERT_OWNER_LOG = """
+            INSERT INTO owner_log (owner_id, creation_date, log_type, json_profile)
+            VALUES (?, ?, ?, ?::jsonb)
+            """;
+    private static final String INSERT_LINK_LOG = """
+            INSERT INTO link_log (apartment_sharing_id, token, link_type, creation_date)
+            VALUES (?, ?, ?, ?)
+            """;
+    private static final String INSERT_PROPERTY_LOG = """
+            INSERT INTO property_log (property_id, creation_date, log_type, apartment_sharing_id)
+            VALUES (?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<Object> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, "log-writer"));
+    private volatile boolean running = true;
+
+    public BufferedLogWriterImpl(JdbcTemplate jdbcTemplate,
+                                 @Value("${log.writer.queue.capacity:10000}") int queueCapacity,
+                                 @Value("${log.writer.batch.size:200}") int batchSize,
+                                 @Value("${log.writer.flush.interval.ms:1000}") long flushIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    @PostConstruct
+    void start() {
+        flushExecutor.submit(this::flushLoop);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        flushExecutor.shutdown();
+        if (!flushExecutor.awaitTermination(flushIntervalMs * 5, TimeUnit.MILLISECONDS)) {
+            log.warn("Log writer stopped with {} logs still queued", queue.size());
+        }
+    }
+
+    @Override
+    public void write(TenantLog log) {
+        enqueue(log);
+    }
+
+    @Override
+    public void write(OwnerLog log) {
+        enqueue(log);
+    }
+
+    @Override
+    public void write(LinkLog log) {
+        enqueue(log);
+    }
+
+    @Override
+    public void write(PropertyLog log) {
+        enqueue(log);
+    }
+
+    private void enqueue(Object entry) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionalUtil.afterCommit(() -> offer(entry));
+        } else {
+            offer(entry);
+        }
+    }
+
+    private void offer(Object entry) {
+        if (!running || !queue.offer(entry)) {
+            log.warn("Log queue is full, writing log synchronously");
+            flush(List.of(entry));
+        }
+    }
+
+    private void flushLoop() {
+        List<Object> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Object first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + flushIntervalMs;
+                while (batch.size() < batchSize) {
+                    Object next = queue.poll(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Object> entries) {
+        List<TenantLog> tenantLogs = new ArrayList<>();
+        List<OwnerLog> ownerLogs = new ArrayList<>();
+        List<LinkLog> linkLogs = new ArrayList<>();
+        List<PropertyLog> propertyLogs = new ArrayList<>();
+        for (Object entry : entries) {
+            switch (entry) {
+                case TenantLog tenantLog -> tenantLogs.add(tenantLog);
+                case OwnerLog ownerLog -> ownerLogs.add(ownerLog);
+                case LinkLog linkLog -> linkLogs.add(linkLog);
+                case PropertyLog propertyLog -> propertyLogs.add(propertyLog);
+                default -> log.error("Unsupported log type {}", entry.getClass());
+            }
+        }
+        insertTenantLogs(tenantLogs);
+        insertOwnerLogs(ownerLogs);
+        insertLinkLogs(linkLogs);
+        insertPropertyLogs(propertyLogs);
+    }
+
+    private void insertTenantLogs(List<TenantLog> logs) {
+        insert("tenant", INSERT_TENANT_LOG, logs, (ps, tenantLog) -> {
+            ps.setObject(1, tenantLog.getTenantId(), Types.BIGINT);
+            ps.setObject(2, tenantLog.getOperatorId(), Types.BIGINT);
+            ps.setTimestamp(3, timestamp(tenantLog.getCreationDateTime()));
+            ps.setString(4, tenantLog.getLogType() == null ? null : tenantLog.getLogType().name());
+            ps.setArray(5, bigintArray(ps, tenantLog.getUserApis()));
+            ps.setString(6, (String) tenantLog.getJsonProfile());
+            ps.setString(7, (String) tenantLog.getLogDetails());
+            ps.setObject(8, tenantLog.getMessageId(), Types.BIGINT);
+        });
+    }
+
+    private void insertOwnerLogs(List<OwnerLog> logs) {
+        insert("owner", INSERT_OWNER_LOG, logs, (ps, ownerLog) -> {
+            ps.setObject(1, ownerLog.getOwnerId(), Types.BIGINT);
+            ps.setTimestamp(2, timestamp(ownerLog.getCreationDateTime()));
+            ps.setString(3, ownerLog.getLogType() == null ? null : ownerLog.getLogType().name());
+            ps.setString(4, (String) ownerLog.getJsonProfile());
+        });
+    }
+
+    private void insertLinkLogs(List<LinkLog> logs) {
+        insert("link", INSERT_LINK_LOG, logs, (ps, linkLog) -> {
+            ps.setObject(1, linkLog.getApartmentSharing() == null ? null : linkLog.getApartmentSharing().getId(), Types.BIGINT);
+            ps.setString(2, linkLog.getToken());
+            ps.setString(3, linkLog.getLinkType() == null ? null : linkLog.getLinkType().name());
+            ps.setTimestamp(4, timestamp(linkLog.getCreationDate()));
+        });
+    }
+
+    private void insertPropertyLogs(List<PropertyLog> logs) {
+        insert("property", INSERT_PROPERTY_LOG, logs, (ps, propertyLog) -> {
+            ps.setObject(1, propertyLog.getProperty() == null ? null : propertyLog.getProperty().getId(), Types.BIGINT);
+            ps.setTimestamp(2, timestamp(propertyLog.getCreationDate()));
+            ps.setString(3, propertyLog.getLogType() == null ? null : propertyLog.getLogType().name());
+            ps.setObject(4, propertyLog.getApartmentSharing() == null ? null : propertyLog.getApartmentSharing().getId(), Types.BIGINT);
+        });
+    }
+
+    /**
+     * Inserts the logs of a type with a single batch. When the batch fails, e.g. because of a single invalid log,
+     * the logs are inserted one by one so that only the invalid ones are lost.
+     */
+    private <T> void insert(String type, String sql, List<T> logs, ParameterizedPreparedStatementSetter<T> setter) {
+        if (logs.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(sql, logs, logs.size(), setter);
+        } catch (Exception e) {
+            log.warn("Unable to write {} {} logs in a batch, writing them one by one", logs.size(), type, e);
+            for (T entry : logs) {
+                try {
+                    jdbcTemplate.update(sql, ps -> setter.setValues(ps, entry));
+                } catch (Exception rowException) {
+                    log.error("Unable to write a {} log", type, rowException);
+                }
+            }
+        }
+    }
+
+    private static Timestamp timestamp(LocalDateTime dateTime) {
+        return dateTime == null ? null : Timestamp.valueOf(dateTime);
+    }
+
+    private static Array bigintArray(PreparedStatement ps, long[] values) throws SQLException {
+        if (values == null) {
+            return null;
+        }
+        return ps.getConnection().createArrayOf("bigint", LongStream.of(values).boxed().toArray());
+    }
+}
@@ -0,0 +1,42 @@
+package fr.dossierfacile.common.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.dossierfacile.common.entity.Tenant;
+import fr.dossierfacile.common.entity.UserApi;
+import fr.dossierfacile.common.entity.messaging.CallbackOutboxMessage;
+import fr.dossierfacile.common.entity.messaging.QueueMessageStatus;
+import fr.dossierfacile.common.model.apartment_sharing.ApplicationModel;
+import fr.dossierfacile.common.repository.CallbackOutboxRepository;
+import fr.dossierfacile.common.service.interfaces.CallbackOutboxService;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CallbackOutboxServiceImpl implements CallbackOutboxService {
+    private final CallbackOutboxRepository callbackOutboxRepository;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @SneakyThrows
+    @Transactional
+    public void enqueue(Tenant tenant, UserApi userApi, ApplicationModel applicationModel) {
+        callbackOutboxRepository.deletePendingMessages(tenant.getId(), userApi.getId());
+        LocalDateTime now = LocalDateTime.now();
+        callbackOutboxRepository.save(CallbackOutboxMessage.builder()
+                .tenantId(tenant.getId())
+                .userApiId(userApi.getId())
+                .partnerCallBackType(applicationModel.getPartnerCallBackType())
+                .content(objectMapper.writeValueAsString(applicationModel))
+                .creationDate(now)
+                .nextAttemptDate(now)
+                .status(QueueMessageStatus.PENDING)
+                .build());
+    }
+}
@@ -4,30 +4,21 @@ import fr.dossierfacile.common.config.ImageMagickConfig;
 import fr.dossierfacile.common.entity.Document;
 import fr.dossierfacile.common.entity.File;
 import fr.dossierfacile.common.entity.StorageFile;
+import fr.dossierfacile.common.enums.PreviewSize;
 import fr.dossierfacile.common.repository.SharedFileRepository;
 import fr.dossierfacile.common.service.interfaces.DocumentHelperService;
 import fr.dossierfacile.common.service.interfaces.EncryptionKeyService;
+import fr.dossierfacile.common.service.interfaces.FilePreviewService;
 import fr.dossierfacile.common.service.interfaces.FileStorageService;
 import fr.dossierfacile.common.utils.FileUtility;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
-import org.apache.pdfbox.Loader;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.rendering.ImageType;
-import org.apache.pdfbox.rendering.PDFRenderer;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.imageio.ImageIO;
-import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -35,6 +26,7 @@ import java.io.InputStream;
 import java.nio.file.attribute.FileAttribute;
 import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.attribute.PosixFilePermissions;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
@@ -47,6 +39,7 @@ public class DocumentHelperServiceImpl implements DocumentHelperService {
     private final SharedFileRepository fileRepository;
     private final EncryptionKeyService encryptionKeyService;
     private final ImageMagickConfig imageMagickConfig;
+    private final FilePreviewService filePreviewService;
 
     @Transactional
     @Override
@@ -137,61 +130,16 @@ public class DocumentHelperServiceImpl implements DocumentHelperService {
     @Override
     public StorageFile generatePreview(InputStream fileInputStream, String originalName) {
         try {
-            String imageExtension = FilenameUtils.getExtension(originalName);
-            BufferedImage preview;
-            if ("pdf".equalsIgnoreCase(imageExtension)) {
-                long startTime = System.currentTimeMillis();
-                try (PDDocument document = Loader.loadPDF(fileInputStream.readAllBytes())) {
-                    PDFRenderer pdfRenderer = new PDFRenderer(document);
-                    BufferedImage bufferedImage = pdfRenderer.renderImageWithDPI(0, 200, ImageType.RGB);
-                    preview = resizeImage(bufferedImage);
-                    log.info("resize pdf duration : {}", System.currentTimeMillis() - startTime);
-                }
-            } else {
-                preview = resizeImage(ImageIO.read(fileInputStream));
-            }
-            if (preview == null) {
-                return null;
-            }
-
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            ImageIO.write(preview, "jpg", baos);
-
-            StorageFile storageFile = StorageFile.builder()
-                    .name(originalName)
-                    .path("minified_" + UUID.randomUUID() + ".jpg")
-                    .contentType(MediaType.IMAGE_JPEG_VALUE)
-                    .encryptionKey(encryptionKeyService.getCurrentKey())
-                    .build();
-
-            try (InputStream is = new ByteArrayInputStream(baos.toByteArray())) {
-                return fileStorageService.upload(is, storageFile);
-            }
+            return generatePreview(filePreviewService.render(fileInputStream, originalName, 0), originalName);
         } catch (Exception e) {
             log.error(e.getMessage(), e);
         }
         return null;
     }
 
-    BufferedImage resizeImage(BufferedImage image) {
-        if (image == null) {
-            return null;
-        }
-        long startTime = System.currentTimeMillis();
-        float originalWidth = image.getWidth();
-        float originalHeight = image.getHeight();
-        int targetWidth = 300;
-        int targetHeight = targetWidth < originalWidth ? (int) (targetWidth / originalWidth * originalHeight) : 300;
-        BufferedImage resizedImage = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
-        Graphics2D graphics2D = resizedImage.createGraphics();
-        graphics2D.setColor(Color.WHITE);
-        graphics2D.fillRect(0, 0, targetWidth, targetHeight);
-        graphics2D.drawImage(image, 0, 0, targetWidth, targetHeight, null);
-        graphics2D.dispose();
-        long endTime = System.currentTimeMillis();
-        long duration = (endTime - startTime);
-        log.info("resize image duration : {}", duration);
-        return resizedImage;
+    @Override
+    public StorageFile generatePreview(BufferedImage firstPage, String originalName) {
+        return filePreviewService.generate(firstPage, originalName, EnumSet.of(PreviewSize.THUMBNAIL)).get(PreviewSize.THUMBNAIL);
     }
 
 }
@@ -0,0 +1,160 @@
+package fr.dossierfacile.common.service;
+
+import fr.dossierfacile.common.entity.File;
+import fr.dossierfacile.common.entity.FilePreview;
+import fr.dossierfacile.common.entity.StorageFile;
+import fr.dossierfacile.common.enums.FileStorageStatus;
+import fr.dossierfacile.common.enums.PreviewSize;
+import fr.dossierfacile.common.repository.FilePreviewRepository;
+import fr.dossierfacile.common.repository.StorageFileRepository;
+import fr.dossierfacile.common.service.interfaces.EncryptionKeyService;
+import fr.dossierfacile.common.service.interfaces.FilePreviewService;
+import fr.dossierfacile.common.service.interfaces.FileStorageService;
+import fr.dossierfacile.common.utils.ImageScaler;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.slf4j.MDC;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@AllArgsConstructor
+public class FilePreviewServiceImpl implements FilePreviewService {
+    private static final float RENDER_DPI = 200;
+    private static final String PREVIEW_SIZE = "preview_size";
+    private static final String PREVIEW_DURATION = "preview_duration";
+    private static final String PREVIEW_BYTES = "preview_bytes";
+    private static final String PREVIEW_RENDER_DURATION = "preview_render_duration";
+
+    private final FileStorageService fileStorageService;
+    private final FilePreviewRepository filePreviewRepository;
+    private final StorageFileRepository storageFileRepository;
+    private final EncryptionKeyService encryptionKeyService;
+
+    @Override
+    public BufferedImage render(InputStream fileInputStream, String originalName, int page) throws IOException {
+        long start = System.currentTimeMillis();
+        BufferedImage image;
+        if ("pdf".equalsIgnoreCase(FilenameUtils.getExtension(originalName))) {
+            try (PDDocument document = Loader.loadPDF(fileInputStream.readAllBytes())) {
+                if (page >= document.getNumberOfPages()) {
+                    return null;
+                }
+                image = new PDFRenderer(document).renderImageWithDPI(page, RENDER_DPI, ImageType.RGB);
+            }
+        } else {
+            image = page == 0 ? ImageIO.read(fileInputStream) : null;
+        }
+        long duration = System.currentTimeMillis() - start;
+        try (MDC.MDCCloseable d = MDC.putCloseable(PREVIEW_RENDER_DURATION, String.valueOf(duration))) {
+            log.info("Page {} of {} rendered in {} ms", page, originalName, duration);
+        }
+        return image;
+    }
+
+    @Override
+    public Map<PreviewSize, StorageFile> generate(BufferedImage page, String originalName, Set<PreviewSize> sizes) {
+        Map<PreviewSize, StorageFile> previews = new EnumMap<>(PreviewSize.class);
+        if (page == null || sizes.isEmpty()) {
+            return previews;
+        }
+        long start = System.currentTimeMillis();
+        Map<Integer, BufferedImage> scaledImages = ImageScaler.downscale(page,
+                sizes.stream().map(PreviewSize::getWidth).collect(Collectors.toSet()));
+        long scaleDuration = System.currentTimeMillis() - start;
+        for (PreviewSize size : sizes) {
+            try {
+                long uploadStart = System.currentTimeMillis();
+                StorageFile preview = upload(scaledImages.get(size.getWidth()), originalName);
+                long duration = scaleDuration + System.currentTimeMillis() - uploadStart;
+                try (MDC.MDCCloseable s = MDC.putCloseable(PREVIEW_SIZE, size.name());
+                     MDC.MDCCloseable d = MDC.putCloseable(PREVIEW_DURATION, String.valueOf(duration));
+                     MDC.MDCCloseable b = MDC.putCloseable(PREVIEW_BYTES, String.valueOf(preview.getSize()))) {
+                    log.info("Preview {} of {} generated in {} ms ({} bytes)", size, originalName, duration, preview.getSize());
+                }
+                previews.put(size, preview);
+            } catch (Exception e) {
+                log.error("Unable to generate preview {} of {}", size, originalName, e);
+            }
+        }
+        return previews;
+    }
+
+    @Override
+    public Optional<StorageFile> getOrCreate(File file, PreviewSize size, int page) {
+        if (size == PreviewSize.THUMBNAIL && page == 0 && file.getPreview() != null) {
+            return Optional.of(file.getPreview());
+        }
+        Optional<FilePreview> existing = filePreviewRepository.findByFileIdAndSizeAndPage(file.getId(), size, page);
+        if (existing.isPresent()) {
+            return Optional.of(existing.get().getStorageFile());
+        }
+        if (page < 0 || page >= Math.max(1, file.getNumberOfPages())) {
+            return Optional.empty();
+        }
+
+        StorageFile preview;
+        try (InputStream inputStream = fileStorageService.download(file.getStorageFile())) {
+            BufferedImage image = render(inputStream, file.getStorageFile().getName(), page);
+            preview = generate(image, file.getStorageFile().getName(), Set.of(size)).get(size);
+        } catch (IOException e) {
+            log.error("Unable to render page {} of file {}", page, file.getId(), e);
+            return Optional.empty();
+        }
+        if (preview == null) {
+            return Optional.empty();
+        }
+
+        try {
+            filePreviewRepository.save(FilePreview.builder()
+                    .file(file)
+                    .size(size)
+                    .page(page)
+                    .storageFile(preview)
+                    .build());
+            return Optional.of(preview);
+        } catch (DataIntegrityViolationException e) {
+            // generated concurrently by another request, or the file has just been deleted
+            preview.setStatus(FileStorageStatus.TO_DELETE);
+            storageFileRepository.save(preview);
+            return filePreviewRepository.findByFileIdAndSizeAndPage(file.getId(), size, page).map(FilePreview::getStorageFile);
+        }
+    }
+
+    private StorageFile upload(BufferedImage image, String originalName) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", baos);
+
+        StorageFile storageFile = StorageFile.builder()
+                .name(originalName)
+                .path("minified_" + UUID.randomUUID() + ".jpg")
+                .contentType(MediaType.IMAGE_JPEG_VALUE)
+                .size((long) baos.size())
+                .encryptionKey(encryptionKeyService.getCurrentKey())
+                .build();
+
+        try (InputStream is = new ByteArrayInputStream(baos.toByteArray())) {
+            return fileStorageService.upload(is, storageFile);
+        }
+    }
+}
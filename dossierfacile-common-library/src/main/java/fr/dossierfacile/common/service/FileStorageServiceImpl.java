@@ -1,6 +1,7 @@
 package fr.dossierfacile.common.service;
 
 import fr.dossierfacile.common.config.DynamicProviderConfig;
+import fr.dossierfacile.common.entity.EncryptionKey;
 import fr.dossierfacile.common.entity.ObjectStorageProvider;
 import fr.dossierfacile.common.entity.StorageFile;
 import fr.dossierfacile.common.enums.FileStorageStatus;
@@ -8,23 +9,91 @@ import fr.dossierfacile.common.exceptions.RetryableOperationException;
 import fr.dossierfacile.common.repository.StorageFileRepository;
 import fr.dossierfacile.common.service.interfaces.FileStorageProviderService;
 import fr.dossierfacile.common.service.interfaces.FileStorageService;
-import lombok.AllArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
 import org.apache.commons.lang3.StringUtils;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
 import java.nio.file.ProviderNotFoundException;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @Slf4j
-@AllArgsConstructor
 public class FileStorageServiceImpl implements FileStorageService {
     private final StorageFileRepository storageFileRepository;
     private final DynamicProviderConfig dynamicProviderConfig;
     private final List<FileStorageProviderService> fileStorageProviders;
+    private final Optional<StorageFileDiskCache> storageFileDiskCache;
+    private final StorageProviderHealth storageProviderHealth;
+    private final ExecutorService storageDownloadExecutor;
+    private final long hedgeDelayMs;
+
+    @Autowired
+    public FileStorageServiceImpl(StorageFileRepository storageFileRepository,
+                                  DynamicProviderConfig dynamicProviderConfig,
+                                  List<FileStorageProviderService> fileStorageProviders,
+                                  Optional<StorageFileDiskCache> storageFileDiskCache,
+                                  StorageProviderHealth storageProviderHealth,
+                                  @Value("${storage.download.hedge.delay.ms:500}") long hedgeDelayMs) {
+        // runs the downloads raced against each other, blocked on I/O most of the time
+        this(storageFileRepository, dynamicProviderConfig, fileStorageProviders, storageFileDiskCache, storageProviderHealth,
+                Executors.newVirtualThreadPerTaskExecutor(), hedgeDelayMs);
+    }
+
+    FileStorageServiceImpl(StorageFileRepository storageFileRepository,
+                           DynamicProviderConfig dynamicProviderConfig,
+                           List<FileStorageProviderService> fileStorageProviders,
+                           Optional<StorageFileDiskCache> storageFileDiskCache,
+                           StorageProviderHealth storageProviderHealth,
+                           ExecutorService storageDownloadExecutor,
+                           long hedgeDelayMs) {
+        this.storageFileRepository = storageFileRepository;
+        this.dynamicProviderConfig = dynamicProviderConfig;
+        this.fileStorageProviders = fileStorageProviders;
+        this.storageFileDiskCache = storageFileDiskCache;
+        this.storageProviderHealth = storageProviderHealth;
+        this.storageDownloadExecutor = storageDownloadExecutor;
+        this.hedgeDelayMs = hedgeDelayMs;
+    }
+
+    @PreDestroy
+    void stop() {
+        storageDownloadExecutor.shutdown();
+    }
+
+    /**
+     * Cached entries are keyed by provider: the file is evicted for every provider, including the ones it was copied to.
+     */
+    private void evictFromCache(StorageFile storageFile) {
+        if (storageFile.getPath() == null) {
+            return;
+        }
+        storageFileDiskCache.ifPresent(cache -> {
+            for (ObjectStorageProvider provider : ObjectStorageProvider.values()) {
+                cache.evict(provider, storageFile.getPath());
+            }
+        });
+    }
 
     private FileStorageProviderService getStorageService(ObjectStorageProvider storageProvider) {
         return fileStorageProviders.stream().filter(p -> p.getProvider() == storageProvider).findFirst().orElseThrow(() -> new ProviderNotFoundException());
@@ -36,6 +105,7 @@ public class FileStorageServiceImpl implements FileStorageService {
     @Override
     public void delete(StorageFile storageFile) {
         if (storageFile != null) {
+            evictFromCache(storageFile);
             storageFile.setStatus(FileStorageStatus.TO_DELETE);
             storageFileRepository.save(storageFile);
         }
@@ -46,6 +116,7 @@ public class FileStorageServiceImpl implements FileStorageService {
         if (storageFile == null) {
             return;
         }
+        evictFromCache(storageFile);
         if (storageFile.getProviders() == null) {
             storageFileRepository.delete(storageFile);
             return;
@@ -63,19 +134,171 @@ public class FileStorageServiceImpl implements FileStorageService {
 
     @Override
     public InputStream download(StorageFile storageFile) throws IOException {
-        List<String> availableProviders = storageFile.getProviders();
-        for (ObjectStorageProvider provider : dynamicProviderConfig.getProviders()) {
-            Optional<String> selectedProvider = availableProviders.stream().filter(s -> Objects.equals(s, provider.name())).findAny();
-            if (selectedProvider.isPresent()) {
+        List<ObjectStorageProvider> candidates = candidateProviders(storageFile);
+        InputStream cached = fromDiskCache(storageFile, candidates);
+        if (cached != null) {
+            return cached;
+        }
+        IOException failure = new IOException("File " + storageFile.getId() + " is not available in any storage");
+        for (ObjectStorageProvider provider : storageProviderHealth.attempts(candidates)) {
+            try {
+                return download(storageFile, provider);
+            } catch (Exception e) {
+                log.warn("File {} was not available in storage {}", storageFile.getId(), provider);
+                failure.addSuppressed(e);
+            }
+        }
+        throw failure;
+    }
+
+    /**
+     * Starts the download from the healthiest provider and, each time {@code hedgeDelayMs} elapses without an
+     * answer, races it with a download from the next provider. The first stream opened wins, the other ones are
+     * closed as soon as they open.
+     */
+    @Override
+    public InputStream downloadHedged(StorageFile storageFile) throws IOException {
+        List<ObjectStorageProvider> candidates = candidateProviders(storageFile);
+        if (candidates.size() < 2 || hedgeDelayMs <= 0) {
+            return download(storageFile);
+        }
+        InputStream cached = fromDiskCache(storageFile, candidates);
+        if (cached != null) {
+            return cached;
+        }
+        Iterator<ObjectStorageProvider> providers = storageProviderHealth.attempts(candidates).iterator();
+        IOException failure = new IOException("File " + storageFile.getId() + " is not available in any storage");
+        BlockingQueue<CompletableFuture<InputStream>> completed = new LinkedBlockingQueue<>();
+        List<CompletableFuture<InputStream>> attempts = new ArrayList<>();
+        CompletableFuture<InputStream> winner = null;
+        int pending = 0;
+        try {
+            while (winner == null) {
+                if (providers.hasNext()) {
+                    ObjectStorageProvider provider = providers.next();
+                    if (pending > 0) {
+                        storageProviderHealth.recordHedge(provider);
+                    }
+                    CompletableFuture<InputStream> attempt = downloadAsync(storageFile, provider);
+                    attempt.whenComplete((in, e) -> completed.add(attempt));
+                    attempts.add(attempt);
+                    pending++;
+                }
+                CompletableFuture<InputStream> done = providers.hasNext()
+                        ? completed.poll(hedgeDelayMs, TimeUnit.MILLISECONDS)
+                        : completed.take();
+                if (done == null) {
+                    continue;
+                }
+                pending--;
                 try {
-                    return getStorageService(ObjectStorageProvider.valueOf(selectedProvider.get()))
-                            .download(storageFile.getPath(), storageFile.getEncryptionKey());
+                    done.join();
+                    winner = done;
+                } catch (CompletionException e) {
+                    failure.addSuppressed(e.getCause());
+                    if (pending == 0 && !providers.hasNext()) {
+                        throw failure;
+                    }
+                }
+            }
+            return winner.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while downloading file " + storageFile.getId());
+        } finally {
+            for (CompletableFuture<InputStream> attempt : attempts) {
+                if (attempt != winner) {
+                    attempt.thenAccept(IOUtils::closeQuietly);
+                }
+            }
+        }
+    }
+
+    private CompletableFuture<InputStream> downloadAsync(StorageFile storageFile, ObjectStorageProvider provider) {
+        Map<String, String> contextMap = MDC.getCopyOfContextMap();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                if (contextMap != null) {
+                    MDC.setContextMap(contextMap);
+                }
+                return download(storageFile, provider);
+            } catch (IOException e) {
+                log.warn("File {} was not available in storage {}", storageFile.getId(), provider);
+                throw new UncheckedIOException(e);
+            } finally {
+                MDC.clear();
+            }
+        }, storageDownloadExecutor);
+    }
+
+    /**
+     * Providers holding the file.
+     */
+    private List<ObjectStorageProvider> candidateProviders(StorageFile storageFile) {
+        List<String> availableProviders = storageFile.getProviders() == null ? List.of() : storageFile.getProviders();
+        return dynamicProviderConfig.getProviders().stream()
+                .filter(provider -> availableProviders.contains(provider.name()))
+                .toList();
+    }
+
+    /**
+     * Looked up before any provider is acquired: serving a cached object does not call the provider, so it must not
+     * take the probe of an open circuit, which only a call reporting back to {@link #recordHealth} can close.
+     */
+    private InputStream fromDiskCache(StorageFile storageFile, List<ObjectStorageProvider> candidates) {
+        if (storageFileDiskCache.isEmpty() || storageFile.getEncryptionKey() == null) {
+            return null;
+        }
+        StorageFileDiskCache cache = storageFileDiskCache.get();
+        for (ObjectStorageProvider provider : storageProviderHealth.order(candidates)) {
+            InputStream cached = cache.getIfPresent(provider, storageFile.getPath());
+            if (cached != null) {
+                try {
+                    return decrypt(storageFile, provider, cache, cached);
                 } catch (Exception e) {
-                    log.warn("File {} was not available in storage {}", storageFile.getId(), provider);
+                    log.warn("Cached file {} of storage {} could not be read", storageFile.getId(), provider);
+                    IOUtils.closeQuietly(cached);
+                    cache.evict(provider, storageFile.getPath());
                 }
             }
         }
-        throw new IOException();
+        return null;
+    }
+
+    /**
+     * Only encrypted objects are cached: the disk cache never holds clear content.
+     */
+    private InputStream download(StorageFile storageFile, ObjectStorageProvider provider) throws IOException {
+        FileStorageProviderService providerService = getStorageService(provider);
+        EncryptionKey key = storageFile.getEncryptionKey();
+        String path = storageFile.getPath();
+        if (storageFileDiskCache.isEmpty() || key == null) {
+            return recordHealth(provider, () -> providerService.download(path, key));
+        }
+        StorageFileDiskCache cache = storageFileDiskCache.get();
+        return decrypt(storageFile, provider, cache,
+                cache.get(provider, path, () -> recordHealth(provider, () -> providerService.download(path, null))));
+    }
+
+    private InputStream decrypt(StorageFile storageFile, ObjectStorageProvider provider, StorageFileDiskCache cache,
+                                InputStream stored) throws IOException {
+        InputStream in = getStorageService(provider).decrypt(storageFile.getPath(), storageFile.getEncryptionKey(), stored);
+        return storageFile.getMd5() == null ? in : cache.verify(in, provider, storageFile.getPath(), storageFile.getMd5());
+    }
+
+    /**
+     * Measures the time taken by the provider to answer, the transfer of the content itself is not included.
+     */
+    private InputStream recordHealth(ObjectStorageProvider provider, StorageFileDiskCache.Loader download) throws IOException {
+        long start = System.currentTimeMillis();
+        try {
+            InputStream in = download.download();
+            storageProviderHealth.recordSuccess(provider, System.currentTimeMillis() - start);
+            return in;
+        } catch (IOException | RuntimeException e) {
+            storageProviderHealth.recordFailure(provider);
+            throw e;
+        }
     }
 
     @Override
@@ -95,14 +318,22 @@ public class FileStorageServiceImpl implements FileStorageService {
         if (inputStream.markSupported()) {
             inputStream.mark(100000000);
         }
-        boolean shift = false;
-        for (ObjectStorageProvider provider : dynamicProviderConfig.getProviders()) {
+        MessageDigest md5 = DigestUtils.getMd5Digest();
+        for (ObjectStorageProvider provider : storageProviderHealth.attempts(dynamicProviderConfig.getProviders())) {
             boolean tryNextProvider = false;
-            try {
-                storageFile = uploadToProvider(inputStream, storageFile, provider);
+            md5.reset();
+            try (BoundedInputStream in = BoundedInputStream.builder()
+                    .setInputStream(new DigestInputStream(inputStream, md5))
+                    .setPropagateClose(false)
+                    .get()) {
+                storageFile = uploadToProvider(in, storageFile, provider);
+                storageProviderHealth.recordSuccess(provider);
+                // validators of the stored content, served as ETag and Content-Length
+                storageFile.setMd5(Hex.encodeHexString(md5.digest()));
+                storageFile.setSize(in.getCount());
             } catch (RetryableOperationException e) {
                 log.warn("Provider " + provider + " Failed - Retry with the next provider if exists.", e);
-                shift = true;
+                storageProviderHealth.recordFailure(provider);
                 if (inputStream.markSupported()) {
                     inputStream.reset();
                     tryNextProvider = true;
@@ -112,9 +343,6 @@ public class FileStorageServiceImpl implements FileStorageService {
                 break;
             }
         }
-        if (shift) {
-            dynamicProviderConfig.shift();
-        }
         if (storageFile.getProviders() == null || storageFile.getProviders().isEmpty()) {
             throw new IOException("Unable to upload the file");
         }
@@ -139,4 +367,29 @@ public class FileStorageServiceImpl implements FileStorageService {
         return storageFileRepository.save(storageFile);
     }
 
-}
\ No newline at end of file
+    @Override
+    public long copyToProvider(StorageFile storageFile, ObjectStorageProvider provider) throws RetryableOperationException, IOException {
+        List<ObjectStorageProvider> sources = dynamicProviderConfig.getProviders().stream()
+                .filter(p -> p != provider && storageFile.getProviders().contains(p.name()))
+                .toList();
+        if (sources.isEmpty()) {
+            throw new IOException("No source provider for " + storageFile.getId());
+        }
+        ObjectStorageProvider source = storageProviderHealth.attempts(sources).iterator().next();
+        // Providers only derive the same IV from the path with version 2 keys
+        EncryptionKey key = storageFile.getEncryptionKey();
+        EncryptionKey transferKey = (key == null || key.getVersion() == 2) ? null : key;
+
+        long bytes;
+        try (BoundedInputStream in = BoundedInputStream.builder()
+                .setInputStream(recordHealth(source, () -> getStorageService(source).download(storageFile.getPath(), transferKey)))
+                .get()) {
+            getStorageService(provider).upload(storageFile.getPath(), in, transferKey, storageFile.getContentType());
+            bytes = in.getCount();
+        }
+        storageFileRepository.addProvider(storageFile.getId(), provider.name());
+        storageFile.getProviders().add(provider.name());
+        return bytes;
+    }
+
+}
@@ -4,45 +4,54 @@ import fr.dossierfacile.common.entity.ApartmentSharing;
 import fr.dossierfacile.common.entity.ApartmentSharingLink;
 import fr.dossierfacile.common.entity.LinkLog;
 import fr.dossierfacile.common.enums.LinkType;
+import fr.dossierfacile.common.model.LinkLastVisit;
 import fr.dossierfacile.common.repository.LinkLogRepository;
+import fr.dossierfacile.common.service.interfaces.BufferedLogWriter;
 import fr.dossierfacile.common.service.interfaces.LinkLogService;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.Comparator;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
 @Slf4j
 public class LinkLogServiceImpl implements LinkLogService {
+    private static final List<LinkType> VISIT_LOGS = List.of(LinkType.FULL_APPLICATION, LinkType.LIGHT_APPLICATION, LinkType.DOCUMENT);
     private final LinkLogRepository linkLogRepository;
+    private final BufferedLogWriter bufferedLogWriter;
 
-    public LinkLog save(LinkLog log) {
-        return linkLogRepository.save(log);
+    public void save(LinkLog log) {
+        bufferedLogWriter.write(log);
     }
 
     public Optional<LocalDateTime> getLastVisit(String token, ApartmentSharing apartmentSharing) {
-        List<LinkType> visitLogs = List.of(LinkType.FULL_APPLICATION, LinkType.LIGHT_APPLICATION, LinkType.DOCUMENT);
-        return linkLogRepository.findByApartmentSharingAndToken(apartmentSharing, token)
+        return Optional.ofNullable(getLastVisits(List.of(token), apartmentSharing).get(token));
+    }
+
+    public Map<String, LocalDateTime> getLastVisits(Collection<String> tokens, ApartmentSharing apartmentSharing) {
+        if (tokens.isEmpty()) {
+            return Map.of();
+        }
+        return linkLogRepository.findLastVisits(apartmentSharing, tokens, VISIT_LOGS)
                 .stream()
-                .filter(log -> visitLogs.contains(log.getLinkType()))
-                .sorted(Comparator.comparing(LinkLog::getCreationDate).reversed())
-                .map(LinkLog::getCreationDate)
-                .findFirst();
+                .collect(Collectors.toMap(LinkLastVisit::getToken, LinkLastVisit::getLastVisit));
     }
 
-    public LinkLog createNewLog(ApartmentSharingLink link, LinkType linkType) {
+    public void createNewLog(ApartmentSharingLink link, LinkType linkType) {
         LinkLog log = LinkLog.builder()
                 .token(link.getToken())
                 .creationDate(LocalDateTime.now())
                 .apartmentSharing(link.getApartmentSharing())
                 .linkType(linkType)
                 .build();
-        return linkLogRepository.save(log);
+        bufferedLogWriter.write(log);
     }
 
 }
@@ -60,24 +60,28 @@ public class LocalMockStorage implements FileStorageProviderService {
     public InputStream download(String path, EncryptionKey key) throws IOException {
         InputStream in = Files.newInputStream(Path.of(filePath + path));
         if (key != null) {
-            if (key.getVersion() != 2) {
-                throw new UnsupportedKeyException("Unsupported key version " + key.getVersion());
-            }
-            try {
-                byte[] iv = DigestUtils.sha256(path);
-                GCMParameterSpec gcmParamSpec = new GCMParameterSpec(128, iv);
-                Cipher aes = Cipher.getInstance("AES/GCM/NoPadding");
-                aes.init(Cipher.DECRYPT_MODE, key, gcmParamSpec);
-
-                in = new CipherInputStream(in, aes);
-            } catch (NoSuchPaddingException | NoSuchAlgorithmException | InvalidKeyException |
-                     InvalidAlgorithmParameterException e) {
-                throw new IOException(e);
-            }
+            in = decrypt(path, key, in);
         }
         return in;
     }
 
+    @Override
+    public InputStream decrypt(String path, EncryptionKey key, InputStream in) throws IOException {
+        if (key.getVersion() != 2) {
+            throw new UnsupportedKeyException("Unsupported key version " + key.getVersion());
+        }
+        try {
+            byte[] iv = DigestUtils.sha256(path);
+            GCMParameterSpec gcmParamSpec = new GCMParameterSpec(128, iv);
+            Cipher aes = Cipher.getInstance("AES/GCM/NoPadding");
+            aes.init(Cipher.DECRYPT_MODE, key, gcmParamSpec);
+            return new CipherInputStream(in, aes);
+        } catch (NoSuchPaddingException | NoSuchAlgorithmException | InvalidKeyException |
+                 InvalidAlgorithmParameterException e) {
+            throw new IOException(e);
+        }
+    }
+
     @Override
     public void upload(String path, InputStream inputStream, EncryptionKey key, String contentType) throws RetryableOperationException, IOException {
         if (key != null) {
@@ -19,6 +19,7 @@ import fr.dossierfacile.common.model.log.EditedStep;
 import fr.dossierfacile.common.model.log.EditionType;
 import fr.dossierfacile.common.repository.OwnerLogCommonRepository;
 import fr.dossierfacile.common.repository.TenantLogRepository;
+import fr.dossierfacile.common.service.interfaces.BufferedLogWriter;
 import fr.dossierfacile.common.service.interfaces.LogService;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -37,9 +38,10 @@ public class LogServiceImpl implements LogService {
     private final DeletedTenantMapper deletedTenantMapper;
     private final DeletedOwnerMapper deletedOwnerMapper;
     private final ObjectMapper objectMapper;
+    private final BufferedLogWriter bufferedLogWriter;
 
     private void saveLog(TenantLog log) {
-        repository.save(log);
+        bufferedLogWriter.write(log);
     }
 
     @Override
@@ -72,7 +74,8 @@ public class LogServiceImpl implements LogService {
 
     @Override
     public void saveLogWithTenantData(LogType logType, Tenant tenant) {
-        this.saveLog(
+        // the snapshot is often the last trace of a deleted account: it is written within the caller transaction
+        repository.save(
                 TenantLog.builder()
                         .logType(logType)
                         .tenantId(tenant.getId())
@@ -97,13 +100,15 @@ public class LogServiceImpl implements LogService {
 
     @Override
     public void savePartnerAccessRevocationLog(Tenant tenant, UserApi userApi) {
-        TenantLog log = TenantLog.builder()
-                .logType(LogType.PARTNER_ACCESS_REVOKED)
-                .tenantId(tenant.getId())
-                .creationDateTime(LocalDateTime.now())
-                .userApis(new long[]{userApi.getId()})
-                .build();
-        saveLog(log);
+        // partners read their revoked tenants from these logs: it is written within the caller transaction
+        repository.save(
+                TenantLog.builder()
+                        .logType(LogType.PARTNER_ACCESS_REVOKED)
+                        .tenantId(tenant.getId())
+                        .creationDateTime(LocalDateTime.now())
+                        .userApis(new long[]{userApi.getId()})
+                        .build()
+        );
     }
 
     @Override
@@ -25,6 +25,7 @@ import javax.crypto.spec.GCMParameterSpec;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
 
 
@@ -33,6 +34,7 @@ import java.util.List;
 @Slf4j
 @Profile("!mockOvh")
 public class OutscaleFileStorageServiceImpl implements FileStorageProviderService {
+    private static final int MAX_KEYS_BY_DELETE = 1000;
 
     @Autowired
     private ThreeDSOutscaleConfig threeDSOutscaleConfig;
@@ -58,6 +60,11 @@ public class OutscaleFileStorageServiceImpl implements FileStorageProviderServic
         return in;
     }
 
+    @Override
+    public InputStream decrypt(String path, EncryptionKey key, InputStream in) throws IOException {
+        return cipherInputStream(path, key, in);
+    }
+
     @Override
     public ObjectStorageProvider getProvider() {
         return ObjectStorageProvider.THREEDS_OUTSCALE;
@@ -69,6 +76,27 @@ public class OutscaleFileStorageServiceImpl implements FileStorageProviderServic
         s3client.deleteObject(bucket, name);
     }
 
+    @Override
+    public List<String> deleteAll(List<String> names) {
+        AmazonS3 s3client = threeDSOutscaleConfig.getAmazonS3Client();
+        List<String> failed = new ArrayList<>();
+        for (int from = 0; from < names.size(); from += MAX_KEYS_BY_DELETE) {
+            List<String> keys = names.subList(from, Math.min(from + MAX_KEYS_BY_DELETE, names.size()));
+            DeleteObjectsRequest request = new DeleteObjectsRequest(bucket)
+                    .withKeys(keys.toArray(String[]::new))
+                    .withQuiet(true);
+            try {
+                s3client.deleteObjects(request);
+            } catch (MultiObjectDeleteException e) {
+                e.getErrors().forEach(error -> {
+                    log.warn("Unable to delete object {}: {}", error.getKey(), error.getMessage());
+                    failed.add(error.getKey());
+                });
+            }
+        }
+        return failed;
+    }
+
     @Override
     public InputStream download(String path, EncryptionKey key) throws IOException {
         AmazonS3 s3client = threeDSOutscaleConfig.getAmazonS3Client();
@@ -102,6 +102,11 @@ public class OvhFileStorageServiceImpl implements FileStorageProviderService {
         return in;
     }
 
+    @Override
+    public InputStream decrypt(String path, EncryptionKey key, InputStream in) throws IOException {
+        return cipherInputStream(path, key, in);
+    }
+
     @Override
     public ObjectStorageProvider getProvider() {
         return ObjectStorageProvider.OVH;
@@ -11,8 +11,7 @@ import fr.dossierfacile.common.repository.CallbackLogRepository;
 import fr.dossierfacile.common.repository.TenantCommonRepository;
 import fr.dossierfacile.common.repository.TenantUserApiRepository;
 import fr.dossierfacile.common.service.interfaces.PartnerCallBackService;
-import fr.dossierfacile.common.service.interfaces.RequestService;
-import fr.dossierfacile.common.utils.TransactionalUtil;
+import fr.dossierfacile.common.service.interfaces.CallbackOutboxService;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
@@ -23,7 +22,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -35,7 +33,7 @@ public class PartnerCallBackServiceImpl implements PartnerCallBackService {
     private final TenantCommonRepository tenantRepository;
     private final TenantUserApiRepository tenantUserApiRepository;
     private final ApplicationFullMapper applicationFullMapper;
-    private final RequestService requestService;
+    private final CallbackOutboxService callbackOutboxService;
     private final CallbackLogRepository callbackLogRepository;
     private final ApartmentSharingRepository apartmentSharingRepository;
     private final ObjectMapper objectMapper;
@@ -72,27 +70,15 @@ public class PartnerCallBackServiceImpl implements PartnerCallBackService {
                         .collect(Collectors.toList());
     }
 
-    // TODO send callback should be transactionnal or have DTO
     @Transactional
     public void sendCallBack(Tenant tenant, PartnerCallBackType partnerCallBackType) {
         Optional<ApartmentSharing> apartmentSharing = apartmentSharingRepository.findByTenant(tenant.getId());
         if (apartmentSharing.isEmpty()) {
             return;
         }
-        Map<UserApi, ApplicationModel> applicationModelMap = findAllUserApi(tenant.getApartmentSharing()).stream()
-                .collect(Collectors.toMap(
-                        userApi -> userApi,
-                        userApi -> getWebhookDTO(tenant, userApi, partnerCallBackType)
-                ));
-
-        TransactionalUtil.afterCommit(() -> {
-            try {
-                applicationModelMap.forEach((userApi, applicationModel) -> sendCallBack(tenant, userApi, applicationModel));
-            } catch (Exception e) {
-                log.error("CAUTION Unable to send notification to partner", e);
-            }
-        });
-
+        // callbacks are stored in the outbox within the current transaction, they are delivered by the task scheduler
+        findAllUserApi(tenant.getApartmentSharing())
+                .forEach(userApi -> sendCallBack(tenant, userApi, getWebhookDTO(tenant, userApi, partnerCallBackType)));
     }
 
     @Override
@@ -119,7 +105,7 @@ public class PartnerCallBackServiceImpl implements PartnerCallBackService {
             log.warn("UserApi call has not effect for " + userApi.getName());
             return;
         }
-        requestService.send(applicationModel, userApi.getUrlCallback(), userApi.getPartnerApiKeyCallback());
+        callbackOutboxService.enqueue(tenant, userApi, applicationModel);
         createCallbackLogForPartnerModel(tenant.getId(), userApi.getId(), tenant.getStatus(), applicationModel);
     }
 
@@ -1,21 +1,20 @@
 package fr.dossierfacile.common.service;
 
-import fr.dossierfacile.common.model.apartment_sharing.ApplicationModel;
 import fr.dossierfacile.common.service.interfaces.RequestService;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
 import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactory;
 import org.apache.hc.core5.ssl.SSLContexts;
 import org.apache.hc.core5.ssl.TrustStrategy;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
@@ -25,63 +24,88 @@ import java.security.GeneralSecurityException;
 import java.security.cert.X509Certificate;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class RequestServiceImpl implements RequestService {
 
     private static final String X_API_KEY = "x-api-key";
     private static final String CALL_BACK_RESPONSE = "CallBack ResponseStatus: {}";
+    private final int maxConnections;
+    private final Timeout connectTimeout;
+    private final Timeout responseTimeout;
     private final RestTemplate restTemplate;
+    private RestTemplate insecureRestTemplate;
 
-    @Async
-    public void send(ApplicationModel applicationModel, String urlCallback, String partnerApiKeyCallback) {
+    public RequestServiceImpl(@Value("${callback.http.max.connections:50}") int maxConnections,
+                              @Value("${callback.http.connect.timeout.ms:5000}") long connectTimeout,
+                              @Value("${callback.http.response.timeout.ms:15000}") long responseTimeout) {
+        this.maxConnections = maxConnections;
+        this.connectTimeout = Timeout.ofMilliseconds(connectTimeout);
+        this.responseTimeout = Timeout.ofMilliseconds(responseTimeout);
+        this.restTemplate = createRestTemplate(null);
+    }
+
+    @Override
+    public void send(String jsonContent, String urlCallback, String partnerApiKeyCallback) {
         HttpHeaders headers = new HttpHeaders();
         if (partnerApiKeyCallback != null && !partnerApiKeyCallback.isEmpty()) {
             headers.set(X_API_KEY, partnerApiKeyCallback);
         }
         headers.setContentType(MediaType.APPLICATION_JSON);
-        sendRequest(new HttpEntity<>(applicationModel, headers), urlCallback);
+        sendRequest(new HttpEntity<>(jsonContent, headers), urlCallback);
     }
 
     private <T> void sendRequest(HttpEntity<T> request, String urlCallback) {
-        ResponseEntity<String> response = null;
+        ResponseEntity<String> response;
         try {
             response = restTemplate.exchange(urlCallback, HttpMethod.POST, request, String.class);
-            log.info(CALL_BACK_RESPONSE, response.getStatusCode());
-        } catch (RestClientException e) {
-            log.error("Error occurs during the call to :" + urlCallback, e);
-            if (e instanceof ResourceAccessException) {
-                try {
-                    log.warn("Trying to send the request again without SSL Verification, to the urlCallBack: " + urlCallback);
-                    addExceptionOfSecurity();
-                    response = restTemplate.exchange(urlCallback, HttpMethod.POST, request, String.class);
-                    log.info(CALL_BACK_RESPONSE, response.getStatusCode());
-                } catch (GeneralSecurityException | ResourceAccessException e1) {
-                    log.error("Error to sendRequest", e1);
-                }
-            }
+        } catch (ResourceAccessException e) {
+            log.warn("Trying to send the request again without SSL Verification, to the urlCallBack: " + urlCallback, e);
+            response = getInsecureRestTemplate().exchange(urlCallback, HttpMethod.POST, request, String.class);
         }
-        if (response != null
-                && HttpStatus.OK != response.getStatusCode()
+        log.info(CALL_BACK_RESPONSE, response.getStatusCode());
+        if (HttpStatus.OK != response.getStatusCode()
                 && HttpStatus.ACCEPTED != response.getStatusCode()
                 && HttpStatus.NO_CONTENT != response.getStatusCode()) {
-            log.error("Failure on partner callback url:" + urlCallback + "- Status:" + response.getStatusCode());
+            throw new RestClientException("Failure on partner callback url:" + urlCallback + "- Status:" + response.getStatusCode());
+        }
+    }
+
+    private synchronized RestTemplate getInsecureRestTemplate() {
+        if (insecureRestTemplate == null) {
+            try {
+                TrustStrategy acceptingTrustStrategy = (X509Certificate[] chain, String authType) -> true;
+                SSLContext sslContext = SSLContexts.custom()
+                        .loadTrustMaterial(null, acceptingTrustStrategy)
+                        .build();
+                insecureRestTemplate = createRestTemplate(new SSLConnectionSocketFactory(sslContext));
+            } catch (GeneralSecurityException e) {
+                throw new RestClientException("Unable to build the request factory without SSL verification", e);
+            }
         }
+        return insecureRestTemplate;
     }
 
-    private void addExceptionOfSecurity() throws GeneralSecurityException {
-        TrustStrategy acceptingTrustStrategy = (X509Certificate[] chain, String authType) -> true;
-        SSLContext sslContext = SSLContexts.custom()
-                .loadTrustMaterial(null, acceptingTrustStrategy)
-                .build();
-        SSLConnectionSocketFactory csf = new SSLConnectionSocketFactory(sslContext);
-        CloseableHttpClient httpClient = HttpClients.custom()
-                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
-                        .setSSLSocketFactory(csf)
+    /**
+     * Callbacks are sent with pooled keep-alive connections, with timeouts so that a slow partner cannot hold a dispatcher thread.
+     */
+    private RestTemplate createRestTemplate(SSLConnectionSocketFactory sslSocketFactory) {
+        PoolingHttpClientConnectionManagerBuilder connectionManagerBuilder = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(connectTimeout)
+                        .setSocketTimeout(responseTimeout)
+                        .build());
+        if (sslSocketFactory != null) {
+            connectionManagerBuilder.setSSLSocketFactory(sslSocketFactory);
+        }
+        HttpClientConnectionManager connectionManager = connectionManagerBuilder.build();
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setResponseTimeout(responseTimeout)
                         .build())
-                .build();
-        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory();
-        requestFactory.setHttpClient(httpClient);
-        restTemplate.setRequestFactory(requestFactory);
+                .build());
+        return new RestTemplate(requestFactory);
     }
 }
@@ -0,0 +1,299 @@
+package fr.dossierfacile.common.service;
+
+import fr.dossierfacile.common.entity.ObjectStorageProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Read-through disk cache of stored objects, bounded in size with LRU eviction.
+ * Objects are kept as their provider stores them, still encrypted, and are decrypted on each read: the encryption
+ * being authenticated (AES/GCM), a corrupted entry fails to decrypt, and the decrypted content is also checked
+ * against the MD5 of the storage file when known. Entries are keyed by provider and path, stored objects
+ * never change.
+ * Enabled with {@code storage.cache.enabled=true}, the entries left by a previous run are reused at startup.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "storage.cache.enabled", havingValue = "true")
+public class StorageFileDiskCache {
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final int LOG_STATS_EVERY = 1000;
+
+    private final Path directory;
+    private final long maxSizeBytes;
+    private final Map<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long sizeBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder savedBytes = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public StorageFileDiskCache(@Value("${storage.cache.directory:${java.io.tmpdir}/dossierfacile-storage-cache}") String directory,
+                                @Value("${storage.cache.max.size.mb:1024}") long maxSizeMb) throws IOException {
+        this.directory = Path.of(directory);
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+        Files.createDirectories(this.directory);
+        loadEntries();
+    }
+
+    @FunctionalInterface
+    public interface Loader {
+        InputStream download() throws IOException;
+    }
+
+    /**
+     * Returns the object as stored by the provider, from the cache or downloaded with the loader and cached.
+     */
+    public InputStream get(ObjectStorageProvider provider, String path, Loader loader) throws IOException {
+        String name = entryName(provider, path);
+        InputStream cached = open(name);
+        if (cached != null) {
+            return cached;
+        }
+        misses.increment();
+        logStats();
+
+        Path temporaryFile = Files.createTempFile(directory, name, TEMPORARY_SUFFIX);
+        long size;
+        try (InputStream in = loader.download()) {
+            size = Files.copy(in, temporaryFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporaryFile);
+            throw e;
+        }
+        // opened before being published, so that the stream remains readable if the entry is evicted meanwhile
+        InputStream in = Files.newInputStream(temporaryFile);
+        Files.move(temporaryFile, directory.resolve(name), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        add(name, size);
+        return in;
+    }
+
+    /**
+     * Returns the object from the cache, or null when it is not cached.
+     */
+    public InputStream getIfPresent(ObjectStorageProvider provider, String path) {
+        return open(entryName(provider, path));
+    }
+
+    /**
+     * Wraps the decrypted content to check it against the expected MD5 once fully read: the entry is evicted and
+     * the read fails on mismatch.
+     */
+    public InputStream verify(InputStream in, ObjectStorageProvider provider, String path, String expectedMd5) {
+        return new VerifyingInputStream(in, DigestUtils.getMd5Digest(), expectedMd5, () -> evict(provider, path));
+    }
+
+    public void evict(ObjectStorageProvider provider, String path) {
+        String name = entryName(provider, path);
+        synchronized (this) {
+            Long size = entries.remove(name);
+            if (size != null) {
+                sizeBytes -= size;
+            }
+        }
+        deleteQuietly(directory.resolve(name));
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long savedBytes() {
+        return savedBytes.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public synchronized long sizeBytes() {
+        return sizeBytes;
+    }
+
+    private InputStream open(String name) {
+        Long size;
+        synchronized (this) {
+            size = entries.get(name);
+        }
+        if (size == null) {
+            return null;
+        }
+        try {
+            InputStream in = Files.newInputStream(directory.resolve(name));
+            hits.increment();
+            savedBytes.add(size);
+            return in;
+        } catch (IOException e) {
+            // deleted by an eviction in between, or externally
+            synchronized (this) {
+                if (entries.remove(name) != null) {
+                    sizeBytes -= size;
+                }
+            }
+            return null;
+        }
+    }
+
+    private void add(String name, long size) {
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            Long previous = entries.put(name, size);
+            sizeBytes += size - (previous == null ? 0 : previous);
+            Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+            while (sizeBytes > maxSizeBytes && iterator.hasNext()) {
+                Map.Entry<String, Long> eldest = iterator.next();
+                iterator.remove();
+                sizeBytes -= eldest.getValue();
+                evicted.add(eldest.getKey());
+            }
+        }
+        evictions.add(evicted.size());
+        evicted.forEach(evictedName -> deleteQuietly(directory.resolve(evictedName)));
+    }
+
+    private void loadEntries() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> existingFiles = files.filter(Files::isRegularFile).toList();
+            existingFiles.stream()
+                    .filter(file -> file.getFileName().toString().endsWith(TEMPORARY_SUFFIX))
+                    .forEach(StorageFileDiskCache::deleteQuietly);
+            existingFiles.stream()
+                    .filter(file -> !file.getFileName().toString().endsWith(TEMPORARY_SUFFIX))
+                    .map(StorageFileDiskCache::attributes)
+                    .filter(entry -> entry.attributes != null)
+                    .sorted(Comparator.comparing(entry -> entry.attributes.lastModifiedTime()))
+                    .forEach(entry -> add(entry.file.getFileName().toString(), entry.attributes.size()));
+        }
+        log.info("Storage cache {} loaded with {} entries ({} bytes)", directory, entries.size(), sizeBytes);
+    }
+
+    private void logStats() {
+        long missCount = missCount();
+        if (missCount % LOG_STATS_EVERY == 0) {
+            long hitCount = hitCount();
+            log.info("Storage cache: {} hits, {} misses ({}% hit ratio), {} bytes saved, {} evictions, {} bytes cached",
+                    hitCount, missCount, hitCount * 100 / (hitCount + missCount), savedBytes(), evictionCount(), sizeBytes());
+        }
+    }
+
+    private static String entryName(ObjectStorageProvider provider, String path) {
+        // the stored bytes of a same object may differ between providers (key version 1)
+        return DigestUtils.sha256Hex(provider.name() + ":" + path);
+    }
+
+    private static ExistingEntry attributes(Path file) {
+        try {
+            return new ExistingEntry(file, Files.readAttributes(file, BasicFileAttributes.class));
+        } catch (IOException e) {
+            return new ExistingEntry(file, null);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (NoSuchFileException e) {
+            // already deleted
+        } catch (IOException e) {
+            log.warn("Unable to delete {} from the storage cache", file, e);
+        }
+    }
+
+    private record ExistingEntry(Path file, BasicFileAttributes attributes) {
+    }
+
+    private static class VerifyingInputStream extends FilterInputStream {
+        private final MessageDigest digest;
+        private final String expectedMd5;
+        private final Runnable onMismatch;
+        private boolean verified;
+
+        VerifyingInputStream(InputStream in, MessageDigest digest, String expectedMd5, Runnable onMismatch) {
+            super(in);
+            this.digest = digest;
+            this.expectedMd5 = expectedMd5;
+            this.onMismatch = onMismatch;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b == -1) {
+                verify();
+            } else {
+                digest.update((byte) b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read == -1) {
+                verify();
+            } else {
+                digest.update(b, off, read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // skipped bytes must be digested too
+            byte[] buffer = new byte[(int) Math.min(n, 8192)];
+            long skipped = 0;
+            while (skipped < n) {
+                int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+                if (read == -1) {
+                    break;
+                }
+                skipped += read;
+            }
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void verify() throws IOException {
+            if (verified) {
+                return;
+            }
+            verified = true;
+            String md5 = Hex.encodeHexString(digest.digest());
+            if (!md5.equals(expectedMd5)) {
+                onMismatch.run();
+                throw new IOException("Cached content does not match its MD5 " + expectedMd5);
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package fr.dossierfacile.common.service;
+
+import fr.dossierfacile.common.entity.StorageFile;
+import fr.dossierfacile.common.service.interfaces.FileStorageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.io.IOUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes stored files to HTTP responses. A stored object never changes: its ETag is the MD5 of its content,
+ * or of its path for files stored before the MD5 was recorded, so a conditional request is answered 304 without
+ * downloading nor decrypting the object. Single byte ranges are served when the size of the content is known,
+ * that is for files stored with their MD5.
+ */
+@Service
+@RequiredArgsConstructor
+public class StorageFileResponseService {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileStorageService fileStorageService;
+
+    public void write(HttpServletRequest request, HttpServletResponse response, StorageFile storageFile,
+                      CacheControl cacheControl) throws IOException {
+        String eTag = eTag(storageFile);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        if (new ServletWebRequest(request, response).checkNotModified(eTag)) {
+            return;
+        }
+        response.setHeader(HttpHeaders.ETAG, eTag);
+
+        // sizes recorded before the MD5 may be the size of the original upload, not of the stored content
+        Long size = storageFile.getMd5() != null ? storageFile.getSize() : null;
+        HttpRange range = size == null ? null : requestedRange(request, eTag);
+        if (range != null) {
+            long start = range.getRangeStart(size);
+            long end = range.getRangeEnd(size);
+            if (start >= size || end < start) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            try (InputStream in = fileStorageService.downloadHedged(storageFile)) {
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setContentType(storageFile.getContentType());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+                response.setContentLengthLong(end - start + 1);
+                IOUtils.copyLarge(in, response.getOutputStream(), start, end - start + 1, new byte[BUFFER_SIZE]);
+            }
+            return;
+        }
+
+        try (InputStream in = fileStorageService.downloadHedged(storageFile)) {
+            response.setContentType(storageFile.getContentType());
+            if (size != null) {
+                response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+                response.setContentLengthLong(size);
+            }
+            IOUtils.copyLarge(in, response.getOutputStream(), new byte[BUFFER_SIZE]);
+        }
+    }
+
+    /**
+     * Only a single range is served, the whole content is sent for multiple ranges or when the If-Range
+     * validator does not match.
+     */
+    private static HttpRange requestedRange(HttpServletRequest request, String eTag) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null) {
+            return null;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(eTag)) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String eTag(StorageFile storageFile) {
+        String md5 = storageFile.getMd5() != null ? storageFile.getMd5()
+                : DigestUtils.md5DigestAsHex(storageFile.getPath().getBytes(StandardCharsets.UTF_8));
+        return "\"" + md5 + "\"";
+    }
+}
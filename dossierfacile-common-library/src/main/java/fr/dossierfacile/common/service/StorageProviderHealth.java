@@ -0,0 +1,221 @@
+package fr.dossierfacile.common.service;
+
+import fr.dossierfacile.common.entity.ObjectStorageProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks the latency and the errors of the storage providers to order them from the healthiest one.
+ * A provider failing {@code failureThreshold} times in a row has its circuit opened: it is tried last during
+ * {@code openDuration}, then a single call probes it again and closes the circuit on success or re-opens it.
+ * A provider whose recent latency is above {@code slowThreshold} is tried after the other ones.
+ * Providers are only ever reordered, never skipped, so a file stored on a single provider remains available.
+ */
+@Slf4j
+@Component
+public class StorageProviderHealth {
+    private static final double LATENCY_WEIGHT = 0.2;
+
+    private final int failureThreshold;
+    private final long openDurationMs;
+    private final long slowThresholdMs;
+    private final LongSupplier clock;
+    private final Map<ObjectStorageProvider, ProviderState> states = new EnumMap<>(ObjectStorageProvider.class);
+
+    @Autowired
+    public StorageProviderHealth(@Value("${storage.provider.circuit.failure.threshold:5}") int failureThreshold,
+                                 @Value("${storage.provider.circuit.open.duration.ms:30000}") long openDurationMs,
+                                 @Value("${storage.provider.slow.threshold.ms:2000}") long slowThresholdMs) {
+        this(failureThreshold, openDurationMs, slowThresholdMs, System::currentTimeMillis);
+    }
+
+    StorageProviderHealth(int failureThreshold, long openDurationMs, long slowThresholdMs, LongSupplier clock) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDurationMs = openDurationMs;
+        this.slowThresholdMs = slowThresholdMs;
+        this.clock = clock;
+        for (ObjectStorageProvider provider : ObjectStorageProvider.values()) {
+            states.put(provider, new ProviderState());
+        }
+    }
+
+    /**
+     * Orders the given providers from the healthiest one, keeping their configured order among equally healthy ones.
+     * A provider whose circuit has been open for long enough is due for a probe and comes first, but the probe is only
+     * granted to the call actually made to it, see {@link #tryAcquireProbe}.
+     */
+    public List<ObjectStorageProvider> order(List<ObjectStorageProvider> providers) {
+        long now = clock.getAsLong();
+        Map<ObjectStorageProvider, Integer> ranks = new EnumMap<>(ObjectStorageProvider.class);
+        providers.forEach(provider -> ranks.put(provider, states.get(provider).rank(now)));
+        return providers.stream()
+                .sorted(Comparator.comparing(ranks::get))
+                .toList();
+    }
+
+    /**
+     * To be called right before calling the provider. Returns false when its circuit is open and either not due for
+     * a probe yet or probed by another call; otherwise the call is allowed, and is the probe when the circuit is open.
+     * The other calls then try the provider last until the probe reports back.
+     */
+    public boolean tryAcquireProbe(ObjectStorageProvider provider) {
+        return states.get(provider).tryAcquireProbe(clock.getAsLong());
+    }
+
+    /**
+     * The providers in {@link #order} order, for a caller calling them in turn until one succeeds: each one is
+     * acquired (see {@link #tryAcquireProbe}) when the iteration reaches it, a provider refused at that time is
+     * tried after the other ones.
+     */
+    public Iterable<ObjectStorageProvider> attempts(List<ObjectStorageProvider> providers) {
+        return () -> new Iterator<>() {
+            private final Deque<ObjectStorageProvider> remaining = new ArrayDeque<>(order(providers));
+            private final Set<ObjectStorageProvider> deferred = EnumSet.noneOf(ObjectStorageProvider.class);
+
+            @Override
+            public boolean hasNext() {
+                return !remaining.isEmpty();
+            }
+
+            @Override
+            public ObjectStorageProvider next() {
+                while (true) {
+                    ObjectStorageProvider provider = remaining.removeFirst();
+                    if (remaining.isEmpty() || deferred.contains(provider) || tryAcquireProbe(provider)) {
+                        return provider;
+                    }
+                    deferred.add(provider);
+                    remaining.addLast(provider);
+                }
+            }
+        };
+    }
+
+    /**
+     * Records a successful call whose duration does not depend on the size of the transferred content.
+     */
+    public void recordSuccess(ObjectStorageProvider provider, long latencyMs) {
+        states.get(provider).success(provider, latencyMs, clock.getAsLong());
+    }
+
+    /**
+     * Records a successful call without measuring its latency, e.g. an upload taking as long as its content is large.
+     */
+    public void recordSuccess(ObjectStorageProvider provider) {
+        states.get(provider).success(provider, -1, clock.getAsLong());
+    }
+
+    public void recordFailure(ObjectStorageProvider provider) {
+        states.get(provider).failure(provider, clock.getAsLong());
+    }
+
+    public void recordHedge(ObjectStorageProvider provider) {
+        states.get(provider).hedges.increment();
+    }
+
+    public long successCount(ObjectStorageProvider provider) {
+        return states.get(provider).successes.sum();
+    }
+
+    public long failureCount(ObjectStorageProvider provider) {
+        return states.get(provider).failures.sum();
+    }
+
+    /**
+     * Number of calls raced against a slower call to another provider.
+     */
+    public long hedgeCount(ObjectStorageProvider provider) {
+        return states.get(provider).hedges.sum();
+    }
+
+    /**
+     * Moving average of the latency of the successful calls, 0 until the first one.
+     */
+    public double latencyMs(ObjectStorageProvider provider) {
+        return states.get(provider).latencyMs();
+    }
+
+    public boolean isCircuitOpen(ObjectStorageProvider provider) {
+        return states.get(provider).isOpen();
+    }
+
+    private class ProviderState {
+        private final LongAdder successes = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder hedges = new LongAdder();
+        private double latencyMs;
+        private long lastLatencyAt = Long.MIN_VALUE;
+        private int consecutiveFailures;
+        private long openUntil = Long.MIN_VALUE;
+        private boolean open;
+
+        synchronized int rank(long now) {
+            if (open) {
+                return now < openUntil ? 2 : 0;
+            }
+            // a slow provider gets traffic again once its last measure is old enough
+            boolean slow = latencyMs > slowThresholdMs && now - lastLatencyAt < openDurationMs;
+            return slow ? 1 : 0;
+        }
+
+        synchronized boolean tryAcquireProbe(long now) {
+            if (!open) {
+                return true;
+            }
+            if (now < openUntil) {
+                return false;
+            }
+            // probed by this call: the others keep trying it last until the probe reports back
+            openUntil = now + openDurationMs;
+            return true;
+        }
+
+        synchronized void success(ObjectStorageProvider provider, long latency, long now) {
+            successes.increment();
+            if (latency >= 0) {
+                latencyMs = lastLatencyAt == Long.MIN_VALUE ? latency : latencyMs + LATENCY_WEIGHT * (latency - latencyMs);
+                lastLatencyAt = now;
+            }
+            consecutiveFailures = 0;
+            if (open) {
+                open = false;
+                log.info("Storage provider {} is available again, closing its circuit", provider);
+            }
+        }
+
+        synchronized void failure(ObjectStorageProvider provider, long now) {
+            failures.increment();
+            consecutiveFailures++;
+            if (open || consecutiveFailures >= failureThreshold) {
+                if (!open) {
+                    log.warn("Storage provider {} failed {} times in a row, opening its circuit for {} ms",
+                            provider, consecutiveFailures, openDurationMs);
+                }
+                open = true;
+                openUntil = now + openDurationMs;
+            }
+        }
+
+        synchronized double latencyMs() {
+            return latencyMs;
+        }
+
+        synchronized boolean isOpen() {
+            return open;
+        }
+    }
+}
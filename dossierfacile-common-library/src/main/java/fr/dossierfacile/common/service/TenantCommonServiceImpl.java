@@ -1,30 +1,44 @@
 package fr.dossierfacile.common.service;
 
+import com.google.common.collect.Lists;
 import fr.dossierfacile.common.entity.ApartmentSharing;
+import fr.dossierfacile.common.entity.Document;
 import fr.dossierfacile.common.entity.Tenant;
+import fr.dossierfacile.common.model.TenantStatusChange;
 import fr.dossierfacile.common.repository.ApartmentSharingRepository;
 import fr.dossierfacile.common.repository.DocumentCommonRepository;
 import fr.dossierfacile.common.repository.TenantCommonRepository;
 import fr.dossierfacile.common.service.interfaces.ApartmentSharingCommonService;
 import fr.dossierfacile.common.service.interfaces.TenantCommonService;
+import jakarta.persistence.EntityManager;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 @Service
 @AllArgsConstructor
 @Slf4j
 public class TenantCommonServiceImpl implements TenantCommonService {
+    private static final int STATUS_BATCH_SIZE = 1000;
 
     private final ApartmentSharingRepository apartmentSharingRepository;
     private final DocumentCommonRepository documentRepository;
     private final TenantCommonRepository tenantCommonRepository;
+    private final EntityManager entityManager;
     private ApartmentSharingCommonService apartmentSharingCommonService;
 
+    /**
+     * Purges the documents of the tenant and of its guarantors with a fixed number of statements: their storage files
+     * are left TO_DELETE for the deletion task, logs and partner callbacks are kept.
+     */
     @Override
+    @Transactional
     public void deleteTenantData(Tenant tenant) {
 
         Optional<ApartmentSharing> apartmentSharing = apartmentSharingRepository.findByTenant(tenant.getId());
@@ -36,13 +50,36 @@ public class TenantCommonServiceImpl implements TenantCommonService {
             apartmentSharingCommonService.resetDossierPdfGenerated(apartmentSharing.get());
         }
 
-        documentRepository.deleteAll(tenant.getDocuments());
-        tenant.setDocuments(new ArrayList<>());
+        List<Long> documentIds = documentRepository.findAllIdsByTenantId(tenant.getId());
+        if (!documentIds.isEmpty()) {
+            int storageFiles = documentRepository.markStorageFilesToDeleteByDocumentIdIn(documentIds);
+            documentRepository.deleteBarCodeFileAnalysesByDocumentIdIn(documentIds);
+            documentRepository.deleteFilesByDocumentIdIn(documentIds);
+            documentRepository.deleteByIdIn(documentIds);
+            log.info("Deleted {} documents of tenant {}, {} storage files to delete", documentIds.size(), tenant.getId(), storageFiles);
+        }
 
+        // the statements bypass the persistence context: the documents it still holds no longer exist
+        detachLoadedDocuments(tenant.getDocuments());
+        tenant.setDocuments(new ArrayList<>());
         Optional.ofNullable(tenant.getGuarantors())
                 .orElse(new ArrayList<>())
-                .forEach(guarantor -> {documentRepository.deleteAll(guarantor.getDocuments());
-                guarantor.setDocuments(new ArrayList<>());});
+                .forEach(guarantor -> {
+                    detachLoadedDocuments(guarantor.getDocuments());
+                    guarantor.setDocuments(new ArrayList<>());
+                });
+    }
+
+    private void detachLoadedDocuments(List<Document> documents) {
+        if (documents == null || !Hibernate.isInitialized(documents)) {
+            return;
+        }
+        for (Document document : documents) {
+            if (Hibernate.isInitialized(document.getFiles())) {
+                document.getFiles().forEach(entityManager::detach);
+            }
+            entityManager.detach(document);
+        }
     }
 
     @Override
@@ -54,4 +91,29 @@ public class TenantCommonServiceImpl implements TenantCommonService {
     public Long getTenantRank(Long id) {
         return tenantCommonRepository.getTenantRank(id);
     }
+
+    @Override
+    public int recomputeStatus(List<Long> tenantIds) {
+        int updated = 0;
+        for (List<Long> batch : Lists.partition(tenantIds, STATUS_BATCH_SIZE)) {
+            List<TenantStatusChange> changes = tenantCommonRepository.recomputeStatus(batch);
+            changes.forEach(change -> {
+                log.info("Updating status of tenant with ID [" + change.getId() + "] from [" + change.getPreviousStatus() + "] to [" + change.getNewStatus() + "]");
+                refreshIfLoaded(change.getId());
+            });
+            updated += changes.size();
+        }
+        return updated;
+    }
+
+    /**
+     * The statuses are updated behind the persistence context: a tenant it already holds is reloaded, otherwise its
+     * next update would write its previous status back.
+     */
+    private void refreshIfLoaded(Long tenantId) {
+        Tenant tenant = entityManager.getReference(Tenant.class, tenantId);
+        if (Hibernate.isInitialized(tenant)) {
+            entityManager.refresh(tenant);
+        }
+    }
 }
@@ -0,0 +1,22 @@
+package fr.dossierfacile.common.service.interfaces;
+
+import fr.dossierfacile.common.exceptions.NotFoundException;
+import fr.dossierfacile.common.model.AdemeApiResultModel;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+public interface AdemeApiService {
+    /**
+     * Looks up a DPE by its ADEME number. Results are cached and concurrent lookups of the same number share
+     * a single request. The future fails with {@link NotFoundException} if the DPE does not exist, with
+     * {@link RestClientException} if the API cannot be reached or answers an error.
+     */
+    CompletableFuture<AdemeApiResultModel> getDpe(String ademeNumber);
+
+    /**
+     * Calls the API directly, bypassing the cache: used to monitor its availability.
+     */
+    AdemeApiResultModel fetchDpe(String ademeNumber) throws IOException, InterruptedException;
+}
@@ -0,0 +1,22 @@
+package fr.dossierfacile.common.service.interfaces;
+
+import fr.dossierfacile.common.entity.LinkLog;
+import fr.dossierfacile.common.entity.OwnerLog;
+import fr.dossierfacile.common.entity.PropertyLog;
+import fr.dossierfacile.common.entity.TenantLog;
+
+/**
+ * Writes audit logs out of the caller's request: logs are queued once the current transaction commits
+ * (they are dropped if it rolls back) and inserted by batches.
+ * Logs which must not be lost, e.g. the snapshot of a deleted account, have to be saved synchronously instead.
+ */
+public interface BufferedLogWriter {
+
+    void write(TenantLog log);
+
+    void write(OwnerLog log);
+
+    void write(LinkLog log);
+
+    void write(PropertyLog log);
+}
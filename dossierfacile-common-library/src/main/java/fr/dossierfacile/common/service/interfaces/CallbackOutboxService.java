@@ -0,0 +1,13 @@
+package fr.dossierfacile.common.service.interfaces;
+
+import fr.dossierfacile.common.entity.Tenant;
+import fr.dossierfacile.common.entity.UserApi;
+import fr.dossierfacile.common.model.apartment_sharing.ApplicationModel;
+
+public interface CallbackOutboxService {
+    /**
+     * Stores the callback in the outbox, in the current transaction if any. Callbacks of the same tenant
+     * to the same partner which are not delivered yet are replaced by this one.
+     */
+    void enqueue(Tenant tenant, UserApi userApi, ApplicationModel applicationModel);
+}
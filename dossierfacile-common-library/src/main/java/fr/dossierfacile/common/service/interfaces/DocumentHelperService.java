@@ -5,6 +5,7 @@ import fr.dossierfacile.common.entity.File;
 import fr.dossierfacile.common.entity.StorageFile;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -23,4 +24,9 @@ public interface DocumentHelperService {
     void deleteFiles(Document document);
 
     StorageFile generatePreview(InputStream fileInputStream, String originalName);
+
+    /**
+     * Generates the preview from the already rendered first page of the file.
+     */
+    StorageFile generatePreview(BufferedImage firstPage, String originalName);
 }
@@ -0,0 +1,32 @@
+package fr.dossierfacile.common.service.interfaces;
+
+import fr.dossierfacile.common.entity.File;
+import fr.dossierfacile.common.entity.StorageFile;
+import fr.dossierfacile.common.enums.PreviewSize;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public interface FilePreviewService {
+
+    /**
+     * Renders one page of a pdf, or the image itself, at a resolution large enough for every preview size.
+     */
+    BufferedImage render(InputStream fileInputStream, String originalName, int page) throws IOException;
+
+    /**
+     * Scales the rendered page to each requested size and uploads the previews.
+     * Sizes which could not be generated are missing from the result.
+     */
+    Map<PreviewSize, StorageFile> generate(BufferedImage page, String originalName, Set<PreviewSize> sizes);
+
+    /**
+     * Returns the preview of the page, it is generated and stored on first request.
+     * Empty when the page does not exist or cannot be rendered.
+     */
+    Optional<StorageFile> getOrCreate(File file, PreviewSize size, int page);
+}
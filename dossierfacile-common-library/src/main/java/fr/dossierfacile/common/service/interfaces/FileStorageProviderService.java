@@ -7,6 +7,7 @@ import jakarta.annotation.Nullable;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
 
 public interface FileStorageProviderService {
@@ -15,8 +16,29 @@ public interface FileStorageProviderService {
 
     void delete(String name);
 
+    /**
+     * Deletes the given objects and returns the names of those which could not be deleted.
+     * Providers supporting multi-object deletes should override this one-by-one fallback.
+     */
+    default List<String> deleteAll(List<String> names) {
+        List<String> failed = new ArrayList<>();
+        for (String name : names) {
+            try {
+                delete(name);
+            } catch (Exception e) {
+                failed.add(name);
+            }
+        }
+        return failed;
+    }
+
     InputStream download(String path, EncryptionKey key) throws IOException;
 
+    /**
+     * Decrypts an object downloaded without key, as {@link #download(String, EncryptionKey)} does with the key.
+     */
+    InputStream decrypt(String path, EncryptionKey key, InputStream in) throws IOException;
+
     void upload(String ovhPath, InputStream inputStream, EncryptionKey key, String contentType) throws RetryableOperationException, IOException;
 
     List<String> listObjectNames(@Nullable String marker, int maxObjects);
@@ -24,7 +24,21 @@ public interface FileStorageService {
      */
     InputStream download(StorageFile storageFile) throws IOException;
 
+    /**
+     * Same as {@link #download(StorageFile)} for latency-sensitive reads: when the first provider is slow to answer,
+     * the file is also requested from the next one and the first answer is used.
+     */
+    InputStream downloadHedged(StorageFile storageFile) throws IOException;
+
     StorageFile upload(InputStream inputStream, StorageFile storageFile) throws IOException;
 
     StorageFile uploadToProvider(InputStream inputStream, StorageFile storageFile, ObjectStorageProvider provider) throws RetryableOperationException, IOException;
+
+    /**
+     * Copies the stored object from one of its providers to the given provider and records the new location.
+     * Encrypted bytes are copied as is when both providers encrypt them the same way (key version 2).
+     *
+     * @return the number of bytes transferred
+     */
+    long copyToProvider(StorageFile storageFile, ObjectStorageProvider provider) throws RetryableOperationException, IOException;
 }
\ No newline at end of file
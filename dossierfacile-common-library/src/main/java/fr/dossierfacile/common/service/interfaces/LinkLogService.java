@@ -6,12 +6,19 @@ import fr.dossierfacile.common.entity.LinkLog;
 import fr.dossierfacile.common.enums.LinkType;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 
 public interface LinkLogService {
-    LinkLog save(LinkLog log);
+    void save(LinkLog log);
 
     Optional<LocalDateTime> getLastVisit(String token, ApartmentSharing apartmentSharing);
 
-    LinkLog createNewLog(ApartmentSharingLink link, LinkType linkType);
+    /**
+     * @return the last visit date by token, tokens which have never been visited are absent
+     */
+    Map<String, LocalDateTime> getLastVisits(Collection<String> tokens, ApartmentSharing apartmentSharing);
+
+    void createNewLog(ApartmentSharingLink link, LinkType linkType);
 }
\ No newline at end of file
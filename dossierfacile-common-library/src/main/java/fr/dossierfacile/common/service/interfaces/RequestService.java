@@ -1,7 +1,12 @@
 package fr.dossierfacile.common.service.interfaces;
 
-import fr.dossierfacile.common.model.apartment_sharing.ApplicationModel;
+import org.springframework.web.client.RestClientException;
 
 public interface RequestService {
-    void send(ApplicationModel applicationModel, String urlCallback, String partnerApiKeyCallback);
+    /**
+     * Posts the JSON content to the partner callback url.
+     *
+     * @throws RestClientException if the partner cannot be reached or does not acknowledge the callback
+     */
+    void send(String jsonContent, String urlCallback, String partnerApiKeyCallback) throws RestClientException;
 }
@@ -2,10 +2,19 @@ package fr.dossierfacile.common.service.interfaces;
 
 import fr.dossierfacile.common.entity.Tenant;
 
+import java.util.List;
+
 public interface TenantCommonService {
     void deleteTenantData(Tenant tenant);
 
     Tenant findByKeycloakId(String keycloakId);
 
     Long getTenantRank(Long id);
+
+    /**
+     * Recomputes the status of the given tenants in database, batch by batch.
+     *
+     * @return the number of tenants whose status changed
+     */
+    int recomputeStatus(List<Long> tenantIds);
 }
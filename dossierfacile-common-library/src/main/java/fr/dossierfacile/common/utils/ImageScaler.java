@@ -0,0 +1,69 @@
+package fr.dossierfacile.common.utils;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * High quality downscaling: the image is halved with bilinear interpolation until it is close to the target width,
+ * then resized with bicubic interpolation. A single drawImage call loses too much detail on large reductions.
+ */
+public final class ImageScaler {
+
+    private ImageScaler() {
+    }
+
+    /**
+     * Scales the image to every requested width, starting from the largest so that intermediate steps are shared.
+     * Widths larger than the image are not upscaled.
+     */
+    public static Map<Integer, BufferedImage> downscale(BufferedImage image, Collection<Integer> widths) {
+        Map<Integer, BufferedImage> result = new HashMap<>();
+        BufferedImage current = flatten(image);
+        for (Integer width : widths.stream().distinct().sorted(Comparator.reverseOrder()).toList()) {
+            current = downscale(current, width);
+            result.put(width, current);
+        }
+        return result;
+    }
+
+    public static BufferedImage downscale(BufferedImage image, int targetWidth) {
+        BufferedImage current = flatten(image);
+        if (current.getWidth() <= targetWidth) {
+            return current;
+        }
+        int targetHeight = Math.max(1, Math.round((float) targetWidth / current.getWidth() * current.getHeight()));
+        while (current.getWidth() / 2 >= targetWidth) {
+            current = resize(current, current.getWidth() / 2, Math.max(1, current.getHeight() / 2), RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        }
+        if (current.getWidth() != targetWidth) {
+            current = resize(current, targetWidth, targetHeight, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        }
+        return current;
+    }
+
+    /**
+     * Draws the image on a white RGB background, transparency cannot be encoded as JPEG.
+     */
+    private static BufferedImage flatten(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+            return image;
+        }
+        return resize(image, image.getWidth(), image.getHeight(), RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+    }
+
+    private static BufferedImage resize(BufferedImage image, int width, int height, Object interpolation) {
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics2D = resized.createGraphics();
+        graphics2D.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+        graphics2D.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        graphics2D.setColor(Color.WHITE);
+        graphics2D.fillRect(0, 0, width, height);
+        graphics2D.drawImage(image, 0, 0, width, height, null);
+        graphics2D.dispose();
+        return resized;
+    }
+}
@@ -0,0 +1,69 @@
+package fr.dossierfacile.common.config.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalCacheTest {
+
+    @Test
+    void should_count_hits_and_misses() {
+        LocalCache cache = new LocalCache("test", 10, Duration.ofMinutes(5));
+
+        assertThat(cache.get("key")).isNull();
+        cache.put("key", "value");
+
+        assertThat(cache.get("key", String.class)).isEqualTo("value");
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.missCount()).isEqualTo(1);
+        assertThat(cache.putCount()).isEqualTo(1);
+    }
+
+    @Test
+    void should_evict_least_recently_used_entry_when_full() {
+        LocalCache cache = new LocalCache("test", 2, Duration.ofMinutes(5));
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+
+        cache.put("c", 3);
+
+        assertThat(cache.get("a", Integer.class)).isEqualTo(1);
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.evictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void should_expire_entries_after_write() {
+        LocalCache cache = new LocalCache("test", 10, Duration.ZERO);
+        cache.put("key", "value");
+
+        assertThat(cache.get("key")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void should_load_missing_value_once() {
+        LocalCache cache = new LocalCache("test", 10, Duration.ofMinutes(5));
+
+        cache.get("key", () -> "value");
+        String value = cache.get("key", () -> "other");
+
+        assertThat(value).isEqualTo("value");
+        assertThat(cache.missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void should_create_configured_and_missing_caches() {
+        LocalCacheManager manager = new LocalCacheManager(
+                Map.of("configured", new LocalCacheManager.Spec(2, Duration.ofMinutes(1))),
+                new LocalCacheManager.Spec(10, Duration.ofMinutes(1)));
+        manager.afterPropertiesSet();
+
+        assertThat(manager.getCacheNames()).containsExactly("configured");
+        assertThat(manager.getCache("other")).isInstanceOf(LocalCache.class);
+    }
+}
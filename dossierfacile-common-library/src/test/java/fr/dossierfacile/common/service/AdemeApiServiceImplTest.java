@@ -0,0 +1,98 @@
+package fr.dossierfacile.common.service;
+
+import com.sun.net.httpserver.HttpServer;
+import fr.dossierfacile.common.exceptions.NotFoundException;
+import fr.dossierfacile.common.model.AdemeApiResultModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdemeApiServiceImplTest {
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private HttpServer server;
+    private AdemeApiServiceImpl ademeApiService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/dpe/", exchange -> {
+            requests.incrementAndGet();
+            String number = exchange.getRequestURI().getPath().substring("/dpe/".length());
+            if (number.equals("slow")) {
+                awaitRelease();
+            }
+            byte[] body = ("{\"numero\":\"" + number + "\",\"unknown\":true}").getBytes(StandardCharsets.UTF_8);
+            if (number.equals("missing")) {
+                exchange.sendResponseHeaders(404, -1);
+            } else {
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            }
+            exchange.close();
+        });
+        server.start();
+        String url = "http://localhost:" + server.getAddress().getPort() + "/dpe/";
+        ademeApiService = new AdemeApiServiceImpl(url, 1000, 5000, 10, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    void should_cache_dpe_results() {
+        AdemeApiResultModel first = ademeApiService.getDpe("2392E2001612S").join();
+        AdemeApiResultModel second = ademeApiService.getDpe("2392E2001612S").join();
+
+        assertThat(first.getNumero()).isEqualTo("2392E2001612S");
+        assertThat(second).isSameAs(first);
+        assertThat(requests).hasValue(1);
+    }
+
+    @Test
+    void should_share_a_single_request_between_concurrent_lookups() {
+        List<CompletableFuture<AdemeApiResultModel>> lookups = IntStream.range(0, 5)
+                .mapToObj(i -> ademeApiService.getDpe("slow"))
+                .toList();
+        release.countDown();
+
+        lookups.forEach(lookup -> assertThat(lookup.join().getNumero()).isEqualTo("slow"));
+        assertThat(requests).hasValue(1);
+    }
+
+    @Test
+    void should_not_cache_missing_dpe() {
+        assertThatThrownBy(() -> ademeApiService.getDpe("missing").join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> ademeApiService.getDpe("missing").join())
+                .hasCauseInstanceOf(NotFoundException.class);
+        assertThat(requests).hasValue(2);
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
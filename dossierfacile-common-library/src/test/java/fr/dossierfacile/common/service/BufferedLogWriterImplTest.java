@@ -0,0 +1,48 @@
+package fr.dossierfacile.common.service;
+
+import fr.dossierfacile.common.entity.OwnerLog;
+import fr.dossierfacile.common.entity.TenantLog;
+import fr.dossierfacile.common.enums.LogType;
+import fr.dossierfacile.common.enums.OwnerLogType;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BufferedLogWriterImplTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final BufferedLogWriterImpl writer = new BufferedLogWriterImpl(jdbcTemplate, 100, 10, 50);
+
+    @Test
+    void should_write_logs_one_by_one_when_their_batch_fails_without_losing_other_types() throws Exception {
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT INTO tenant_log"), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataIntegrityViolationException("invalid log"));
+        when(jdbcTemplate.update(startsWith("INSERT INTO tenant_log"), any(PreparedStatementSetter.class)))
+                .thenThrow(new DataIntegrityViolationException("invalid log"))
+                .thenReturn(1);
+
+        writer.write(new TenantLog(LogType.ACCOUNT_EDITED, 1L));
+        writer.write(new TenantLog(LogType.ACCOUNT_EDITED, 2L));
+        writer.write(OwnerLog.builder().ownerId(3L).logType(OwnerLogType.ACCOUNT_CREATED).build());
+        writer.start();
+        writer.stop();
+
+        verify(jdbcTemplate, times(2)).update(startsWith("INSERT INTO tenant_log"), any(PreparedStatementSetter.class));
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO owner_log"), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        verify(jdbcTemplate, never()).update(startsWith("INSERT INTO owner_log"), any(PreparedStatementSetter.class));
+    }
+}
@@ -0,0 +1,123 @@
+package fr.dossierfacile.common.service;
+
+import fr.dossierfacile.common.entity.File;
+import fr.dossierfacile.common.entity.FilePreview;
+import fr.dossierfacile.common.entity.StorageFile;
+import fr.dossierfacile.common.enums.PreviewSize;
+import fr.dossierfacile.common.repository.FilePreviewRepository;
+import fr.dossierfacile.common.repository.StorageFileRepository;
+import fr.dossierfacile.common.service.interfaces.EncryptionKeyService;
+import fr.dossierfacile.common.service.interfaces.FileStorageService;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FilePreviewServiceImplTest {
+
+    private final FileStorageService fileStorageService = mock(FileStorageService.class);
+    private final FilePreviewRepository filePreviewRepository = mock(FilePreviewRepository.class);
+    private final FilePreviewServiceImpl service = new FilePreviewServiceImpl(fileStorageService, filePreviewRepository,
+            mock(StorageFileRepository.class), mock(EncryptionKeyService.class));
+
+    @BeforeEach
+    void setUp() throws IOException {
+        when(fileStorageService.upload(any(InputStream.class), any(StorageFile.class)))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+    }
+
+    @Test
+    void should_generate_and_store_the_preview_of_an_image() throws IOException {
+        File file = file("payslip.png", "image/png", 1, png(2000, 1000));
+
+        Optional<StorageFile> preview = service.getOrCreate(file, PreviewSize.REVIEW, 0);
+
+        assertThat(preview).hasValueSatisfying(storageFile -> {
+            assertThat(storageFile.getContentType()).isEqualTo("image/jpeg");
+            assertThat(storageFile.getPath()).startsWith("minified_").endsWith(".jpg");
+        });
+        ArgumentCaptor<FilePreview> saved = ArgumentCaptor.forClass(FilePreview.class);
+        verify(filePreviewRepository).save(saved.capture());
+        assertThat(saved.getValue().getSize()).isEqualTo(PreviewSize.REVIEW);
+        assertThat(saved.getValue().getStorageFile()).isSameAs(preview.get());
+    }
+
+    @Test
+    void should_generate_the_preview_of_any_page_of_a_pdf() throws IOException {
+        File file = file("tax.pdf", "application/pdf", 2, pdf(2));
+
+        Optional<StorageFile> preview = service.getOrCreate(file, PreviewSize.THUMBNAIL, 1);
+
+        assertThat(preview).isPresent();
+        verify(filePreviewRepository).save(any(FilePreview.class));
+    }
+
+    @Test
+    void should_render_each_size_from_the_same_page() throws IOException {
+        BufferedImage page = service.render(new ByteArrayInputStream(png(2000, 1000)), "payslip.png", 0);
+
+        Map<PreviewSize, StorageFile> previews = service.generate(page, "payslip.png", PreviewSize.eagerSizes());
+
+        assertThat(previews).containsOnlyKeys(PreviewSize.THUMBNAIL, PreviewSize.REVIEW);
+        verify(fileStorageService, times(2)).upload(any(InputStream.class), any(StorageFile.class));
+    }
+
+    @Test
+    void should_not_generate_a_preview_for_an_unsupported_content_type() throws IOException {
+        File file = file("notes.txt", "text/plain", 1, "not an image".getBytes());
+
+        Optional<StorageFile> preview = service.getOrCreate(file, PreviewSize.REVIEW, 0);
+
+        assertThat(preview).isEmpty();
+        verify(fileStorageService, never()).upload(any(InputStream.class), any(StorageFile.class));
+        verify(filePreviewRepository, never()).save(any(FilePreview.class));
+    }
+
+    @Test
+    void should_not_render_a_page_beyond_the_end_of_the_file() throws IOException {
+        File file = file("payslip.png", "image/png", 1, png(100, 100));
+
+        assertThat(service.getOrCreate(file, PreviewSize.REVIEW, 1)).isEmpty();
+        verify(fileStorageService, never()).download(any(StorageFile.class));
+    }
+
+    private File file(String name, String contentType, int numberOfPages, byte[] content) throws IOException {
+        StorageFile storageFile = StorageFile.builder().name(name).contentType(contentType).build();
+        when(fileStorageService.download(storageFile)).thenReturn(new ByteArrayInputStream(content));
+        return File.builder().id(1L).storageFile(storageFile).numberOfPages(numberOfPages).build();
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", output);
+        return output.toByteArray();
+    }
+
+    private static byte[] pdf(int pages) throws IOException {
+        try (PDDocument document = new PDDocument(); ByteArrayOutputStream output = new ByteArrayOutputStream()) {
+            for (int i = 0; i < pages; i++) {
+                document.addPage(new PDPage());
+            }
+            document.save(output);
+            return output.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package fr.dossierfacile.common.service;
+
+import fr.dossierfacile.common.config.DynamicProviderConfig;
+import fr.dossierfacile.common.entity.EncryptionKey;
+import fr.dossierfacile.common.entity.ObjectStorageProvider;
+import fr.dossierfacile.common.entity.StorageFile;
+import fr.dossierfacile.common.repository.StorageFileRepository;
+import fr.dossierfacile.common.service.interfaces.FileStorageProviderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static fr.dossierfacile.common.entity.ObjectStorageProvider.OVH;
+import static fr.dossierfacile.common.entity.ObjectStorageProvider.THREEDS_OUTSCALE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FileStorageServiceImplTest {
+
+    private final FileStorageProviderService ovh = provider(OVH);
+    private final FileStorageProviderService outscale = provider(THREEDS_OUTSCALE);
+    private final AtomicLong now = new AtomicLong();
+    private final StorageProviderHealth health = new StorageProviderHealth(5, 30_000, 2_000, now::get);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final FileStorageServiceImpl service = service(50);
+    private final StorageFile storageFile = StorageFile.builder()
+            .path("path")
+            .providers(new ArrayList<>(List.of(OVH.name(), THREEDS_OUTSCALE.name())))
+            .build();
+
+    @TempDir
+    Path cacheDirectory;
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void should_race_a_slow_provider_with_the_next_one_and_close_the_loser() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ClosableStream slowStream = new ClosableStream("slow");
+        when(ovh.download(anyString(), any())).thenAnswer(invocation -> {
+            release.await();
+            return slowStream;
+        });
+        when(outscale.download(anyString(), any())).thenReturn(new ClosableStream("fast"));
+
+        try (InputStream in = service.downloadHedged(storageFile)) {
+            assertThat(read(in)).isEqualTo("fast");
+        }
+        release.countDown();
+
+        assertThat(slowStream.closed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(health.hedgeCount(THREEDS_OUTSCALE)).isEqualTo(1);
+    }
+
+    @Test
+    void should_not_wait_for_the_hedge_delay_when_a_provider_fails() throws Exception {
+        FileStorageServiceImpl service = service(60_000);
+        when(ovh.download(anyString(), any())).thenThrow(new IOException("unavailable"));
+        when(outscale.download(anyString(), any())).thenReturn(new ClosableStream("fast"));
+
+        long start = System.currentTimeMillis();
+        try (InputStream in = service.downloadHedged(storageFile)) {
+            assertThat(read(in)).isEqualTo("fast");
+        }
+
+        assertThat(System.currentTimeMillis() - start).isLessThan(10_000);
+        assertThat(health.failureCount(OVH)).isEqualTo(1);
+        assertThat(health.hedgeCount(THREEDS_OUTSCALE)).isZero();
+    }
+
+    @Test
+    void should_fail_when_no_provider_answers() throws Exception {
+        when(ovh.download(anyString(), any())).thenThrow(new IOException("unavailable"));
+        when(outscale.download(anyString(), any())).thenThrow(new IOException("unavailable"));
+
+        assertThatThrownBy(() -> service.downloadHedged(storageFile)).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> service.download(storageFile)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void should_download_from_the_healthiest_provider() throws Exception {
+        when(outscale.download(anyString(), any())).thenReturn(new ClosableStream("outscale"));
+        for (int i = 0; i < 5; i++) {
+            health.recordFailure(OVH);
+        }
+
+        try (InputStream in = service.download(storageFile)) {
+            assertThat(read(in)).isEqualTo("outscale");
+        }
+        assertThat(health.successCount(THREEDS_OUTSCALE)).isEqualTo(1);
+    }
+
+    @Test
+    void should_evict_a_deleted_file_from_the_disk_cache_for_every_provider() {
+        StorageFileDiskCache cache = mock(StorageFileDiskCache.class);
+        FileStorageServiceImpl service = service(50, Optional.of(cache));
+
+        service.delete(storageFile);
+        service.hardDelete(storageFile);
+
+        for (ObjectStorageProvider provider : ObjectStorageProvider.values()) {
+            verify(cache, times(2)).evict(provider, "path");
+        }
+    }
+
+    @Test
+    void should_leave_the_probe_of_an_open_circuit_to_a_call_made_to_the_provider() throws Exception {
+        StorageFileDiskCache cache = new StorageFileDiskCache(cacheDirectory.toString(), 1);
+        FileStorageServiceImpl service = service(50, Optional.of(cache));
+        StorageFile cachedFile = encrypted("cached");
+        StorageFile otherFile = encrypted("other");
+        cache.get(OVH, "cached", () -> new ClosableStream("cached")).close();
+        when(ovh.decrypt(anyString(), any(), any())).thenAnswer(invocation -> invocation.getArgument(2));
+        when(ovh.download(anyString(), any())).thenReturn(new ClosableStream("ovh"));
+        when(outscale.download(anyString(), any())).thenReturn(new ClosableStream("outscale"));
+        for (int i = 0; i < 5; i++) {
+            health.recordFailure(OVH);
+        }
+        now.addAndGet(30_000);
+
+        try (InputStream in = service.download(cachedFile)) {
+            assertThat(read(in)).isEqualTo("cached");
+        }
+        try (InputStream in = service.download(otherFile)) {
+            assertThat(read(in)).isEqualTo("ovh");
+        }
+
+        assertThat(health.isCircuitOpen(OVH)).isFalse();
+        verify(outscale, never()).download(anyString(), any());
+    }
+
+    private StorageFile encrypted(String path) {
+        return StorageFile.builder()
+                .path(path)
+                .providers(new ArrayList<>(List.of(OVH.name(), THREEDS_OUTSCALE.name())))
+                .encryptionKey(EncryptionKey.builder().build())
+                .build();
+    }
+
+    private FileStorageServiceImpl service(long hedgeDelayMs) {
+        return service(hedgeDelayMs, Optional.empty());
+    }
+
+    private FileStorageServiceImpl service(long hedgeDelayMs, Optional<StorageFileDiskCache> storageFileDiskCache) {
+        DynamicProviderConfig dynamicProviderConfig = mock(DynamicProviderConfig.class);
+        when(dynamicProviderConfig.getProviders()).thenReturn(List.of(OVH, THREEDS_OUTSCALE));
+        return new FileStorageServiceImpl(mock(StorageFileRepository.class), dynamicProviderConfig,
+                List.of(ovh, outscale), storageFileDiskCache, health, executor, hedgeDelayMs);
+    }
+
+    private static FileStorageProviderService provider(ObjectStorageProvider provider) {
+        FileStorageProviderService providerService = mock(FileStorageProviderService.class);
+        when(providerService.getProvider()).thenReturn(provider);
+        return providerService;
+    }
+
+    private static String read(InputStream in) throws IOException {
+        return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    private static class ClosableStream extends ByteArrayInputStream {
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        ClosableStream(String content) {
+            super(content.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+    }
+}
@@ -1,9 +1,10 @@
 package fr.dossierfacile.common.service;
 
 import fr.dossierfacile.common.entity.ApartmentSharing;
-import fr.dossierfacile.common.entity.LinkLog;
 import fr.dossierfacile.common.enums.LinkType;
+import fr.dossierfacile.common.model.LinkLastVisit;
 import fr.dossierfacile.common.repository.LinkLogRepository;
+import fr.dossierfacile.common.service.interfaces.BufferedLogWriter;
 import fr.dossierfacile.common.service.interfaces.LinkLogService;
 import org.junit.jupiter.api.Test;
 
@@ -11,13 +12,16 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 class LinkLogServiceImplTest {
 
     private final LinkLogRepository repository = mock(LinkLogRepository.class);
-    private final LinkLogService service = new LinkLogServiceImpl(repository);
+    private final LinkLogService service = new LinkLogServiceImpl(repository, mock(BufferedLogWriter.class));
 
     @Test
     void should_find_last_visit_date() {
@@ -25,13 +29,9 @@ class LinkLogServiceImplTest {
         ApartmentSharing apartmentSharing = ApartmentSharing.builder().id(1L).build();
         String token = "abc";
 
-        when(repository.findByApartmentSharingAndToken(apartmentSharing, token)).thenReturn(List.of(
-                log(LinkType.FULL_APPLICATION, date.plusHours(1)),
-                log(LinkType.REBUILT_TOKENS, date.plusHours(2)),
-                log(LinkType.LIGHT_APPLICATION, date.plusHours(3)),
-                log(LinkType.DOCUMENT, date.plusHours(4)),
-                log(LinkType.DELETED_LINK_TOKEN, date.plusHours(5))
-        ));
+        when(repository.findLastVisits(eq(apartmentSharing), eq(List.of(token)),
+                eq(List.of(LinkType.FULL_APPLICATION, LinkType.LIGHT_APPLICATION, LinkType.DOCUMENT))))
+                .thenReturn(List.of(lastVisit(token, date.plusHours(4))));
 
         assertThat(service.getLastVisit(token, apartmentSharing))
                 .isPresent()
@@ -40,24 +40,48 @@ class LinkLogServiceImplTest {
 
     @Test
     void should_find_no_visit() {
-        LocalDateTime date = LocalDateTime.of(2023, 1, 1, 12, 0);
         ApartmentSharing apartmentSharing = ApartmentSharing.builder().id(1L).build();
         String token = "abc";
 
-        when(repository.findByApartmentSharingAndToken(apartmentSharing, token)).thenReturn(List.of(
-                log(LinkType.REBUILT_TOKENS, date.plusHours(1)),
-                log(LinkType.REBUILT_TOKENS, date.plusHours(2)),
-                log(LinkType.DELETED_LINK_TOKEN, date.plusHours(3))
-        ));
+        when(repository.findLastVisits(eq(apartmentSharing), anyCollection(), anyCollection())).thenReturn(List.of());
 
         assertThat(service.getLastVisit(token, apartmentSharing)).isEmpty();
     }
 
-    private static LinkLog log(LinkType logType, LocalDateTime creationDate) {
-        return LinkLog.builder()
-                .linkType(logType)
-                .creationDate(creationDate)
-                .build();
+    @Test
+    void should_find_last_visits_of_all_tokens_at_once() {
+        LocalDateTime date = LocalDateTime.of(2023, 1, 1, 12, 0);
+        ApartmentSharing apartmentSharing = ApartmentSharing.builder().id(1L).build();
+
+        when(repository.findLastVisits(eq(apartmentSharing), anyCollection(), anyCollection())).thenReturn(List.of(
+                lastVisit("abc", date),
+                lastVisit("def", date.plusHours(1))
+        ));
+
+        assertThat(service.getLastVisits(List.of("abc", "def", "ghi"), apartmentSharing))
+                .containsEntry("abc", date)
+                .containsEntry("def", date.plusHours(1))
+                .doesNotContainKey("ghi");
+    }
+
+    @Test
+    void should_not_query_without_token() {
+        assertThat(service.getLastVisits(List.of(), ApartmentSharing.builder().id(1L).build())).isEmpty();
+        verifyNoInteractions(repository);
+    }
+
+    private static LinkLastVisit lastVisit(String token, LocalDateTime lastVisit) {
+        return new LinkLastVisit() {
+            @Override
+            public String getToken() {
+                return token;
+            }
+
+            @Override
+            public LocalDateTime getLastVisit() {
+                return lastVisit;
+            }
+        };
     }
 
-}
\ No newline at end of file
+}
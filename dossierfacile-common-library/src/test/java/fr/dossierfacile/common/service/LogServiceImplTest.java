@@ -8,6 +8,7 @@ import fr.dossierfacile.common.enums.DocumentSubCategory;
 import fr.dossierfacile.common.enums.LogType;
 import fr.dossierfacile.common.model.log.EditionType;
 import fr.dossierfacile.common.repository.TenantLogRepository;
+import fr.dossierfacile.common.service.interfaces.BufferedLogWriter;
 import fr.dossierfacile.common.service.interfaces.LogService;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -17,14 +18,17 @@ import java.util.List;
 import static fr.dossierfacile.common.enums.ApplicationType.ALONE;
 import static fr.dossierfacile.common.enums.ApplicationType.GROUP;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 class LogServiceImplTest {
 
     private final TenantLogRepository logRepository = mock(TenantLogRepository.class);
-    private final LogService logService = new LogServiceImpl(logRepository, null, null, null, new ObjectMapper());
+    private final BufferedLogWriter logWriter = mock(BufferedLogWriter.class);
+    private final LogService logService = new LogServiceImpl(logRepository, null, null, null, new ObjectMapper(), logWriter);
 
     @Test
     void should_save_edition_log_for_tenant_document() {
@@ -64,7 +68,10 @@ class LogServiceImplTest {
     void should_save_revocation_log() {
         logService.savePartnerAccessRevocationLog(tenantWithId(1L), UserApi.builder().id(2L).build());
 
-        TenantLog savedLog = getSavedLog();
+        ArgumentCaptor<TenantLog> logCaptor = ArgumentCaptor.forClass(TenantLog.class);
+        verify(logRepository).save(logCaptor.capture());
+        verify(logWriter, never()).write(any(TenantLog.class));
+        TenantLog savedLog = logCaptor.getValue();
         assertThat(savedLog.getLogType()).isEqualTo(LogType.PARTNER_ACCESS_REVOKED);
         assertThat(savedLog.getTenantId()).isEqualTo(1L);
         assertThat(savedLog.getUserApis()).containsExactly(2L);
@@ -87,7 +94,7 @@ class LogServiceImplTest {
 
     private TenantLog getSavedLog() {
         ArgumentCaptor<TenantLog> logCaptor = ArgumentCaptor.forClass(TenantLog.class);
-        verify(logRepository, times(1)).save(logCaptor.capture());
+        verify(logWriter, times(1)).write(logCaptor.capture());
         return logCaptor.getAllValues().getFirst();
     }
 
@@ -0,0 +1,114 @@
+package fr.dossierfacile.common.service;
+
+import fr.dossierfacile.common.entity.ObjectStorageProvider;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StorageFileDiskCacheTest {
+
+    private static final int HALF_MB = 512 * 1024;
+
+    @TempDir
+    Path directory;
+
+    private final AtomicInteger downloads = new AtomicInteger();
+
+    @Test
+    void should_download_once_and_serve_from_disk() throws IOException {
+        StorageFileDiskCache cache = new StorageFileDiskCache(directory.toString(), 1);
+        byte[] content = content(1000, 'a');
+
+        byte[] first = read(cache.get(ObjectStorageProvider.OVH, "path", loader(content)));
+        byte[] second = read(cache.get(ObjectStorageProvider.OVH, "path", loader(content)));
+
+        assertThat(first).isEqualTo(content);
+        assertThat(second).isEqualTo(content);
+        assertThat(downloads).hasValue(1);
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.missCount()).isEqualTo(1);
+        assertThat(cache.savedBytes()).isEqualTo(1000);
+    }
+
+    @Test
+    void should_key_entries_by_provider() throws IOException {
+        StorageFileDiskCache cache = new StorageFileDiskCache(directory.toString(), 1);
+
+        read(cache.get(ObjectStorageProvider.OVH, "path", loader(content(10, 'a'))));
+        byte[] outscale = read(cache.get(ObjectStorageProvider.THREEDS_OUTSCALE, "path", loader(content(10, 'b'))));
+
+        assertThat(outscale).isEqualTo(content(10, 'b'));
+        assertThat(downloads).hasValue(2);
+    }
+
+    @Test
+    void should_evict_least_recently_used_entries_beyond_max_size() throws IOException {
+        StorageFileDiskCache cache = new StorageFileDiskCache(directory.toString(), 1);
+        read(cache.get(ObjectStorageProvider.OVH, "first", loader(content(HALF_MB, 'a'))));
+        read(cache.get(ObjectStorageProvider.OVH, "second", loader(content(HALF_MB, 'b'))));
+        read(cache.get(ObjectStorageProvider.OVH, "first", loader(content(HALF_MB, 'a'))));
+
+        read(cache.get(ObjectStorageProvider.OVH, "third", loader(content(HALF_MB, 'c'))));
+        read(cache.get(ObjectStorageProvider.OVH, "first", loader(content(HALF_MB, 'a'))));
+
+        assertThat(cache.evictionCount()).isEqualTo(1);
+        assertThat(cache.sizeBytes()).isEqualTo(2L * HALF_MB);
+        assertThat(downloads).hasValue(3);
+        read(cache.get(ObjectStorageProvider.OVH, "second", loader(content(HALF_MB, 'b'))));
+        assertThat(downloads).hasValue(4);
+    }
+
+    @Test
+    void should_reload_entries_left_by_previous_run() throws IOException {
+        read(new StorageFileDiskCache(directory.toString(), 1).get(ObjectStorageProvider.OVH, "path", loader(content(10, 'a'))));
+
+        StorageFileDiskCache cache = new StorageFileDiskCache(directory.toString(), 1);
+        byte[] cached = read(cache.get(ObjectStorageProvider.OVH, "path", loader(content(10, 'a'))));
+
+        assertThat(cached).isEqualTo(content(10, 'a'));
+        assertThat(downloads).hasValue(1);
+    }
+
+    @Test
+    void should_evict_entry_not_matching_md5() throws IOException {
+        StorageFileDiskCache cache = new StorageFileDiskCache(directory.toString(), 1);
+        byte[] content = content(100, 'a');
+        String otherMd5 = DigestUtils.md5Hex(content(100, 'b'));
+
+        InputStream in = cache.verify(cache.get(ObjectStorageProvider.OVH, "path", loader(content)), ObjectStorageProvider.OVH, "path", otherMd5);
+
+        assertThatThrownBy(() -> read(in)).isInstanceOf(IOException.class);
+        assertThat(cache.sizeBytes()).isZero();
+        read(cache.verify(cache.get(ObjectStorageProvider.OVH, "path", loader(content)), ObjectStorageProvider.OVH, "path", DigestUtils.md5Hex(content)));
+        assertThat(downloads).hasValue(2);
+    }
+
+    private StorageFileDiskCache.Loader loader(byte[] content) {
+        return () -> {
+            downloads.incrementAndGet();
+            return new ByteArrayInputStream(content);
+        };
+    }
+
+    private static byte[] content(int size, char c) {
+        byte[] content = new byte[size];
+        Arrays.fill(content, (byte) c);
+        return content;
+    }
+
+    private static byte[] read(InputStream in) throws IOException {
+        try (in) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package fr.dossierfacile.common.service;
+
+import fr.dossierfacile.common.entity.StorageFile;
+import fr.dossierfacile.common.service.interfaces.FileStorageService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.CacheControl;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StorageFileResponseServiceTest {
+
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.UTF_8);
+    private static final String ETAG = "\"781e5e245d69b566979b86e28d23f2c7\"";
+
+    private final FileStorageService fileStorageService = mock(FileStorageService.class);
+    private final StorageFileResponseService service = new StorageFileResponseService(fileStorageService);
+    private final StorageFile storageFile = StorageFile.builder()
+            .path("path")
+            .contentType("application/pdf")
+            .md5("781e5e245d69b566979b86e28d23f2c7")
+            .size((long) CONTENT.length)
+            .build();
+
+    @Test
+    void should_write_content_with_validators() throws IOException {
+        when(fileStorageService.downloadHedged(storageFile)).thenReturn(new ByteArrayInputStream(CONTENT));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        service.write(new MockHttpServletRequest("GET", "/file"), response, storageFile, CacheControl.noCache().cachePrivate());
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader("ETag")).isEqualTo(ETAG);
+        assertThat(response.getHeader("Cache-Control")).isEqualTo("no-cache, private");
+        assertThat(response.getContentLengthLong()).isEqualTo(10);
+        assertThat(response.getContentAsByteArray()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void should_answer_not_modified_without_downloading() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file");
+        request.addHeader("If-None-Match", ETAG);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        service.write(request, response, storageFile, CacheControl.noCache().cachePrivate());
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentLength()).isZero();
+        verify(fileStorageService, never()).downloadHedged(any());
+    }
+
+    @Test
+    void should_write_requested_range() throws IOException {
+        when(fileStorageService.downloadHedged(storageFile)).thenReturn(new ByteArrayInputStream(CONTENT));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file");
+        request.addHeader("Range", "bytes=2-5");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        service.write(request, response, storageFile, CacheControl.noCache().cachePrivate());
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes 2-5/10");
+        assertThat(response.getContentAsString()).isEqualTo("2345");
+    }
+
+    @Test
+    void should_reject_unsatisfiable_range() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file");
+        request.addHeader("Range", "bytes=20-30");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        service.write(request, response, storageFile, CacheControl.noCache().cachePrivate());
+
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes */10");
+    }
+
+    @Test
+    void should_not_trust_size_of_files_stored_without_md5() throws IOException {
+        StorageFile legacyFile = StorageFile.builder().path("legacy").contentType("image/jpeg").size(3L).build();
+        when(fileStorageService.downloadHedged(legacyFile)).thenReturn(new ByteArrayInputStream(CONTENT));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file");
+        request.addHeader("Range", "bytes=0-1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        service.write(request, response, legacyFile, CacheControl.noCache().cachePrivate());
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader("ETag")).isNotBlank();
+        assertThat(response.getContentAsByteArray()).isEqualTo(CONTENT);
+    }
+}
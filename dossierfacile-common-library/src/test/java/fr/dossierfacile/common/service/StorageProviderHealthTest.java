@@ -0,0 +1,119 @@
+package fr.dossierfacile.common.service;
+
+import fr.dossierfacile.common.entity.ObjectStorageProvider;
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static fr.dossierfacile.common.entity.ObjectStorageProvider.OVH;
+import static fr.dossierfacile.common.entity.ObjectStorageProvider.THREEDS_OUTSCALE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StorageProviderHealthTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final StorageProviderHealth health = new StorageProviderHealth(3, 30_000, 2_000, now::get);
+
+    @Test
+    void should_keep_configured_order_when_healthy() {
+        health.recordSuccess(OVH, 100);
+        health.recordSuccess(THREEDS_OUTSCALE, 50);
+
+        assertThat(health.order(List.of(OVH, THREEDS_OUTSCALE))).containsExactly(OVH, THREEDS_OUTSCALE);
+    }
+
+    @Test
+    void should_open_circuit_after_consecutive_failures() {
+        health.recordFailure(OVH);
+        health.recordFailure(OVH);
+        assertThat(health.order(List.of(OVH, THREEDS_OUTSCALE))).containsExactly(OVH, THREEDS_OUTSCALE);
+
+        health.recordFailure(OVH);
+
+        assertThat(health.isCircuitOpen(OVH)).isTrue();
+        assertThat(health.order(List.of(OVH, THREEDS_OUTSCALE))).containsExactly(THREEDS_OUTSCALE, OVH);
+        assertThat(health.failureCount(OVH)).isEqualTo(3);
+    }
+
+    @Test
+    void should_let_a_single_call_probe_an_open_circuit() {
+        openCircuit();
+        now.addAndGet(30_000);
+
+        assertThat(health.order(List.of(OVH, THREEDS_OUTSCALE))).containsExactly(OVH, THREEDS_OUTSCALE);
+        assertThat(health.order(List.of(OVH, THREEDS_OUTSCALE))).containsExactly(OVH, THREEDS_OUTSCALE);
+        assertThat(health.tryAcquireProbe(OVH)).isTrue();
+        assertThat(health.tryAcquireProbe(OVH)).isFalse();
+        assertThat(health.order(List.of(OVH, THREEDS_OUTSCALE))).containsExactly(THREEDS_OUTSCALE, OVH);
+
+        health.recordSuccess(OVH, 100);
+
+        assertThat(health.isCircuitOpen(OVH)).isFalse();
+        assertThat(health.order(List.of(OVH, THREEDS_OUTSCALE))).containsExactly(OVH, THREEDS_OUTSCALE);
+    }
+
+    @Test
+    void should_reopen_circuit_when_probe_fails() {
+        openCircuit();
+        now.addAndGet(30_000);
+        health.tryAcquireProbe(OVH);
+
+        health.recordFailure(OVH);
+
+        assertThat(health.isCircuitOpen(OVH)).isTrue();
+        assertThat(health.order(List.of(OVH, THREEDS_OUTSCALE))).containsExactly(THREEDS_OUTSCALE, OVH);
+    }
+
+    @Test
+    void should_only_grant_the_probe_to_the_provider_actually_called() {
+        openCircuit();
+        now.addAndGet(30_000);
+
+        Iterator<ObjectStorageProvider> attempts = health.attempts(List.of(THREEDS_OUTSCALE, OVH)).iterator();
+        assertThat(attempts.next()).isEqualTo(THREEDS_OUTSCALE);
+
+        assertThat(health.tryAcquireProbe(OVH)).isTrue();
+    }
+
+    @Test
+    void should_try_a_provider_probed_by_another_call_after_the_other_ones() {
+        openCircuit();
+        now.addAndGet(30_000);
+        Iterable<ObjectStorageProvider> attempts = health.attempts(List.of(OVH, THREEDS_OUTSCALE));
+        Iterator<ObjectStorageProvider> probing = attempts.iterator();
+        Iterator<ObjectStorageProvider> other = attempts.iterator();
+
+        assertThat(probing.next()).isEqualTo(OVH);
+        assertThat(other).toIterable().containsExactly(THREEDS_OUTSCALE, OVH);
+    }
+
+    @Test
+    void should_try_slow_provider_last_until_its_measure_is_outdated() {
+        health.recordSuccess(OVH, 5_000);
+        health.recordSuccess(THREEDS_OUTSCALE, 100);
+
+        assertThat(health.order(List.of(OVH, THREEDS_OUTSCALE))).containsExactly(THREEDS_OUTSCALE, OVH);
+
+        now.addAndGet(30_000);
+
+        assertThat(health.order(List.of(OVH, THREEDS_OUTSCALE))).containsExactly(OVH, THREEDS_OUTSCALE);
+    }
+
+    @Test
+    void should_average_latency() {
+        health.recordSuccess(OVH, 100);
+        health.recordSuccess(OVH, 600);
+        health.recordSuccess(OVH);
+
+        assertThat(health.latencyMs(OVH)).isEqualTo(200);
+        assertThat(health.successCount(OVH)).isEqualTo(3);
+    }
+
+    private void openCircuit() {
+        health.recordFailure(OVH);
+        health.recordFailure(OVH);
+        health.recordFailure(OVH);
+    }
+}
@@ -0,0 +1,32 @@
+package fr.dossierfacile.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageScalerTest {
+
+    @Test
+    void should_scale_to_every_width_keeping_ratio() {
+        BufferedImage page = new BufferedImage(1654, 2339, BufferedImage.TYPE_INT_ARGB);
+
+        Map<Integer, BufferedImage> scaled = ImageScaler.downscale(page, List.of(300, 1240));
+
+        assertThat(scaled.get(1240).getWidth()).isEqualTo(1240);
+        assertThat(scaled.get(1240).getHeight()).isEqualTo(1754);
+        assertThat(scaled.get(300).getWidth()).isEqualTo(300);
+        assertThat(scaled.get(300).getHeight()).isEqualTo(424);
+        assertThat(scaled.get(300).getType()).isEqualTo(BufferedImage.TYPE_INT_RGB);
+    }
+
+    @Test
+    void should_not_upscale_small_images() {
+        BufferedImage image = new BufferedImage(200, 100, BufferedImage.TYPE_INT_RGB);
+
+        assertThat(ImageScaler.downscale(image, 300)).isSameAs(image);
+    }
+}
@@ -3,5 +3,6 @@ package fr.dossierfacile.process.file.amqp;
 public enum ActionType {
     ANALYZE,
     ANALYZE_DOCUMENT,
-    MINIFY
+    MINIFY,
+    PROCESS
 }
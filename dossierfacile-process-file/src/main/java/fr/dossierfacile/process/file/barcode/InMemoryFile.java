@@ -7,6 +7,8 @@ import fr.dossierfacile.process.file.barcode.twoddoc.TwoDDocRawContent;
 import org.apache.pdfbox.Loader;
 
 import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -22,15 +24,33 @@ public abstract class InMemoryFile implements AutoCloseable {
 
     private String contentAsString;
 
+    private BufferedImage firstPageImage;
+
     public static InMemoryFile download(File file, FileStorageService fileStorageService) throws IOException {
         try (InputStream inputStream = fileStorageService.download(file.getStorageFile())) {
-            if (isPdf(file)) {
-                return new InMemoryPdfFile(Loader.loadPDF(inputStream.readAllBytes()));
-            }
-            return new InMemoryImageFile(ImageIO.read(inputStream));
+            return of(file, inputStream.readAllBytes());
+        }
+    }
+
+    public static InMemoryFile of(File file, byte[] content) throws IOException {
+        if (isPdf(file)) {
+            return new InMemoryPdfFile(Loader.loadPDF(content));
         }
+        return new InMemoryImageFile(ImageIO.read(new ByteArrayInputStream(content)));
     }
 
+    /**
+     * First page rendered once and shared by the QR code search and the preview.
+     */
+    public BufferedImage getFirstPageImage() {
+        if (firstPageImage == null) {
+            firstPageImage = renderFirstPage();
+        }
+        return firstPageImage;
+    }
+
+    protected abstract BufferedImage renderFirstPage();
+
     public String getContentAsString() {
         if (contentAsString == null) {
             contentAsString = readContentAsString();
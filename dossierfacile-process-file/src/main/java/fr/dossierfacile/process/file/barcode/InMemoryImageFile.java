@@ -20,6 +20,11 @@ public class InMemoryImageFile extends InMemoryFile {
         return ""; // TODO plug ocr ?
     }
 
+    @Override
+    protected BufferedImage renderFirstPage() {
+        return image;
+    }
+
     @Override
     public QrCode findQrCode() {
         return QrCodeReader.findQrCodeOn(image).orElse(null);
@@ -9,6 +9,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
 
+import java.awt.image.BufferedImage;
 import java.io.IOException;
 
 @Slf4j
@@ -32,9 +33,23 @@ public class InMemoryPdfFile extends InMemoryFile {
         }
     }
 
+    @Override
+    protected BufferedImage renderFirstPage() {
+        try {
+            return QrCodeReader.renderFirstPage(pdfBoxDocument);
+        } catch (IOException e) {
+            log.error("Exception while trying to convert pdf to image", e);
+            return null;
+        }
+    }
+
     @Override
     public QrCode findQrCode() {
-        return QrCodeReader.findQrCodeOn(pdfBoxDocument).orElse(null);
+        if (pdfBoxDocument.isEncrypted()) {
+            return null;
+        }
+        BufferedImage firstPage = getFirstPageImage();
+        return firstPage == null ? null : QrCodeReader.findQrCodeOn(firstPage).orElse(null);
     }
 
     @Override
@@ -52,13 +52,18 @@ public class QrCodeReader {
     }
 
     private static BinaryBitmap buildBinaryBitmap(PDDocument document) throws IOException {
+        return buildBinaryBitmap(renderFirstPage(document));
+    }
+
+    /**
+     * Renders the first page with a resolution high enough to decode a QR code.
+     */
+    public static BufferedImage renderFirstPage(PDDocument document) throws IOException {
         PDFRenderer pdfRenderer = new PDFRenderer(document);
 
         float dpi = (1058 / document.getPage(0).getMediaBox().getWidth()) * 300;
         dpi = Math.min(600, dpi);
-        BufferedImage bufferedImage = pdfRenderer.renderImageWithDPI(0, dpi, ImageType.ARGB);
-
-        return buildBinaryBitmap(bufferedImage);
+        return pdfRenderer.renderImageWithDPI(0, dpi, ImageType.ARGB);
     }
 
     private static BinaryBitmap buildBinaryBitmap(BufferedImage bufferedImage) {
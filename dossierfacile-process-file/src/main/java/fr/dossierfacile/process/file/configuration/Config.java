@@ -1,5 +1,6 @@
 package fr.dossierfacile.process.file.configuration;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.domain.AuditorAware;
@@ -7,6 +8,8 @@ import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Configuration
 @EnableJpaAuditing
@@ -22,6 +25,11 @@ public class Config {
         return new RestTemplate();
     }
 
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService rulesExecutor(@Value("${document.analysis.rules.parallelism}") int parallelism) {
+        return Executors.newFixedThreadPool(parallelism);
+    }
+
     @Bean
     public AuditorAware<String> auditorAware() {
         return (() -> Optional.of("process-file"));
@@ -2,6 +2,26 @@ package fr.dossierfacile.process.file.repository;
 
 import fr.dossierfacile.common.entity.Document;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
 
 public interface DocumentRepository extends JpaRepository<Document, Long> {
+
+    /**
+     * Loads the document with everything the rules need (files, parsed and barcode analyses, owner) in one query.
+     */
+    @Query("""
+            SELECT DISTINCT d
+            FROM Document d
+            LEFT JOIN FETCH d.files f
+            LEFT JOIN FETCH f.fileAnalysis
+            LEFT JOIN FETCH f.parsedFileAnalysis
+            LEFT JOIN FETCH d.tenant
+            LEFT JOIN FETCH d.guarantor g
+            LEFT JOIN FETCH g.tenant
+            WHERE d.id = :documentId
+            """)
+    Optional<Document> findWithFilesAndAnalysesById(@Param("documentId") Long documentId);
 }
@@ -2,17 +2,21 @@ package fr.dossierfacile.process.file.service;
 
 import fr.dossierfacile.common.entity.Document;
 import fr.dossierfacile.common.entity.DocumentAnalysisReport;
+import fr.dossierfacile.common.entity.Tenant;
 import fr.dossierfacile.common.entity.messaging.QueueMessageStatus;
 import fr.dossierfacile.common.entity.messaging.QueueName;
 import fr.dossierfacile.common.exceptions.RetryableOperationException;
 import fr.dossierfacile.common.repository.DocumentAnalysisReportRepository;
 import fr.dossierfacile.common.repository.QueueMessageRepository;
 import fr.dossierfacile.process.file.repository.DocumentRepository;
+import fr.dossierfacile.process.file.service.documentrules.DocumentRulesEngine;
 import fr.dossierfacile.process.file.service.documentrules.DocumentRulesValidationServiceFactory;
 import fr.dossierfacile.process.file.service.documentrules.RulesValidationService;
+import jakarta.persistence.EntityManager;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
+import org.hibernate.Hibernate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,11 +31,13 @@ public class AnalyzeDocumentService {
     private final DocumentRepository documentRepository;
     private final DocumentAnalysisReportRepository documentAnalysisReportRepository;
     private final DocumentRulesValidationServiceFactory documentRulesValidationServiceFactory;
+    private final DocumentRulesEngine documentRulesEngine;
     private final QueueMessageRepository queueMessageRepository;
+    private final EntityManager entityManager;
 
     @Transactional
     public void processDocument(Long documentId) throws RetryableOperationException {
-        Document document = documentRepository.findById(documentId).orElse(null);
+        Document document = documentRepository.findWithFilesAndAnalysesById(documentId).orElse(null);
         if (document == null) {
             log.info("Document {} does not exist anymore", documentId);
             return;
@@ -52,14 +58,17 @@ public class AnalyzeDocumentService {
                     document.setDocumentAnalysisReport(null);
                     documentAnalysisReportRepository.delete(report);
                 });
+                loadRulesInputs(document);
+                // rules left running after their timeout only ever see detached entities
+                entityManager.flush();
+                entityManager.clear();
+
                 DocumentAnalysisReport report = DocumentAnalysisReport.builder()
-                        .document(document)
                         .brokenRules(new LinkedList<>())
                         .build();
-                rulesValidationServices.forEach(rulesService -> rulesService.process(document, report));
-                document.setDocumentAnalysisReport(report);
+                documentRulesEngine.process(document, rulesValidationServices, report);
+                report.setDocument(documentRepository.getReferenceById(documentId));
                 documentAnalysisReportRepository.save(report);
-                documentRepository.save(document);// necessaire?
             }
 
         } catch (Exception e) {
@@ -69,11 +78,21 @@ public class AnalyzeDocumentService {
     }
 
     private boolean readyToBeAnalysed(Document document) {
-        // checks if a child file analysis is currently pending/processing
-        List<?> messages = queueMessageRepository.findByQueueNameAndDocumentIdAndStatusIn(QueueName.QUEUE_FILE_ANALYSIS,
+        // checks if a child file analysis is currently pending/processing, on its own or within the fused file processing
+        return !queueMessageRepository.existsByQueueNameInAndDocumentIdAndStatusIn(
+                List.of(QueueName.QUEUE_FILE_ANALYSIS, QueueName.QUEUE_FILE_PROCESS),
                 document.getId(),
                 List.of(QueueMessageStatus.PENDING, QueueMessageStatus.PROCESSING));
-        return CollectionUtils.isEmpty(messages);
+    }
+
+    /**
+     * Loads what the rules read beyond the files and analyses fetched with the document.
+     */
+    private static void loadRulesInputs(Document document) {
+        Tenant tenant = document.getTenant();
+        if (tenant != null && tenant.getApartmentSharing() != null) {
+            Hibernate.initialize(tenant.getApartmentSharing().getTenants());
+        }
     }
 
     private boolean hasBeenAnalysed(Document document) {
@@ -1,10 +1,13 @@
 package fr.dossierfacile.process.file.service;
 
 import fr.dossierfacile.common.entity.File;
+import fr.dossierfacile.common.entity.FilePreview;
 import fr.dossierfacile.common.entity.StorageFile;
 import fr.dossierfacile.common.enums.FileStorageStatus;
+import fr.dossierfacile.common.enums.PreviewSize;
+import fr.dossierfacile.common.repository.FilePreviewRepository;
 import fr.dossierfacile.common.repository.StorageFileRepository;
-import fr.dossierfacile.common.service.interfaces.DocumentHelperService;
+import fr.dossierfacile.common.service.interfaces.FilePreviewService;
 import fr.dossierfacile.common.service.interfaces.FileStorageService;
 import fr.dossierfacile.process.file.repository.FileRepository;
 import fr.dossierfacile.process.file.service.interfaces.MinifyFileService;
@@ -12,7 +15,9 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.awt.image.BufferedImage;
 import java.io.InputStream;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -23,29 +28,50 @@ public class MinifyFileServiceImpl implements MinifyFileService {
     private final FileRepository fileRepository;
     private final StorageFileRepository storageFileRepository;
     private final FileStorageService fileStorageService;
-    private final DocumentHelperService documentHelperService;
+    private final FilePreviewRepository filePreviewRepository;
+    private final FilePreviewService filePreviewService;
 
     @Override
     public void process(Long fileId) {
         fileRepository.findById(fileId)
                 .ifPresent(file -> {
                     try (InputStream inputStream = fileStorageService.download(file.getStorageFile())) {
-                        StorageFile storageFile = documentHelperService.generatePreview(inputStream, file.getStorageFile().getName());
-
-                        // This is a long operation and method is not transactional - refresh to check status
-                        Optional<File> dbFile = fileRepository.findById(file.getId());
-                        if (dbFile.isPresent()) {
-                            dbFile.get().setPreview(storageFile);
-                            fileRepository.save(dbFile.get());
-                        } else {
-                            storageFile.setStatus(FileStorageStatus.TO_DELETE);
-                            storageFileRepository.save(storageFile);
-                        }
-
+                        String name = file.getStorageFile().getName();
+                        BufferedImage firstPage = filePreviewService.render(inputStream, name, 0);
+                        attachPreviews(file.getId(), filePreviewService.generate(firstPage, name, PreviewSize.eagerSizes()));
                     } catch (Exception e) {
                         log.error(e.getMessage(), e.getCause());
                     }
                 });
     }
 
+    @Override
+    public void attachPreviews(Long fileId, Map<PreviewSize, StorageFile> previews) {
+        // This is a long operation and method is not transactional - refresh to check status
+        Optional<File> dbFile = fileRepository.findById(fileId);
+        if (dbFile.isEmpty()) {
+            previews.values().forEach(preview -> {
+                preview.setStatus(FileStorageStatus.TO_DELETE);
+                storageFileRepository.save(preview);
+            });
+            return;
+        }
+        File file = dbFile.get();
+        previews.forEach((size, preview) -> {
+            if (size == PreviewSize.THUMBNAIL) {
+                file.setPreview(preview);
+                fileRepository.save(file);
+            } else {
+                FilePreview filePreview = filePreviewRepository.findByFileIdAndSizeAndPage(fileId, size, 0)
+                        .orElseGet(() -> FilePreview.builder().file(file).size(size).page(0).build());
+                if (filePreview.getStorageFile() != null) {
+                    filePreview.getStorageFile().setStatus(FileStorageStatus.TO_DELETE);
+                    storageFileRepository.save(filePreview.getStorageFile());
+                }
+                filePreview.setStorageFile(preview);
+                filePreviewRepository.save(filePreview);
+            }
+        });
+    }
+
 }
@@ -0,0 +1,95 @@
+package fr.dossierfacile.process.file.service;
+
+import fr.dossierfacile.common.entity.File;
+import fr.dossierfacile.common.entity.StorageFile;
+import fr.dossierfacile.common.enums.PreviewSize;
+import fr.dossierfacile.common.service.interfaces.FilePreviewService;
+import fr.dossierfacile.common.service.interfaces.FileStorageService;
+import fr.dossierfacile.process.file.barcode.InMemoryFile;
+import fr.dossierfacile.process.file.repository.FileRepository;
+import fr.dossierfacile.process.file.service.interfaces.MinifyFileService;
+import fr.dossierfacile.process.file.service.processors.BarCodeFileProcessor;
+import fr.dossierfacile.process.file.service.processors.FileParserProcessor;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Minifies and analyzes a new file in a single pass: the file is downloaded and decrypted once, and its first page
+ * is rendered once for both the QR code search and the previews.
+ */
+@Slf4j
+@Service
+@AllArgsConstructor
+public class ProcessFileService {
+    private static final String STAGE = "stage";
+    private static final String STAGE_DURATION = "stage_duration";
+
+    private final FileRepository fileRepository;
+    private final FileStorageService fileStorageService;
+    private final FilePreviewService filePreviewService;
+    private final MinifyFileService minifyFileService;
+    private final BarCodeFileProcessor barCodeFileProcessor;
+    private final FileParserProcessor fileParserProcessor;
+
+    public void processFile(Long fileId) {
+        Optional<File> optFile = fileRepository.findById(fileId);
+        if (optFile.isEmpty()) {
+            return;
+        }
+        File file = optFile.get();
+        byte[] content = timed("download", () -> download(file));
+        if (content == null) {
+            return;
+        }
+        // the stages are independent: a failed stage is logged and does not skip the next ones
+        try (InMemoryFile inMemoryFile = InMemoryFile.of(file, content)) {
+            stage("preview", fileId, () -> {
+                Map<PreviewSize, StorageFile> previews = filePreviewService.generate(inMemoryFile.getFirstPageImage(),
+                        file.getStorageFile().getName(), PreviewSize.eagerSizes());
+                minifyFileService.attachPreviews(file.getId(), previews);
+                return previews;
+            });
+            stage("barcode", fileId, () -> barCodeFileProcessor.process(file, inMemoryFile));
+        } catch (Exception e) {
+            log.error("Unable to read file {}", fileId, e);
+        }
+        stage("parsing", fileId, () -> fileParserProcessor.process(file, content));
+    }
+
+    private static void stage(String stage, Long fileId, Supplier<?> action) {
+        try {
+            timed(stage, action);
+        } catch (Exception e) {
+            log.error("Stage {} failed for file {}", stage, fileId, e);
+        }
+    }
+
+    private byte[] download(File file) {
+        try (InputStream inputStream = fileStorageService.download(file.getStorageFile())) {
+            return inputStream.readAllBytes();
+        } catch (Exception e) {
+            log.error("Unable to download file", e);
+            return null;
+        }
+    }
+
+    private static <T> T timed(String stage, Supplier<T> action) {
+        long start = System.currentTimeMillis();
+        try {
+            return action.get();
+        } finally {
+            long duration = System.currentTimeMillis() - start;
+            try (MDC.MDCCloseable s = MDC.putCloseable(STAGE, stage);
+                 MDC.MDCCloseable d = MDC.putCloseable(STAGE_DURATION, String.valueOf(duration))) {
+                log.info("Stage {} finished in {} ms", stage, duration);
+            }
+        }
+    }
+}
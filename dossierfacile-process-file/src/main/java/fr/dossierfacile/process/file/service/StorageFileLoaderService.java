@@ -7,7 +7,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -23,13 +25,7 @@ public class StorageFileLoaderService {
     public File getTemporaryFilePath(StorageFile storageFile) {
         try {
             try (InputStream in = fileStorageService.download(storageFile)) {
-                Path temporaryFile = Files.createTempFile("temp-" + storageFile.getId()
-                                + "-" + UUID.randomUUID(),
-                        MediaType.APPLICATION_PDF_VALUE.equalsIgnoreCase(storageFile.getContentType()) ? ".pdf" : "");
-                // actually we only need first file
-                if (Files.copy(in, temporaryFile, StandardCopyOption.REPLACE_EXISTING) > 0) {
-                    return temporaryFile.toFile();
-                }
+                return copyToTemporaryFile(storageFile, in);
             }
         } catch (Exception e) {
             log.error("Cannot read and save files from document");
@@ -37,6 +33,29 @@ public class StorageFileLoaderService {
         return null;
     }
 
+    /**
+     * Writes the already downloaded content of the storage file to a temporary file.
+     */
+    public File getTemporaryFilePath(StorageFile storageFile, byte[] content) {
+        try (InputStream in = new ByteArrayInputStream(content)) {
+            return copyToTemporaryFile(storageFile, in);
+        } catch (Exception e) {
+            log.error("Cannot save files from document");
+        }
+        return null;
+    }
+
+    private File copyToTemporaryFile(StorageFile storageFile, InputStream in) throws IOException {
+        Path temporaryFile = Files.createTempFile("temp-" + storageFile.getId()
+                        + "-" + UUID.randomUUID(),
+                MediaType.APPLICATION_PDF_VALUE.equalsIgnoreCase(storageFile.getContentType()) ? ".pdf" : "");
+        // actually we only need first file
+        if (Files.copy(in, temporaryFile, StandardCopyOption.REPLACE_EXISTING) > 0) {
+            return temporaryFile.toFile();
+        }
+        return null;
+    }
+
     public void removeFileIfExist(File file) {
         if (file != null) {
             try {
@@ -0,0 +1,138 @@
+package fr.dossierfacile.process.file.service.documentrules;
+
+import fr.dossierfacile.common.entity.Document;
+import fr.dossierfacile.common.entity.DocumentAnalysisReport;
+import fr.dossierfacile.common.entity.DocumentAnalysisStatus;
+import fr.dossierfacile.common.entity.DocumentBrokenRule;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Evaluates the rules applying to a document. Each rule works on its own report so that independent
+ * rules can run concurrently; results are then merged in the factory order, the last rule setting a
+ * status wins as it did when rules were chained on a single report.
+ * The document must be fully loaded and detached beforehand: a rule still running after its timeout is interrupted
+ * but may not stop at once, it must not reach the caller's session.
+ * A rule timing out leaves the report UNDEFINED, a rule failing fails the whole evaluation.
+ */
+@Slf4j
+@Service
+public class DocumentRulesEngine {
+    private static final String RULE = "rule";
+    private static final String RULE_DURATION = "rule_duration";
+    private static final String RULE_STATUS = "rule_status";
+
+    private final ExecutorService rulesExecutor;
+    private final long ruleTimeout;
+
+    public DocumentRulesEngine(@Qualifier("rulesExecutor") ExecutorService rulesExecutor,
+                               @Value("${document.analysis.rules.timeout.ms}") long ruleTimeout) {
+        this.rulesExecutor = rulesExecutor;
+        this.ruleTimeout = ruleTimeout;
+    }
+
+    public DocumentAnalysisReport process(Document document, List<RulesValidationService> rules, DocumentAnalysisReport report) {
+        List<RuleOutcome> outcomes;
+        if (rules.size() == 1) {
+            outcomes = List.of(evaluate(rules.get(0), document));
+        } else {
+            Map<String, String> contextMap = MDC.getCopyOfContextMap();
+            List<Future<RuleOutcome>> futures = rules.stream()
+                    .map(rule -> rulesExecutor.submit(() -> evaluateWithContext(rule, document, contextMap)))
+                    .toList();
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ruleTimeout);
+            outcomes = new ArrayList<>();
+            try {
+                for (int i = 0; i < rules.size(); i++) {
+                    outcomes.add(await(futures.get(i), rules.get(i), deadline));
+                }
+            } finally {
+                // interrupts the rules still running, timed out or left behind by a failure
+                futures.forEach(future -> future.cancel(true));
+            }
+        }
+
+        for (RuleOutcome outcome : outcomes) {
+            if (outcome.timedOut()) {
+                log.warn("Rule {} timed out after {} ms on document {}", outcome.ruleName(), ruleTimeout, document.getId());
+            }
+            report.getBrokenRules().addAll(outcome.brokenRules());
+            if (outcome.status() != null) {
+                report.setAnalysisStatus(outcome.status());
+            }
+        }
+        return report;
+    }
+
+    private static RuleOutcome await(Future<RuleOutcome> future, RulesValidationService rule, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            return RuleOutcome.timeout(rule);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while evaluating rule " + nameOf(rule), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Rule " + nameOf(rule) + " failed", e.getCause());
+        }
+    }
+
+    private RuleOutcome evaluateWithContext(RulesValidationService rule, Document document, Map<String, String> contextMap) {
+        try {
+            if (contextMap != null) {
+                MDC.setContextMap(contextMap);
+            }
+            return evaluate(rule, document);
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    private RuleOutcome evaluate(RulesValidationService rule, Document document) {
+        String ruleName = nameOf(rule);
+        DocumentAnalysisReport ruleReport = DocumentAnalysisReport.builder()
+                .brokenRules(new LinkedList<>())
+                .build();
+        long start = System.currentTimeMillis();
+        rule.process(document, ruleReport);
+        long duration = System.currentTimeMillis() - start;
+        try (MDC.MDCCloseable r = MDC.putCloseable(RULE, ruleName);
+             MDC.MDCCloseable d = MDC.putCloseable(RULE_DURATION, String.valueOf(duration));
+             MDC.MDCCloseable s = MDC.putCloseable(RULE_STATUS, String.valueOf(ruleReport.getAnalysisStatus()))) {
+            log.info("Rule {} evaluated in {} ms with status {} and {} broken rule(s)",
+                    ruleName, duration, ruleReport.getAnalysisStatus(), ruleReport.getBrokenRules().size());
+        }
+        return new RuleOutcome(ruleName, ruleReport.getAnalysisStatus(), ruleReport.getBrokenRules(), false);
+    }
+
+    private static String nameOf(RulesValidationService rule) {
+        return ClassUtils.getUserClass(rule).getSimpleName();
+    }
+
+    record RuleOutcome(String ruleName, DocumentAnalysisStatus status, List<DocumentBrokenRule> brokenRules, boolean timedOut) {
+        static RuleOutcome timeout(RulesValidationService rule) {
+            return new RuleOutcome(nameOf(rule), DocumentAnalysisStatus.UNDEFINED, List.of(), true);
+        }
+    }
+}
@@ -1,5 +1,16 @@
 package fr.dossierfacile.process.file.service.interfaces;
 
+import fr.dossierfacile.common.entity.StorageFile;
+import fr.dossierfacile.common.enums.PreviewSize;
+
+import java.util.Map;
+
 public interface MinifyFileService {
     void process(Long fileId);
+
+    /**
+     * Sets the previews on the file, or marks them for deletion if the file has been deleted meanwhile.
+     * The thumbnail is the file preview, other sizes are stored as previews of the first page.
+     */
+    void attachPreviews(Long fileId, Map<PreviewSize, StorageFile> previews);
 }
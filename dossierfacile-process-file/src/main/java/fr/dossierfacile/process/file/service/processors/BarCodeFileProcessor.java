@@ -37,20 +37,38 @@ public class BarCodeFileProcessor implements Processor {
         return file;
     }
 
+    /**
+     * Same as {@link #process(File)} on a file which has already been downloaded.
+     */
+    public File process(File file, InMemoryFile inMemoryFile) {
+        if (QrCodeFileAnalysisCriteria.shouldBeAnalyzed(file) &&
+                analysisRepository.hasNotAlreadyBeenAnalyzed(file)) {
+            long start = System.currentTimeMillis();
+            log.info("Starting analysis of file");
+            analyzeAndClassify(file, inMemoryFile).map(analysis -> save(file, analysis));
+            log.info("Analysis of file finished in {} ms", System.currentTimeMillis() - start);
+        }
+        return file;
+    }
+
     private Optional<BarCodeFileAnalysis> downloadAndAnalyze(File file) {
         try (InMemoryFile inMemoryFile = InMemoryFile.download(file, fileStorageService)) {
-            return analyze(inMemoryFile)
-                    .map(analysis -> {
-                        boolean isAllowed = new DocumentClassifier(analysis.getDocumentType()).isCompatibleWith(file);
-                        analysis.setAllowedInDocumentCategory(isAllowed);
-                        return analysis;
-                    });
+            return analyzeAndClassify(file, inMemoryFile);
         } catch (Exception e) {
             log.error("Unable to download file", e);
         }
         return Optional.empty();
     }
 
+    private Optional<BarCodeFileAnalysis> analyzeAndClassify(File file, InMemoryFile inMemoryFile) {
+        return analyze(inMemoryFile)
+                .map(analysis -> {
+                    boolean isAllowed = new DocumentClassifier(analysis.getDocumentType()).isCompatibleWith(file);
+                    analysis.setAllowedInDocumentCategory(isAllowed);
+                    return analysis;
+                });
+    }
+
     private Optional<BarCodeFileAnalysis> analyze(InMemoryFile file) {
         if (file.hasQrCode()) {
             return qrCodeFileAuthenticator.analyze(file);
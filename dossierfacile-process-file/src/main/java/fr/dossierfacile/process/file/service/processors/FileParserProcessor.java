@@ -18,6 +18,7 @@ import org.springframework.util.CollectionUtils;
 
 import java.util.Comparator;
 import java.util.List;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
@@ -45,6 +46,17 @@ public class FileParserProcessor implements Processor {
     }
 
     public File process(File dfFile) {
+        return process(dfFile, () -> storageFileLoaderService.getTemporaryFilePath(dfFile.getStorageFile()));
+    }
+
+    /**
+     * Same as {@link #process(File)} on a file which has already been downloaded.
+     */
+    public File process(File dfFile, byte[] content) {
+        return process(dfFile, () -> storageFileLoaderService.getTemporaryFilePath(dfFile.getStorageFile(), content));
+    }
+
+    private File process(File dfFile, Supplier<java.io.File> temporaryFileSupplier) {
 
         List<FileParser<?>> parsers = getParsers(dfFile);
         if (CollectionUtils.isEmpty(parsers)) {
@@ -52,7 +64,7 @@ public class FileParserProcessor implements Processor {
             return dfFile;
         }
 
-        java.io.File file = storageFileLoaderService.getTemporaryFilePath(dfFile.getStorageFile());
+        java.io.File file = temporaryFileSupplier.get();
         if (file == null) {
             log.error("File reading Error");
             return dfFile;
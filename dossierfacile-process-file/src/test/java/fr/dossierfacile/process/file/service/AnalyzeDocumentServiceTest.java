@@ -0,0 +1,66 @@
+package fr.dossierfacile.process.file.service;
+
+import fr.dossierfacile.common.entity.Document;
+import fr.dossierfacile.common.entity.messaging.QueueMessageStatus;
+import fr.dossierfacile.common.entity.messaging.QueueName;
+import fr.dossierfacile.common.exceptions.RetryableOperationException;
+import fr.dossierfacile.common.repository.DocumentAnalysisReportRepository;
+import fr.dossierfacile.common.repository.QueueMessageRepository;
+import fr.dossierfacile.process.file.repository.DocumentRepository;
+import fr.dossierfacile.process.file.service.documentrules.DocumentRulesEngine;
+import fr.dossierfacile.process.file.service.documentrules.DocumentRulesValidationServiceFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AnalyzeDocumentServiceTest {
+
+    private static final List<QueueName> FILE_QUEUES = List.of(QueueName.QUEUE_FILE_ANALYSIS, QueueName.QUEUE_FILE_PROCESS);
+    private static final List<QueueMessageStatus> RUNNING = List.of(QueueMessageStatus.PENDING, QueueMessageStatus.PROCESSING);
+
+    private final DocumentRepository documentRepository = mock(DocumentRepository.class);
+    private final DocumentRulesValidationServiceFactory rulesValidationServiceFactory = mock(DocumentRulesValidationServiceFactory.class);
+    private final DocumentRulesEngine documentRulesEngine = mock(DocumentRulesEngine.class);
+    private final QueueMessageRepository queueMessageRepository = mock(QueueMessageRepository.class);
+    private final AnalyzeDocumentService service = new AnalyzeDocumentService(documentRepository,
+            mock(DocumentAnalysisReportRepository.class), rulesValidationServiceFactory, documentRulesEngine,
+            queueMessageRepository, mock(EntityManager.class));
+
+    @BeforeEach
+    void setUp() {
+        when(documentRepository.findWithFilesAndAnalysesById(1L)).thenReturn(Optional.of(Document.builder().id(1L).build()));
+    }
+
+    @Test
+    void should_wait_for_the_fused_processing_of_a_file() {
+        when(queueMessageRepository.existsByQueueNameInAndDocumentIdAndStatusIn(FILE_QUEUES, 1L, RUNNING)).thenReturn(true);
+
+        assertThatThrownBy(() -> service.processDocument(1L)).isInstanceOf(RetryableOperationException.class);
+
+        verify(rulesValidationServiceFactory, never()).getServices(any());
+        verify(documentRulesEngine, never()).process(any(), anyList(), any());
+    }
+
+    @Test
+    void should_analyse_a_document_once_its_files_are_processed() throws Exception {
+        when(queueMessageRepository.existsByQueueNameInAndDocumentIdAndStatusIn(FILE_QUEUES, 1L, RUNNING)).thenReturn(false);
+        when(rulesValidationServiceFactory.getServices(any())).thenReturn(List.of());
+
+        service.processDocument(1L);
+
+        verify(queueMessageRepository).existsByQueueNameInAndDocumentIdAndStatusIn(eq(FILE_QUEUES), eq(1L), eq(RUNNING));
+        verify(rulesValidationServiceFactory).getServices(any());
+    }
+}
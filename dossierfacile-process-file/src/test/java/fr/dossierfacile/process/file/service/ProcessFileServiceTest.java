@@ -0,0 +1,74 @@
+package fr.dossierfacile.process.file.service;
+
+import fr.dossierfacile.common.entity.File;
+import fr.dossierfacile.common.entity.StorageFile;
+import fr.dossierfacile.common.service.interfaces.FilePreviewService;
+import fr.dossierfacile.common.service.interfaces.FileStorageService;
+import fr.dossierfacile.process.file.repository.FileRepository;
+import fr.dossierfacile.process.file.service.interfaces.MinifyFileService;
+import fr.dossierfacile.process.file.service.processors.BarCodeFileProcessor;
+import fr.dossierfacile.process.file.service.processors.FileParserProcessor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProcessFileServiceTest {
+
+    private final FileRepository fileRepository = mock(FileRepository.class);
+    private final FileStorageService fileStorageService = mock(FileStorageService.class);
+    private final FilePreviewService filePreviewService = mock(FilePreviewService.class);
+    private final BarCodeFileProcessor barCodeFileProcessor = mock(BarCodeFileProcessor.class);
+    private final FileParserProcessor fileParserProcessor = mock(FileParserProcessor.class);
+    private final ProcessFileService service = new ProcessFileService(fileRepository, fileStorageService,
+            filePreviewService, mock(MinifyFileService.class), barCodeFileProcessor, fileParserProcessor);
+
+    private final StorageFile storageFile = StorageFile.builder().name("payslip.png").contentType("image/png").build();
+    private final File file = File.builder().id(1L).storageFile(storageFile).build();
+
+    @BeforeEach
+    void setUp() {
+        when(fileRepository.findById(1L)).thenReturn(Optional.of(file));
+    }
+
+    @Test
+    void should_run_the_next_stages_when_one_fails() throws IOException {
+        byte[] content = png();
+        when(fileStorageService.download(storageFile)).thenReturn(new ByteArrayInputStream(content));
+        when(filePreviewService.generate(any(), anyString(), any())).thenThrow(new IllegalStateException("preview"));
+        when(barCodeFileProcessor.process(eq(file), any())).thenThrow(new IllegalStateException("barcode"));
+
+        service.processFile(1L);
+
+        verify(barCodeFileProcessor).process(eq(file), any());
+        verify(fileParserProcessor).process(file, content);
+    }
+
+    @Test
+    void should_still_parse_a_file_which_cannot_be_read_as_an_image() throws IOException {
+        byte[] content = "not an image".getBytes();
+        when(fileStorageService.download(storageFile)).thenReturn(new ByteArrayInputStream(content));
+
+        service.processFile(1L);
+
+        verify(fileParserProcessor).process(file, content);
+    }
+
+    private static byte[] png() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB), "png", output);
+        return output.toByteArray();
+    }
+}
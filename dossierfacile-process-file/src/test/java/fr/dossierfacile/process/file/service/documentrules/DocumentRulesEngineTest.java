@@ -0,0 +1,142 @@
+package fr.dossierfacile.process.file.service.documentrules;
+
+import fr.dossierfacile.common.entity.Document;
+import fr.dossierfacile.common.entity.DocumentAnalysisReport;
+import fr.dossierfacile.common.entity.DocumentAnalysisStatus;
+import fr.dossierfacile.common.entity.DocumentBrokenRule;
+import fr.dossierfacile.common.entity.DocumentRule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DocumentRulesEngineTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final DocumentRulesEngine engine = new DocumentRulesEngine(executor, 500);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void should_merge_broken_rules_in_rules_order_and_keep_last_status() {
+        RulesValidationService first = rule(DocumentAnalysisStatus.DENIED, DocumentRule.R_TAX_FAKE, 100);
+        RulesValidationService second = rule(DocumentAnalysisStatus.CHECKED, null, 0);
+
+        DocumentAnalysisReport report = engine.process(new Document(), List.of(first, second), emptyReport());
+
+        assertThat(report.getBrokenRules()).extracting(DocumentBrokenRule::getRule).containsExactly(DocumentRule.R_TAX_FAKE);
+        assertThat(report.getAnalysisStatus()).isEqualTo(DocumentAnalysisStatus.CHECKED);
+    }
+
+    @Test
+    void should_run_rules_concurrently() {
+        RulesValidationService first = rule(DocumentAnalysisStatus.CHECKED, null, 300);
+        RulesValidationService second = rule(DocumentAnalysisStatus.CHECKED, null, 300);
+        RulesValidationService third = rule(DocumentAnalysisStatus.CHECKED, null, 300);
+
+        long start = System.currentTimeMillis();
+        engine.process(new Document(), List.of(first, second, third), emptyReport());
+
+        assertThat(System.currentTimeMillis() - start).isLessThan(800);
+    }
+
+    @Test
+    void should_mark_report_undefined_when_a_rule_times_out() {
+        RulesValidationService slow = rule(DocumentAnalysisStatus.CHECKED, null, 2000);
+        RulesValidationService fast = rule(DocumentAnalysisStatus.CHECKED, null, 0);
+
+        DocumentAnalysisReport report = engine.process(new Document(), List.of(fast, slow), emptyReport());
+
+        assertThat(report.getAnalysisStatus()).isEqualTo(DocumentAnalysisStatus.UNDEFINED);
+    }
+
+    @Test
+    void should_interrupt_a_rule_which_timed_out() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        RulesValidationService blocking = new RulesValidationService() {
+            @Override
+            public boolean shouldBeApplied(Document document) {
+                return true;
+            }
+
+            @Override
+            public DocumentAnalysisReport process(Document document, DocumentAnalysisReport report) {
+                try {
+                    Thread.sleep(60_000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return report;
+            }
+        };
+        RulesValidationService fast = rule(DocumentAnalysisStatus.CHECKED, null, 0);
+
+        engine.process(new Document(), List.of(fast, blocking), emptyReport());
+
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void should_propagate_a_rule_failure() {
+        RulesValidationService fast = rule(DocumentAnalysisStatus.CHECKED, null, 0);
+
+        assertThatThrownBy(() -> engine.process(new Document(), List.of(failing()), emptyReport()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("boom");
+        assertThatThrownBy(() -> engine.process(new Document(), List.of(fast, failing()), emptyReport()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("boom");
+    }
+
+    private static RulesValidationService failing() {
+        return new RulesValidationService() {
+            @Override
+            public boolean shouldBeApplied(Document document) {
+                return true;
+            }
+
+            @Override
+            public DocumentAnalysisReport process(Document document, DocumentAnalysisReport report) {
+                throw new IllegalStateException("boom");
+            }
+        };
+    }
+
+    private static DocumentAnalysisReport emptyReport() {
+        return DocumentAnalysisReport.builder().brokenRules(new LinkedList<>()).build();
+    }
+
+    private static RulesValidationService rule(DocumentAnalysisStatus status, DocumentRule brokenRule, long durationMs) {
+        return new RulesValidationService() {
+            @Override
+            public boolean shouldBeApplied(Document document) {
+                return true;
+            }
+
+            @Override
+            public DocumentAnalysisReport process(Document document, DocumentAnalysisReport report) {
+                try {
+                    Thread.sleep(durationMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (brokenRule != null) {
+                    report.getBrokenRules().add(DocumentBrokenRule.builder().rule(brokenRule).build());
+                }
+                report.setAnalysisStatus(status);
+                return report;
+            }
+        };
+    }
+}
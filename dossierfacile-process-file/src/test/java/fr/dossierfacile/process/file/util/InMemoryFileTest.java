@@ -61,6 +61,17 @@ class InMemoryFileTest {
                 """);
     }
 
+    @Test
+    void first_page_is_rendered_once() throws IOException {
+        File file = fileWithPath("fake-payfit.pdf");
+
+        InMemoryFile inMemoryPdfFile = InMemoryFile.download(file, classpathStorageService());
+
+        assertThat(inMemoryPdfFile.getFirstPageImage()).isNotNull();
+        assertThat(inMemoryPdfFile.hasQrCode()).isTrue();
+        assertThat(inMemoryPdfFile.getFirstPageImage()).isSameAs(inMemoryPdfFile.getFirstPageImage());
+    }
+
     private FileStorageService classpathStorageService() throws IOException {
         FileStorageService fileStorageService = mock(FileStorageService.class);
         when(fileStorageService.download(any(StorageFile.class))).thenAnswer(invocation -> {
@@ -4,28 +4,35 @@ import fr.dossierfacile.common.repository.StorageFileRepository;
 import fr.dossierfacile.common.service.interfaces.FileStorageProviderService;
 import fr.dossierfacile.scheduler.tasks.garbagecollection.GarbageCollectionDetailsRepository;
 import fr.dossierfacile.scheduler.tasks.garbagecollection.GarbageCollectionTask;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Configuration
+@ConditionalOnProperty(
+        name = "garbage-collection.enabled",
+        havingValue = "true"
+)
 public class GarbageCollectionConfiguration {
 
     @Bean
-    @ConditionalOnProperty(
-            name = "garbage-collection.enabled",
-            havingValue = "true"
-    )
     GarbageCollectionTask garbageCollectionTask(
             GarbageCollectionDetailsRepository garbageCollectionDetailsRepository,
             StorageFileRepository storageFileRepository,
             List<FileStorageProviderService> fileStorageProviderServices,
-            @Value("${garbage-collection.objects-by-iteration:100}") int numberOfObjectsToCheckByIteration
+            @Qualifier("garbageCollectionExecutor") ExecutorService garbageCollectionExecutor,
+            @Value("${garbage-collection.objects-by-iteration:1000}") int numberOfObjectsToCheckByIteration,
+            @Value("${garbage-collection.delete.concurrency:4}") int deleteConcurrency,
+            @Value("${garbage-collection.max-seconds-by-run:300}") long maxSecondsByRun
     ) {
         var storageProviderServicesMap = fileStorageProviderServices.stream()
                         .collect(Collectors.toMap(FileStorageProviderService::getProvider, Function.identity()));
@@ -33,7 +40,22 @@ public class GarbageCollectionConfiguration {
                 garbageCollectionDetailsRepository,
                 storageFileRepository,
                 storageProviderServicesMap,
-                numberOfObjectsToCheckByIteration);
+                garbageCollectionExecutor,
+                numberOfObjectsToCheckByIteration,
+                deleteConcurrency,
+                Duration.ofSeconds(maxSecondsByRun));
+    }
+
+    /**
+     * One thread sweeping each provider, plus its concurrent deletions: sweeps wait on their deletions,
+     * a smaller pool could starve them.
+     */
+    @Bean(destroyMethod = "shutdown")
+    ExecutorService garbageCollectionExecutor(
+            List<FileStorageProviderService> fileStorageProviderServices,
+            @Value("${garbage-collection.delete.concurrency:4}") int deleteConcurrency
+    ) {
+        return Executors.newFixedThreadPool(fileStorageProviderServices.size() * (1 + Math.max(1, deleteConcurrency)));
     }
 
 }
@@ -1,13 +1,32 @@
 package fr.dossierfacile.scheduler.configuration;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 @Configuration
 public class GeneralConfiguration {
     @Bean
     public RestTemplate restTemplate() {
         return new RestTemplate();
     }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService callbackDispatchExecutor(@Value("${callback.outbox.dispatch.threads}") int threads) {
+        return Executors.newFixedThreadPool(threads);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService backupExecutor(@Value("${scheduled.process.storage.backup.threads}") int threads) {
+        return Executors.newFixedThreadPool(threads);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService deletionExecutor(@Value("${scheduled.process.storage.delete.threads}") int threads) {
+        return Executors.newFixedThreadPool(threads);
+    }
 }
@@ -15,6 +15,7 @@ public enum TaskName {
     STORAGE_FILES_DELETION,
     STORAGE_FILES_DELETION_RETRY,
     PDF_GENERATION,
-    DELETE_FAILED_DOCUMENT;
+    DELETE_FAILED_DOCUMENT,
+    PARTNER_CALLBACK_DISPATCH;
 
 }
@@ -4,7 +4,6 @@ import brevo.ApiException;
 import brevoApi.TransactionalEmailsApi;
 import brevoModel.SendSmtpEmail;
 import brevoModel.SendSmtpEmailTo;
-import fr.dossierfacile.common.entity.Document;
 import fr.dossierfacile.common.entity.Tenant;
 import fr.dossierfacile.common.repository.TenantCommonRepository;
 import lombok.RequiredArgsConstructor;
@@ -15,7 +14,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
@@ -30,8 +28,8 @@ public class DocumentDeleteMailService {
     private Long templateDeletedDocumentWithFailedPdf;
 
     @Transactional(readOnly = true)
-    public void sendMailWithDocumentFailed(Long tenantId, List<Document> documents) {
-        log.debug("Send a email to {} with {} documents", tenantId, documents.size());
+    public void sendMailWithDocumentFailed(Long tenantId, int deletedDocuments) {
+        log.debug("Send a email to {} with {} documents", tenantId, deletedDocuments);
         Tenant tenant = tenantCommonRepository.findById(tenantId).get();
         if (isNotBlank(tenant.getEmail())) {
             Map<String, String> variables = new HashMap<>();
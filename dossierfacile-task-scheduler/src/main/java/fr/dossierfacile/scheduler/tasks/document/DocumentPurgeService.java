@@ -0,0 +1,36 @@
+package fr.dossierfacile.scheduler.tasks.document;
+
+import fr.dossierfacile.common.repository.DocumentCommonRepository;
+import fr.dossierfacile.common.repository.QueueMessageRepository;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Slf4j
+@Service
+@AllArgsConstructor
+public class DocumentPurgeService {
+    private final DocumentCommonRepository documentCommonRepository;
+    private final QueueMessageRepository queueMessageRepository;
+
+    /**
+     * Deletes the documents with their files and analyses, their storage files are left TO_DELETE.
+     * Their pending queue messages are dropped, the messages being processed fail on the missing document.
+     */
+    @Transactional
+    public int purge(List<Long> documentIds) {
+        if (documentIds.isEmpty()) {
+            return 0;
+        }
+        int storageFiles = documentCommonRepository.markStorageFilesToDeleteByDocumentIdIn(documentIds);
+        documentCommonRepository.deleteBarCodeFileAnalysesByDocumentIdIn(documentIds);
+        documentCommonRepository.deleteFilesByDocumentIdIn(documentIds);
+        int documents = documentCommonRepository.deleteByIdIn(documentIds);
+        int messages = queueMessageRepository.deletePendingMessagesByDocumentIdIn(documentIds);
+        log.debug("Deleted {} documents and {} pending messages, {} storage files to delete", documents, messages, storageFiles);
+        return documents;
+    }
+}
@@ -11,27 +11,33 @@ import java.util.List;
 
 @Repository
 public interface DocumentRepository extends JpaRepository<Document, Long> {
+
+    /**
+     * Keyset iteration over the tenants owning, directly or through a guarantor, documents without PDF
+     */
     @Query(value = """
-            SELECT *
-            FROM document
-            WHERE watermark_file_id IS NULL
-              AND (last_modified_date IS NULL OR last_modified_date < :to)
-            ORDER BY
-              CASE WHEN last_modified_date IS NULL THEN 1 ELSE 0 END,
-              last_modified_date DESC
-            LIMIT 200;
+            SELECT DISTINCT COALESCE(d.tenant_id, g.tenant_id)
+            FROM document d
+            LEFT JOIN guarantor g ON g.id = d.guarantor_id
+            WHERE d.watermark_file_id IS NULL
+            AND COALESCE(d.last_modified_date, d.creation_date) < :to
+            AND COALESCE(d.tenant_id, g.tenant_id) > :afterTenantId
+            ORDER BY 1
+            LIMIT :limit
             """, nativeQuery = true)
-    List<Document> findWithoutPDFToDate(@Param("to") LocalDateTime toDateTime);
+    List<Long> findTenantIdsWithDocumentWithoutPDFToDate(@Param("to") LocalDateTime toDateTime,
+                                                         @Param("afterTenantId") long afterTenantId,
+                                                         @Param("limit") int limit);
 
-    @Query("""
-            SELECT d
-            FROM Document d
-            LEFT JOIN FETCH d.guarantor g
-            WHERE d.watermarkFile IS NULL 
-            AND ((d.lastModifiedDate IS NOT NULL AND d.lastModifiedDate < :to) 
-            OR (d.lastModifiedDate IS NULL AND d.creationDateTime < :to))
-            ORDER BY d.lastModifiedDate DESC
-            """)
-    List<Document> findDocumentWithoutPDFToDate(@Param("to") LocalDateTime toDateTime);
+    @Query(value = """
+            SELECT d.id AS documentId, COALESCE(d.tenant_id, g.tenant_id) AS tenantId
+            FROM document d
+            LEFT JOIN guarantor g ON g.id = d.guarantor_id
+            WHERE d.watermark_file_id IS NULL
+            AND COALESCE(d.last_modified_date, d.creation_date) < :to
+            AND COALESCE(d.tenant_id, g.tenant_id) IN (:tenantIds)
+            """, nativeQuery = true)
+    List<TenantDocument> findDocumentWithoutPDFToDate(@Param("to") LocalDateTime toDateTime,
+                                                     @Param("tenantIds") List<Long> tenantIds);
 
 }
@@ -1,10 +1,5 @@
 package fr.dossierfacile.scheduler.tasks.document;
 
-import fr.dossierfacile.common.entity.Document;
-import fr.dossierfacile.common.entity.Tenant;
-import fr.dossierfacile.common.entity.messaging.QueueMessage;
-import fr.dossierfacile.common.entity.messaging.QueueMessageStatus;
-import fr.dossierfacile.common.entity.messaging.QueueName;
 import fr.dossierfacile.common.repository.QueueMessageRepository;
 import fr.dossierfacile.scheduler.LoggingContext;
 import lombok.RequiredArgsConstructor;
@@ -12,12 +7,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.util.CollectionUtils;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 import static fr.dossierfacile.scheduler.tasks.TaskName.DELETE_FAILED_DOCUMENT;
@@ -28,52 +22,85 @@ import static fr.dossierfacile.scheduler.tasks.TaskName.PDF_GENERATION;
 @RequiredArgsConstructor
 public class DocumentTask {
     private final DocumentRepository documentRepository;
+    private final DocumentPurgeService documentPurgeService;
     private final PartnerCallbackService partnerCallbackService;
     private final DocumentDeleteMailService documentDeleteMailService;
     private final QueueMessageRepository queueMessageRepository;
     @Value("${document.pdf.failed.delay.before.delete.hours}")
     private Long delayBeforeDeleteHours;
+    @Value("${document.pdf.failed.relaunch.limit:200}")
+    private int relaunchLimit;
+    @Value("${document.pdf.failed.delete.batch.size:100}")
+    private int deleteBatchSize;
 
     @Scheduled(cron = "${cron.process.pdf.generation.failed}")
     public void reLaunchFailedPDFGeneration() {
         LoggingContext.startTask(PDF_GENERATION);
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime toDateTime = now.minusMinutes(30);
-        List<Document> documents = documentRepository.findWithoutPDFToDate(toDateTime);
-        log.info("Relaunch " + documents.size() + " failed documents to " + toDateTime);
-        documents.forEach(this::sendForPDFGeneration);
+        int enqueued = queueMessageRepository.enqueueDocumentsWithoutWatermarkPdf(toDateTime, System.currentTimeMillis(), relaunchLimit);
+        log.info("Relaunch {} failed documents to {}", enqueued, toDateTime);
         LoggingContext.endTask();
     }
 
+    /**
+     * Deletes the documents still without PDF after the delay, tenant batch by tenant batch: every tenant concerned
+     * is sent one mail, then the batch is purged in a single transaction, then the partners are called back with the
+     * documents gone. A tenant whose mail or callback fails does not prevent the other ones from being notified.
+     */
     @Scheduled(cron = "${cron.delete.document.with.failed.pdf}")
     public void deleteDocumentWithFailedPdfGeneration() {
         LoggingContext.startTask(DELETE_FAILED_DOCUMENT);
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime toDateTime = now.minusHours(delayBeforeDeleteHours);
 
-        List<Document> documents = documentRepository.findDocumentWithoutPDFToDate(toDateTime);
-        if (CollectionUtils.isEmpty(documents)) {
+        long afterTenantId = 0;
+        long deletedDocuments = 0;
+        long notifiedTenants = 0;
+        List<Long> tenantIds;
+        do {
+            tenantIds = documentRepository.findTenantIdsWithDocumentWithoutPDFToDate(toDateTime, afterTenantId, deleteBatchSize);
+            if (tenantIds.isEmpty()) {
+                break;
+            }
+            afterTenantId = tenantIds.get(tenantIds.size() - 1);
+            try {
+                Map<Long, List<Long>> documentIdsByTenant = documentRepository.findDocumentWithoutPDFToDate(toDateTime, tenantIds)
+                        .stream()
+                        .collect(Collectors.groupingBy(TenantDocument::getTenantId, LinkedHashMap::new,
+                                Collectors.mapping(TenantDocument::getDocumentId, Collectors.toList())));
+                List<Long> documentIds = documentIdsByTenant.values().stream().flatMap(List::stream).toList();
+                documentIdsByTenant.forEach(this::sendMailWithDocumentFailed);
+                deletedDocuments += documentPurgeService.purge(documentIds);
+                documentIdsByTenant.keySet().forEach(this::sendPartnerCallback);
+                notifiedTenants += documentIdsByTenant.size();
+            } catch (Exception e) {
+                log.error("Unable to delete documents with failed pdf of tenants {}", tenantIds, e);
+            }
+        } while (tenantIds.size() == deleteBatchSize);
+
+        if (deletedDocuments == 0) {
             log.info("There is not file with empty pdf");
         } else {
-            Map<Tenant, List<Document>> tenantDocuments = documents.stream()
-                    .collect(Collectors.groupingBy(d ->
-                            Optional.ofNullable(d.getTenant())
-                                    .orElseGet(() -> d.getGuarantor().getTenant())
-                    ));
-            tenantDocuments.forEach((tenant, docs) -> documentDeleteMailService.sendMailWithDocumentFailed(tenant.getId(), docs));
-            documentRepository.deleteAll(documents);
-            tenantDocuments.forEach((tenant, docs) -> partnerCallbackService.sendPartnerCallback(tenant.getId()));
+            log.info("Deleted {} documents with failed pdf of {} tenants", deletedDocuments, notifiedTenants);
         }
         LoggingContext.endTask();
     }
 
-    private void sendForPDFGeneration(Document document) {
-        log.debug("Sending document with ID [{}] for pdf generation", document.getId());
-        queueMessageRepository.save(QueueMessage.builder()
-                .queueName(QueueName.QUEUE_DOCUMENT_WATERMARK_PDF)
-                .documentId(document.getId())
-                .status(QueueMessageStatus.PENDING)
-                .timestamp(System.currentTimeMillis())
-                .build());
+    private void sendMailWithDocumentFailed(Long tenantId, List<Long> documentIds) {
+        try {
+            documentDeleteMailService.sendMailWithDocumentFailed(tenantId, documentIds.size());
+        } catch (Exception e) {
+            log.error("Unable to send the failed pdf mail to tenant {}", tenantId, e);
+        }
+    }
+
+    private void sendPartnerCallback(Long tenantId) {
+        try {
+            partnerCallbackService.sendPartnerCallback(tenantId);
+        } catch (Exception e) {
+            log.error("Unable to send the partner callback of tenant {}", tenantId, e);
+        }
     }
-}
\ No newline at end of file
+
+}
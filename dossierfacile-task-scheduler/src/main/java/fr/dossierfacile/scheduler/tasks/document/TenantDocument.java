@@ -0,0 +1,6 @@
+package fr.dossierfacile.scheduler.tasks.document;
+
+public interface TenantDocument {
+    Long getDocumentId();
+    Long getTenantId();
+}
@@ -12,6 +12,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 @Data
 @Entity
 @Builder
@@ -30,4 +32,10 @@ public class GarbageCollectionDetails {
     @Column
     int deletedObjects;
 
+    @Column
+    long scannedObjects;
+
+    @Column
+    LocalDateTime sweepStartDate;
+
 }
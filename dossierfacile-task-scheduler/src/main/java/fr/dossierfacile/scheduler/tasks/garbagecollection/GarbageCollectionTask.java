@@ -6,43 +6,92 @@ import fr.dossierfacile.common.service.interfaces.FileStorageProviderService;
 import fr.dossierfacile.scheduler.LoggingContext;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
 import org.springframework.scheduling.annotation.Scheduled;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
 
 import static fr.dossierfacile.scheduler.tasks.TaskName.GARBAGE_COLLECTION;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
+/**
+ * Deletes the objects of the storage providers which are not referenced by any storage file.
+ * Providers are swept in parallel, page by page, during at most {@code maxDurationByRun}: each page is diffed
+ * against the database and its orphans are deleted by {@code deleteConcurrency} parallel batches.
+ * The marker is only moved once a page has been fully processed, so an interrupted run resumes where it stopped.
+ */
 @Slf4j
 @AllArgsConstructor
 public class GarbageCollectionTask {
+    private static final String PROVIDER = "gc_provider";
+    private static final String SCANNED_OBJECTS = "gc_scanned_objects";
+    private static final String DELETED_OBJECTS = "gc_deleted_objects";
+    private static final String OBJECTS_PER_SECOND = "gc_objects_per_second";
 
     private final GarbageCollectionDetailsRepository garbageCollectionDetailsRepository;
     private final StorageFileRepository storageFileRepository;
     private final Map<ObjectStorageProvider, FileStorageProviderService> storageProviderServices;
+    private final ExecutorService garbageCollectionExecutor;
 
     private final int numberOfObjectsToCheckByIteration;
+    private final int deleteConcurrency;
+    private final Duration maxDurationByRun;
 
     @Scheduled(fixedDelayString = "${garbage-collection.seconds-between-iterations}", timeUnit = SECONDS)
     void cleanGarbage() {
         LoggingContext.startTask(GARBAGE_COLLECTION);
-        storageProviderServices.keySet().forEach(this::cleanGarbageOn);
+        CompletableFuture<?>[] sweeps = storageProviderServices.keySet().stream()
+                .map(provider -> runAsync(() -> {
+                    cleanGarbageOn(provider);
+                    return null;
+                }))
+                .toArray(CompletableFuture[]::new);
+        for (CompletableFuture<?> sweep : sweeps) {
+            try {
+                sweep.join();
+            } catch (Exception e) {
+                log.error("Garbage collection failed", e.getCause());
+            }
+        }
         LoggingContext.endTask();
     }
 
     private void cleanGarbageOn(ObjectStorageProvider provider) {
-        GarbageCollectionDetails garbageCollectionDetails = getGarbageCollectionDetails(provider);
-
-        List<StoredObject> objects = retrieveObjectsFromStorage(garbageCollectionDetails);
-
-        if (objects.isEmpty()) {
-            log.info("All objects in {} have been analyzed, resetting marker", provider);
-            resetMarker(garbageCollectionDetails);
-        } else {
-            int deletedObjects = findAndDeleteOrphanObjects(objects, garbageCollectionDetails);
-            updateDetails(garbageCollectionDetails, objects, deletedObjects);
+        LoggingContext.put(PROVIDER, provider);
+        GarbageCollectionDetails details = getGarbageCollectionDetails(provider);
+        FileStorageProviderService providerService = storageProviderServices.get(provider);
+
+        long start = System.currentTimeMillis();
+        long deadline = start + maxDurationByRun.toMillis();
+        long scannedObjects = 0;
+        long deletedObjects = 0;
+        boolean sweepCompleted = false;
+        try {
+            while (!sweepCompleted && System.currentTimeMillis() < deadline) {
+                if (details.getSweepStartDate() == null) {
+                    details.setSweepStartDate(LocalDateTime.now());
+                    details.setScannedObjects(0);
+                }
+                List<String> names = providerService.listObjectNames(details.getCurrentMarker(), numberOfObjectsToCheckByIteration);
+                int deletedInPage = findAndDeleteOrphanObjects(names, providerService);
+                // A provider returns less than the requested count only once it has reached the end of the bucket
+                sweepCompleted = names.size() < numberOfObjectsToCheckByIteration;
+                checkpoint(details, names, deletedInPage, sweepCompleted);
+                scannedObjects += names.size();
+                deletedObjects += deletedInPage;
+            }
+        } finally {
+            logThroughput(provider, scannedObjects, deletedObjects, System.currentTimeMillis() - start);
         }
     }
 
@@ -56,58 +105,76 @@ public class GarbageCollectionTask {
         return created;
     }
 
-    private List<StoredObject> retrieveObjectsFromStorage(GarbageCollectionDetails garbageCollectionDetails) {
-        String currentMarker = garbageCollectionDetails.getCurrentMarker();
-        List<StoredObject> objects = getProviderService(garbageCollectionDetails)
-                .listObjectNames(currentMarker, numberOfObjectsToCheckByIteration)
-                .stream().map(StoredObject::new).toList();
-        log.info("Retrieved {} objects from storage {} to search in database",
-                objects.size(), garbageCollectionDetails.getProvider());
-        return objects;
-    }
-
-    private int findAndDeleteOrphanObjects(List<StoredObject> objectsToSearch, GarbageCollectionDetails garbageCollectionDetails) {
-        List<String> existingStorageFilePaths = findExistingStorageFilePaths(objectsToSearch);
-
-        List<StoredObject> objectsToDelete = objectsToSearch.stream()
-                .filter(object -> !existingStorageFilePaths.contains(object.getName()))
+    private int findAndDeleteOrphanObjects(List<String> names, FileStorageProviderService providerService) {
+        if (names.isEmpty()) {
+            return 0;
+        }
+        Set<String> existingStorageFilePaths = new HashSet<>(storageFileRepository.findExistingPathsIn(names));
+        List<String> orphans = names.stream()
+                .filter(name -> !existingStorageFilePaths.contains(name))
                 .toList();
+        if (orphans.isEmpty()) {
+            return 0;
+        }
+        log.info("Deleting {} objects out of {} from {} storage", orphans.size(), names.size(), providerService.getProvider());
 
-        log.info("Found {} objects out of {} to delete", objectsToDelete.size(), objectsToSearch.size());
-
-        deleteObjects(objectsToDelete, getProviderService(garbageCollectionDetails));
-
-        return objectsToDelete.size();
-    }
-
-    private void deleteObjects(List<StoredObject> objectsToDelete, FileStorageProviderService providerService) {
-        objectsToDelete.forEach(object -> {
-            String name = object.getName();
-            log.info("Deleting object {} from {} storage", name, providerService.getProvider());
-            providerService.delete(name);
-        });
+        List<CompletableFuture<List<String>>> deletions = partition(orphans).stream()
+                .map(batch -> runAsync(() -> providerService.deleteAll(batch)))
+                .toList();
+        int failed = deletions.stream().mapToInt(deletion -> deletion.join().size()).sum();
+        if (failed > 0) {
+            log.warn("Unable to delete {} objects from {} storage, they will be retried on the next sweep", failed, providerService.getProvider());
+        }
+        return orphans.size() - failed;
     }
 
-    private FileStorageProviderService getProviderService(GarbageCollectionDetails garbageCollectionDetails) {
-        return storageProviderServices.get(garbageCollectionDetails.getProvider());
+    private List<List<String>> partition(List<String> names) {
+        int batchSize = Math.ceilDiv(names.size(), Math.max(1, deleteConcurrency));
+        List<List<String>> batches = new ArrayList<>();
+        for (int from = 0; from < names.size(); from += batchSize) {
+            batches.add(names.subList(from, Math.min(from + batchSize, names.size())));
+        }
+        return batches;
     }
 
-    private List<String> findExistingStorageFilePaths(List<StoredObject> objects) {
-        List<String> paths = objects.stream().map(StoredObject::getName).toList();
-        return storageFileRepository.findExistingPathsIn(paths);
+    private void checkpoint(GarbageCollectionDetails details, List<String> checkedNames, int deletedObjects, boolean sweepCompleted) {
+        details.setScannedObjects(details.getScannedObjects() + checkedNames.size());
+        details.setDeletedObjects(details.getDeletedObjects() + deletedObjects);
+        if (sweepCompleted) {
+            log.info("All {} objects in {} have been analyzed since {}, resetting marker",
+                    details.getScannedObjects(), details.getProvider(), details.getSweepStartDate());
+            details.setCurrentMarker(null);
+            details.setSweepStartDate(null);
+        } else {
+            details.setCurrentMarker(checkedNames.get(checkedNames.size() - 1));
+        }
+        garbageCollectionDetailsRepository.save(details);
     }
 
-    private void updateDetails(GarbageCollectionDetails garbageCollectionDetails, List<StoredObject> checkedObjects, int deletedObjects) {
-        String newMarker = checkedObjects.get(checkedObjects.size() - 1).getName();
-        log.info("Setting marker to {} for next iteration", newMarker);
-        garbageCollectionDetails.setCurrentMarker(newMarker);
-        garbageCollectionDetails.setDeletedObjects(garbageCollectionDetails.getDeletedObjects() + deletedObjects);
-        garbageCollectionDetailsRepository.save(garbageCollectionDetails);
+    private void logThroughput(ObjectStorageProvider provider, long scannedObjects, long deletedObjects, long durationMs) {
+        long objectsPerSecond = durationMs > 0 ? scannedObjects * 1000 / durationMs : scannedObjects;
+        LoggingContext.put(SCANNED_OBJECTS, scannedObjects);
+        LoggingContext.put(DELETED_OBJECTS, deletedObjects);
+        LoggingContext.put(OBJECTS_PER_SECOND, objectsPerSecond);
+        log.info("Scanned {} objects and deleted {} in {} storage in {} ms ({} objects/s)",
+                scannedObjects, deletedObjects, provider, durationMs, objectsPerSecond);
+        LoggingContext.remove(SCANNED_OBJECTS);
+        LoggingContext.remove(DELETED_OBJECTS);
+        LoggingContext.remove(OBJECTS_PER_SECOND);
     }
 
-    private void resetMarker(GarbageCollectionDetails garbageCollectionDetails) {
-        garbageCollectionDetails.setCurrentMarker(null);
-        garbageCollectionDetailsRepository.save(garbageCollectionDetails);
+    private <T> CompletableFuture<T> runAsync(Supplier<T> supplier) {
+        Map<String, String> contextMap = MDC.getCopyOfContextMap();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                if (contextMap != null) {
+                    MDC.setContextMap(contextMap);
+                }
+                return supplier.get();
+            } finally {
+                MDC.clear();
+            }
+        }, garbageCollectionExecutor);
     }
 
 }
@@ -1,12 +0,0 @@
-package fr.dossierfacile.scheduler.tasks.garbagecollection;
-
-import lombok.AllArgsConstructor;
-import lombok.Getter;
-
-@Getter
-@AllArgsConstructor
-public class StoredObject {
-
-    private final String name;
-
-}
@@ -0,0 +1,158 @@
+package fr.dossierfacile.scheduler.tasks.partnercallback;
+
+import fr.dossierfacile.common.entity.UserApi;
+import fr.dossierfacile.common.entity.messaging.CallbackOutboxMessage;
+import fr.dossierfacile.common.entity.messaging.QueueMessageStatus;
+import fr.dossierfacile.common.repository.CallbackOutboxRepository;
+import fr.dossierfacile.common.service.interfaces.RequestService;
+import fr.dossierfacile.scheduler.LoggingContext;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static fr.dossierfacile.scheduler.tasks.TaskName.PARTNER_CALLBACK_DISPATCH;
+
+/**
+ * Delivers the partner callbacks stored in the outbox. A partner never has more than {@code perPartner} deliveries
+ * in progress, so that a slow partner cannot take all the dispatch threads, and messages are claimed as dispatch
+ * threads become free: a round does not wait for its deliveries. Failed deliveries are retried with an exponential
+ * backoff, unless a newer callback of the same tenant to the same partner is queued.
+ */
+@Slf4j
+@Service
+public class PartnerCallbackDispatchTask {
+    private static final String PARTNER = "partner";
+    private static final String CALLBACK_STATUS = "callback_status";
+    private static final String CALLBACK_ATTEMPTS = "callback_attempts";
+    private static final String CALLBACK_LATENCY = "callback_delivery_latency";
+
+    private final CallbackOutboxRepository callbackOutboxRepository;
+    private final UserApiRepository userApiRepository;
+    private final RequestService requestService;
+    private final ExecutorService callbackDispatchExecutor;
+    private final AtomicInteger deliveriesInProgress = new AtomicInteger();
+
+    @Value("${callback.outbox.dispatch.threads}")
+    private int dispatchThreads;
+    @Value("${callback.outbox.batch.size}")
+    private int batchSize;
+    @Value("${callback.outbox.partner.concurrency}")
+    private int perPartner;
+    @Value("${callback.outbox.lease.seconds}")
+    private long leaseSeconds;
+    @Value("${callback.outbox.retry.base.seconds}")
+    private long retryBaseSeconds;
+    @Value("${callback.outbox.retry.max.seconds}")
+    private long retryMaxSeconds;
+    @Value("${callback.outbox.max.attempts}")
+    private int maxAttempts;
+
+    public PartnerCallbackDispatchTask(CallbackOutboxRepository callbackOutboxRepository,
+                                       UserApiRepository userApiRepository,
+                                       RequestService requestService,
+                                       @Qualifier("callbackDispatchExecutor") ExecutorService callbackDispatchExecutor) {
+        this.callbackOutboxRepository = callbackOutboxRepository;
+        this.userApiRepository = userApiRepository;
+        this.requestService = requestService;
+        this.callbackDispatchExecutor = callbackDispatchExecutor;
+    }
+
+    @Scheduled(fixedDelayString = "${callback.outbox.dispatch.delay.ms}", initialDelayString = "${callback.outbox.dispatch.delay.ms}")
+    public void dispatchCallbacks() {
+        LoggingContext.startTask(PARTNER_CALLBACK_DISPATCH);
+        int capacity;
+        List<CallbackOutboxMessage> messages;
+        do {
+            // only what the free dispatch threads can start is claimed, the leases do not run out in the queue
+            capacity = Math.min(batchSize, dispatchThreads - deliveriesInProgress.get());
+            if (capacity <= 0) {
+                break;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            messages = callbackOutboxRepository.claimDueMessages(now, now.plusSeconds(leaseSeconds), perPartner, capacity);
+            dispatch(messages);
+        } while (messages.size() == capacity);
+        LoggingContext.endTask();
+    }
+
+    private void dispatch(List<CallbackOutboxMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        List<Long> partnerIds = messages.stream().map(CallbackOutboxMessage::getUserApiId).distinct().toList();
+        Map<Long, UserApi> partners = userApiRepository.findAllById(partnerIds).stream()
+                .collect(Collectors.toMap(UserApi::getId, Function.identity()));
+        Map<String, String> contextMap = MDC.getCopyOfContextMap();
+        for (CallbackOutboxMessage message : messages) {
+            deliveriesInProgress.incrementAndGet();
+            callbackDispatchExecutor.execute(() -> deliverWithContext(message, partners.get(message.getUserApiId()), contextMap));
+        }
+    }
+
+    private void deliverWithContext(CallbackOutboxMessage message, UserApi userApi, Map<String, String> contextMap) {
+        try {
+            if (contextMap != null) {
+                MDC.setContextMap(contextMap);
+            }
+            deliver(message, userApi);
+        } catch (Exception e) {
+            log.error("Callback {} could not be reported, it will be claimed again once its lease is over", message.getId(), e);
+        } finally {
+            MDC.clear();
+            deliveriesInProgress.decrementAndGet();
+        }
+    }
+
+    private void deliver(CallbackOutboxMessage message, UserApi userApi) {
+        if (userApi == null || userApi.isDisabled() || StringUtils.isBlank(userApi.getUrlCallback())) {
+            log.warn("Callback {} dropped, its partner does not accept callbacks anymore", message.getId());
+            callbackOutboxRepository.deleteById(message.getId());
+            return;
+        }
+        LoggingContext.put(PARTNER, userApi.getName());
+        LoggingContext.put(CALLBACK_ATTEMPTS, message.getAttempts());
+        try {
+            requestService.send(message.getContent(), userApi.getUrlCallback(), userApi.getPartnerApiKeyCallback());
+            callbackOutboxRepository.deleteById(message.getId());
+            LoggingContext.put(CALLBACK_STATUS, "DELIVERED");
+            LoggingContext.put(CALLBACK_LATENCY, Duration.between(message.getCreationDate(), LocalDateTime.now()).toMillis());
+            log.info("Callback {} of tenant {} delivered to {}", message.getId(), message.getTenantId(), userApi.getName());
+        } catch (Exception e) {
+            onFailure(message, userApi, e);
+        }
+    }
+
+    private void onFailure(CallbackOutboxMessage message, UserApi userApi, Exception e) {
+        if (callbackOutboxRepository.deleteIfSuperseded(message.getId()) > 0) {
+            LoggingContext.put(CALLBACK_STATUS, "SUPERSEDED");
+            log.warn("Callback {} of tenant {} to {} failed and is dropped, a newer callback is queued",
+                    message.getId(), message.getTenantId(), userApi.getName(), e);
+            return;
+        }
+        if (message.getAttempts() >= maxAttempts) {
+            callbackOutboxRepository.markFailedAttempt(message.getId(), message.getNextAttemptDate(), QueueMessageStatus.FAILED, e.getMessage());
+            LoggingContext.put(CALLBACK_STATUS, QueueMessageStatus.FAILED);
+            log.error("Callback {} of tenant {} to {} failed {} times, giving up",
+                    message.getId(), message.getTenantId(), userApi.getName(), message.getAttempts(), e);
+            return;
+        }
+        long delay = Math.min(retryMaxSeconds, retryBaseSeconds << Math.min(message.getAttempts() - 1, 20));
+        callbackOutboxRepository.markFailedAttempt(message.getId(), LocalDateTime.now().plusSeconds(delay), QueueMessageStatus.PENDING, e.getMessage());
+        LoggingContext.put(CALLBACK_STATUS, "RETRY");
+        log.warn("Callback {} of tenant {} to {} failed, next attempt in {} seconds",
+                message.getId(), message.getTenantId(), userApi.getName(), delay, e);
+    }
+}
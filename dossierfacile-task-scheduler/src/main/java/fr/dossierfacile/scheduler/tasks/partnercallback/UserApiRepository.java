@@ -0,0 +1,7 @@
+package fr.dossierfacile.scheduler.tasks.partnercallback;
+
+import fr.dossierfacile.common.entity.UserApi;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface UserApiRepository extends JpaRepository<UserApi, Long> {
+}
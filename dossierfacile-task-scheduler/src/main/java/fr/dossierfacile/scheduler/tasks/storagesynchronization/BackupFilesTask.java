@@ -6,28 +6,61 @@ import fr.dossierfacile.common.entity.StorageFile;
 import fr.dossierfacile.common.repository.StorageFileRepository;
 import fr.dossierfacile.common.service.interfaces.FileStorageService;
 import fr.dossierfacile.scheduler.LoggingContext;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import static fr.dossierfacile.scheduler.LoggingContext.STORAGE_FILE;
 import static fr.dossierfacile.scheduler.tasks.TaskName.STORAGE_FILES_BACKUP;
 import static fr.dossierfacile.scheduler.tasks.TaskName.STORAGE_FILES_BACKUP_RETRY;
 
+/**
+ * Replicates the files stored on a single provider to the other configured providers.
+ * Files are iterated by keyset, oldest first, and copied by {@code backupExecutor} threads; a copy is retried
+ * with an exponential backoff before the file is marked COPY_FAILED and left to {@link #retryFailedCopy()}.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class BackupFilesTask {
+    private static final LocalDateTime START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final String COPIED_FILES = "backup_copied_files";
+    private static final String FAILED_FILES = "backup_failed_files";
+    private static final String BYTES_PER_SECOND = "backup_bytes_per_second";
+    private static final String LAG = "backup_lag_seconds";
+
     private final StorageFileRepository storageFileRepository;
     private final FileStorageService fileStorageService;
     private final DynamicProviderConfig dynamicProviderConfig;
+    private final ExecutorService backupExecutor;
+
+    @Value("${scheduled.process.storage.backup.batch.size:100}")
+    private int batchSize;
+    @Value("${scheduled.process.storage.backup.max.seconds.by.run:300}")
+    private long maxSecondsByRun;
+    @Value("${scheduled.process.storage.backup.max.attempts:3}")
+    private int maxAttempts;
+    @Value("${scheduled.process.storage.backup.retry.base.delay.ms:1000}")
+    private long retryBaseDelayMs;
+
+    public BackupFilesTask(StorageFileRepository storageFileRepository,
+                           FileStorageService fileStorageService,
+                           DynamicProviderConfig dynamicProviderConfig,
+                           @Qualifier("backupExecutor") ExecutorService backupExecutor) {
+        this.storageFileRepository = storageFileRepository;
+        this.fileStorageService = fileStorageService;
+        this.dynamicProviderConfig = dynamicProviderConfig;
+        this.backupExecutor = backupExecutor;
+    }
 
     private static boolean isNotPresentOnProvider(StorageFile storageFile, ObjectStorageProvider objectStorageProvider) {
         return !storageFile.getProviders().contains(objectStorageProvider.name());
@@ -36,35 +69,128 @@ public class BackupFilesTask {
     @Scheduled(fixedDelayString = "${scheduled.process.storage.backup.delay.ms}", initialDelayString = "${scheduled.process.storage.backup.delay.ms}")
     public void scheduleBackupTask() {
         LoggingContext.startTask(STORAGE_FILES_BACKUP);
-        Pageable limit = PageRequest.of(0, 100);
-        List<StorageFile> storageFiles = storageFileRepository.findAllWithOneProviderAndReady(limit);
-        synchronizeFile(storageFiles);
+        synchronizeFiles(storageFileRepository::findAllWithOneProviderAndReadyAfter);
         LoggingContext.endTask();
     }
 
     @Scheduled(fixedDelayString = "${scheduled.process.storage.backup.retry.failed.copy.delay.minutes}", initialDelayString = "${scheduled.process.storage.backup.retry.failed.copy.delay.minutes}", timeUnit = TimeUnit.MINUTES)
     public void retryFailedCopy() {
         LoggingContext.startTask(STORAGE_FILES_BACKUP_RETRY);
-        Pageable limit = PageRequest.of(0, 100);
-        List<StorageFile> storageFiles = storageFileRepository.findAllWithOneProviderAndCopyFailed(limit);
-        synchronizeFile(storageFiles);
+        synchronizeFiles(storageFileRepository::findAllWithOneProviderAndCopyFailedAfter);
         LoggingContext.endTask();
     }
 
-    private void synchronizeFile(List<StorageFile> storageFiles) {
-        storageFiles.forEach(storageFile -> {
+    private void synchronizeFiles(BatchQuery query) {
+        long start = System.currentTimeMillis();
+        long deadline = start + TimeUnit.SECONDS.toMillis(maxSecondsByRun);
+        Progress progress = new Progress();
+        LocalDateTime afterDate = START;
+        long afterId = 0;
+        List<StorageFile> storageFiles;
+        do {
+            storageFiles = query.find(afterDate, afterId, batchSize);
+            synchronizeBatch(storageFiles, progress);
+            if (!storageFiles.isEmpty()) {
+                StorageFile last = storageFiles.get(storageFiles.size() - 1);
+                afterDate = last.getLastModifiedDate().orElse(afterDate);
+                afterId = last.getId();
+            }
+        } while (storageFiles.size() == batchSize && System.currentTimeMillis() < deadline);
+        logProgress(progress, System.currentTimeMillis() - start);
+    }
+
+    private void synchronizeBatch(List<StorageFile> storageFiles, Progress progress) {
+        Map<String, String> contextMap = MDC.getCopyOfContextMap();
+        CompletableFuture<?>[] copies = storageFiles.stream()
+                .map(storageFile -> CompletableFuture.runAsync(
+                        () -> synchronizeFileWithContext(storageFile, progress, contextMap),
+                        backupExecutor))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(copies).join();
+    }
+
+    private void synchronizeFileWithContext(StorageFile storageFile, Progress progress, Map<String, String> contextMap) {
+        try {
+            if (contextMap != null) {
+                MDC.setContextMap(contextMap);
+            }
             LoggingContext.put(STORAGE_FILE, storageFile.getId());
-            for (ObjectStorageProvider objectStorageProvider : dynamicProviderConfig.getProviders()) {
-                if (isNotPresentOnProvider(storageFile, objectStorageProvider)) {
-                    try (InputStream is = fileStorageService.download(storageFile)) {
-                        fileStorageService.uploadToProvider(is, storageFile, objectStorageProvider);
-                    } catch (Exception e) {
-                        log.error("Failed copy for {} to {}", storageFile.getId(), objectStorageProvider);
-                    }
+            synchronizeFile(storageFile, progress);
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    private void synchronizeFile(StorageFile storageFile, Progress progress) {
+        for (ObjectStorageProvider objectStorageProvider : dynamicProviderConfig.getProviders()) {
+            if (isNotPresentOnProvider(storageFile, objectStorageProvider)) {
+                try {
+                    progress.copied(copyWithRetry(storageFile, objectStorageProvider));
+                } catch (Exception e) {
+                    log.error("Failed copy for {} to {}", storageFile.getId(), objectStorageProvider, e);
+                    storageFileRepository.markCopyFailed(storageFile.getId());
+                    progress.failed();
+                    return;
                 }
             }
-            LoggingContext.remove(STORAGE_FILE);
-        });
+        }
+    }
+
+    private long copyWithRetry(StorageFile storageFile, ObjectStorageProvider objectStorageProvider) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return fileStorageService.copyToProvider(storageFile, objectStorageProvider);
+            } catch (Exception e) {
+                if (attempt >= maxAttempts || Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                long delay = retryBaseDelayMs << (attempt - 1);
+                log.warn("Copy attempt {} for {} to {} failed, retrying in {} ms",
+                        attempt, storageFile.getId(), objectStorageProvider, delay);
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    // the executor is shutting down: give up on this copy, it is left to retryFailedCopy
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void logProgress(Progress progress, long durationMs) {
+        long bytesPerSecond = durationMs > 0 ? progress.bytes * 1000 / durationMs : progress.bytes;
+        Long lag = storageFileRepository.findOldestNotReplicatedFileAge();
+        LoggingContext.put(COPIED_FILES, progress.copied);
+        LoggingContext.put(FAILED_FILES, progress.failed);
+        LoggingContext.put(BYTES_PER_SECOND, bytesPerSecond);
+        LoggingContext.put(LAG, lag == null ? 0 : lag);
+        log.info("Copied {} files ({} bytes/s), {} failed, oldest file waiting for backup since {} s",
+                progress.copied, bytesPerSecond, progress.failed, lag);
+        LoggingContext.remove(COPIED_FILES);
+        LoggingContext.remove(FAILED_FILES);
+        LoggingContext.remove(BYTES_PER_SECOND);
+        LoggingContext.remove(LAG);
+    }
+
+    @FunctionalInterface
+    private interface BatchQuery {
+        List<StorageFile> find(LocalDateTime afterDate, long afterId, int limit);
+    }
+
+    private static class Progress {
+        private long copied;
+        private long failed;
+        private long bytes;
+
+        synchronized void copied(long copiedBytes) {
+            copied++;
+            bytes += copiedBytes;
+        }
+
+        synchronized void failed() {
+            failed++;
+        }
     }
 
 }
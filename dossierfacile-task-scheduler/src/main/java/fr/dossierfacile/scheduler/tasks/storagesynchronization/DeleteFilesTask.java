@@ -1,18 +1,15 @@
 package fr.dossierfacile.scheduler.tasks.storagesynchronization;
 
-import fr.dossierfacile.common.entity.StorageFile;
 import fr.dossierfacile.common.enums.FileStorageStatus;
 import fr.dossierfacile.common.repository.StorageFileRepository;
-import fr.dossierfacile.common.service.interfaces.FileStorageService;
 import fr.dossierfacile.scheduler.LoggingContext;
+import fr.dossierfacile.scheduler.tasks.storagesynchronization.StorageFileDeletionService.BatchResult;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import static fr.dossierfacile.scheduler.tasks.TaskName.STORAGE_FILES_DELETION;
@@ -22,30 +19,73 @@ import static fr.dossierfacile.scheduler.tasks.TaskName.STORAGE_FILES_DELETION_R
 @Service
 @RequiredArgsConstructor
 public class DeleteFilesTask {
+    private static final String DELETED_FILES = "deletion_deleted_files";
+    private static final String FAILED_FILES = "deletion_failed_files";
+    private static final String FILES_PER_SECOND = "deletion_files_per_second";
+    private static final String TO_DELETE_BACKLOG = "deletion_to_delete_backlog";
+    private static final String DELETE_FAILED_BACKLOG = "deletion_delete_failed_backlog";
 
     private final StorageFileRepository storageFileRepository;
-    private final FileStorageService fileStorageService;
+    private final StorageFileDeletionService storageFileDeletionService;
+
+    @Value("${scheduled.process.storage.delete.batch.size:500}")
+    private int batchSize;
+    @Value("${scheduled.process.storage.delete.retry.batch.size:1000}")
+    private int retryBatchSize;
+    @Value("${scheduled.process.storage.delete.max.seconds.by.run:300}")
+    private long maxSecondsByRun;
 
     @Scheduled(fixedDelayString = "${scheduled.process.storage.delete.delay.ms}", initialDelayString = "${scheduled.process.storage.delete.delay.ms}")
     public void deleteFileInProviderTask() {
         LoggingContext.startTask(STORAGE_FILES_DELETION);
-        Pageable limit = PageRequest.of(0, 500);
-        List<StorageFile> storageFileToDeleteList = storageFileRepository.findAllByStatusOrderByIdAsc(FileStorageStatus.TO_DELETE, limit);
-        for (StorageFile storageFileToDelete : storageFileToDeleteList) {
-            fileStorageService.hardDelete(storageFileToDelete);
-        }
+        deleteAll(FileStorageStatus.TO_DELETE, batchSize);
         LoggingContext.endTask();
     }
 
     @Scheduled(fixedDelayString = "${scheduled.process.storage.delete.retry.failed.delay.minutes}", initialDelayString = "${scheduled.process.storage.delete.retry.failed.delay.minutes}", timeUnit = TimeUnit.MINUTES)
     public void retryDeleteFileInProviderTask() {
         LoggingContext.startTask(STORAGE_FILES_DELETION_RETRY);
-        Pageable limit = PageRequest.of(0, 1000);
-        List<StorageFile> storageFileToDeleteList = storageFileRepository.findAllByStatusOrderByIdAsc(FileStorageStatus.DELETE_FAILED, limit);
-        for (StorageFile storageFileToDelete : storageFileToDeleteList) {
-            fileStorageService.hardDelete(storageFileToDelete);
-        }
+        deleteAll(FileStorageStatus.DELETE_FAILED, retryBatchSize);
         LoggingContext.endTask();
     }
 
+    private void deleteAll(FileStorageStatus status, int limit) {
+        long start = System.currentTimeMillis();
+        long deadline = start + TimeUnit.SECONDS.toMillis(maxSecondsByRun);
+        long afterId = 0;
+        long claimed = 0;
+        long deleted = 0;
+        BatchResult result;
+        do {
+            try {
+                result = storageFileDeletionService.deleteBatch(status, afterId, limit);
+            } catch (Exception e) {
+                log.error("Unable to delete {} storage files after {}", status, afterId, e);
+                break;
+            }
+            afterId = result.lastId();
+            claimed += result.claimed();
+            deleted += result.deleted();
+        } while (result.claimed() == limit && System.currentTimeMillis() < deadline);
+        logProgress(deleted, claimed - deleted, System.currentTimeMillis() - start);
+    }
+
+    private void logProgress(long deleted, long failed, long durationMs) {
+        long filesPerSecond = durationMs > 0 ? deleted * 1000 / durationMs : deleted;
+        long toDeleteBacklog = storageFileRepository.countByStatus(FileStorageStatus.TO_DELETE);
+        long deleteFailedBacklog = storageFileRepository.countByStatus(FileStorageStatus.DELETE_FAILED);
+        LoggingContext.put(DELETED_FILES, deleted);
+        LoggingContext.put(FAILED_FILES, failed);
+        LoggingContext.put(FILES_PER_SECOND, filesPerSecond);
+        LoggingContext.put(TO_DELETE_BACKLOG, toDeleteBacklog);
+        LoggingContext.put(DELETE_FAILED_BACKLOG, deleteFailedBacklog);
+        log.info("Deleted {} storage files ({} files/s), {} failed, {} left to delete and {} in failure",
+                deleted, filesPerSecond, failed, toDeleteBacklog, deleteFailedBacklog);
+        LoggingContext.remove(DELETED_FILES);
+        LoggingContext.remove(FAILED_FILES);
+        LoggingContext.remove(FILES_PER_SECOND);
+        LoggingContext.remove(TO_DELETE_BACKLOG);
+        LoggingContext.remove(DELETE_FAILED_BACKLOG);
+    }
+
 }
@@ -0,0 +1,127 @@
+package fr.dossierfacile.scheduler.tasks.storagesynchronization;
+
+import fr.dossierfacile.common.entity.ObjectStorageProvider;
+import fr.dossierfacile.common.entity.StorageFile;
+import fr.dossierfacile.common.enums.FileStorageStatus;
+import fr.dossierfacile.common.repository.StorageFileRepository;
+import fr.dossierfacile.common.service.interfaces.FileStorageProviderService;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Hard deletes storage files by batch. A batch stays locked while its objects are deleted from the providers,
+ * concurrently, then its rows are removed and the remaining ones are marked DELETE_FAILED in bulk.
+ */
+@Slf4j
+@Service
+public class StorageFileDeletionService {
+
+    private final StorageFileRepository storageFileRepository;
+    private final Map<ObjectStorageProvider, FileStorageProviderService> storageProviderServices;
+    private final ExecutorService deletionExecutor;
+    private final int concurrency;
+
+    public StorageFileDeletionService(StorageFileRepository storageFileRepository,
+                                      List<FileStorageProviderService> fileStorageProviderServices,
+                                      @Qualifier("deletionExecutor") ExecutorService deletionExecutor,
+                                      @Value("${scheduled.process.storage.delete.concurrency:4}") int concurrency) {
+        this.storageFileRepository = storageFileRepository;
+        this.storageProviderServices = fileStorageProviderServices.stream()
+                .collect(Collectors.toMap(FileStorageProviderService::getProvider, Function.identity()));
+        this.deletionExecutor = deletionExecutor;
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    @Transactional
+    public BatchResult deleteBatch(FileStorageStatus status, long afterId, int limit) {
+        List<StorageFile> storageFiles = storageFileRepository.lockAllByStatusAfter(status.name(), afterId, limit);
+        if (storageFiles.isEmpty()) {
+            return new BatchResult(0, 0, afterId);
+        }
+        Set<String> failedPaths = deleteFromProviders(storageFiles);
+
+        List<Long> ids = storageFiles.stream().map(StorageFile::getId).toList();
+        List<Long> deletableIds = storageFiles.stream()
+                .filter(storageFile -> !failedPaths.contains(storageFile.getPath()))
+                .map(StorageFile::getId)
+                .toList();
+        int deleted = deletableIds.isEmpty() ? 0 : storageFileRepository.deleteUnreferencedByIdIn(deletableIds);
+        if (deleted < ids.size()) {
+            // Deleted rows are not matched anymore: only the failed or still referenced files are updated
+            storageFileRepository.markDeleteFailed(ids);
+        }
+        return new BatchResult(storageFiles.size(), deleted, ids.get(ids.size() - 1));
+    }
+
+    private Set<String> deleteFromProviders(List<StorageFile> storageFiles) {
+        Map<ObjectStorageProvider, List<String>> pathsByProvider = new EnumMap<>(ObjectStorageProvider.class);
+        for (StorageFile storageFile : storageFiles) {
+            if (storageFile.getProviders() == null) {
+                continue;
+            }
+            for (String provider : storageFile.getProviders()) {
+                pathsByProvider.computeIfAbsent(ObjectStorageProvider.valueOf(provider), p -> new ArrayList<>())
+                        .add(storageFile.getPath());
+            }
+        }
+
+        Set<String> failedPaths = new HashSet<>();
+        List<CompletableFuture<List<String>>> deletions = new ArrayList<>();
+        pathsByProvider.forEach((provider, paths) -> {
+            FileStorageProviderService providerService = storageProviderServices.get(provider);
+            if (providerService == null) {
+                log.warn("Provider {} is not available, {} files cannot be deleted", provider, paths.size());
+                failedPaths.addAll(paths);
+                return;
+            }
+            partition(paths).forEach(batch -> deletions.add(deleteAsync(providerService, batch)));
+        });
+        deletions.forEach(deletion -> failedPaths.addAll(deletion.join()));
+        return failedPaths;
+    }
+
+    private CompletableFuture<List<String>> deleteAsync(FileStorageProviderService providerService, List<String> paths) {
+        Map<String, String> contextMap = MDC.getCopyOfContextMap();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                if (contextMap != null) {
+                    MDC.setContextMap(contextMap);
+                }
+                return providerService.deleteAll(paths);
+            } catch (Exception e) {
+                log.warn("Unable to delete {} files from {}", paths.size(), providerService.getProvider(), e);
+                return paths;
+            } finally {
+                MDC.clear();
+            }
+        }, deletionExecutor);
+    }
+
+    private List<List<String>> partition(List<String> paths) {
+        int batchSize = Math.ceilDiv(paths.size(), concurrency);
+        List<List<String>> batches = new ArrayList<>();
+        for (int from = 0; from < paths.size(); from += batchSize) {
+            batches.add(paths.subList(from, Math.min(from + batchSize, paths.size())));
+        }
+        return batches;
+    }
+
+    public record BatchResult(int claimed, int deleted, long lastId) {
+    }
+
+}
@@ -0,0 +1,41 @@
+package fr.dossierfacile.scheduler.tasks.document;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(DocumentPurgeService.class)
+@Sql({"/create-h2-unsupported-tables.sql", "/data-two-tenant-same-apart.sql", "/data-tenants-with-guarantors.sql",
+        "/data-tenant-documents.sql", "/data-document-queue-messages.sql"})
+class DocumentPurgeServiceTest {
+
+    @Autowired
+    private DocumentPurgeService documentPurgeService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void should_delete_the_pending_messages_of_the_purged_documents() {
+        int deleted = documentPurgeService.purge(List.of(1L, 2L));
+
+        assertThat(deleted).isEqualTo(2);
+        assertThat(ids("SELECT id FROM document")).containsExactlyInAnyOrder(3L, 4L);
+        assertThat(ids("SELECT id FROM queue_message")).containsExactlyInAnyOrder(3L, 4L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> ids(String sql) {
+        return ((List<Number>) entityManager.createNativeQuery(sql).getResultList()).stream()
+                .map(Number::longValue)
+                .toList();
+    }
+}
@@ -0,0 +1,101 @@
+package fr.dossierfacile.scheduler.tasks.document;
+
+import fr.dossierfacile.common.repository.QueueMessageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DocumentTaskTest {
+
+    private final DocumentRepository documentRepository = mock(DocumentRepository.class);
+    private final DocumentPurgeService documentPurgeService = mock(DocumentPurgeService.class);
+    private final PartnerCallbackService partnerCallbackService = mock(PartnerCallbackService.class);
+    private final DocumentDeleteMailService documentDeleteMailService = mock(DocumentDeleteMailService.class);
+    private final QueueMessageRepository queueMessageRepository = mock(QueueMessageRepository.class);
+    private final DocumentTask task = new DocumentTask(documentRepository, documentPurgeService, partnerCallbackService,
+            documentDeleteMailService, queueMessageRepository);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(task, "delayBeforeDeleteHours", 480L);
+        ReflectionTestUtils.setField(task, "relaunchLimit", 200);
+        ReflectionTestUtils.setField(task, "deleteBatchSize", 2);
+    }
+
+    @Test
+    void should_enqueue_failed_documents_in_a_single_statement() {
+        task.reLaunchFailedPDFGeneration();
+
+        verify(queueMessageRepository).enqueueDocumentsWithoutWatermarkPdf(any(LocalDateTime.class), anyLong(), eq(200));
+    }
+
+    @Test
+    void should_purge_failed_documents_by_tenant_batch_and_notify_each_tenant_once() {
+        when(documentRepository.findTenantIdsWithDocumentWithoutPDFToDate(any(), eq(0L), eq(2))).thenReturn(List.of(1L, 2L));
+        when(documentRepository.findTenantIdsWithDocumentWithoutPDFToDate(any(), eq(2L), eq(2))).thenReturn(List.of(3L));
+        when(documentRepository.findDocumentWithoutPDFToDate(any(), eq(List.of(1L, 2L))))
+                .thenReturn(List.of(document(10L, 1L), document(11L, 1L), document(12L, 2L)));
+        when(documentRepository.findDocumentWithoutPDFToDate(any(), eq(List.of(3L))))
+                .thenReturn(List.of(document(13L, 3L)));
+        when(documentPurgeService.purge(List.of(10L, 11L, 12L))).thenReturn(3);
+        when(documentPurgeService.purge(List.of(13L))).thenReturn(1);
+
+        task.deleteDocumentWithFailedPdfGeneration();
+
+        verify(documentPurgeService).purge(List.of(10L, 11L, 12L));
+        verify(documentPurgeService).purge(List.of(13L));
+        verify(documentDeleteMailService).sendMailWithDocumentFailed(1L, 2);
+        verify(documentDeleteMailService).sendMailWithDocumentFailed(2L, 1);
+        verify(documentDeleteMailService).sendMailWithDocumentFailed(3L, 1);
+        verify(partnerCallbackService).sendPartnerCallback(1L);
+        verify(partnerCallbackService).sendPartnerCallback(2L);
+        verify(partnerCallbackService).sendPartnerCallback(3L);
+        verify(documentRepository, never()).findTenantIdsWithDocumentWithoutPDFToDate(any(), eq(3L), eq(2));
+    }
+
+    @Test
+    void should_notify_before_purging_and_keep_notifying_the_other_tenants_on_failure() {
+        when(documentRepository.findTenantIdsWithDocumentWithoutPDFToDate(any(), eq(0L), eq(2))).thenReturn(List.of(1L, 2L));
+        when(documentRepository.findDocumentWithoutPDFToDate(any(), eq(List.of(1L, 2L))))
+                .thenReturn(List.of(document(10L, 1L), document(12L, 2L)));
+        doThrow(new IllegalStateException("mail")).when(documentDeleteMailService).sendMailWithDocumentFailed(1L, 1);
+        doThrow(new IllegalStateException("callback")).when(partnerCallbackService).sendPartnerCallback(1L);
+
+        task.deleteDocumentWithFailedPdfGeneration();
+
+        InOrder inOrder = inOrder(documentDeleteMailService, documentPurgeService, partnerCallbackService);
+        inOrder.verify(documentDeleteMailService).sendMailWithDocumentFailed(1L, 1);
+        inOrder.verify(documentDeleteMailService).sendMailWithDocumentFailed(2L, 1);
+        inOrder.verify(documentPurgeService).purge(List.of(10L, 12L));
+        inOrder.verify(partnerCallbackService).sendPartnerCallback(1L);
+        inOrder.verify(partnerCallbackService).sendPartnerCallback(2L);
+    }
+
+    private static TenantDocument document(Long documentId, Long tenantId) {
+        return new TenantDocument() {
+            @Override
+            public Long getDocumentId() {
+                return documentId;
+            }
+
+            @Override
+            public Long getTenantId() {
+                return tenantId;
+            }
+        };
+    }
+}
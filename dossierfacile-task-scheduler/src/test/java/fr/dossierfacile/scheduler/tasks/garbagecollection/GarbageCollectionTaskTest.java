@@ -0,0 +1,99 @@
+package fr.dossierfacile.scheduler.tasks.garbagecollection;
+
+import fr.dossierfacile.common.entity.ObjectStorageProvider;
+import fr.dossierfacile.common.repository.StorageFileRepository;
+import fr.dossierfacile.common.service.interfaces.FileStorageProviderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GarbageCollectionTaskTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+    private final GarbageCollectionDetailsRepository detailsRepository = mock(GarbageCollectionDetailsRepository.class);
+    private final StorageFileRepository storageFileRepository = mock(StorageFileRepository.class);
+    private final FileStorageProviderService providerService = mock(FileStorageProviderService.class);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void should_delete_orphans_and_reset_marker_at_end_of_sweep() {
+        GarbageCollectionDetails details = details("a");
+        when(providerService.listObjectNames("a", 3)).thenReturn(List.of("b", "c", "d"));
+        when(providerService.listObjectNames("d", 3)).thenReturn(List.of("e"));
+        when(storageFileRepository.findExistingPathsIn(List.of("b", "c", "d"))).thenReturn(List.of("c"));
+        when(storageFileRepository.findExistingPathsIn(List.of("e"))).thenReturn(List.of("e"));
+        when(providerService.deleteAll(anyList())).thenReturn(List.of());
+
+        task(3).cleanGarbage();
+
+        verify(providerService).deleteAll(List.of("b"));
+        verify(providerService).deleteAll(List.of("d"));
+        assertThat(details.getCurrentMarker()).isNull();
+        assertThat(details.getSweepStartDate()).isNull();
+        assertThat(details.getDeletedObjects()).isEqualTo(2);
+        assertThat(details.getScannedObjects()).isEqualTo(4);
+    }
+
+    @Test
+    void should_not_move_marker_when_deletion_fails() {
+        GarbageCollectionDetails details = details("a");
+        when(providerService.listObjectNames(eq("a"), anyInt())).thenReturn(List.of("b", "c"));
+        when(storageFileRepository.findExistingPathsIn(any())).thenReturn(List.of());
+        when(providerService.deleteAll(anyList())).thenThrow(new IllegalStateException("unavailable"));
+
+        task(2).cleanGarbage();
+
+        assertThat(details.getCurrentMarker()).isEqualTo("a");
+        assertThat(details.getDeletedObjects()).isZero();
+        verify(detailsRepository, never()).save(details);
+    }
+
+    @Test
+    void should_start_a_new_sweep_from_the_beginning() {
+        GarbageCollectionDetails details = details(null);
+        when(providerService.listObjectNames(isNull(), anyInt())).thenReturn(List.of());
+
+        task(10).cleanGarbage();
+
+        verify(providerService, never()).deleteAll(anyList());
+        assertThat(details.getCurrentMarker()).isNull();
+        assertThat(details.getScannedObjects()).isZero();
+    }
+
+    private GarbageCollectionDetails details(String marker) {
+        GarbageCollectionDetails details = GarbageCollectionDetails.builder()
+                .provider(ObjectStorageProvider.THREEDS_OUTSCALE)
+                .currentMarker(marker)
+                .build();
+        when(detailsRepository.findById(ObjectStorageProvider.THREEDS_OUTSCALE)).thenReturn(Optional.of(details));
+        when(providerService.getProvider()).thenReturn(ObjectStorageProvider.THREEDS_OUTSCALE);
+        return details;
+    }
+
+    private GarbageCollectionTask task(int objectsByIteration) {
+        return new GarbageCollectionTask(detailsRepository, storageFileRepository,
+                Map.of(ObjectStorageProvider.THREEDS_OUTSCALE, providerService), executor,
+                objectsByIteration, 2, Duration.ofSeconds(10));
+    }
+}
@@ -0,0 +1,45 @@
+package fr.dossierfacile.scheduler.tasks.partnercallback;
+
+import fr.dossierfacile.common.entity.messaging.CallbackOutboxMessage;
+import fr.dossierfacile.common.entity.messaging.QueueMessageStatus;
+import fr.dossierfacile.common.repository.CallbackOutboxRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class CallbackOutboxRepositoryTest {
+
+    @Autowired
+    private CallbackOutboxRepository callbackOutboxRepository;
+
+    @Test
+    void should_not_delete_callbacks_leased_by_a_dispatcher() {
+        CallbackOutboxMessage pending = save(1L, QueueMessageStatus.PENDING);
+        CallbackOutboxMessage leased = save(1L, QueueMessageStatus.PROCESSING);
+        CallbackOutboxMessage otherTenant = save(2L, QueueMessageStatus.PENDING);
+
+        callbackOutboxRepository.deletePendingMessages(1L, 7L);
+
+        assertThat(callbackOutboxRepository.findAll())
+                .extracting(CallbackOutboxMessage::getId)
+                .containsExactlyInAnyOrder(leased.getId(), otherTenant.getId())
+                .doesNotContain(pending.getId());
+    }
+
+    private CallbackOutboxMessage save(Long tenantId, QueueMessageStatus status) {
+        LocalDateTime now = LocalDateTime.now();
+        return callbackOutboxRepository.saveAndFlush(CallbackOutboxMessage.builder()
+                .tenantId(tenantId)
+                .userApiId(7L)
+                .content("{}")
+                .creationDate(now)
+                .nextAttemptDate(now)
+                .status(status)
+                .build());
+    }
+}
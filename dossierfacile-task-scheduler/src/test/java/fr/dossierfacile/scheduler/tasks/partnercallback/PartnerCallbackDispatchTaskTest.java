@@ -0,0 +1,151 @@
+package fr.dossierfacile.scheduler.tasks.partnercallback;
+
+import fr.dossierfacile.common.entity.UserApi;
+import fr.dossierfacile.common.entity.messaging.CallbackOutboxMessage;
+import fr.dossierfacile.common.entity.messaging.QueueMessageStatus;
+import fr.dossierfacile.common.repository.CallbackOutboxRepository;
+import fr.dossierfacile.common.service.interfaces.RequestService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PartnerCallbackDispatchTaskTest {
+
+    private static final UserApi PARTNER = UserApi.builder().id(7L).name("partner").urlCallback("https://partner/callback").build();
+    private static final long TIMEOUT_MS = 5000;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final CallbackOutboxRepository callbackOutboxRepository = mock(CallbackOutboxRepository.class);
+    private final UserApiRepository userApiRepository = mock(UserApiRepository.class);
+    private final RequestService requestService = mock(RequestService.class);
+    private final PartnerCallbackDispatchTask task =
+            new PartnerCallbackDispatchTask(callbackOutboxRepository, userApiRepository, requestService, executor);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(task, "dispatchThreads", 2);
+        ReflectionTestUtils.setField(task, "batchSize", 10);
+        ReflectionTestUtils.setField(task, "perPartner", 4);
+        ReflectionTestUtils.setField(task, "leaseSeconds", 300L);
+        ReflectionTestUtils.setField(task, "retryBaseSeconds", 30L);
+        ReflectionTestUtils.setField(task, "retryMaxSeconds", 3600L);
+        ReflectionTestUtils.setField(task, "maxAttempts", 5);
+        when(userApiRepository.findAllById(any())).thenReturn(List.of(PARTNER));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void should_lease_claimed_callbacks_and_delete_the_delivered_ones() {
+        claim(message(1L, 1));
+
+        task.dispatchCallbacks();
+
+        ArgumentCaptor<LocalDateTime> now = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> leaseUntil = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(callbackOutboxRepository).claimDueMessages(now.capture(), leaseUntil.capture(), eq(4), eq(2));
+        assertThat(Duration.between(now.getValue(), leaseUntil.getValue())).isEqualTo(Duration.ofSeconds(300));
+        verify(requestService, timeout(TIMEOUT_MS)).send("{}", PARTNER.getUrlCallback(), null);
+        verify(callbackOutboxRepository, timeout(TIMEOUT_MS)).deleteById(1L);
+        verify(callbackOutboxRepository, never()).markFailedAttempt(any(), any(), any(), any());
+    }
+
+    @Test
+    void should_retry_a_failed_delivery_with_an_exponential_backoff() {
+        claim(message(2L, 3));
+        doThrow(new RestClientException("timeout")).when(requestService).send(anyString(), anyString(), any());
+
+        task.dispatchCallbacks();
+
+        ArgumentCaptor<LocalDateTime> nextAttemptDate = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(callbackOutboxRepository, timeout(TIMEOUT_MS)).markFailedAttempt(eq(2L), nextAttemptDate.capture(), eq(QueueMessageStatus.PENDING), eq("timeout"));
+        assertThat(nextAttemptDate.getValue()).isCloseTo(LocalDateTime.now().plusSeconds(120), within(5, ChronoUnit.SECONDS));
+        verify(callbackOutboxRepository, never()).deleteById(any());
+    }
+
+    @Test
+    void should_give_up_once_attempts_are_exhausted() {
+        CallbackOutboxMessage message = message(3L, 5);
+        claim(message);
+        doThrow(new RestClientException("refused")).when(requestService).send(anyString(), anyString(), any());
+
+        task.dispatchCallbacks();
+
+        verify(callbackOutboxRepository, timeout(TIMEOUT_MS)).markFailedAttempt(3L, message.getNextAttemptDate(), QueueMessageStatus.FAILED, "refused");
+    }
+
+    @Test
+    void should_drop_a_failed_delivery_superseded_by_a_newer_callback() {
+        claim(message(4L, 1));
+        doThrow(new RestClientException("timeout")).when(requestService).send(anyString(), anyString(), any());
+        when(callbackOutboxRepository.deleteIfSuperseded(4L)).thenReturn(1);
+
+        task.dispatchCallbacks();
+
+        verify(callbackOutboxRepository, timeout(TIMEOUT_MS)).deleteIfSuperseded(4L);
+        verify(callbackOutboxRepository, never()).markFailedAttempt(any(), any(), any(), any());
+    }
+
+    @Test
+    void should_not_wait_for_the_deliveries_and_only_claim_for_the_free_threads() throws InterruptedException {
+        CountDownLatch partnerAnswers = new CountDownLatch(1);
+        doAnswer(invocation -> partnerAnswers.await(TIMEOUT_MS, TimeUnit.MILLISECONDS)).when(requestService).send(anyString(), anyString(), any());
+        when(callbackOutboxRepository.claimDueMessages(any(), any(), anyInt(), anyInt())).thenReturn(List.of(message(5L, 1)), List.of());
+
+        task.dispatchCallbacks();
+        verify(requestService, timeout(TIMEOUT_MS)).send("{}", PARTNER.getUrlCallback(), null);
+        task.dispatchCallbacks();
+
+        verify(callbackOutboxRepository).claimDueMessages(any(), any(), eq(4), eq(2));
+        verify(callbackOutboxRepository).claimDueMessages(any(), any(), eq(4), eq(1));
+        partnerAnswers.countDown();
+        verify(callbackOutboxRepository, timeout(TIMEOUT_MS)).deleteById(5L);
+    }
+
+    private void claim(CallbackOutboxMessage message) {
+        when(callbackOutboxRepository.claimDueMessages(any(), any(), anyInt(), anyInt())).thenReturn(List.of(message));
+    }
+
+    private static CallbackOutboxMessage message(Long id, int attempts) {
+        LocalDateTime now = LocalDateTime.now();
+        return CallbackOutboxMessage.builder()
+                .id(id)
+                .tenantId(100L)
+                .userApiId(PARTNER.getId())
+                .content("{}")
+                .creationDate(now)
+                .nextAttemptDate(now.plusSeconds(300))
+                .attempts(attempts)
+                .status(QueueMessageStatus.PROCESSING)
+                .build();
+    }
+}
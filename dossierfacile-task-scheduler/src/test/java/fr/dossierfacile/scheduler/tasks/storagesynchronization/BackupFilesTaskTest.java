@@ -0,0 +1,116 @@
+package fr.dossierfacile.scheduler.tasks.storagesynchronization;
+
+import fr.dossierfacile.common.config.DynamicProviderConfig;
+import fr.dossierfacile.common.entity.ObjectStorageProvider;
+import fr.dossierfacile.common.entity.StorageFile;
+import fr.dossierfacile.common.repository.StorageFileRepository;
+import fr.dossierfacile.common.service.interfaces.FileStorageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BackupFilesTaskTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final StorageFileRepository storageFileRepository = mock(StorageFileRepository.class);
+    private final FileStorageService fileStorageService = mock(FileStorageService.class);
+    private final DynamicProviderConfig dynamicProviderConfig = mock(DynamicProviderConfig.class);
+    private final BackupFilesTask task = new BackupFilesTask(storageFileRepository, fileStorageService, dynamicProviderConfig, executor);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(task, "batchSize", 10);
+        ReflectionTestUtils.setField(task, "maxSecondsByRun", 10L);
+        ReflectionTestUtils.setField(task, "maxAttempts", 3);
+        ReflectionTestUtils.setField(task, "retryBaseDelayMs", 1L);
+        when(dynamicProviderConfig.getProviders()).thenReturn(List.of(ObjectStorageProvider.OVH, ObjectStorageProvider.THREEDS_OUTSCALE));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void should_copy_files_to_missing_provider_after_transient_failures() throws Exception {
+        StorageFile storageFile = storageFileOn(1L, ObjectStorageProvider.OVH);
+        when(storageFileRepository.findAllWithOneProviderAndReadyAfter(any(), anyLong(), anyInt())).thenReturn(List.of(storageFile));
+        when(fileStorageService.copyToProvider(storageFile, ObjectStorageProvider.THREEDS_OUTSCALE))
+                .thenThrow(new IOException("timeout"))
+                .thenReturn(42L);
+
+        task.scheduleBackupTask();
+
+        verify(fileStorageService, times(2)).copyToProvider(storageFile, ObjectStorageProvider.THREEDS_OUTSCALE);
+        verify(fileStorageService, never()).copyToProvider(storageFile, ObjectStorageProvider.OVH);
+        verify(storageFileRepository, never()).markCopyFailed(any());
+    }
+
+    @Test
+    void should_mark_copy_failed_once_attempts_are_exhausted() throws Exception {
+        StorageFile storageFile = storageFileOn(2L, ObjectStorageProvider.OVH);
+        when(storageFileRepository.findAllWithOneProviderAndReadyAfter(any(), anyLong(), anyInt())).thenReturn(List.of(storageFile));
+        when(fileStorageService.copyToProvider(storageFile, ObjectStorageProvider.THREEDS_OUTSCALE))
+                .thenThrow(new IOException("unavailable"));
+
+        task.scheduleBackupTask();
+
+        verify(fileStorageService, times(3)).copyToProvider(storageFile, ObjectStorageProvider.THREEDS_OUTSCALE);
+        verify(storageFileRepository).markCopyFailed(2L);
+    }
+
+    @Test
+    void should_stop_retrying_once_interrupted() throws Exception {
+        StorageFile storageFile = storageFileOn(4L, ObjectStorageProvider.OVH);
+        when(storageFileRepository.findAllWithOneProviderAndReadyAfter(any(), anyLong(), anyInt())).thenReturn(List.of(storageFile));
+        when(fileStorageService.copyToProvider(storageFile, ObjectStorageProvider.THREEDS_OUTSCALE))
+                .thenAnswer(invocation -> {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("interrupted");
+                });
+
+        task.scheduleBackupTask();
+
+        verify(fileStorageService, times(1)).copyToProvider(storageFile, ObjectStorageProvider.THREEDS_OUTSCALE);
+        verify(storageFileRepository).markCopyFailed(4L);
+    }
+
+    @Test
+    void should_iterate_batches_by_keyset() {
+        ReflectionTestUtils.setField(task, "batchSize", 1);
+        StorageFile first = storageFileOn(3L, ObjectStorageProvider.OVH, ObjectStorageProvider.THREEDS_OUTSCALE);
+        when(storageFileRepository.findAllWithOneProviderAndCopyFailedAfter(any(), eq(0L), eq(1))).thenReturn(List.of(first));
+        when(storageFileRepository.findAllWithOneProviderAndCopyFailedAfter(any(), eq(3L), eq(1))).thenReturn(List.of());
+
+        task.retryFailedCopy();
+
+        verify(storageFileRepository).findAllWithOneProviderAndCopyFailedAfter(any(), eq(3L), eq(1));
+    }
+
+    private static StorageFile storageFileOn(Long id, ObjectStorageProvider... providers) {
+        StorageFile storageFile = StorageFile.builder()
+                .id(id)
+                .providers(new ArrayList<>(List.of(providers).stream().map(Enum::name).toList()))
+                .build();
+        storageFile.setLastModifiedDate(LocalDateTime.now());
+        return storageFile;
+    }
+}
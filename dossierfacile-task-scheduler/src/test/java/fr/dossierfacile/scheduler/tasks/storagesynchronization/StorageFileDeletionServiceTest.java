@@ -0,0 +1,92 @@
+package fr.dossierfacile.scheduler.tasks.storagesynchronization;
+
+import fr.dossierfacile.common.entity.ObjectStorageProvider;
+import fr.dossierfacile.common.entity.StorageFile;
+import fr.dossierfacile.common.enums.FileStorageStatus;
+import fr.dossierfacile.common.repository.StorageFileRepository;
+import fr.dossierfacile.common.service.interfaces.FileStorageProviderService;
+import fr.dossierfacile.scheduler.tasks.storagesynchronization.StorageFileDeletionService.BatchResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StorageFileDeletionServiceTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final StorageFileRepository storageFileRepository = mock(StorageFileRepository.class);
+    private final FileStorageProviderService ovh = provider(ObjectStorageProvider.OVH);
+    private final FileStorageProviderService outscale = provider(ObjectStorageProvider.THREEDS_OUTSCALE);
+    private final StorageFileDeletionService service = new StorageFileDeletionService(storageFileRepository, List.of(ovh, outscale), executor, 2);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void should_delete_rows_of_files_deleted_from_all_their_providers() {
+        StorageFile first = storageFile(1L, "a", ObjectStorageProvider.OVH, ObjectStorageProvider.THREEDS_OUTSCALE);
+        StorageFile second = storageFile(2L, "b", ObjectStorageProvider.OVH);
+        StorageFile third = storageFile(3L, "c", ObjectStorageProvider.THREEDS_OUTSCALE);
+        when(storageFileRepository.lockAllByStatusAfter("TO_DELETE", 0L, 10)).thenReturn(List.of(first, second, third));
+        when(ovh.deleteAll(anyList())).thenReturn(List.of());
+        when(outscale.deleteAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0, List.class).contains("c") ? List.of("c") : List.of());
+        when(storageFileRepository.deleteUnreferencedByIdIn(List.of(1L, 2L))).thenReturn(2);
+
+        BatchResult result = service.deleteBatch(FileStorageStatus.TO_DELETE, 0L, 10);
+
+        assertThat(result).isEqualTo(new BatchResult(3, 2, 3L));
+        verify(storageFileRepository).deleteUnreferencedByIdIn(List.of(1L, 2L));
+        verify(storageFileRepository).markDeleteFailed(List.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void should_mark_files_failed_when_provider_is_unreachable() {
+        StorageFile file = storageFile(4L, "d", ObjectStorageProvider.OVH);
+        when(storageFileRepository.lockAllByStatusAfter("DELETE_FAILED", 0L, 10)).thenReturn(List.of(file));
+        when(ovh.deleteAll(anyList())).thenThrow(new IllegalStateException("unreachable"));
+
+        BatchResult result = service.deleteBatch(FileStorageStatus.DELETE_FAILED, 0L, 10);
+
+        assertThat(result.deleted()).isZero();
+        verify(storageFileRepository, never()).deleteUnreferencedByIdIn(anyList());
+        verify(storageFileRepository).markDeleteFailed(List.of(4L));
+    }
+
+    @Test
+    void should_not_update_anything_when_all_rows_are_deleted() {
+        StorageFile file = storageFile(5L, "e");
+        file.setProviders(null);
+        when(storageFileRepository.lockAllByStatusAfter("TO_DELETE", 0L, 10)).thenReturn(List.of(file));
+        when(storageFileRepository.deleteUnreferencedByIdIn(List.of(5L))).thenReturn(1);
+
+        service.deleteBatch(FileStorageStatus.TO_DELETE, 0L, 10);
+
+        verify(storageFileRepository, never()).markDeleteFailed(anyList());
+    }
+
+    private static FileStorageProviderService provider(ObjectStorageProvider provider) {
+        FileStorageProviderService service = mock(FileStorageProviderService.class);
+        when(service.getProvider()).thenReturn(provider);
+        return service;
+    }
+
+    private static StorageFile storageFile(Long id, String path, ObjectStorageProvider... providers) {
+        return StorageFile.builder()
+                .id(id)
+                .path(path)
+                .providers(new ArrayList<>(List.of(providers).stream().map(Enum::name).toList()))
+                .build();
+    }
+}
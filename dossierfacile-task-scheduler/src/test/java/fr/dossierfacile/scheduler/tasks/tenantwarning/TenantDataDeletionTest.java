@@ -0,0 +1,77 @@
+package fr.dossierfacile.scheduler.tasks.tenantwarning;
+
+import fr.dossierfacile.common.entity.Document;
+import fr.dossierfacile.common.entity.Tenant;
+import fr.dossierfacile.common.service.TenantCommonServiceImpl;
+import fr.dossierfacile.common.service.interfaces.ApartmentSharingCommonService;
+import fr.dossierfacile.common.service.interfaces.TenantCommonService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(TenantCommonServiceImpl.class)
+@Sql({"/create-h2-unsupported-tables.sql", "/data-two-tenant-same-apart.sql", "/data-tenants-with-guarantors.sql", "/data-tenant-documents.sql"})
+class TenantDataDeletionTest {
+
+    @Autowired
+    private TenantCommonService tenantCommonService;
+
+    @Autowired
+    private TenantRepository tenantRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockBean
+    private ApartmentSharingCommonService apartmentSharingCommonService;
+
+    @Test
+    void should_only_delete_the_documents_of_the_tenant_and_of_its_guarantors() {
+        Tenant tenant = tenantRepository.findById(1L).orElseThrow();
+
+        tenantCommonService.deleteTenantData(tenant);
+
+        assertThat(ids("SELECT id FROM document")).containsExactlyInAnyOrder(3L, 4L);
+        assertThat(ids("SELECT id FROM file")).containsExactlyInAnyOrder(3L, 4L);
+        assertThat(ids("SELECT id FROM file_preview")).isEmpty();
+        assertThat(ids("SELECT file_id FROM barcode_file_analysis")).containsExactly(3L);
+    }
+
+    @Test
+    void should_leave_the_storage_files_of_the_tenant_to_the_deletion_task() {
+        Tenant tenant = tenantRepository.findById(1L).orElseThrow();
+
+        tenantCommonService.deleteTenantData(tenant);
+
+        assertThat(ids("SELECT id FROM storage_file WHERE status = 'TO_DELETE'")).containsExactlyInAnyOrder(1L, 2L, 3L, 4L, 5L);
+        assertThat(ids("SELECT id FROM storage_file WHERE status IS NULL")).containsExactlyInAnyOrder(6L, 7L, 8L);
+    }
+
+    @Test
+    void should_detach_the_deleted_documents_already_loaded() {
+        Tenant tenant = tenantRepository.findById(1L).orElseThrow();
+        Document document = tenant.getDocuments().get(0);
+
+        tenantCommonService.deleteTenantData(tenant);
+        entityManager.flush();
+
+        assertThat(entityManager.contains(document)).isFalse();
+        assertThat(tenant.getDocuments()).isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> ids(String sql) {
+        return ((List<Number>) entityManager.createNativeQuery(sql).getResultList()).stream()
+                .map(Number::longValue)
+                .toList();
+    }
+}
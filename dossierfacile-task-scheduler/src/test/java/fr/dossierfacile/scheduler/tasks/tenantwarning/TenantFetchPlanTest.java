@@ -0,0 +1,40 @@
+package fr.dossierfacile.scheduler.tasks.tenantwarning;
+
+import fr.dossierfacile.common.entity.Guarantor;
+import fr.dossierfacile.common.entity.Tenant;
+import fr.dossierfacile.scheduler.SqlStatementCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class TenantFetchPlanTest {
+
+    @Autowired
+    private TenantRepository tenantRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Test
+    @Sql({"/data-two-tenant-same-apart.sql", "/data-tenants-with-guarantors.sql"})
+    public void guarantorsOfAllTenantsAreLoadedInOneQuery() {
+        List<Tenant> tenants = tenantRepository.findAllById(List.of(1L, 2L));
+        SqlStatementCounter counter = new SqlStatementCounter(testEntityManager.getEntityManager());
+        counter.reset();
+
+        List<Long> guarantorIds = tenants.stream()
+                .flatMap(tenant -> tenant.getGuarantors().stream())
+                .map(Guarantor::getId)
+                .toList();
+
+        assertEquals(3, guarantorIds.size());
+        assertEquals(1, counter.count());
+    }
+}
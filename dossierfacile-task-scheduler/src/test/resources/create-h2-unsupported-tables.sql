@@ -0,0 +1,43 @@
+-- Tables with array or jsonb columns cannot be generated on H2, file_preview needs its ON DELETE CASCADE.
+-- DDL is committed by H2: this script runs before the inserts so that they are still rolled back
+DROP TABLE IF EXISTS storage_file;
+CREATE TABLE storage_file (
+    id bigint generated by default as identity primary key,
+    created_date timestamp,
+    last_modified_date timestamp,
+    created_by varchar(255),
+    last_modified_by varchar(255),
+    encryption_key_id bigint,
+    size bigint,
+    content_type varchar(255),
+    label varchar(255),
+    md5 varchar(255),
+    name varchar(255),
+    path varchar(255),
+    provider varchar(255),
+    status varchar(255),
+    providers varchar array
+);
+DROP TABLE IF EXISTS document_analysis_report;
+CREATE TABLE document_analysis_report (
+    id bigint generated by default as identity primary key,
+    document_id bigint unique,
+    analysis_status varchar(255),
+    broken_rules varchar,
+    comment varchar(255)
+);
+DROP TABLE IF EXISTS barcode_file_analysis;
+CREATE TABLE barcode_file_analysis (
+    id bigint generated by default as identity primary key,
+    file_id bigint unique
+);
+-- Removed with its file, as in the migrations
+DROP TABLE IF EXISTS file_preview;
+CREATE TABLE file_preview (
+    id bigint generated by default as identity primary key,
+    file_id bigint REFERENCES file (id) ON DELETE CASCADE,
+    storage_file_id bigint,
+    size varchar(255),
+    page integer not null,
+    creation_date timestamp
+);
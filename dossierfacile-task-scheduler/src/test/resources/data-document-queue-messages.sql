@@ -0,0 +1,6 @@
+-- Pending and processing messages of the documents of data-tenant-documents.sql
+INSERT INTO queue_message (id, queue_name, document_id, status, timestamp)
+VALUES (1, 'QUEUE_DOCUMENT_ANALYSIS', 1, 'PENDING', 0),
+       (2, 'QUEUE_DOCUMENT_WATERMARK_PDF', 2, 'PENDING', 0),
+       (3, 'QUEUE_DOCUMENT_ANALYSIS', 2, 'PROCESSING', 0),
+       (4, 'QUEUE_DOCUMENT_ANALYSIS', 3, 'PENDING', 0);
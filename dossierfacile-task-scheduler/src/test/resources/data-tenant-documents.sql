@@ -0,0 +1,29 @@
+-- Documents of tenant 1 (1) and of its guarantor 1 (2), of tenant 2 (3) and of its guarantor 3 (4)
+INSERT INTO storage_file (id, name, path)
+VALUES (1, 'watermark-1', 'watermark-1'),
+       (2, 'file-1', 'file-1'),
+       (3, 'preview-1', 'preview-1'),
+       (4, 'file-preview-1', 'file-preview-1'),
+       (5, 'file-2', 'file-2'),
+       (6, 'watermark-3', 'watermark-3'),
+       (7, 'file-3', 'file-3'),
+       (8, 'file-4', 'file-4');
+
+INSERT INTO document (id, name, document_category, tenant_id, guarantor_id, document_status, watermark_file_id)
+VALUES (1, 'doc-1', 'IDENTIFICATION', 1, NULL, 'VALIDATED', 1),
+       (2, 'doc-2', 'IDENTIFICATION', NULL, 1, 'VALIDATED', NULL),
+       (3, 'doc-3', 'IDENTIFICATION', 2, NULL, 'VALIDATED', 6),
+       (4, 'doc-4', 'IDENTIFICATION', NULL, 3, 'VALIDATED', NULL);
+
+INSERT INTO file (id, document_id, storage_file_id, preview_file_id, number_of_pages)
+VALUES (1, 1, 2, 3, 1),
+       (2, 2, 5, NULL, 1),
+       (3, 3, 7, NULL, 1),
+       (4, 4, 8, NULL, 1);
+
+INSERT INTO file_preview (id, file_id, storage_file_id, size, page)
+VALUES (1, 1, 4, 'THUMBNAIL', 0);
+
+INSERT INTO barcode_file_analysis (id, file_id)
+VALUES (1, 1),
+       (2, 3);
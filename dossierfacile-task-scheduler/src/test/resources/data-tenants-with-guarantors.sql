@@ -0,0 +1,5 @@
+INSERT INTO public.guarantor (id, first_name, last_name, type_guarantor, tenant_id)
+VALUES
+(1, 'Garant', 'Un', 'NATURAL_PERSON', 1),
+(2, 'Garant', 'Deux', 'NATURAL_PERSON', 1),
+(3, 'Garant', 'Trois', 'NATURAL_PERSON', 2);